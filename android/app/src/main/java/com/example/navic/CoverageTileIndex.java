@@ -0,0 +1,436 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.location.GnssStatus;
+import android.location.Location;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Where NavIC was usable: running statistics per map tile.
+ *
+ * Every accepted fix is paired with the newest GNSS tick and folded into the
+ * Web Mercator tile it falls in at MAX_ZOOM (about 300 m). Tiles are kept as
+ * parallel arrays sorted by their quadkey as a Morton code, so every coarser
+ * tile is one contiguous key range and a viewport query is a binary search
+ * per output tile. The file is the same sorted records, rewritten whole when
+ * flushed; the records are encoded under the lock and written by a single
+ * background thread, so recording on the main thread never waits for the disk.
+ *
+ * Shared by the Activity and the background monitor; all methods lock the
+ * instance.
+ */
+final class CoverageTileIndex {
+    static final int MAX_ZOOM = 17;
+    private static final int MAX_TILES = 16384;
+    private static final int MAX_QUERY_TILES = 4096;
+    private static final double MAX_LATITUDE = 85.05112878;
+    /** Fixes less accurate than this smear across neighbouring tiles */
+    private static final float MAX_ACCURACY_M = 100.0f;
+    /** Ticks older than this do not describe the fix's sky */
+    private static final long MAX_TICK_AGE_MS = 5000;
+    private static final long MIN_SAMPLE_INTERVAL_MS = 2000;
+    private static final long FLUSH_INTERVAL_MS = 5 * 60 * 1000;
+
+    private static final int FILE_MAGIC = 0x3154564E; // "NVT1"
+    private static final int FILE_HEADER_BYTES = 12;
+    private static final int RECORD_BYTES = 8 + 4 * 3 + 4 * 2 + 4 + 8;
+
+    /** Layout of the viewport payload decoded by CoverageTiles in Dart */
+    static final int PAYLOAD_MAGIC = 0x3143564E; // "NVC1"
+    static final byte PAYLOAD_VERSION = 1;
+    static final int PAYLOAD_HEADER_BYTES = 4 + 1 + 1 + 4 + 8;
+    static final int PAYLOAD_TILE_BYTES = 4 * 5 + 4 * 2 + 2 + 8;
+
+    private static CoverageTileIndex instance;
+
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    // Tiles sorted by key
+    private long[] keys = new long[256];
+    private int[] samples = new int[256];
+    private int[] navicSamples = new int[256];
+    private int[] usedSamples = new int[256];
+    private float[] meanNavicSvs = new float[256];
+    private float[] meanNavicCn0 = new float[256];
+    private int[] maxNavicSvs = new int[256];
+    private long[] lastSampleMs = new long[256];
+    private int count = 0;
+
+    private boolean loaded = false;
+    private boolean dirty = false;
+    private long lastRecordMs = 0;
+    private long lastFlushMs = 0;
+
+    private long recorded = 0;
+    private long rejected = 0;
+    private long evictions = 0;
+    private long queries = 0;
+
+    static synchronized CoverageTileIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new CoverageTileIndex(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    CoverageTileIndex(File directory) {
+        File dir = new File(directory, "navic_coverage");
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w("NavIC", "Could not create coverage directory " + dir);
+        }
+        this.file = new File(dir, "tiles.bin");
+    }
+
+    // =============== TILES ===============
+
+    static int tileX(double longitude, int zoom) {
+        int n = 1 << zoom;
+        int x = (int) Math.floor((longitude + 180.0) / 360.0 * n);
+        return Math.max(0, Math.min(n - 1, x));
+    }
+
+    static int tileY(double latitude, int zoom) {
+        int n = 1 << zoom;
+        double lat = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        int y = (int) Math.floor((1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0 * n);
+        return Math.max(0, Math.min(n - 1, y));
+    }
+
+    /** Quadkey of a tile as a Morton code: x bits at even positions, y bits at odd ones */
+    static long quadkey(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(int v) {
+        long x = v & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+    /** First index whose key is not below the given one */
+    private int lowerBound(long key) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // =============== RECORDING ===============
+
+    /**
+     * Fold one fix and the tick closest to it into its tile
+     *
+     * @return false when the pair was too inaccurate, stale or frequent to count
+     */
+    boolean record(Location location, GnssSnapshot snapshot) {
+        if (location == null) {
+            synchronized (this) {
+                rejected++;
+            }
+            return false;
+        }
+        return record(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : 0f, snapshot, System.currentTimeMillis());
+    }
+
+    synchronized boolean record(double latitude, double longitude, float accuracyM, GnssSnapshot snapshot, long now) {
+        if (snapshot == null || accuracyM > MAX_ACCURACY_M
+                || Math.abs(now - snapshot.timestampMs) > MAX_TICK_AGE_MS) {
+            rejected++;
+            return false;
+        }
+        if (now - lastRecordMs < MIN_SAMPLE_INTERVAL_MS) return false;
+        lastRecordMs = now;
+        load();
+
+        int navicSvs = 0;
+        int navicUsed = 0;
+        double cn0Sum = 0;
+        for (int k = 0; k < snapshot.svCount; k++) {
+            int i = snapshot.svSignal(k);
+            if (snapshot.constellation(i) != GnssStatus.CONSTELLATION_IRNSS || snapshot.cn0DbHz(i) <= 0) continue;
+            navicSvs++;
+            cn0Sum += snapshot.cn0DbHz(i);
+            if (snapshot.svUsedInFix(k)) navicUsed++;
+        }
+
+        long key = quadkey(tileX(longitude, MAX_ZOOM), tileY(latitude, MAX_ZOOM));
+        int t = lowerBound(key);
+        if (t == count || keys[t] != key) t = insert(t, key);
+
+        int n = ++samples[t];
+        meanNavicSvs[t] += (navicSvs - meanNavicSvs[t]) / n;
+        if (navicSvs > 0) {
+            int m = ++navicSamples[t];
+            meanNavicCn0[t] += (float) ((cn0Sum / navicSvs - meanNavicCn0[t]) / m);
+        }
+        if (navicUsed > 0) usedSamples[t]++;
+        maxNavicSvs[t] = Math.max(maxNavicSvs[t], navicSvs);
+        lastSampleMs[t] = now;
+        recorded++;
+        dirty = true;
+
+        if (now - lastFlushMs > FLUSH_INTERVAL_MS) flush(now);
+        return true;
+    }
+
+    private int insert(int at, long key) {
+        if (count == MAX_TILES) {
+            // Full: drop the tile sampled longest ago
+            int oldest = 0;
+            for (int i = 1; i < count; i++) {
+                if (lastSampleMs[i] < lastSampleMs[oldest]) oldest = i;
+            }
+            remove(oldest);
+            evictions++;
+            if (oldest < at) at--;
+        }
+        if (count == keys.length) grow(Math.min(MAX_TILES, count * 2));
+
+        int tail = count - at;
+        System.arraycopy(keys, at, keys, at + 1, tail);
+        System.arraycopy(samples, at, samples, at + 1, tail);
+        System.arraycopy(navicSamples, at, navicSamples, at + 1, tail);
+        System.arraycopy(usedSamples, at, usedSamples, at + 1, tail);
+        System.arraycopy(meanNavicSvs, at, meanNavicSvs, at + 1, tail);
+        System.arraycopy(meanNavicCn0, at, meanNavicCn0, at + 1, tail);
+        System.arraycopy(maxNavicSvs, at, maxNavicSvs, at + 1, tail);
+        System.arraycopy(lastSampleMs, at, lastSampleMs, at + 1, tail);
+        count++;
+
+        keys[at] = key;
+        samples[at] = 0;
+        navicSamples[at] = 0;
+        usedSamples[at] = 0;
+        meanNavicSvs[at] = 0;
+        meanNavicCn0[at] = 0;
+        maxNavicSvs[at] = 0;
+        lastSampleMs[at] = 0;
+        return at;
+    }
+
+    private void remove(int at) {
+        int tail = count - at - 1;
+        System.arraycopy(keys, at + 1, keys, at, tail);
+        System.arraycopy(samples, at + 1, samples, at, tail);
+        System.arraycopy(navicSamples, at + 1, navicSamples, at, tail);
+        System.arraycopy(usedSamples, at + 1, usedSamples, at, tail);
+        System.arraycopy(meanNavicSvs, at + 1, meanNavicSvs, at, tail);
+        System.arraycopy(meanNavicCn0, at + 1, meanNavicCn0, at, tail);
+        System.arraycopy(maxNavicSvs, at + 1, maxNavicSvs, at, tail);
+        System.arraycopy(lastSampleMs, at + 1, lastSampleMs, at, tail);
+        count--;
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        samples = Arrays.copyOf(samples, capacity);
+        navicSamples = Arrays.copyOf(navicSamples, capacity);
+        usedSamples = Arrays.copyOf(usedSamples, capacity);
+        meanNavicSvs = Arrays.copyOf(meanNavicSvs, capacity);
+        meanNavicCn0 = Arrays.copyOf(meanNavicCn0, capacity);
+        maxNavicSvs = Arrays.copyOf(maxNavicSvs, capacity);
+        lastSampleMs = Arrays.copyOf(lastSampleMs, capacity);
+    }
+
+    // =============== QUERIES ===============
+
+    /** Tile columns from west to east; a box with west > east wraps across the antimeridian */
+    static int columns(double west, double east, int zoom) {
+        int x0 = tileX(west, zoom), x1 = tileX(east, zoom);
+        int n = 1 << zoom;
+        return west <= east ? x1 - x0 + 1 : Math.min(n, n - x0 + x1 + 1);
+    }
+
+    /** Coarsest-detail zoom that still covers the box in at most maxTiles tiles */
+    static int zoomFor(double south, double west, double north, double east, int maxTiles) {
+        for (int z = MAX_ZOOM; z > 0; z--) {
+            long w = columns(west, east, z);
+            long h = tileY(south, z) - tileY(north, z) + 1L;
+            if (w * h <= maxTiles) return z;
+        }
+        return 0;
+    }
+
+    /**
+     * Aggregated tiles inside a viewport as one binary payload
+     *
+     * Header: magic, version, zoom, tile count, timestamp. Per non-empty tile:
+     * x, y, samples, NavIC samples, used-in-fix samples (int32), mean NavIC
+     * SVs and mean NavIC C/N0 (float32), max NavIC SVs (uint16) and the last
+     * sample time (int64). Little-endian. A box with west > east crosses the
+     * antimeridian and is read as the two ranges either side of it.
+     *
+     * @param zoom output zoom, or negative to pick one from maxTiles
+     */
+    synchronized byte[] query(double south, double west, double north, double east, int zoom, int maxTiles) {
+        load();
+        queries++;
+        int limit = Math.max(1, Math.min(MAX_QUERY_TILES, maxTiles));
+        int z = zoom >= 0 ? Math.min(MAX_ZOOM, zoom) : zoomFor(south, west, north, east, limit);
+        int x0 = tileX(west, z), columns = columns(west, east, z);
+        int y0 = tileY(north, z), y1 = tileY(south, z);
+        long area = columns * (y1 - y0 + 1L);
+        if (area > limit) {
+            throw new IllegalArgumentException("Viewport spans " + area + " tiles at zoom " + z);
+        }
+
+        int shift = 2 * (MAX_ZOOM - z);
+        // The output can never hold more tiles than exist
+        int capacity = (int) Math.min(area, count);
+        ByteBuffer out = ByteBuffer.allocate(PAYLOAD_HEADER_BYTES + capacity * PAYLOAD_TILE_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.position(PAYLOAD_HEADER_BYTES);
+        int written = 0;
+
+        for (int y = y0; y <= y1 && written < capacity; y++) {
+            for (int c = 0; c < columns && written < capacity; c++) {
+                int x = (x0 + c) & ((1 << z) - 1);
+                long from = quadkey(x, y) << shift;
+                long to = (quadkey(x, y) + 1) << shift;
+                int i = lowerBound(from);
+                if (i == count || keys[i] >= to) continue;
+
+                int n = 0, navic = 0, used = 0, maxSvs = 0;
+                double svSum = 0, cn0Sum = 0;
+                long last = 0;
+                for (; i < count && keys[i] < to; i++) {
+                    n += samples[i];
+                    navic += navicSamples[i];
+                    used += usedSamples[i];
+                    svSum += meanNavicSvs[i] * samples[i];
+                    cn0Sum += meanNavicCn0[i] * navicSamples[i];
+                    maxSvs = Math.max(maxSvs, maxNavicSvs[i]);
+                    last = Math.max(last, lastSampleMs[i]);
+                }
+
+                out.putInt(x).putInt(y).putInt(n).putInt(navic).putInt(used);
+                out.putFloat(n > 0 ? (float) (svSum / n) : 0f);
+                out.putFloat(navic > 0 ? (float) (cn0Sum / navic) : 0f);
+                out.putShort((short) Math.min(0xFFFF, maxSvs));
+                out.putLong(last);
+                written++;
+            }
+        }
+
+        out.putInt(0, PAYLOAD_MAGIC);
+        out.put(4, PAYLOAD_VERSION);
+        out.put(5, (byte) z);
+        out.putInt(6, written);
+        out.putLong(10, System.currentTimeMillis());
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    // =============== PERSISTENCE ===============
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        if (!file.exists()) return;
+
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, read).order(ByteOrder.LITTLE_ENDIAN);
+            if (read < FILE_HEADER_BYTES || buffer.getInt() != FILE_MAGIC) {
+                Log.w("NavIC", "Ignoring coverage file with unknown format");
+                return;
+            }
+            buffer.getInt();
+            int stored = Math.min(MAX_TILES, Math.min(buffer.getInt(), (read - FILE_HEADER_BYTES) / RECORD_BYTES));
+            if (stored > keys.length) grow(stored);
+            for (int i = 0; i < stored; i++) {
+                keys[i] = buffer.getLong();
+                samples[i] = buffer.getInt();
+                navicSamples[i] = buffer.getInt();
+                usedSamples[i] = buffer.getInt();
+                meanNavicSvs[i] = buffer.getFloat();
+                meanNavicCn0[i] = buffer.getFloat();
+                maxNavicSvs[i] = buffer.getInt();
+                lastSampleMs[i] = buffer.getLong();
+            }
+            count = stored;
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to load coverage tiles", e);
+        }
+    }
+
+    /** Queue a rewrite of the file if anything changed; the old file survives a failed write */
+    synchronized void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    private void flush(long now) {
+        lastFlushMs = now;
+        if (!dirty) return;
+        dirty = false;
+
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_HEADER_BYTES + count * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(FILE_MAGIC).putInt(1).putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(keys[i]).putInt(samples[i]).putInt(navicSamples[i]).putInt(usedSamples[i])
+                    .putFloat(meanNavicSvs[i]).putFloat(meanNavicCn0[i]).putInt(maxNavicSvs[i])
+                    .putLong(lastSampleMs[i]);
+        }
+        writer.execute(() -> write(buffer.array()));
+    }
+
+    /** Runs on the writer thread; a failed write marks the tiles dirty again */
+    private void write(byte[] bytes) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(bytes);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to write coverage tiles", e);
+            markDirty();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.e("NavIC", "Failed to replace coverage file");
+            markDirty();
+        }
+    }
+
+    private synchronized void markDirty() {
+        dirty = true;
+    }
+
+    synchronized Map<String, Object> stats() {
+        load();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tiles", count);
+        stats.put("maxTiles", MAX_TILES);
+        stats.put("zoom", MAX_ZOOM);
+        stats.put("recorded", recorded);
+        stats.put("rejected", rejected);
+        stats.put("evictions", evictions);
+        stats.put("queries", queries);
+        stats.put("fileBytes", file.length());
+        return stats;
+    }
+}
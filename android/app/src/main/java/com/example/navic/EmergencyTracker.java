@@ -0,0 +1,431 @@
+package com.example.navic;
+
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Emergency live-location mode.
+ *
+ * While active the GNSS engine is kept running (a multiplexer subscription
+ * plus 1 s GPS and network requests), so the hot fix cache stays fresh. A fix
+ * request is answered at once from the cache when it is fresh, otherwise with
+ * the next fresh fix, and never later than the latency target: when the
+ * budget runs out the cached fix is returned marked stale. Fixes are sampled
+ * into a fixed ring and pushed as a batch, including a compact text form that
+ * fits one SMS. Main-thread only.
+ */
+final class EmergencyTracker {
+
+    static final class Config {
+        long latencyTargetMs = 5000;
+        /** A cached fix older than this is stale */
+        long maxFixAgeMs = 10000;
+        long batchIntervalMs = 30000;
+        /** Minimum spacing of fixes kept in the batch ring */
+        long batchSpacingMs = 5000;
+        int compactMaxChars = 160;
+
+        void applyArguments(Map<?, ?> args) {
+            if (args == null) return;
+            latencyTargetMs = Math.max(500, longArg(args, "latencyTargetMs", latencyTargetMs));
+            maxFixAgeMs = Math.max(1000, longArg(args, "maxFixAgeMs", maxFixAgeMs));
+            batchIntervalMs = Math.max(5000, longArg(args, "batchIntervalMs", batchIntervalMs));
+            batchSpacingMs = Math.max(1000, longArg(args, "batchSpacingMs", batchSpacingMs));
+            compactMaxChars = (int) Math.max(60, longArg(args, "compactMaxChars", compactMaxChars));
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("latencyTargetMs", latencyTargetMs);
+            map.put("maxFixAgeMs", maxFixAgeMs);
+            map.put("batchIntervalMs", batchIntervalMs);
+            map.put("batchSpacingMs", batchSpacingMs);
+            map.put("compactMaxChars", compactMaxChars);
+            return map;
+        }
+    }
+
+    interface Listener {
+        void onBatch(Map<String, Object> batch);
+    }
+
+    /** Receives the answer to one fix request; fix is null when none was ever obtained */
+    interface FixCallback {
+        void onFix(Map<String, Object> fix);
+    }
+
+    private static final int RING_CAPACITY = 64;
+    private static final String[] WARM_PROVIDERS = {
+            LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER, "fused"
+    };
+
+    private final LocationManager locationManager;
+    private final GnssStatusMultiplexer gnssMultiplexer;
+    private final Handler handler;
+    private final Listener listener;
+    private final GnssStartupRecorder startupRecorder;
+    private final Config config = new Config();
+
+    private GnssStatusMultiplexer.Subscription subscription;
+    private boolean active = false;
+    private long startElapsedMs;
+
+    // Hot fix cache
+    private Location hotFix;
+    private long hotFixElapsedMs;
+    private int navicUsedInFix = 0;
+    private int satellitesUsedInFix = 0;
+
+    // Batch ring, newest at ringHead - 1
+    private final long[] ringTimeMs = new long[RING_CAPACITY];
+    private final double[] ringLatitude = new double[RING_CAPACITY];
+    private final double[] ringLongitude = new double[RING_CAPACITY];
+    private final float[] ringAccuracy = new float[RING_CAPACITY];
+    private final byte[] ringNavicUsed = new byte[RING_CAPACITY];
+    private int ringHead = 0;
+    private int ringSize = 0;
+    private long lastRingElapsedMs = Long.MIN_VALUE / 2;
+
+    private final List<PendingRequest> pending = new ArrayList<>();
+
+    // Metrics
+    private long timeToFirstFixMs = -1;
+    private long fixes = 0;
+    private long requests = 0;
+    private long servedFresh = 0;
+    private long servedStale = 0;
+    private long servedEmpty = 0;
+    private long responseLatencySumMs = 0;
+    private long responseLatencyMaxMs = 0;
+    private long stalenessAtServeSumMs = 0;
+    private long stalenessAtServeMaxMs = 0;
+    private long batches = 0;
+
+    private final class PendingRequest implements Runnable {
+        final FixCallback callback;
+        final long requestedMs;
+
+        PendingRequest(FixCallback callback, long requestedMs) {
+            this.callback = callback;
+            this.requestedMs = requestedMs;
+        }
+
+        /** Latency budget exhausted: answer with whatever the cache holds */
+        @Override
+        public void run() {
+            if (pending.remove(this)) serve(this);
+        }
+    }
+
+    private final LocationListener locationListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(Location location) {
+            startupRecorder.onLocation(location.getProvider());
+            onFix(location);
+        }
+    };
+
+    private final Runnable batchTask = new Runnable() {
+        @Override
+        public void run() {
+            if (!active) return;
+            listener.onBatch(buildBatch());
+            handler.postDelayed(this, config.batchIntervalMs);
+        }
+    };
+
+    EmergencyTracker(LocationManager locationManager, GnssStatusMultiplexer gnssMultiplexer,
+                     Handler handler, GnssStartupRecorder startupRecorder, Listener listener) {
+        this.locationManager = locationManager;
+        this.gnssMultiplexer = gnssMultiplexer;
+        this.handler = handler;
+        this.startupRecorder = startupRecorder;
+        this.listener = listener;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Pre-warm: seed the cache from last known fixes, keep GNSS running and
+     * request fixes at 1 Hz regardless of the location stream's demand.
+     *
+     * @throws SecurityException when location permission is missing
+     */
+    void start(Map<?, ?> args) {
+        config.applyArguments(args);
+        if (active) {
+            handler.removeCallbacks(batchTask);
+            handler.post(batchTask);
+            return;
+        }
+
+        startElapsedMs = SystemClock.elapsedRealtime();
+        timeToFirstFixMs = -1;
+        seedFromLastKnown();
+
+        subscription = gnssMultiplexer.subscribe("emergency", 1000, new GnssStatusMultiplexer.Listener() {
+            @Override
+            public void onSnapshot(GnssSnapshot snapshot) {
+                int navic = 0, used = 0;
+                for (int k = 0; k < snapshot.svCount; k++) {
+                    if (!snapshot.svUsedInFix(k)) continue;
+                    used++;
+                    if (snapshot.constellation(snapshot.svSignal(k)) == GnssIdentifiers.Constellation.IRNSS.type) navic++;
+                }
+                navicUsedInFix = navic;
+                satellitesUsedInFix = used;
+            }
+        });
+        try {
+            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, 1000, 0,
+                    locationListener, handler.getLooper());
+            if (locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
+                locationManager.requestLocationUpdates(LocationManager.NETWORK_PROVIDER, 1000, 0,
+                        locationListener, handler.getLooper());
+            }
+        } catch (RuntimeException e) {
+            subscription.close();
+            subscription = null;
+            throw e;
+        }
+
+        active = true;
+        // First batch now, so the seeded fix reaches the screen before the first interval
+        handler.post(batchTask);
+        Log.d("NavIC", "🚨 Emergency tracking started, latency target " + config.latencyTargetMs + " ms");
+    }
+
+    void stop() {
+        if (!active) return;
+        active = false;
+        handler.removeCallbacks(batchTask);
+        locationManager.removeUpdates(locationListener);
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+        // Nobody waits past the end of the mode
+        while (!pending.isEmpty()) {
+            PendingRequest request = pending.remove(0);
+            handler.removeCallbacks(request);
+            serve(request);
+        }
+        Log.d("NavIC", "🚨 Emergency tracking stopped");
+    }
+
+    private void seedFromLastKnown() {
+        for (String provider : WARM_PROVIDERS) {
+            if ("fused".equals(provider) && Build.VERSION.SDK_INT < Build.VERSION_CODES.S) continue;
+            try {
+                Location last = locationManager.getLastKnownLocation(provider);
+                if (last != null && elapsedMsOf(last) > hotFixElapsedMs) {
+                    hotFix = last;
+                    hotFixElapsedMs = elapsedMsOf(last);
+                }
+            } catch (SecurityException | IllegalArgumentException e) {
+                Log.w("NavIC", "No last known " + provider + " fix: " + e.getMessage());
+            }
+        }
+    }
+
+    private void onFix(Location location) {
+        long elapsedMs = elapsedMsOf(location);
+        if (hotFix != null && elapsedMs < hotFixElapsedMs) return;
+        // A network fix does not replace a fresh, better GNSS fix
+        if (hotFix != null && location.getAccuracy() > hotFix.getAccuracy() * 2
+                && elapsedMs - hotFixElapsedMs < config.maxFixAgeMs / 2) {
+            return;
+        }
+
+        hotFix = location;
+        hotFixElapsedMs = elapsedMs;
+        fixes++;
+        if (timeToFirstFixMs < 0 && elapsedMs >= startElapsedMs) {
+            timeToFirstFixMs = SystemClock.elapsedRealtime() - startElapsedMs;
+            Log.d("NavIC", "🚨 Emergency first fix after " + timeToFirstFixMs + " ms");
+        }
+
+        if (elapsedMs - lastRingElapsedMs >= config.batchSpacingMs) {
+            int slot = ringHead;
+            ringTimeMs[slot] = location.getTime();
+            ringLatitude[slot] = location.getLatitude();
+            ringLongitude[slot] = location.getLongitude();
+            ringAccuracy[slot] = location.getAccuracy();
+            ringNavicUsed[slot] = (byte) Math.min(navicUsedInFix, Byte.MAX_VALUE);
+            ringHead = (ringHead + 1) % RING_CAPACITY;
+            ringSize = Math.min(ringSize + 1, RING_CAPACITY);
+            lastRingElapsedMs = elapsedMs;
+        }
+
+        while (!pending.isEmpty()) {
+            PendingRequest request = pending.remove(0);
+            handler.removeCallbacks(request);
+            serve(request);
+        }
+    }
+
+    /**
+     * Answer now when the cache is fresh, else with the next fix or at the
+     * latency target, whichever comes first
+     */
+    void requestFix(FixCallback callback) {
+        requests++;
+        PendingRequest request = new PendingRequest(callback, SystemClock.elapsedRealtime());
+        if (!active || cacheAgeMs() <= config.maxFixAgeMs) {
+            serve(request);
+            return;
+        }
+        pending.add(request);
+        handler.postDelayed(request, config.latencyTargetMs);
+    }
+
+    private void serve(PendingRequest request) {
+        long now = SystemClock.elapsedRealtime();
+        long latency = now - request.requestedMs;
+        responseLatencySumMs += latency;
+        responseLatencyMaxMs = Math.max(responseLatencyMaxMs, latency);
+
+        if (hotFix == null) {
+            servedEmpty++;
+            request.callback.onFix(null);
+            return;
+        }
+        long age = cacheAgeMs();
+        boolean stale = age > config.maxFixAgeMs;
+        if (stale) servedStale++; else servedFresh++;
+        stalenessAtServeSumMs += age;
+        stalenessAtServeMaxMs = Math.max(stalenessAtServeMaxMs, age);
+
+        Map<String, Object> fix = fixMap();
+        fix.put("stale", stale);
+        fix.put("responseLatencyMs", latency);
+        fix.put("withinBudget", latency <= config.latencyTargetMs);
+        request.callback.onFix(fix);
+    }
+
+    private long cacheAgeMs() {
+        return hotFix != null ? SystemClock.elapsedRealtime() - hotFixElapsedMs : Long.MAX_VALUE;
+    }
+
+    private Map<String, Object> fixMap() {
+        Map<String, Object> fix = new HashMap<>();
+        fix.put("latitude", hotFix.getLatitude());
+        fix.put("longitude", hotFix.getLongitude());
+        fix.put("accuracy", hotFix.getAccuracy());
+        fix.put("altitude", hotFix.getAltitude());
+        fix.put("speed", hotFix.getSpeed());
+        fix.put("bearing", hotFix.getBearing());
+        fix.put("time", hotFix.getTime());
+        fix.put("provider", hotFix.getProvider());
+        fix.put("ageMs", cacheAgeMs());
+        fix.put("navicUsedInFix", navicUsedInFix);
+        fix.put("satellitesUsedInFix", satellitesUsedInFix);
+        return fix;
+    }
+
+    // =============== BATCHES ===============
+
+    /** Ring contents newest first, plus the compact text form */
+    Map<String, Object> buildBatch() {
+        List<Map<String, Object>> entries = new ArrayList<>(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            int slot = ringSlot(i);
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("time", ringTimeMs[slot]);
+            entry.put("latitude", ringLatitude[slot]);
+            entry.put("longitude", ringLongitude[slot]);
+            entry.put("accuracy", (double) ringAccuracy[slot]);
+            entry.put("navicUsedInFix", (int) ringNavicUsed[slot]);
+            entries.add(entry);
+        }
+
+        Map<String, Object> batch = new HashMap<>();
+        batch.put("fixes", entries);
+        batch.put("compact", compact());
+        if (hotFix != null) batch.put("latest", fixMap());
+        batch.put("metrics", metrics());
+        batch.put("timestamp", System.currentTimeMillis());
+        batches++;
+        return batch;
+    }
+
+    private int ringSlot(int newestIndex) {
+        return (ringHead - 1 - newestIndex + RING_CAPACITY * 2) % RING_CAPACITY;
+    }
+
+    /**
+     * "NV1;unixSec;lat,lon,acc,navic;back,dLat,dLon,acc;..." newest first.
+     * Later entries are seconds back from the previous one and 1e-5 degree
+     * steps (about a metre) from it; entries that would pass compactMaxChars
+     * are left out, so truncation always drops the oldest.
+     */
+    String compact() {
+        if (ringSize == 0) return "";
+        int first = ringSlot(0);
+        StringBuilder out = new StringBuilder(config.compactMaxChars);
+        out.append("NV1;").append(ringTimeMs[first] / 1000).append(';')
+                .append(String.format(Locale.US, "%.5f,%.5f", ringLatitude[first], ringLongitude[first]))
+                .append(',').append(Math.round(ringAccuracy[first]))
+                .append(',').append(ringNavicUsed[first]);
+
+        int previous = first;
+        for (int i = 1; i < ringSize; i++) {
+            int slot = ringSlot(i);
+            String entry = ";" + (ringTimeMs[previous] - ringTimeMs[slot]) / 1000
+                    + "," + Math.round((ringLatitude[slot] - ringLatitude[previous]) * 1e5)
+                    + "," + Math.round((ringLongitude[slot] - ringLongitude[previous]) * 1e5)
+                    + "," + Math.round(ringAccuracy[slot]);
+            if (out.length() + entry.length() > config.compactMaxChars) break;
+            out.append(entry);
+            previous = slot;
+        }
+        return out.toString();
+    }
+
+    Map<String, Object> metrics() {
+        long served = servedFresh + servedStale + servedEmpty;
+        long withFix = servedFresh + servedStale;
+        Map<String, Object> map = new HashMap<>();
+        map.put("active", active);
+        map.put("timeToFirstFixMs", timeToFirstFixMs);
+        map.put("currentStalenessMs", hotFix != null ? cacheAgeMs() : -1);
+        map.put("fixes", fixes);
+        map.put("requests", requests);
+        map.put("pendingRequests", pending.size());
+        map.put("servedFresh", servedFresh);
+        map.put("servedStale", servedStale);
+        map.put("servedEmpty", servedEmpty);
+        map.put("averageResponseLatencyMs", served > 0 ? (double) responseLatencySumMs / served : 0.0);
+        map.put("maxResponseLatencyMs", responseLatencyMaxMs);
+        map.put("averageStalenessAtServeMs", withFix > 0 ? (double) stalenessAtServeSumMs / withFix : 0.0);
+        map.put("maxStalenessAtServeMs", stalenessAtServeMaxMs);
+        map.put("batchedFixes", ringSize);
+        map.put("batches", batches);
+        map.put("navicUsedInFix", navicUsedInFix);
+        map.put("config", config.toMap());
+        return map;
+    }
+
+    private static long elapsedMsOf(Location location) {
+        long nanos = location.getElapsedRealtimeNanos();
+        return nanos > 0 ? nanos / 1_000_000L : SystemClock.elapsedRealtime();
+    }
+
+    private static long longArg(Map<?, ?> args, String key, long fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.navic;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes immutable epochs of records to lock-free readers.
+ *
+ * A single writer copies the live records into the next epoch and swaps it in
+ * with one atomic store. Readers acquire the current epoch, read from it and
+ * close it. Once a replaced epoch has no readers left, its record array and
+ * the record objects in it return to a pool and are overwritten by a later
+ * publish, so steady-state publishing does not allocate records.
+ *
+ * Readers must not keep records after closing their epoch.
+ */
+final class EpochPublisher<T, A> {
+    private static final int MAX_POOLED_ARRAYS = 4;
+    private static final int RECLAIMED = Integer.MIN_VALUE / 2;
+
+    /** Copies source into reuse (which may be null) and returns the filled record */
+    interface Copier<T> {
+        T copy(T source, T reuse);
+    }
+
+    static final class Epoch<T, A> implements Iterable<T>, AutoCloseable {
+        final long number;
+        final A attachment;
+        private final Object[] records;
+        private final int size;
+        private final EpochPublisher<T, A> owner;
+        private final AtomicInteger readers = new AtomicInteger();
+        private volatile boolean retired;
+
+        private Epoch(EpochPublisher<T, A> owner, long number, Object[] records, int size, A attachment) {
+            this.owner = owner;
+            this.number = number;
+            this.records = records;
+            this.size = size;
+            this.attachment = attachment;
+        }
+
+        int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            if (index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            return (T) records[index];
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public T next() {
+                    if (next >= size) throw new NoSuchElementException();
+                    return get(next++);
+                }
+            };
+        }
+
+        /** Release this reader's hold; call exactly once per acquire */
+        @Override
+        public void close() {
+            if (readers.decrementAndGet() == 0 && retired) {
+                owner.reclaim(this);
+            }
+        }
+    }
+
+    private final Copier<T> copier;
+    private final AtomicReference<Epoch<T, A>> current = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Object[]> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicLong arraysReused = new AtomicLong();
+    private final AtomicLong arraysAllocated = new AtomicLong();
+    private final AtomicLong epochsReclaimed = new AtomicLong();
+    private long nextEpoch = 0;
+
+    EpochPublisher(Copier<T> copier, A emptyAttachment) {
+        this.copier = copier;
+        current.set(new Epoch<>(this, nextEpoch++, new Object[0], 0, emptyAttachment));
+    }
+
+    /**
+     * Pin the current epoch. Never blocks; retries only if the epoch it saw
+     * was reclaimed in between, which means a newer one is already current.
+     */
+    Epoch<T, A> acquire() {
+        while (true) {
+            Epoch<T, A> epoch = current.get();
+            int readers = epoch.readers.get();
+            if (readers >= 0 && epoch.readers.compareAndSet(readers, readers + 1)) {
+                return epoch;
+            }
+        }
+    }
+
+    /**
+     * Writer only: copy records into a new epoch and make it current
+     */
+    @SuppressWarnings("unchecked")
+    void publish(Collection<T> live, A attachment) {
+        int size = live.size();
+        Object[] array = takeArray(size);
+        int i = 0;
+        for (T record : live) {
+            if (i == size) break;
+            array[i] = copier.copy(record, (T) array[i]);
+            i++;
+        }
+
+        Epoch<T, A> previous = current.getAndSet(new Epoch<>(this, nextEpoch++, array, i, attachment));
+        previous.retired = true;
+        if (previous.readers.get() == 0) {
+            reclaim(previous);
+        }
+    }
+
+    private Object[] takeArray(int size) {
+        Object[] array;
+        while ((array = pool.poll()) != null) {
+            if (array.length >= size) {
+                arraysReused.incrementAndGet();
+                return array;
+            }
+        }
+        arraysAllocated.incrementAndGet();
+        return new Object[size + size / 4 + 8];
+    }
+
+    private void reclaim(Epoch<T, A> epoch) {
+        if (!epoch.readers.compareAndSet(0, RECLAIMED)) return;
+        epochsReclaimed.incrementAndGet();
+        if (epoch.records.length > 0 && pool.size() < MAX_POOLED_ARRAYS) {
+            pool.offer(epoch.records);
+        }
+    }
+
+    /** Number of the current epoch; cheaper than acquire() when no records are read */
+    long currentEpoch() {
+        return current.get().number;
+    }
+
+    Map<String, Object> getStats() {
+        Epoch<T, A> epoch = current.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("currentEpoch", epoch.number);
+        stats.put("currentSize", epoch.size);
+        stats.put("currentReaders", Math.max(0, epoch.readers.get()));
+        stats.put("epochsReclaimed", epochsReclaimed.get());
+        stats.put("arraysReused", arraysReused.get());
+        stats.put("arraysAllocated", arraysAllocated.get());
+        stats.put("pooledArrays", pool.size());
+        return stats;
+    }
+}
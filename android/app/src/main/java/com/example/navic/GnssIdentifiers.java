@@ -0,0 +1,142 @@
+package com.example.navic;
+
+import android.location.GnssStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Small-int identifiers for constellations, frequency bands and signal tiers.
+ *
+ * The tick pipeline carries these enums (or their ordinals) and turns them
+ * into display strings only when a payload is serialized; every label is a
+ * constant, so no String is built per satellite per tick.
+ */
+final class GnssIdentifiers {
+
+    enum Constellation {
+        UNKNOWN(GnssStatus.CONSTELLATION_UNKNOWN, "UNKNOWN", "🌐", "Unknown Navigation System"),
+        GPS(GnssStatus.CONSTELLATION_GPS, "GPS", "🇺🇸", "Global Positioning System (USA)"),
+        SBAS(GnssStatus.CONSTELLATION_SBAS, "SBAS", "🌍", "Satellite-Based Augmentation System"),
+        GLONASS(GnssStatus.CONSTELLATION_GLONASS, "GLONASS", "🇷🇺", "Global Navigation Satellite System (Russia)"),
+        QZSS(GnssStatus.CONSTELLATION_QZSS, "QZSS", "🇯🇵", "Quasi-Zenith Satellite System (Japan)"),
+        BEIDOU(GnssStatus.CONSTELLATION_BEIDOU, "BEIDOU", "🇨🇳", "BeiDou Navigation Satellite System (China)"),
+        GALILEO(GnssStatus.CONSTELLATION_GALILEO, "GALILEO", "🇪🇺", "European Global Navigation Satellite System"),
+        IRNSS(GnssStatus.CONSTELLATION_IRNSS, "IRNSS", "🇮🇳", "Indian Regional Navigation Satellite System (NavIC)");
+
+        final int type;
+        final String label;
+        final String flag;
+        final String description;
+
+        private static final Constellation[] BY_TYPE = new Constellation[8];
+
+        static {
+            for (Constellation c : values()) BY_TYPE[c.type] = c;
+        }
+
+        Constellation(int type, String label, String flag, String description) {
+            this.type = type;
+            this.label = label;
+            this.flag = flag;
+            this.description = description;
+        }
+
+        /** GnssStatus constellation type to enum; types this table does not know map to UNKNOWN */
+        static Constellation of(int type) {
+            return type >= 0 && type < BY_TYPE.length && BY_TYPE[type] != null ? BY_TYPE[type] : UNKNOWN;
+        }
+    }
+
+    enum Band {
+        L1("L1", 1575.42),
+        L2("L2", 1227.60),
+        L5("L5", 1176.45),
+        S("S", 2492.028),
+        G1("G1", 1602.0),
+        G2("G2", 1246.0),
+        E5("E5", 1207.14),
+        B3("B3", 1268.52),
+        // Defaults for receivers that do not report carrier frequency
+        E1("E1", 0),
+        B1("B1", 0),
+        L5_S("L5/S", 0),
+        L1_L5("L1/L5", 0),
+        E1_E5A("E1/E5a", 0),
+        B1_B2A("B1/B2a", 0),
+        UNKNOWN("Unknown", 0),
+        // Carrier reported but outside the table; labelled by its frequency
+        OTHER("", 0);
+
+        private static final double MATCH_MHZ = 2.0;
+        private static final int TABLE_START_MHZ = 1100;
+        private static final int TABLE_END_MHZ = 2600;
+        private static final Band[] BY_MHZ = new Band[TABLE_END_MHZ - TABLE_START_MHZ];
+        private static final Map<Long, String> otherLabels = new ConcurrentHashMap<>();
+
+        static {
+            // Bands are far more than 2 * MATCH_MHZ apart, so each 1 MHz slot has one candidate
+            for (int slot = 0; slot < BY_MHZ.length; slot++) {
+                double mhz = TABLE_START_MHZ + slot;
+                for (Band band : values()) {
+                    if (band.centerMhz > 0 && Math.abs(mhz - band.centerMhz) < MATCH_MHZ + 1) {
+                        BY_MHZ[slot] = band;
+                        break;
+                    }
+                }
+            }
+        }
+
+        final String label;
+        final double centerMhz;
+
+        Band(String label, double centerMhz) {
+            this.label = label;
+            this.centerMhz = centerMhz;
+        }
+
+        /** Table lookup plus one exact check against the candidate's centre */
+        static Band fromCarrierHz(double carrierHz) {
+            double mhz = carrierHz / 1e6;
+            int slot = (int) Math.round(mhz) - TABLE_START_MHZ;
+            if (slot >= 0 && slot < BY_MHZ.length) {
+                Band candidate = BY_MHZ[slot];
+                if (candidate != null && Math.abs(mhz - candidate.centerMhz) < MATCH_MHZ) return candidate;
+            }
+            return OTHER;
+        }
+
+        static Band defaultFor(int constellation, boolean hasL5Support) {
+            switch (constellation) {
+                case GnssStatus.CONSTELLATION_IRNSS: return hasL5Support ? L5_S : L5;
+                case GnssStatus.CONSTELLATION_GPS: return hasL5Support ? L1_L5 : L1;
+                case GnssStatus.CONSTELLATION_GALILEO: return hasL5Support ? E1_E5A : E1;
+                case GnssStatus.CONSTELLATION_BEIDOU: return hasL5Support ? B1_B2A : B1;
+                case GnssStatus.CONSTELLATION_GLONASS: return G1;
+                case GnssStatus.CONSTELLATION_QZSS: return hasL5Support ? L1_L5 : L1;
+                default: return L1;
+            }
+        }
+
+        /** Display label; OTHER is formatted once per distinct rounded frequency */
+        String label(double carrierHz) {
+            if (this != OTHER) return label;
+            long mhz = Math.round(carrierHz / 1e6);
+            return otherLabels.computeIfAbsent(mhz, m -> m + " MHz");
+        }
+    }
+
+    enum SignalTier {
+        EXCELLENT, GOOD, FAIR, WEAK, POOR;
+
+        static SignalTier of(float cn0) {
+            if (cn0 >= 35) return EXCELLENT;
+            if (cn0 >= 25) return GOOD;
+            if (cn0 >= 18) return FAIR;
+            if (cn0 >= 10) return WEAK;
+            return POOR;
+        }
+    }
+
+    private GnssIdentifiers() {}
+}
@@ -0,0 +1,151 @@
+package com.example.navic;
+
+import android.location.GnssStatus;
+import android.os.Build;
+
+/**
+ * Immutable, decoded copy of one GnssStatus tick.
+ *
+ * Every getter of GnssStatus is called exactly once per satellite when the
+ * snapshot is built; consumers read the column arrays instead of calling back
+ * into the framework object, so any number of subscribers can share one tick.
+ *
+ * A dual-frequency receiver reports one entry per band, so indices here are
+ * signals. Anything that counts satellites goes through the per-SV view
+ * (svCount / svSignal / svUsedInFix), grouped once when the snapshot is built.
+ */
+final class GnssSnapshot {
+    static final int FLAG_USED_IN_FIX = 1;
+    static final int FLAG_HAS_EPHEMERIS = 1 << 1;
+    static final int FLAG_HAS_ALMANAC = 1 << 2;
+    static final int FLAG_HAS_CARRIER_FREQUENCY = 1 << 3;
+
+    private static final GnssIdentifiers.Band[] BANDS = GnssIdentifiers.Band.values();
+
+    final long sequence;
+    final long timestampMs;
+    final int satelliteCount;
+
+    private final int[] constellations;
+    private final int[] svids;
+    private final float[] cn0DbHz;
+    private final float[] elevations;
+    private final float[] azimuths;
+    private final float[] carrierFrequenciesHz;
+    private final int[] flags;
+    private final byte[] bands;
+
+    /** Distinct (constellation, svid) pairs in this tick */
+    final int svCount;
+    /** Per SV: index of its strongest signal */
+    private final int[] svSignals;
+    /** Per SV: flags OR-ed across all of its signals */
+    private final int[] svFlags;
+
+    /** decode() for live ticks; tests build snapshots from columns directly */
+    GnssSnapshot(long sequence, long timestampMs, int satelliteCount, int[] constellations, int[] svids,
+                 float[] cn0DbHz, float[] elevations, float[] azimuths, float[] carrierFrequenciesHz,
+                 int[] flags, byte[] bands) {
+        this.sequence = sequence;
+        this.timestampMs = timestampMs;
+        this.satelliteCount = satelliteCount;
+        this.constellations = constellations;
+        this.svids = svids;
+        this.cn0DbHz = cn0DbHz;
+        this.elevations = elevations;
+        this.azimuths = azimuths;
+        this.carrierFrequenciesHz = carrierFrequenciesHz;
+        this.flags = flags;
+        this.bands = bands;
+
+        // Signals of one SV are few and usually adjacent, so a linear scan beats hashing here
+        int[] signals = new int[satelliteCount];
+        int[] merged = new int[satelliteCount];
+        int groups = 0;
+        next:
+        for (int i = 0; i < satelliteCount; i++) {
+            for (int k = groups - 1; k >= 0; k--) {
+                int j = signals[k];
+                if (svids[j] != svids[i] || constellations[j] != constellations[i]) continue;
+                if (cn0DbHz[i] > cn0DbHz[j]) signals[k] = i;
+                merged[k] |= flags[i];
+                continue next;
+            }
+            signals[groups] = i;
+            merged[groups++] = flags[i];
+        }
+        this.svCount = groups;
+        this.svSignals = signals;
+        this.svFlags = merged;
+    }
+
+    static GnssSnapshot decode(GnssStatus status, long sequence, long timestampMs) {
+        int count = status.getSatelliteCount();
+        int[] constellations = new int[count];
+        int[] svids = new int[count];
+        float[] cn0 = new float[count];
+        float[] elevations = new float[count];
+        float[] azimuths = new float[count];
+        float[] carriers = new float[count];
+        int[] flags = new int[count];
+        byte[] bands = new byte[count];
+        byte unknownBand = (byte) GnssIdentifiers.Band.UNKNOWN.ordinal();
+        boolean carrierApi = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R;
+
+        for (int i = 0; i < count; i++) {
+            constellations[i] = status.getConstellationType(i);
+            svids[i] = status.getSvid(i);
+            cn0[i] = status.getCn0DbHz(i);
+            elevations[i] = status.getElevationDegrees(i);
+            azimuths[i] = status.getAzimuthDegrees(i);
+
+            int f = 0;
+            bands[i] = unknownBand;
+            if (status.usedInFix(i)) f |= FLAG_USED_IN_FIX;
+            if (status.hasEphemerisData(i)) f |= FLAG_HAS_EPHEMERIS;
+            if (status.hasAlmanacData(i)) f |= FLAG_HAS_ALMANAC;
+            if (carrierApi) {
+                try {
+                    float carrier = status.getCarrierFrequencyHz(i);
+                    if (carrier > 0) {
+                        carriers[i] = carrier;
+                        f |= FLAG_HAS_CARRIER_FREQUENCY;
+                        bands[i] = (byte) GnssIdentifiers.Band.fromCarrierHz(carrier).ordinal();
+                    }
+                } catch (Exception e) {
+                    // Carrier frequency not reported for this satellite
+                }
+            }
+            flags[i] = f;
+        }
+
+        return new GnssSnapshot(sequence, timestampMs, count, constellations, svids, cn0,
+                elevations, azimuths, carriers, flags, bands);
+    }
+
+    int constellation(int i) { return constellations[i]; }
+    int svid(int i) { return svids[i]; }
+    float cn0DbHz(int i) { return cn0DbHz[i]; }
+    float elevation(int i) { return elevations[i]; }
+    float azimuth(int i) { return azimuths[i]; }
+    boolean usedInFix(int i) { return (flags[i] & FLAG_USED_IN_FIX) != 0; }
+    boolean hasEphemeris(int i) { return (flags[i] & FLAG_HAS_EPHEMERIS) != 0; }
+    boolean hasAlmanac(int i) { return (flags[i] & FLAG_HAS_ALMANAC) != 0; }
+    boolean hasCarrierFrequency(int i) { return (flags[i] & FLAG_HAS_CARRIER_FREQUENCY) != 0; }
+
+    /** Carrier frequency in Hz, or 0 when the receiver did not report one */
+    double carrierFrequencyHz(int i) { return carrierFrequenciesHz[i]; }
+
+    /** Band matched from the carrier frequency, or UNKNOWN when none was reported */
+    GnssIdentifiers.Band band(int i) { return BANDS[bands[i]]; }
+
+    // =============== PER-SV VIEW ===============
+
+    /** Signal index standing for SV k (its strongest band); use it with the getters above */
+    int svSignal(int k) { return svSignals[k]; }
+
+    /** True when any band of SV k was used in the fix */
+    boolean svUsedInFix(int k) { return (svFlags[k] & FLAG_USED_IN_FIX) != 0; }
+    boolean svHasEphemeris(int k) { return (svFlags[k] & FLAG_HAS_EPHEMERIS) != 0; }
+    boolean svHasAlmanac(int k) { return (svFlags[k] & FLAG_HAS_ALMANAC) != 0; }
+}
@@ -0,0 +1,402 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.location.LocationManager;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-to-first-fix instrumentation for GNSS engine sessions.
+ *
+ * A session opens when the multiplexer registers its system callback or the
+ * engine reports onStarted, and closes on onStopped or unregistration. Inside
+ * it every milestone is an offset from the session start on the
+ * elapsedRealtime clock: engine start, the chip's first fix, the first SV and
+ * first used-in-fix SV per constellation, and the first location per
+ * provider. The start is classified cold, warm or hot from the navigation
+ * data the receiver already held on its first tick.
+ *
+ * Closed sessions go to a rolling file of fixed-size records, so TTFF
+ * histograms per start type can be compared across launches and firmware.
+ */
+final class GnssStartupRecorder {
+
+    enum StartType { UNKNOWN, COLD, WARM, HOT }
+
+    static final String[] PROVIDERS = {
+            LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER, "fused", "other"
+    };
+    private static final GnssIdentifiers.Constellation[] CONSTELLATIONS = GnssIdentifiers.Constellation.values();
+    private static final int IRNSS = GnssIdentifiers.Constellation.IRNSS.ordinal();
+
+    private static final int RECORD_BYTES = 128;
+    private static final int MAX_RECORDS = 512;
+    /** TTFF histogram bucket upper bounds in seconds; the last bucket is open */
+    private static final int[] BUCKET_LIMITS_S = {5, 10, 20, 30, 60, 120};
+    /** Minimum SVs on the first tick to classify the start */
+    private static final int MIN_SVS_TO_CLASSIFY = 4;
+    private static final double NAV_DATA_MAJORITY = 0.5;
+
+    /** One engine session; offsets are ms from start, -1 when not reached */
+    static final class Session {
+        long startWallMs;
+        long startElapsedMs;
+        int durationMs = -1;
+        int engineStartMs = -1;
+        int chipTtffMs = -1;
+        int firstTickMs = -1;
+        StartType startType = StartType.UNKNOWN;
+        int fingerprint;
+        final int[] firstSvMs = new int[CONSTELLATIONS.length];
+        final int[] firstUsedMs = new int[CONSTELLATIONS.length];
+        final int[] firstLocationMs = new int[PROVIDERS.length];
+
+        Session() {
+            Arrays.fill(firstSvMs, -1);
+            Arrays.fill(firstUsedMs, -1);
+            Arrays.fill(firstLocationMs, -1);
+        }
+
+        /** TTFF: the chip's report when given, else the first GPS-provider location */
+        int ttffMs() {
+            if (chipTtffMs >= 0) return Math.max(0, engineStartMs) + chipTtffMs;
+            return firstLocationMs[0];
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> firstSv = new HashMap<>();
+            Map<String, Object> firstUsed = new HashMap<>();
+            for (GnssIdentifiers.Constellation c : CONSTELLATIONS) {
+                if (firstSvMs[c.ordinal()] >= 0) firstSv.put(c.label, firstSvMs[c.ordinal()]);
+                if (firstUsedMs[c.ordinal()] >= 0) firstUsed.put(c.label, firstUsedMs[c.ordinal()]);
+            }
+            Map<String, Object> firstLocation = new HashMap<>();
+            for (int p = 0; p < PROVIDERS.length; p++) {
+                if (firstLocationMs[p] >= 0) firstLocation.put(PROVIDERS[p], firstLocationMs[p]);
+            }
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("startTime", startWallMs);
+            map.put("durationMs", durationMs);
+            map.put("startType", startType.name());
+            map.put("engineStartMs", engineStartMs);
+            map.put("chipTtffMs", chipTtffMs);
+            map.put("ttffMs", ttffMs());
+            map.put("firstTickMs", firstTickMs);
+            map.put("firstNavicSvMs", firstSvMs[IRNSS]);
+            map.put("firstNavicInFixMs", firstUsedMs[IRNSS]);
+            map.put("firstSvMs", firstSv);
+            map.put("firstUsedInFixMs", firstUsed);
+            map.put("firstLocationMs", firstLocation);
+            map.put("deviceFingerprint", Integer.toHexString(fingerprint));
+            return map;
+        }
+    }
+
+    private static GnssStartupRecorder instance;
+
+    private final File file;
+    private final int fingerprint;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private Session current;
+    private Session last;
+    // Constellations whose first SV / first used SV is still missing in this session
+    private int pendingSvMask;
+    private int pendingUsedMask;
+    private long sessions = 0;
+
+    static synchronized GnssStartupRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new GnssStartupRecorder(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    private GnssStartupRecorder(File directory) {
+        File dir = new File(directory, "navic_startup");
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w("NavIC", "Could not create startup directory " + dir);
+        }
+        this.file = new File(dir, "sessions.bin");
+        this.fingerprint = Build.FINGERPRINT.hashCode();
+    }
+
+    // =============== MILESTONES ===============
+
+    synchronized void onCallbackRegistered() {
+        open();
+    }
+
+    synchronized void onEngineStarted() {
+        if (current != null && current.engineStartMs >= 0) {
+            // A restart inside a registration is a new start of the engine
+            close();
+        }
+        open();
+        current.engineStartMs = offset();
+    }
+
+    synchronized void onFirstFix(int ttffMillis) {
+        if (current == null) open();
+        if (current.chipTtffMs < 0) {
+            current.chipTtffMs = ttffMillis;
+            Log.d("NavIC", "⏱️ First fix: chip TTFF " + ttffMillis + " ms, " + current.startType + " start");
+        }
+    }
+
+    synchronized void onSnapshot(GnssSnapshot snapshot) {
+        if (current == null) open();
+        if (current.firstTickMs < 0) {
+            current.firstTickMs = offset();
+            current.startType = classify(snapshot);
+        }
+        if (pendingSvMask == 0 && pendingUsedMask == 0) return;
+
+        int now = offset();
+        for (int i = 0; i < snapshot.satelliteCount; i++) {
+            int c = GnssIdentifiers.Constellation.of(snapshot.constellation(i)).ordinal();
+            int bit = 1 << c;
+            if ((pendingSvMask & bit) != 0 && snapshot.cn0DbHz(i) > 0) {
+                current.firstSvMs[c] = now;
+                pendingSvMask &= ~bit;
+            }
+            if ((pendingUsedMask & bit) != 0 && snapshot.usedInFix(i)) {
+                current.firstUsedMs[c] = now;
+                pendingUsedMask &= ~bit;
+                if (c == IRNSS) Log.d("NavIC", "⏱️ First NavIC SV in fix after " + now + " ms");
+            }
+        }
+    }
+
+    synchronized void onLocation(String provider) {
+        if (current == null) return;
+        int p = PROVIDERS.length - 1;
+        for (int i = 0; i < PROVIDERS.length - 1; i++) {
+            if (PROVIDERS[i].equals(provider)) p = i;
+        }
+        if (current.firstLocationMs[p] < 0) current.firstLocationMs[p] = offset();
+    }
+
+    synchronized void onEngineStopped() {
+        close();
+    }
+
+    synchronized void onCallbackReleased() {
+        close();
+    }
+
+    private void open() {
+        if (current != null) return;
+        current = new Session();
+        current.startWallMs = System.currentTimeMillis();
+        current.startElapsedMs = SystemClock.elapsedRealtime();
+        current.fingerprint = fingerprint;
+        pendingSvMask = (1 << CONSTELLATIONS.length) - 1;
+        pendingUsedMask = pendingSvMask;
+    }
+
+    private void close() {
+        if (current == null) return;
+        current.durationMs = offset();
+        // Registrations that never saw the engine run say nothing about TTFF
+        if (current.firstTickMs >= 0 || current.chipTtffMs >= 0) {
+            append(current);
+            last = current;
+            sessions++;
+        }
+        current = null;
+    }
+
+    private int offset() {
+        return (int) Math.min(Integer.MAX_VALUE, SystemClock.elapsedRealtime() - current.startElapsedMs);
+    }
+
+    /** Navigation data already held on the first tick decides how warm the start was */
+    private static StartType classify(GnssSnapshot snapshot) {
+        int n = snapshot.satelliteCount;
+        if (n < MIN_SVS_TO_CLASSIFY) return StartType.UNKNOWN;
+        int ephemeris = 0, almanac = 0;
+        for (int i = 0; i < n; i++) {
+            if (snapshot.hasEphemeris(i)) ephemeris++;
+            if (snapshot.hasAlmanac(i)) almanac++;
+        }
+        if (ephemeris >= n * NAV_DATA_MAJORITY) return StartType.HOT;
+        if (almanac >= n * NAV_DATA_MAJORITY) return StartType.WARM;
+        return StartType.COLD;
+    }
+
+    // =============== PERSISTENCE ===============
+
+    private void append(Session s) {
+        record.clear();
+        record.putLong(s.startWallMs)
+                .putInt(s.durationMs)
+                .putInt(s.engineStartMs)
+                .putInt(s.chipTtffMs)
+                .putInt(s.firstTickMs)
+                .putInt(s.fingerprint)
+                .put((byte) s.startType.ordinal())
+                .put((byte) CONSTELLATIONS.length)
+                .put((byte) PROVIDERS.length)
+                .put((byte) 0);
+        for (int v : s.firstSvMs) record.putInt(v);
+        for (int v : s.firstUsedMs) record.putInt(v);
+        for (int v : s.firstLocationMs) record.putInt(v);
+        while (record.position() < RECORD_BYTES) record.put((byte) 0);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - raf.length() % RECORD_BYTES);
+            raf.write(record.array(), 0, RECORD_BYTES);
+            if (raf.length() / RECORD_BYTES > MAX_RECORDS) {
+                long keep = MAX_RECORDS / 2;
+                long count = raf.length() / RECORD_BYTES;
+                byte[] tail = new byte[(int) (keep * RECORD_BYTES)];
+                raf.seek((count - keep) * RECORD_BYTES);
+                raf.readFully(tail);
+                raf.seek(0);
+                raf.write(tail);
+                raf.setLength(tail.length);
+            }
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to append startup session", e);
+        }
+    }
+
+    /** Newest first, at most limit sessions */
+    synchronized List<Session> readRecent(int limit) {
+        List<Session> result = new ArrayList<>();
+        if (!file.exists()) return result;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long count = raf.length() / RECORD_BYTES;
+            long first = Math.max(0, count - limit);
+            int n = (int) (count - first);
+            byte[] bytes = new byte[n * RECORD_BYTES];
+            raf.seek(first * RECORD_BYTES);
+            raf.readFully(bytes);
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            StartType[] types = StartType.values();
+            for (int i = n - 1; i >= 0; i--) {
+                buffer.position(i * RECORD_BYTES);
+                Session s = new Session();
+                s.startWallMs = buffer.getLong();
+                s.durationMs = buffer.getInt();
+                s.engineStartMs = buffer.getInt();
+                s.chipTtffMs = buffer.getInt();
+                s.firstTickMs = buffer.getInt();
+                s.fingerprint = buffer.getInt();
+                int type = buffer.get();
+                s.startType = type >= 0 && type < types.length ? types[type] : StartType.UNKNOWN;
+                int constellations = buffer.get();
+                int providers = buffer.get();
+                buffer.get();
+                for (int c = 0; c < constellations; c++) {
+                    int v = buffer.getInt();
+                    if (c < s.firstSvMs.length) s.firstSvMs[c] = v;
+                }
+                for (int c = 0; c < constellations; c++) {
+                    int v = buffer.getInt();
+                    if (c < s.firstUsedMs.length) s.firstUsedMs[c] = v;
+                }
+                for (int p = 0; p < providers; p++) {
+                    int v = buffer.getInt();
+                    if (p < s.firstLocationMs.length) s.firstLocationMs[p] = v;
+                }
+                result.add(s);
+            }
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to read startup sessions", e);
+        }
+        return result;
+    }
+
+    // =============== REPORTS ===============
+
+    /**
+     * Current and last session, recent history and per-start-type histograms
+     * of TTFF, time to first NavIC SV and time to first NavIC SV in fix
+     */
+    synchronized Map<String, Object> toMap(int historyLimit) {
+        List<Session> history = readRecent(MAX_RECORDS);
+
+        Map<String, Object> histograms = new HashMap<>();
+        for (StartType type : StartType.values()) {
+            int[] ttff = new int[BUCKET_LIMITS_S.length + 1];
+            int[] navicSv = new int[BUCKET_LIMITS_S.length + 1];
+            int[] navicFix = new int[BUCKET_LIMITS_S.length + 1];
+            int count = 0;
+            long ttffSum = 0;
+            int ttffCount = 0;
+            for (Session s : history) {
+                if (s.startType != type) continue;
+                count++;
+                int t = s.ttffMs();
+                if (t >= 0) {
+                    ttff[bucket(t)]++;
+                    ttffSum += t;
+                    ttffCount++;
+                }
+                if (s.firstSvMs[IRNSS] >= 0) navicSv[bucket(s.firstSvMs[IRNSS])]++;
+                if (s.firstUsedMs[IRNSS] >= 0) navicFix[bucket(s.firstUsedMs[IRNSS])]++;
+            }
+            if (count == 0) continue;
+
+            Map<String, Object> h = new HashMap<>();
+            h.put("sessions", count);
+            h.put("averageTtffMs", ttffCount > 0 ? (double) ttffSum / ttffCount : -1.0);
+            h.put("ttff", toList(ttff));
+            h.put("firstNavicSv", toList(navicSv));
+            h.put("firstNavicInFix", toList(navicFix));
+            histograms.put(type.name(), h);
+        }
+
+        List<Map<String, Object>> recent = new ArrayList<>();
+        for (int i = 0; i < Math.min(historyLimit, history.size()); i++) {
+            recent.add(history.get(i).toMap());
+        }
+        List<Integer> bucketLimits = new ArrayList<>();
+        for (int limit : BUCKET_LIMITS_S) bucketLimits.add(limit * 1000);
+
+        Map<String, Object> map = new HashMap<>();
+        if (current != null) map.put("current", current.toMap());
+        if (last != null) map.put("last", last.toMap());
+        map.put("history", recent);
+        map.put("storedSessions", history.size());
+        map.put("sessionsThisProcess", sessions);
+        map.put("bucketUpperBoundsMs", bucketLimits);
+        map.put("histograms", histograms);
+        return map;
+    }
+
+    /** Milestones of the running session, or the last closed one */
+    synchronized Map<String, Object> latestSessionMap() {
+        Session s = current != null ? current : last;
+        return s != null ? s.toMap() : new HashMap<>();
+    }
+
+    private static int bucket(int ms) {
+        for (int i = 0; i < BUCKET_LIMITS_S.length; i++) {
+            if (ms < BUCKET_LIMITS_S[i] * 1000) return i;
+        }
+        return BUCKET_LIMITS_S.length;
+    }
+
+    private static List<Integer> toList(int[] counts) {
+        List<Integer> list = new ArrayList<>(counts.length);
+        for (int c : counts) list.add(c);
+        return list;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.location.GnssStatus;
+import android.location.LocationManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Owns the only GnssStatus.Callback registered by the app.
+ *
+ * The system callback is registered when the first subscription opens and
+ * removed when the last one closes. Each tick is decoded once into a
+ * {@link GnssSnapshot} and handed to every subscriber whose own minimum
+ * interval has elapsed. Delivery happens on the main looper.
+ */
+final class GnssStatusMultiplexer {
+
+    interface Listener {
+        void onSnapshot(GnssSnapshot snapshot);
+
+        default void onStarted() {}
+
+        default void onStopped() {}
+
+        default void onFirstFix(int ttffMillis) {}
+    }
+
+    /**
+     * Handle returned by {@link #subscribe}. Closing it drops one reference.
+     */
+    final class Subscription {
+        final String name;
+        final Listener listener;
+        volatile long minIntervalMs;
+        private long lastDeliveredMs = Long.MIN_VALUE / 2;
+        private long delivered = 0;
+        private long skipped = 0;
+        private boolean closed = false;
+
+        private Subscription(String name, Listener listener, long minIntervalMs) {
+            this.name = name;
+            this.listener = listener;
+            this.minIntervalMs = minIntervalMs;
+        }
+
+        void close() {
+            unsubscribe(this);
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("name", name);
+            map.put("minIntervalMs", minIntervalMs);
+            map.put("delivered", delivered);
+            map.put("skipped", skipped);
+            return map;
+        }
+    }
+
+    private static GnssStatusMultiplexer instance;
+
+    private final LocationManager locationManager;
+    private final Handler handler;
+    private final GnssStartupRecorder startupRecorder;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private GnssStatus.Callback systemCallback;
+    private volatile GnssSnapshot latestSnapshot;
+    private long sequence = 0;
+    private long registrations = 0;
+    private long decodeNanosTotal = 0;
+
+    private GnssStatusMultiplexer(LocationManager locationManager, Handler handler,
+                                  GnssStartupRecorder startupRecorder) {
+        this.locationManager = locationManager;
+        this.handler = handler;
+        this.startupRecorder = startupRecorder;
+    }
+
+    static synchronized GnssStatusMultiplexer getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            LocationManager lm = (LocationManager) appContext.getSystemService(Context.LOCATION_SERVICE);
+            instance = new GnssStatusMultiplexer(lm, new Handler(Looper.getMainLooper()),
+                    GnssStartupRecorder.getInstance(appContext));
+        }
+        return instance;
+    }
+
+    /**
+     * Add a subscriber. Registers the system callback on the first reference.
+     *
+     * @throws SecurityException when location permission is missing
+     */
+    synchronized Subscription subscribe(String name, long minIntervalMs, Listener listener) {
+        Subscription subscription = new Subscription(name, listener, Math.max(0, minIntervalMs));
+        subscriptions.add(subscription);
+
+        if (systemCallback == null) {
+            systemCallback = new GnssStatus.Callback() {
+                @Override
+                public void onSatelliteStatusChanged(GnssStatus status) {
+                    dispatch(status);
+                }
+
+                @Override
+                public void onStarted() {
+                    startupRecorder.onEngineStarted();
+                    for (Subscription s : subscriptions) s.listener.onStarted();
+                }
+
+                @Override
+                public void onStopped() {
+                    startupRecorder.onEngineStopped();
+                    for (Subscription s : subscriptions) s.listener.onStopped();
+                }
+
+                @Override
+                public void onFirstFix(int ttffMillis) {
+                    startupRecorder.onFirstFix(ttffMillis);
+                    for (Subscription s : subscriptions) s.listener.onFirstFix(ttffMillis);
+                }
+            };
+            try {
+                locationManager.registerGnssStatusCallback(systemCallback, handler);
+                registrations++;
+                startupRecorder.onCallbackRegistered();
+                Log.d("NavIC", "🛰️ GNSS multiplexer registered system callback (first subscriber: " + name + ")");
+            } catch (RuntimeException e) {
+                systemCallback = null;
+                subscriptions.remove(subscription);
+                throw e;
+            }
+        }
+
+        Log.d("NavIC", "➕ GNSS subscriber " + name + " (refs: " + subscriptions.size() + ")");
+        return subscription;
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        if (subscription.closed) return;
+        subscription.closed = true;
+        subscriptions.remove(subscription);
+        Log.d("NavIC", "➖ GNSS subscriber " + subscription.name + " (refs: " + subscriptions.size() + ")");
+
+        if (subscriptions.isEmpty() && systemCallback != null) {
+            try {
+                locationManager.unregisterGnssStatusCallback(systemCallback);
+            } catch (Exception e) {
+                // Ignore cleanup errors
+            }
+            systemCallback = null;
+            startupRecorder.onCallbackReleased();
+            Log.d("NavIC", "🛰️ GNSS multiplexer released system callback");
+        }
+    }
+
+    private void dispatch(GnssStatus status) {
+        long decodeStart = System.nanoTime();
+        long now = System.currentTimeMillis();
+        GnssSnapshot snapshot = GnssSnapshot.decode(status, ++sequence, now);
+        decodeNanosTotal += System.nanoTime() - decodeStart;
+        latestSnapshot = snapshot;
+        startupRecorder.onSnapshot(snapshot);
+
+        for (Subscription s : subscriptions) {
+            if (s.closed) continue;
+            if (now - s.lastDeliveredMs < s.minIntervalMs) {
+                s.skipped++;
+                continue;
+            }
+            s.lastDeliveredMs = now;
+            s.delivered++;
+            try {
+                s.listener.onSnapshot(snapshot);
+            } catch (Exception e) {
+                Log.e("NavIC", "GNSS subscriber " + s.name + " failed", e);
+            }
+        }
+    }
+
+    /** Most recent decoded tick, or null before the first one arrives */
+    GnssSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    boolean isActive() {
+        return systemCallback != null;
+    }
+
+    synchronized Map<String, Object> getStats() {
+        List<Map<String, Object>> subs = new ArrayList<>();
+        for (Subscription s : subscriptions) {
+            subs.add(s.toMap());
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("active", systemCallback != null);
+        stats.put("referenceCount", subscriptions.size());
+        stats.put("systemRegistrations", registrations);
+        stats.put("ticksDecoded", sequence);
+        stats.put("averageDecodeMicros", sequence > 0 ? decodeNanosTotal / 1000.0 / sequence : 0.0);
+        stats.put("subscribers", subs);
+        return stats;
+    }
+}
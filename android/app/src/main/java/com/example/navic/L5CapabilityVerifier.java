@@ -0,0 +1,241 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Confirms L5 reception from the carrier frequencies the receiver actually
+ * reports, instead of trusting chipset names and system properties.
+ *
+ * Only ticks that report at least one carrier frequency count as evidence.
+ * For every band the verifier keeps how many of those ticks contained a
+ * signal on it, with a Wilson score interval on that proportion. Counts and
+ * the observed band set persist per device fingerprint, so the verdict
+ * survives restarts and is discarded after a firmware update.
+ */
+final class L5CapabilityVerifier {
+
+    enum Verdict {
+        /** Not enough carrier-reporting ticks to say anything */
+        UNVERIFIED,
+        /** L5 carriers were received */
+        CONFIRMED,
+        /** Carriers are reported, but never on L5 */
+        NOT_OBSERVED
+    }
+
+    private static final String PREFS = "navic_l5_verifier";
+    private static final GnssIdentifiers.Band[] BANDS = GnssIdentifiers.Band.values();
+    private static final double Z_95 = 1.96;
+    private static final int MIN_L5_TICKS = 3;
+    private static final int MIN_TICKS_FOR_ABSENCE = 120;
+    private static final double MAX_ABSENT_L5_RATE = 0.02;
+    private static final int PERSIST_EVERY_TICKS = 30;
+    private static final int MAX_EVIDENCE = 50;
+
+    private final SharedPreferences prefs;
+    private final String fingerprint;
+    private final long[] bandTicks = new long[BANDS.length];
+    private final long[] bandSignals = new long[BANDS.length];
+    private final LinkedList<Map<String, Object>> evidence = new LinkedList<>();
+    private long carrierTicks = 0;
+    private long ticksSinceRestore = 0;
+    private long lastSequence = -1;
+    private int observedMask = 0;
+    private Verdict verdict = Verdict.UNVERIFIED;
+
+    L5CapabilityVerifier(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.fingerprint = Integer.toHexString(Build.FINGERPRINT.hashCode());
+        restore();
+    }
+
+    /**
+     * Count one tick. Ticks already seen (by sequence) are ignored, so every
+     * subscriber of the multiplexer may feed the same snapshot.
+     *
+     * @return true when the verdict changed
+     */
+    synchronized boolean observe(GnssSnapshot snapshot) {
+        if (snapshot.sequence <= lastSequence) return false;
+        lastSequence = snapshot.sequence;
+
+        int tickMask = 0;
+        for (int i = 0; i < snapshot.satelliteCount; i++) {
+            if (!snapshot.hasCarrierFrequency(i) || snapshot.cn0DbHz(i) <= 0) continue;
+            int b = snapshot.band(i).ordinal();
+            tickMask |= 1 << b;
+            bandSignals[b]++;
+        }
+        if (tickMask == 0) return false;
+
+        carrierTicks++;
+        ticksSinceRestore++;
+        for (int b = 0; b < BANDS.length; b++) {
+            if ((tickMask & (1 << b)) != 0) bandTicks[b]++;
+        }
+
+        int newBands = tickMask & ~observedMask;
+        if (newBands != 0) {
+            observedMask |= tickMask;
+            for (int b = 0; b < BANDS.length; b++) {
+                if ((newBands & (1 << b)) != 0) addEvidence("BAND_OBSERVED", BANDS[b].name());
+            }
+        }
+
+        Verdict previous = verdict;
+        verdict = evaluate();
+        boolean changed = verdict != previous;
+        if (changed) {
+            addEvidence("VERDICT", previous + " -> " + verdict);
+            Log.d("NavIC", "📡 L5 verifier: " + previous + " -> " + verdict + " after " + carrierTicks + " carrier ticks");
+        }
+        if (changed || newBands != 0 || ticksSinceRestore % PERSIST_EVERY_TICKS == 0) {
+            persist();
+        }
+        return changed;
+    }
+
+    private Verdict evaluate() {
+        int l5 = GnssIdentifiers.Band.L5.ordinal();
+        if (bandTicks[l5] >= MIN_L5_TICKS) return Verdict.CONFIRMED;
+        if (carrierTicks >= MIN_TICKS_FOR_ABSENCE && wilsonUpper(bandTicks[l5], carrierTicks) < MAX_ABSENT_L5_RATE) {
+            return Verdict.NOT_OBSERVED;
+        }
+        return Verdict.UNVERIFIED;
+    }
+
+    synchronized Verdict verdict() {
+        return verdict;
+    }
+
+    /**
+     * Confidence that the device receives L5, from the observed L5 tick rate.
+     * Only meaningful when the verdict is not UNVERIFIED.
+     */
+    synchronized double l5Confidence() {
+        long l5Ticks = bandTicks[GnssIdentifiers.Band.L5.ordinal()];
+        switch (verdict) {
+            case CONFIRMED:
+                // Any received L5 carrier is proof; the interval only says how often
+                return Math.max(0.95, wilsonLower(l5Ticks, carrierTicks));
+            case NOT_OBSERVED:
+                return wilsonUpper(l5Ticks, carrierTicks);
+            default:
+                return 0.0;
+        }
+    }
+
+    private void addEvidence(String type, String detail) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("type", type);
+        entry.put("detail", detail);
+        entry.put("carrierTicks", carrierTicks);
+        entry.put("timestamp", System.currentTimeMillis());
+        evidence.addLast(entry);
+        while (evidence.size() > MAX_EVIDENCE) evidence.removeFirst();
+    }
+
+    static double wilsonLower(long successes, long trials) {
+        return wilson(successes, trials, -1);
+    }
+
+    static double wilsonUpper(long successes, long trials) {
+        return wilson(successes, trials, 1);
+    }
+
+    private static double wilson(long successes, long trials, int sign) {
+        if (trials == 0) return sign < 0 ? 0.0 : 1.0;
+        double n = trials;
+        double p = successes / n;
+        double z2 = Z_95 * Z_95;
+        double centre = p + z2 / (2 * n);
+        double margin = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return Math.min(1.0, Math.max(0.0, (centre + sign * margin) / (1 + z2 / n)));
+    }
+
+    // =============== PERSISTENCE ===============
+
+    private String key(String name) {
+        return name + "_" + fingerprint;
+    }
+
+    private void restore() {
+        carrierTicks = prefs.getLong(key("carrierTicks"), 0);
+        observedMask = prefs.getInt(key("observedMask"), 0);
+        for (int b = 0; b < BANDS.length; b++) {
+            bandTicks[b] = prefs.getLong(key("ticks_" + BANDS[b].name()), 0);
+            bandSignals[b] = prefs.getLong(key("signals_" + BANDS[b].name()), 0);
+        }
+        verdict = evaluate();
+        if (carrierTicks > 0) {
+            addEvidence("RESTORED", verdict + " from " + carrierTicks + " carrier ticks");
+        }
+    }
+
+    private void persist() {
+        SharedPreferences.Editor editor = prefs.edit()
+                .putLong(key("carrierTicks"), carrierTicks)
+                .putInt(key("observedMask"), observedMask)
+                .putString(key("verdict"), verdict.name());
+        for (int b = 0; b < BANDS.length; b++) {
+            if ((observedMask & (1 << b)) == 0) continue;
+            editor.putLong(key("ticks_" + BANDS[b].name()), bandTicks[b]);
+            editor.putLong(key("signals_" + BANDS[b].name()), bandSignals[b]);
+        }
+        editor.apply();
+    }
+
+    synchronized void reset() {
+        SharedPreferences.Editor editor = prefs.edit()
+                .remove(key("carrierTicks"))
+                .remove(key("observedMask"))
+                .remove(key("verdict"));
+        for (GnssIdentifiers.Band band : BANDS) {
+            editor.remove(key("ticks_" + band.name())).remove(key("signals_" + band.name()));
+        }
+        editor.apply();
+
+        Arrays.fill(bandTicks, 0);
+        Arrays.fill(bandSignals, 0);
+        carrierTicks = 0;
+        ticksSinceRestore = 0;
+        observedMask = 0;
+        verdict = Verdict.UNVERIFIED;
+        evidence.clear();
+        addEvidence("RESET", "Evidence cleared");
+    }
+
+    synchronized Map<String, Object> toMap() {
+        List<Map<String, Object>> bands = new ArrayList<>();
+        for (int b = 0; b < BANDS.length; b++) {
+            if ((observedMask & (1 << b)) == 0) continue;
+            Map<String, Object> band = new HashMap<>();
+            band.put("band", BANDS[b].label);
+            band.put("ticks", bandTicks[b]);
+            band.put("signals", bandSignals[b]);
+            band.put("rate", carrierTicks > 0 ? (double) bandTicks[b] / carrierTicks : 0.0);
+            band.put("rateLower95", wilsonLower(bandTicks[b], carrierTicks));
+            band.put("rateUpper95", wilsonUpper(bandTicks[b], carrierTicks));
+            bands.add(band);
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("verdict", verdict.name());
+        map.put("l5Confidence", l5Confidence());
+        map.put("carrierTicks", carrierTicks);
+        map.put("observedBands", bands);
+        map.put("deviceFingerprint", fingerprint);
+        map.put("evidence", new ArrayList<>(evidence));
+        return map;
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.navic;
+
+import android.location.Location;
+import android.location.LocationManager;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the interleaved GPS, NETWORK and FUSED callbacks into one fix stream.
+ *
+ * The newest fix of each provider is kept. Repeats of a fix already held
+ * (same provider and fix time, or another provider echoing the same position
+ * and time) are dropped. At most once per emit interval the best held fix is
+ * picked by accuracy inflated with age; when several providers produced fixes
+ * inside the same time window with comparable quality, their positions are
+ * blended by inverse variance. A fused fix built from exactly the same source
+ * fixes as the previous one is not emitted again. Main-thread only.
+ *
+ * FUSED is itself derived from the GPS and NETWORK fixes, so it is never
+ * blended with them as if it were independent, and a FUSED fix inside the
+ * time window of a held GPS fix gives way to the GPS fix.
+ */
+final class LocationFixFuser {
+
+    private static final String[] PROVIDERS = {
+            LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER, "fused", "other"
+    };
+    private static final int SLOT_GPS = 0;
+    private static final int SLOT_FUSED = 2;
+    private static final int SLOT_OTHER = PROVIDERS.length - 1;
+    private static final float MIN_ACCURACY_M = 1.0f;
+    private static final float UNKNOWN_ACCURACY_M = 100.0f;
+    private static final double ECHO_DISTANCE_M = 0.5;
+
+    interface Sink {
+        void onFusedFix(FusedFix fix);
+    }
+
+    static final class Config {
+        /** Fixes whose times differ by at most this much may be blended */
+        long windowMs = 1000;
+        /** Fixes older than this are no longer candidates */
+        long maxAgeMs = 10000;
+        /** Minimum spacing of emitted fixes */
+        long emitIntervalMs = 1000;
+        /** Accuracy penalty per second of fix age */
+        double ageInflationMps = 3.0;
+        /** Blend candidates whose score is within this factor of the best one */
+        double blendScoreRatio = 2.0;
+        boolean blend = true;
+
+        void applyArguments(Map<?, ?> args) {
+            if (args == null) return;
+            windowMs = Math.max(0, longArg(args, "windowMs", windowMs));
+            maxAgeMs = Math.max(windowMs, longArg(args, "maxAgeMs", maxAgeMs));
+            emitIntervalMs = Math.max(0, longArg(args, "emitIntervalMs", emitIntervalMs));
+            ageInflationMps = Math.max(0, doubleArg(args, "ageInflationMps", ageInflationMps));
+            blendScoreRatio = Math.max(1.0, doubleArg(args, "blendScoreRatio", blendScoreRatio));
+            Object blendArg = args.get("blend");
+            if (blendArg instanceof Boolean) blend = (Boolean) blendArg;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("windowMs", windowMs);
+            map.put("maxAgeMs", maxAgeMs);
+            map.put("emitIntervalMs", emitIntervalMs);
+            map.put("ageInflationMps", ageInflationMps);
+            map.put("blendScoreRatio", blendScoreRatio);
+            map.put("blend", blend);
+            return map;
+        }
+    }
+
+    /** One emitted fix with the providers it came from */
+    static final class FusedFix {
+        final Location location;
+        final List<String> sources;
+        final boolean blended;
+        final long ageMs;
+
+        FusedFix(Location location, List<String> sources, boolean blended, long ageMs) {
+            this.location = location;
+            this.sources = sources;
+            this.blended = blended;
+            this.ageMs = ageMs;
+        }
+    }
+
+    private final Handler handler;
+    private final Sink sink;
+    private final Config config = new Config();
+    private final Location[] latest = new Location[PROVIDERS.length];
+    private final long[] fixElapsedMs = new long[PROVIDERS.length];
+    private final long[] emittedElapsedMs = new long[PROVIDERS.length];
+    private final Runnable emitTask = this::emit;
+    private long lastEmitMs = Long.MIN_VALUE / 2;
+    private boolean emitPending = false;
+
+    private long offered = 0;
+    private long duplicates = 0;
+    private long stale = 0;
+    private long suppressed = 0;
+    private long emitted = 0;
+    private long blendedCount = 0;
+    private long fusedShadowed = 0;
+    private final long[] offeredBySlot = new long[PROVIDERS.length];
+    private final long[] selectedBySlot = new long[PROVIDERS.length];
+
+    LocationFixFuser(Handler handler, Sink sink) {
+        this.handler = handler;
+        this.sink = sink;
+    }
+
+    void configure(Map<?, ?> args) {
+        config.applyArguments(args);
+        if (emitPending) {
+            handler.removeCallbacks(emitTask);
+            emitPending = false;
+            schedule();
+        }
+    }
+
+    void offer(Location location) {
+        if (location == null) return;
+        offered++;
+        int slot = slotOf(location.getProvider());
+        offeredBySlot[slot]++;
+
+        long elapsedMs = elapsedMsOf(location);
+        if (SystemClock.elapsedRealtime() - elapsedMs > config.maxAgeMs) {
+            stale++;
+            return;
+        }
+        if (isDuplicate(slot, location, elapsedMs)) {
+            duplicates++;
+            return;
+        }
+
+        latest[slot] = location;
+        fixElapsedMs[slot] = elapsedMs;
+        schedule();
+    }
+
+    /** Same fix again from its provider, or another provider echoing it */
+    private boolean isDuplicate(int slot, Location location, long elapsedMs) {
+        Location held = latest[slot];
+        if (held != null && held.getTime() == location.getTime() && fixElapsedMs[slot] >= elapsedMs) {
+            return true;
+        }
+        for (int s = 0; s < latest.length; s++) {
+            Location other = latest[s];
+            if (s == slot || other == null) continue;
+            if (other.getTime() == location.getTime()
+                    && other.getAccuracy() == location.getAccuracy()
+                    && other.distanceTo(location) < ECHO_DISTANCE_M) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void schedule() {
+        if (emitPending) return;
+        long now = SystemClock.elapsedRealtime();
+        long dueMs = lastEmitMs + config.emitIntervalMs;
+        if (now >= dueMs) {
+            emit();
+        } else {
+            emitPending = true;
+            handler.postDelayed(emitTask, dueMs - now);
+        }
+    }
+
+    private void emit() {
+        emitPending = false;
+        long now = SystemClock.elapsedRealtime();
+
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        boolean shadowed = false;
+        for (int s = 0; s < latest.length; s++) {
+            if (latest[s] == null) continue;
+            if (now - fixElapsedMs[s] > config.maxAgeMs) {
+                latest[s] = null;
+                continue;
+            }
+            if (s == SLOT_FUSED && overlapsGps(now)) {
+                shadowed = true;
+                continue;
+            }
+            double score = score(s, now);
+            if (score < bestScore) {
+                bestScore = score;
+                best = s;
+            }
+        }
+        if (best < 0) return;
+        if (shadowed) fusedShadowed++;
+
+        // Collect the slots this fix is made of; the best one always takes part
+        int mask = 1 << best;
+        if (config.blend && best != SLOT_FUSED) {
+            for (int s = 0; s < latest.length; s++) {
+                if (s == best || s == SLOT_FUSED || latest[s] == null) continue;
+                if (Math.abs(fixElapsedMs[s] - fixElapsedMs[best]) <= config.windowMs
+                        && score(s, now) <= bestScore * config.blendScoreRatio) {
+                    mask |= 1 << s;
+                }
+            }
+        }
+
+        if (sameSourcesAsLastEmit(mask)) {
+            suppressed++;
+            return;
+        }
+
+        Location fused = new Location(latest[best]);
+        List<String> sources = new ArrayList<>();
+        boolean blended = Integer.bitCount(mask) > 1;
+        if (blended) {
+            double weightSum = 0, lat = 0, lon = 0;
+            for (int s = 0; s < latest.length; s++) {
+                if ((mask & (1 << s)) == 0) continue;
+                double sigma = score(s, now);
+                double w = 1.0 / (sigma * sigma);
+                lat += w * latest[s].getLatitude();
+                lon += w * latest[s].getLongitude();
+                weightSum += w;
+            }
+            fused.setLatitude(lat / weightSum);
+            fused.setLongitude(lon / weightSum);
+            fused.setAccuracy((float) Math.sqrt(1.0 / weightSum));
+            blendedCount++;
+        }
+        for (int s = 0; s < latest.length; s++) {
+            if ((mask & (1 << s)) == 0) {
+                emittedElapsedMs[s] = 0;
+                continue;
+            }
+            emittedElapsedMs[s] = fixElapsedMs[s];
+            sources.add(latest[s].getProvider());
+        }
+
+        selectedBySlot[best]++;
+        emitted++;
+        lastEmitMs = now;
+        sink.onFusedFix(new FusedFix(fused, sources, blended, now - fixElapsedMs[best]));
+    }
+
+    /** A held, unexpired GPS fix lies within the blend window of the held FUSED fix */
+    private boolean overlapsGps(long now) {
+        return latest[SLOT_GPS] != null && now - fixElapsedMs[SLOT_GPS] <= config.maxAgeMs
+                && Math.abs(fixElapsedMs[SLOT_FUSED] - fixElapsedMs[SLOT_GPS]) <= config.windowMs;
+    }
+
+    private boolean sameSourcesAsLastEmit(int mask) {
+        if (emitted == 0) return false;
+        for (int s = 0; s < latest.length; s++) {
+            long expected = (mask & (1 << s)) != 0 ? fixElapsedMs[s] : 0;
+            if (emittedElapsedMs[s] != expected) return false;
+        }
+        return true;
+    }
+
+    /** Accuracy in metres, inflated by how old the fix is */
+    private double score(int slot, long now) {
+        Location location = latest[slot];
+        float accuracy = location.hasAccuracy()
+                ? Math.max(MIN_ACCURACY_M, location.getAccuracy()) : UNKNOWN_ACCURACY_M;
+        double ageSeconds = Math.max(0, now - fixElapsedMs[slot]) / 1000.0;
+        return accuracy + ageSeconds * config.ageInflationMps;
+    }
+
+    private static long elapsedMsOf(Location location) {
+        long nanos = location.getElapsedRealtimeNanos();
+        return nanos > 0 ? nanos / 1_000_000L : SystemClock.elapsedRealtime();
+    }
+
+    private static int slotOf(String provider) {
+        for (int s = 0; s < SLOT_OTHER; s++) {
+            if (PROVIDERS[s].equals(provider)) return s;
+        }
+        return SLOT_OTHER;
+    }
+
+    /** Drop held fixes, e.g. when location updates stop */
+    void reset() {
+        handler.removeCallbacks(emitTask);
+        emitPending = false;
+        for (int s = 0; s < latest.length; s++) {
+            latest[s] = null;
+            fixElapsedMs[s] = 0;
+            emittedElapsedMs[s] = 0;
+        }
+        lastEmitMs = Long.MIN_VALUE / 2;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> providers = new HashMap<>();
+        for (int s = 0; s < PROVIDERS.length; s++) {
+            Map<String, Object> slot = new HashMap<>();
+            slot.put("offered", offeredBySlot[s]);
+            slot.put("selected", selectedBySlot[s]);
+            slot.put("holding", latest[s] != null);
+            providers.put(PROVIDERS[s], slot);
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("config", config.toMap());
+        map.put("offered", offered);
+        map.put("duplicates", duplicates);
+        map.put("stale", stale);
+        map.put("suppressed", suppressed);
+        map.put("emitted", emitted);
+        map.put("blended", blendedCount);
+        map.put("fusedShadowed", fusedShadowed);
+        map.put("providers", providers);
+        return map;
+    }
+
+    private static long longArg(Map<?, ?> args, String key, long fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+
+    private static double doubleArg(Map<?, ?> args, String key, double fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.navic;
+
+import android.app.AlarmManager;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.location.GnssStatus;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Foreground service that keeps NavIC availability monitoring alive when the
+ * Activity is gone.
+ *
+ * GNSS is duty-cycled: a short listening window (30 s by default) followed
+ * by an off period (4.5 min by default) that shrinks while the device moves
+ * and grows while it stays put. Each window is reduced to one
+ * {@link MonitorSummaryStore.Summary}. The Activity binds to read status and
+ * receive summaries; binding and unbinding never touch acquisition.
+ *
+ * Handler callbacks stall while the device dozes, so the next window is
+ * opened by an alarm allowed while idle, and a partial wake lock keeps the
+ * CPU up for the length of each window so it closes on time.
+ */
+public class LocationService extends Service {
+    static final String ACTION_START = "com.example.navic.monitor.START";
+    static final String ACTION_STOP = "com.example.navic.monitor.STOP";
+    static final String ACTION_OPEN_WINDOW = "com.example.navic.monitor.OPEN_WINDOW";
+    static final String EXTRA_ON_MS = "onMs";
+    static final String EXTRA_OFF_MS = "offMs";
+
+    static final long DEFAULT_ON_MS = 30_000;
+    static final long DEFAULT_OFF_MS = 270_000;
+    private static final long MIN_OFF_MS = 60_000;
+    private static final long MAX_OFF_MS = 900_000;
+    private static final float MOVING_DISTANCE_M = 100f;
+    private static final float MOVING_SPEED_MPS = 2f;
+    private static final int STATIONARY_WINDOWS_BEFORE_BACKOFF = 3;
+    private static final float MIN_NAVIC_SIGNAL_STRENGTH = 15.0f;
+    private static final long WAKE_LOCK_MARGIN_MS = 10_000;
+
+    private static final String NOTIFICATION_CHANNEL = "navic_monitor";
+    private static final int NOTIFICATION_ID = 4711;
+
+    private static volatile boolean running = false;
+
+    /** Receives each finished window on the main thread */
+    interface Listener {
+        void onWindowSummary(MonitorSummaryStore.Summary summary);
+    }
+
+    final class LocalBinder extends Binder {
+        LocationService getService() {
+            return LocationService.this;
+        }
+    }
+
+    private final LocalBinder binder = new LocalBinder();
+    private Handler handler;
+    private LocationManager locationManager;
+    private AlarmManager alarmManager;
+    private PendingIntent openWindowAlarm;
+    private PowerManager.WakeLock windowWakeLock;
+    private GnssStatusMultiplexer gnssMultiplexer;
+    private GnssStatusMultiplexer.Subscription windowSubscription;
+    private MonitorSummaryStore store;
+    private Listener listener;
+
+    private long onMs = DEFAULT_ON_MS;
+    private long baseOffMs = DEFAULT_OFF_MS;
+    private long currentOffMs = DEFAULT_OFF_MS;
+    private boolean windowOpen = false;
+    private long windowStartMs;
+    private long windowStartElapsed;
+    private long nextWindowElapsed;
+    private long windowClosedElapsed;
+    private int stationaryWindows = 0;
+    private long windowsCompleted = 0;
+
+    // Current window accumulators
+    private int ticks;
+    private int navicMax;
+    private long navicSum;
+    private int navicUsedMax;
+    private double navicCn0Sum;
+    private int navicCn0Count;
+    private int totalMax;
+    private boolean l5Seen;
+    private Location windowFix;
+    private Location lastWindowFix;
+    private MonitorSummaryStore.Summary lastSummary;
+
+    private final Runnable closeWindowTask = this::closeWindow;
+
+    private final LocationListener locationListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(Location location) {
+            GnssStartupRecorder.getInstance(LocationService.this).onLocation(location.getProvider());
+            CoverageTileIndex.getInstance(LocationService.this).record(location, gnssMultiplexer.getLatestSnapshot());
+            if (windowFix == null || location.getAccuracy() <= windowFix.getAccuracy()) {
+                windowFix = new Location(location);
+            }
+        }
+    };
+
+    static boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        handler = new Handler(Looper.getMainLooper());
+        locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+        alarmManager = (AlarmManager) getSystemService(Context.ALARM_SERVICE);
+        Intent open = new Intent(this, LocationService.class).setAction(ACTION_OPEN_WINDOW);
+        int pendingFlags = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
+        openWindowAlarm = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? PendingIntent.getForegroundService(this, 0, open, pendingFlags)
+                : PendingIntent.getService(this, 0, open, pendingFlags);
+        PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+        windowWakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "navic:monitorWindow");
+        windowWakeLock.setReferenceCounted(false);
+        gnssMultiplexer = GnssStatusMultiplexer.getInstance(this);
+        store = MonitorSummaryStore.getInstance(this);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && ACTION_STOP.equals(intent.getAction())) {
+            stopMonitoring();
+            return START_NOT_STICKY;
+        }
+
+        startForegroundNotification();
+        if (intent != null && ACTION_OPEN_WINDOW.equals(intent.getAction()) && running) {
+            openWindow();
+            return START_STICKY;
+        }
+        if (intent != null && !ACTION_OPEN_WINDOW.equals(intent.getAction())) {
+            onMs = Math.max(5_000, intent.getLongExtra(EXTRA_ON_MS, onMs));
+            baseOffMs = Math.max(MIN_OFF_MS, intent.getLongExtra(EXTRA_OFF_MS, baseOffMs));
+            currentOffMs = baseOffMs;
+        }
+
+        if (!running) {
+            running = true;
+            Log.d("NavIC", "🛰️ Background monitor started (" + onMs + " ms on / " + baseOffMs + " ms off)");
+            openWindow();
+        } else {
+            retune();
+        }
+        // Restarted by the system after being killed; picks the defaults back up
+        return START_STICKY;
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return binder;
+    }
+
+    @Override
+    public void onDestroy() {
+        stopAcquisition();
+        alarmManager.cancel(openWindowAlarm);
+        handler.removeCallbacks(closeWindowTask);
+        releaseWakeLock();
+        running = false;
+        listener = null;
+        Log.d("NavIC", "🛰️ Background monitor destroyed");
+        super.onDestroy();
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    private void stopMonitoring() {
+        running = false;
+        if (windowOpen) closeWindow();
+        alarmManager.cancel(openWindowAlarm);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            stopForeground(STOP_FOREGROUND_REMOVE);
+        } else {
+            stopForegroundLegacy();
+        }
+        stopSelf();
+    }
+
+    /** Pre-N only; the flags overload does not exist there */
+    @SuppressWarnings("deprecation")
+    private void stopForegroundLegacy() {
+        stopForeground(true);
+    }
+
+    // =============== DUTY CYCLE ===============
+
+    private void openWindow() {
+        if (windowOpen) return;
+        alarmManager.cancel(openWindowAlarm);
+        windowWakeLock.acquire(onMs + WAKE_LOCK_MARGIN_MS);
+        resetWindow();
+        windowOpen = true;
+        windowStartMs = System.currentTimeMillis();
+        windowStartElapsed = SystemClock.elapsedRealtime();
+
+        try {
+            windowSubscription = gnssMultiplexer.subscribe("monitor", 1000, new GnssStatusMultiplexer.Listener() {
+                @Override
+                public void onSnapshot(GnssSnapshot snapshot) {
+                    accumulate(snapshot);
+                }
+            });
+            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, 1000, 0,
+                    locationListener, Looper.getMainLooper());
+        } catch (SecurityException e) {
+            Log.e("NavIC", "Background monitor lost location permission", e);
+            stopAcquisition();
+        }
+
+        handler.postDelayed(closeWindowTask, onMs);
+    }
+
+    private void closeWindow() {
+        if (!windowOpen) return;
+        handler.removeCallbacks(closeWindowTask);
+        stopAcquisition();
+        windowOpen = false;
+        windowClosedElapsed = SystemClock.elapsedRealtime();
+        CoverageTileIndex.getInstance(this).flush();
+
+        boolean moving = isMoving();
+        currentOffMs = nextOffPeriod(moving);
+
+        MonitorSummaryStore.Summary summary = new MonitorSummaryStore.Summary();
+        summary.startMs = windowStartMs;
+        summary.durationMs = (int) (SystemClock.elapsedRealtime() - windowStartElapsed);
+        summary.ticks = ticks;
+        summary.navicMax = navicMax;
+        summary.navicAverage = ticks > 0 ? (float) navicSum / ticks : 0f;
+        summary.navicUsedMax = navicUsedMax;
+        summary.navicCn0Average = navicCn0Count > 0 ? (float) (navicCn0Sum / navicCn0Count) : 0f;
+        summary.totalSatellitesMax = totalMax;
+        summary.nextOffMs = (int) currentOffMs;
+        if (l5Seen) summary.flags |= MonitorSummaryStore.FLAG_L5_SEEN;
+        if (moving) summary.flags |= MonitorSummaryStore.FLAG_MOVING;
+        if (windowFix != null) {
+            summary.flags |= MonitorSummaryStore.FLAG_HAS_FIX;
+            summary.latitude = windowFix.getLatitude();
+            summary.longitude = windowFix.getLongitude();
+            summary.accuracyM = windowFix.getAccuracy();
+            lastWindowFix = windowFix;
+        }
+
+        store.append(summary);
+        lastSummary = summary;
+        windowsCompleted++;
+        Log.d("NavIC", String.format("🛰️ Monitor window: NavIC max %d, avg %.1f, next in %d s%s",
+                navicMax, summary.navicAverage, currentOffMs / 1000, moving ? " (moving)" : ""));
+
+        if (listener != null) listener.onWindowSummary(summary);
+
+        if (running) scheduleNextWindow(windowClosedElapsed + currentOffMs);
+        releaseWakeLock();
+    }
+
+    /**
+     * New on/off lengths for a running monitor: move the pending close or the
+     * next open to where the new lengths put it
+     */
+    private void retune() {
+        long now = SystemClock.elapsedRealtime();
+        if (windowOpen) {
+            long remaining = Math.max(0, windowStartElapsed + onMs - now);
+            handler.removeCallbacks(closeWindowTask);
+            handler.postDelayed(closeWindowTask, remaining);
+            windowWakeLock.acquire(remaining + WAKE_LOCK_MARGIN_MS);
+        } else {
+            scheduleNextWindow(Math.max(now, windowClosedElapsed + currentOffMs));
+        }
+        Log.d("NavIC", "🛰️ Background monitor retuned (" + onMs + " ms on / " + baseOffMs + " ms off)");
+    }
+
+    /**
+     * Exact while-idle alarms need SCHEDULE_EXACT_ALARM on Android 12+; without
+     * it the window may open a few minutes late, but still opens in Doze
+     */
+    private void scheduleNextWindow(long atElapsed) {
+        nextWindowElapsed = atElapsed;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, atElapsed, openWindowAlarm);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, atElapsed, openWindowAlarm);
+        } else {
+            alarmManager.setExact(AlarmManager.ELAPSED_REALTIME_WAKEUP, atElapsed, openWindowAlarm);
+        }
+    }
+
+    private void releaseWakeLock() {
+        if (windowWakeLock.isHeld()) windowWakeLock.release();
+    }
+
+    private void stopAcquisition() {
+        if (windowSubscription != null) {
+            windowSubscription.close();
+            windowSubscription = null;
+        }
+        try {
+            locationManager.removeUpdates(locationListener);
+        } catch (Exception e) {
+            // Ignore cleanup errors
+        }
+    }
+
+    private boolean isMoving() {
+        if (windowFix == null) return false;
+        if (windowFix.hasSpeed() && windowFix.getSpeed() >= MOVING_SPEED_MPS) return true;
+        return lastWindowFix != null && windowFix.distanceTo(lastWindowFix) >= MOVING_DISTANCE_M;
+    }
+
+    /**
+     * Moving: listen three times as often. Stationary for a few windows:
+     * double the gap each window, up to MAX_OFF_MS.
+     */
+    private long nextOffPeriod(boolean moving) {
+        if (moving) {
+            stationaryWindows = 0;
+            return Math.max(MIN_OFF_MS, baseOffMs / 3);
+        }
+        stationaryWindows++;
+        if (stationaryWindows <= STATIONARY_WINDOWS_BEFORE_BACKOFF) return baseOffMs;
+        return Math.min(MAX_OFF_MS, Math.max(currentOffMs, baseOffMs) * 2);
+    }
+
+    private void resetWindow() {
+        ticks = 0;
+        navicMax = 0;
+        navicSum = 0;
+        navicUsedMax = 0;
+        navicCn0Sum = 0;
+        navicCn0Count = 0;
+        totalMax = 0;
+        l5Seen = false;
+        windowFix = null;
+    }
+
+    private void accumulate(GnssSnapshot snapshot) {
+        int navic = 0;
+        int navicUsed = 0;
+        for (int i = 0; i < snapshot.satelliteCount; i++) {
+            if (snapshot.hasCarrierFrequency(i) && snapshot.band(i) == GnssIdentifiers.Band.L5
+                    && snapshot.cn0DbHz(i) > 0) {
+                l5Seen = true;
+            }
+        }
+        for (int k = 0; k < snapshot.svCount; k++) {
+            int i = snapshot.svSignal(k);
+            if (snapshot.constellation(i) != GnssStatus.CONSTELLATION_IRNSS) continue;
+            float cn0 = snapshot.cn0DbHz(i);
+            if (cn0 < MIN_NAVIC_SIGNAL_STRENGTH) continue;
+            navic++;
+            if (snapshot.svUsedInFix(k)) navicUsed++;
+            navicCn0Sum += cn0;
+            navicCn0Count++;
+        }
+        ticks++;
+        navicSum += navic;
+        navicMax = Math.max(navicMax, navic);
+        navicUsedMax = Math.max(navicUsedMax, navicUsed);
+        totalMax = Math.max(totalMax, snapshot.svCount);
+    }
+
+    // =============== STATUS ===============
+
+    Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running);
+        status.put("windowOpen", windowOpen);
+        status.put("onMs", onMs);
+        status.put("baseOffMs", baseOffMs);
+        status.put("currentOffMs", currentOffMs);
+        status.put("windowsCompleted", windowsCompleted);
+        status.put("storedSummaries", store.recordCount());
+        if (windowOpen) {
+            status.put("windowElapsedMs", SystemClock.elapsedRealtime() - windowStartElapsed);
+            status.put("windowTicks", ticks);
+            status.put("windowNavicMax", navicMax);
+        } else if (running) {
+            status.put("nextWindowInMs", Math.max(0, nextWindowElapsed - SystemClock.elapsedRealtime()));
+        }
+        if (lastSummary != null) status.put("lastSummary", lastSummary.toMap());
+        return status;
+    }
+
+    private void startForegroundNotification() {
+        NotificationManager manager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && manager != null) {
+            manager.createNotificationChannel(new NotificationChannel(NOTIFICATION_CHANNEL,
+                    "NavIC monitoring", NotificationManager.IMPORTANCE_LOW));
+        }
+
+        Intent openApp = new Intent(this, MainActivity.class);
+        PendingIntent contentIntent = PendingIntent.getActivity(this, 0, openApp,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        Notification.Builder builder = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? new Notification.Builder(this, NOTIFICATION_CHANNEL)
+                : legacyNotificationBuilder();
+        Notification notification = builder
+                .setContentTitle("NavIC availability monitor")
+                .setContentText("Sampling satellites periodically")
+                .setSmallIcon(getApplicationInfo().icon)
+                .setOngoing(true)
+                .setContentIntent(contentIntent)
+                .build();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            startForeground(NOTIFICATION_ID, notification, ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION);
+        } else {
+            startForeground(NOTIFICATION_ID, notification);
+        }
+    }
+
+    /** Pre-O only; notification channels do not exist there */
+    @SuppressWarnings("deprecation")
+    private Notification.Builder legacyNotificationBuilder() {
+        return new Notification.Builder(this);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.navic;
 
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
+import android.content.ServiceConnection;
 import android.content.pm.PackageManager;
 import android.location.GnssStatus;
 import android.location.Location;
@@ -10,6 +12,7 @@ import android.location.LocationManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.IBinder;
 import android.os.Looper;
 import android.provider.Settings;
 import android.util.Log;
@@ -20,32 +23,41 @@ import androidx.core.content.ContextCompat;
 
 import io.flutter.embedding.android.FlutterActivity;
 import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.StandardMethodCodec;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainActivity extends FlutterActivity {
     private static final String CHANNEL = "navic_support";
     private static final long SATELLITE_DETECTION_TIMEOUT_MS = 30000L;
+    // Detection window when the orbit predictor puts every NavIC SV below the mask
+    private static final long NAVIC_NOT_EXPECTED_TIMEOUT_MS = 10000L;
+    // A predicted NavIC SV counts as usable when its sky bin is at least this clear
+    private static final double OBSTRUCTION_USABLE_CLEARANCE = 0.5;
+    private static final int OUTAGE_MIN_NAVIC_SATELLITES = 4;
     private static final long LOCATION_UPDATE_INTERVAL_MS = 1000L;
     private static final float LOCATION_UPDATE_DISTANCE_M = 0.5f;
 
     // Enhanced detection parameters
     private static final float MIN_NAVIC_SIGNAL_STRENGTH = 15.0f;
-    private static final int MIN_NAVIC_SATELLITES_FOR_DETECTION = 1;
-    private static final long EARLY_SUCCESS_DELAY_MS = 10000L;
-    private static final int REQUIRED_CONSECUTIVE_DETECTIONS = 3;
+    private static final int MAX_RECORDED_DETECTION_SESSIONS = 20;
 
     // Enhanced GNSS frequencies with L5 bands
     private static final Map<String, Double[]> GNSS_FREQUENCIES = new HashMap<String, Double[]>() {{
@@ -59,14 +71,9 @@ public class MainActivity extends FlutterActivity {
 
     // Enhanced country flags for GNSS systems
     private static final Map<String, String> GNSS_COUNTRIES = new HashMap<String, String>() {{
-        put("GPS", "🇺🇸");
-        put("GLONASS", "🇷🇺");
-        put("GALILEO", "🇪🇺");
-        put("BEIDOU", "🇨🇳");
-        put("IRNSS", "🇮🇳");
-        put("QZSS", "🇯🇵");
-        put("SBAS", "🌍");
-        put("UNKNOWN", "🌐");
+        for (GnssIdentifiers.Constellation c : GnssIdentifiers.Constellation.values()) {
+            put(c.label, c.flag);
+        }
     }};
 
     // Enhanced Qualcomm chipsets with NavIC + L5 support
@@ -123,122 +130,176 @@ public class MainActivity extends FlutterActivity {
     ));
 
     private LocationManager locationManager;
-    private GnssStatus.Callback realtimeCallback;
+    private GnssStatusMultiplexer gnssMultiplexer;
+    private GnssStatusMultiplexer.Subscription realtimeSubscription;
+    private StreamRateController streamRateController;
+    private final Map<String, StreamEventHandler> streamEventHandlers = new HashMap<>();
+    private GnssSnapshot lastStreamedSnapshot;
+    private Location lastStreamedLocation;
+    // GPS, NETWORK and FUSED callbacks go through here before the location stream
+    private LocationFixFuser fixFuser;
+    private final PositionKalmanFilter positionFilter = new PositionKalmanFilter();
+    private EmergencyTracker emergencyTracker;
+    private GnssStartupRecorder startupRecorder;
+    private VisibilityPredictor visibilityPredictor;
+    private ObstructionMap obstructionMap;
+    private CoverageTileIndex coverageIndex;
+    private MapTileCache tileCache;
+    private MethodRouter methodRouter;
+    // Learned clearance towards the predicted NavIC SVs, refreshed every detection tick
+    private float navicSkyOpenness = 1.0f;
+    private long locationRequestIntervalMs = LOCATION_UPDATE_INTERVAL_MS;
     private LocationListener locationListener;
     private Handler handler;
+    private volatile PermissionState permissionState;
+    // Refreshed by permission-gated routes on any thread
+    private final AtomicInteger permissionRefreshCount = new AtomicInteger();
     private boolean isTrackingLocation = false;
+    // Bound background monitor; the service keeps running after we unbind
+    private LocationService monitorService;
+    private boolean monitorBound = false;
     private MethodChannel methodChannel;
 
     // Enhanced satellite tracking
     private final Map<String, EnhancedSatellite> detectedSatellites = new ConcurrentHashMap<>();
     private final Map<String, List<EnhancedSatellite>> satellitesBySystem = new ConcurrentHashMap<>();
-    private final AtomicInteger consecutiveNavicDetections = new AtomicInteger(0);
-    private final AtomicBoolean navicDetectionCompleted = new AtomicBoolean(false);
-    private boolean hasL5BandSupport = false;
-    private String detectedChipset = "UNKNOWN";
-    private String chipsetVendor = "UNKNOWN";
-    private double chipsetConfidence = 0.0;
-    private double l5Confidence = 0.0;
-    private String primaryPositioningSystem = "GPS";
+    // Maintained on write: registry covers detectedSatellites, latest tick covers satellitesBySystem
+    private final SatelliteAggregates registryAggregates = new SatelliteAggregates();
+    private final SatelliteAggregates latestTickAggregates = new SatelliteAggregates();
+    // detectedSatellites is writer-owned (main thread); readers go through published epochs
+    private final EpochPublisher<EnhancedSatellite, RegistryAggregates> registryPublisher =
+            new EpochPublisher<>(EnhancedSatellite::copyInto,
+                    new RegistryAggregates(registryAggregates.snapshot(), latestTickAggregates.snapshot()));
+    private final ResponseCache responseCache = new ResponseCache(registryPublisher::currentEpoch);
+    private final List<DetectionSession> activeDetectionSessions = new ArrayList<>();
+    // Decided sessions still feeding the legacy shadow so their recorded traces are not censored
+    private final List<DetectionSession> shadowDetectionSessions = new ArrayList<>();
+    private GnssStatusMultiplexer.Subscription detectionSubscription;
+    private long detectionFanoutStartTime;
+    private int nextDetectionSessionId = 1;
+    private NavicSequentialDetector.Config navicDetectorConfig = new NavicSequentialDetector.Config();
+    private final LinkedList<NavicSequentialDetector.RecordedSession> recordedDetectionSessions = new LinkedList<>();
+    // Also read by off-main routes
+    private volatile boolean hasL5BandSupport = false;
+    private L5CapabilityVerifier l5Verifier;
+    // SVs seen on the L5 carrier since launch; main thread only
+    private final Set<String> liveL5Satellites = new HashSet<>();
+    // Written on the main thread, read by the report builders on the router's workers
+    private volatile String detectedChipset = "UNKNOWN";
+    private volatile String chipsetVendor = "UNKNOWN";
+    private volatile double chipsetConfidence = 0.0;
+    private volatile double l5Confidence = 0.0;
+    private volatile String primaryPositioningSystem = "GPS";
 
     @Override
     public void configureFlutterEngine(@NonNull FlutterEngine flutterEngine) {
         super.configureFlutterEngine(flutterEngine);
 
         locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+        gnssMultiplexer = GnssStatusMultiplexer.getInstance(this);
+        startupRecorder = GnssStartupRecorder.getInstance(this);
+        visibilityPredictor = new VisibilityPredictor(this);
+        obstructionMap = ObstructionMap.getInstance(this);
+        coverageIndex = CoverageTileIndex.getInstance(this);
+        l5Verifier = new L5CapabilityVerifier(this);
         handler = new Handler(Looper.getMainLooper());
+        streamRateController = new StreamRateController(handler, this::deliverStreamFrame);
+        fixFuser = new LocationFixFuser(handler, this::onFusedFix);
+        tileCache = new MapTileCache(this, handler);
+        emergencyTracker = new EmergencyTracker(locationManager, gnssMultiplexer, handler, startupRecorder, batch -> {
+            if (methodChannel != null) methodChannel.invokeMethod("onEmergencyBatch", batch);
+        });
+        refreshPermissionState();
+
+        for (String stream : new String[]{StreamRateController.STREAM_SATELLITES,
+                StreamRateController.STREAM_LOCATIONS, StreamRateController.STREAM_DETECTION}) {
+            StreamEventHandler eventHandler = new StreamEventHandler(stream);
+            new EventChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), CHANNEL + "/" + stream)
+                    .setStreamHandler(eventHandler);
+            streamEventHandlers.put(stream, eventHandler);
+        }
 
-        methodChannel = new MethodChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), CHANNEL);
-        methodChannel.setMethodCallHandler((call, result) -> {
-            Log.d("NavIC", "Method called: " + call.method);
-            switch (call.method) {
-                case "checkNavicHardware":
-                    checkNavicHardwareSupport(result);
-                    break;
-                case "getGnssCapabilities":
-                    getGnssCapabilities(result);
-                    break;
-                case "startRealTimeDetection":
-                    startRealTimeNavicDetection(result);
-                    break;
-                case "stopRealTimeDetection":
-                    stopRealTimeDetection(result);
-                    break;
-                case "checkLocationPermissions":
-                    checkLocationPermissions(result);
-                    break;
-                case "requestLocationPermissions":
-                    requestLocationPermissions(result);
-                    break;
-                case "startLocationUpdates":
-                    startLocationUpdates(result);
-                    break;
-                case "stopLocationUpdates":
-                    stopLocationUpdates(result);
-                    break;
-                case "getAllSatellites":
-                    getAllSatellites(result);
-                    break;
+        if (LocationService.isRunning()) {
+            attachMonitor();
+        }
 
-                // =============== NEW SATELLITE DETECTION METHODS ===============
-                case "getAllSatellitesInRange":
-                    getAllSatellitesInRange(result);
-                    break;
-                case "getGnssRangeStatistics":
-                    getGnssRangeStatistics(result);
-                    break;
-                case "getDetailedSatelliteInfo":
-                    getDetailedSatelliteInfo(result);
-                    break;
-                case "getCompleteSatelliteSummary":
-                    getCompleteSatelliteSummary(result);
-                    break;
-                case "getSatelliteNames":
-                    getSatelliteNames(result);
-                    break;
-                case "getConstellationDetails":
-                    getConstellationDetails(result);
-                    break;
-                case "getSignalStrengthAnalysis":
-                    getSignalStrengthAnalysis(result);
-                    break;
-                case "getElevationAzimuthData":
-                    getElevationAzimuthData(result);
-                    break;
-                case "getCarrierFrequencyInfo":
-                    getCarrierFrequencyInfo(result);
-                    break;
-                case "getEphemerisAlmanacStatus":
-                    getEphemerisAlmanacStatus(result);
-                    break;
-                case "getSatelliteDetectionHistory":
-                    getSatelliteDetectionHistory(result);
-                    break;
-                case "getGnssDiversityReport":
-                    getGnssDiversityReport(result);
-                    break;
-                case "getRealTimeSatelliteStream":
-                    getRealTimeSatelliteStream(result);
-                    break;
-                case "getSatelliteSignalQuality":
-                    getSatelliteSignalQuality(result);
-                    break;
-                // =============== END NEW METHODS ===============
+        methodRouter = new MethodRouter(handler, this::hasLocationPermissions, responseCache);
+        registerMethodRoutes(methodRouter);
+        BinaryMessenger messenger = flutterEngine.getDartExecutor().getBinaryMessenger();
+        methodChannel = new MethodChannel(messenger, CHANNEL, StandardMethodCodec.INSTANCE,
+                messenger.makeBackgroundTaskQueue());
+        methodChannel.setMethodCallHandler(methodRouter);
+    }
 
-                case "openLocationSettings":
-                    openLocationSettings(result);
-                    break;
-                case "isLocationEnabled":
-                    isLocationEnabled(result);
-                    break;
-                case "getDeviceInfo":
-                    getDeviceInfo(result);
-                    break;
-                default:
-                    Log.w("NavIC", "Unknown method: " + call.method);
-                    result.notImplemented();
-            }
-        });
+    /**
+     * Every channel method and how the router dispatches it. Off-main routes
+     * may only read registry epochs, synchronized stores and Build; anything
+     * touching detection, streams or listeners stays on the main thread.
+     */
+    private void registerMethodRoutes(MethodRouter router) {
+        final int main = 0;
+        final int permission = MethodRouter.NEEDS_PERMISSION;
+        final int offMain = MethodRouter.OFF_MAIN;
+        final int snapshot = permission | offMain | MethodRouter.EPOCH_CACHED;
+
+        router.register("checkNavicHardware", permission | offMain, this::checkNavicHardwareSupport);
+        router.register("getDetectionDecisionStats", offMain, (call, result) -> getDetectionDecisionStats(result));
+        router.register("evaluateDetectionSessions", offMain, this::evaluateDetectionSessions);
+        router.register("getGnssCapabilities", offMain, 60000, (call, result) -> getGnssCapabilities(result));
+        router.register("getL5Evidence", main, this::getL5Evidence);
+        router.register("startBackgroundMonitor", permission, this::startBackgroundMonitor);
+        router.register("stopBackgroundMonitor", main, (call, result) -> stopBackgroundMonitor(result));
+        router.register("getBackgroundMonitorStatus", main, (call, result) -> getBackgroundMonitorStatus(result));
+        router.register("getMonitorSummaries", offMain, this::getMonitorSummaries);
+        router.register("startEmergencyTracking", permission, this::startEmergencyTracking);
+        router.register("stopEmergencyTracking", main, (call, result) -> stopEmergencyTracking(result));
+        router.register("getEmergencyFix", permission, (call, result) -> getEmergencyFix(result));
+        router.register("getEmergencyBatch", main, (call, result) -> getEmergencyBatch(result));
+        router.register("predictSatelliteVisibility", main, this::predictSatelliteVisibility);
+        router.register("getObstructionMap", main, this::getObstructionMap);
+        router.register("predictNavicOutages", main, this::predictNavicOutages);
+        router.register("getCoverageTiles", offMain, this::getCoverageTiles);
+        router.register("getMapTile", main, this::getMapTile);
+        router.register("prefetchMapTiles", main, this::prefetchMapTiles);
+        router.register("configureTileCache", main, this::configureTileCache);
+        router.register("getStartupMetrics", offMain, this::getStartupMetrics);
+        router.register("getGnssSubscriptionStats", main, (call, result) -> getGnssSubscriptionStats(result));
+        router.register("configureStreamRate", main, this::configureStreamRate);
+        router.register("setStreamDemand", main, this::setStreamDemand);
+        router.register("ackStreamFrame", main, this::ackStreamFrame);
+        router.register("configureFixFusion", main, this::configureFixFusion);
+        router.register("configureLocationFilter", main, this::configureLocationFilter);
+        router.register("getNativeMetrics", main, (call, result) -> getNativeMetrics(result));
+        router.register("startRealTimeDetection", permission, this::startRealTimeNavicDetection);
+        router.register("stopRealTimeDetection", main, (call, result) -> stopRealTimeDetection(result));
+        router.register("checkLocationPermissions", main, (call, result) -> checkLocationPermissions(result));
+        router.register("requestLocationPermissions", main, (call, result) -> requestLocationPermissions(result));
+        router.register("startLocationUpdates", permission, (call, result) -> startLocationUpdates(result));
+        router.register("stopLocationUpdates", main, (call, result) -> stopLocationUpdates(result));
+        router.register("getAllSatellites", snapshot, (call, result) -> getAllSatellites(result));
+        router.register("getSatelliteReports", permission | offMain, this::getSatelliteReports);
+        router.register("getSatelliteFrame", permission | offMain, (call, result) -> getSatelliteFrame(result));
+
+        // Satellite reports, built from registry epochs
+        router.register("getAllSatellitesInRange", snapshot, (call, result) -> getAllSatellitesInRange(result));
+        router.register("getGnssRangeStatistics", snapshot, (call, result) -> getGnssRangeStatistics(result));
+        router.register("getDetailedSatelliteInfo", snapshot, this::getDetailedSatelliteInfo);
+        router.register("getCompleteSatelliteSummary", snapshot, (call, result) -> getCompleteSatelliteSummary(result));
+        router.register("getSatelliteNames", snapshot, (call, result) -> getSatelliteNames(result));
+        router.register("getConstellationDetails", snapshot, (call, result) -> getConstellationDetails(result));
+        router.register("getSignalStrengthAnalysis", snapshot, (call, result) -> getSignalStrengthAnalysis(result));
+        router.register("getElevationAzimuthData", snapshot, (call, result) -> getElevationAzimuthData(result));
+        router.register("getCarrierFrequencyInfo", snapshot, (call, result) -> getCarrierFrequencyInfo(result));
+        router.register("getEphemerisAlmanacStatus", snapshot, (call, result) -> getEphemerisAlmanacStatus(result));
+        router.register("getSatelliteDetectionHistory", snapshot, (call, result) -> getSatelliteDetectionHistory(result));
+        router.register("getGnssDiversityReport", snapshot, (call, result) -> getGnssDiversityReport(result));
+        router.register("getRealTimeSatelliteStream", permission, (call, result) -> getRealTimeSatelliteStream(result));
+        router.register("getSatelliteSignalQuality", snapshot, (call, result) -> getSatelliteSignalQuality(result));
+
+        // Settings and device
+        router.register("openLocationSettings", main, (call, result) -> openLocationSettings(result));
+        router.register("isLocationEnabled", offMain, (call, result) -> isLocationEnabled(result));
+        router.register("getDeviceInfo", offMain, 5000, (call, result) -> getDeviceInfo(result));
     }
 
     // =============== NEW METHODS IMPLEMENTATION ===============
@@ -249,31 +310,29 @@ public class MainActivity extends FlutterActivity {
     private void getAllSatellitesInRange(MethodChannel.Result result) {
         Log.d("NavIC", "📡 Getting all satellites in range");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildAllSatellitesInRangeReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting satellites in range", e);
+            result.error("RANGE_ERROR", "Failed to get satellites in range", null);
         }
+    }
 
-        try {
-            List<Map<String, Object>> satellitesInRange = new ArrayList<>();
+    private Map<String, Object> buildAllSatellitesInRangeReport(ReportSnapshot snapshot) {
+        List<Map<String, Object>> satellitesInRange = new ArrayList<>();
 
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                if (sat.cn0 > 0) { // Only include satellites with signal
-                    satellitesInRange.add(sat.toEnhancedMap());
-                }
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            if (sat.cn0 > 0) { // Only include satellites with signal
+                satellitesInRange.add(sat.toEnhancedMap(snapshot.timestamp));
             }
+        }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("satellites", satellitesInRange);
-            response.put("count", satellitesInRange.size());
-            response.put("timestamp", System.currentTimeMillis());
-
-            result.success(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("satellites", satellitesInRange);
+        response.put("count", satellitesInRange.size());
+        response.put("timestamp", snapshot.timestamp);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting satellites in range", e);
-            result.error("RANGE_ERROR", "Failed to get satellites in range", null);
-        }
+        return response;
     }
 
     /**
@@ -282,146 +341,284 @@ public class MainActivity extends FlutterActivity {
     private void getGnssRangeStatistics(MethodChannel.Result result) {
         Log.d("NavIC", "📊 Getting GNSS range statistics");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildGnssRangeStatisticsReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting GNSS range statistics", e);
+            result.error("STATISTICS_ERROR", "Failed to get GNSS range statistics", null);
         }
+    }
 
-        try {
-            Map<String, Object> stats = new HashMap<>();
+    private Map<String, Object> buildGnssRangeStatisticsReport(ReportSnapshot snapshot) {
+        Map<String, Object> stats = new HashMap<>();
+        SatelliteAggregates.Snapshot aggregates = snapshot.registry;
 
-            int totalSatellites = detectedSatellites.size();
-            int satellitesWithSignal = 0;
-            int satellitesUsedInFix = 0;
-            float totalSignalStrength = 0;
+        // Prepare system statistics
+        Map<String, Object> systemStats = new HashMap<>();
+        for (int i = 0; i < aggregates.systems.length; i++) {
+            if (aggregates.counts[i] == 0) continue;
+            Map<String, Object> sysStat = new HashMap<>();
+            sysStat.put("count", aggregates.counts[i]);
+            sysStat.put("used", aggregates.used[i]);
+            sysStat.put("hasSignal", aggregates.withSignal[i]);
+
+            if (aggregates.withSignal[i] > 0) {
+                sysStat.put("averageSignal", aggregates.averageSignal(i));
+            } else {
+                sysStat.put("averageSignal", 0);
+            }
 
-            Map<String, Integer> systemCounts = new HashMap<>();
-            Map<String, Integer> systemUsedCounts = new HashMap<>();
-            Map<String, Float> systemSignalTotals = new HashMap<>();
-            Map<String, Integer> systemSignalCounts = new HashMap<>();
+            systemStats.put(aggregates.systems[i], sysStat);
+        }
 
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                String system = sat.systemName;
+        stats.put("totalSatellites", aggregates.totalCount());
+        stats.put("satellitesWithSignal", aggregates.totalWithSignal());
+        stats.put("satellitesUsedInFix", aggregates.totalUsed());
+        stats.put("averageSignal", aggregates.averageSignal());
+        stats.put("systemStats", systemStats);
+        stats.put("hasL5Band", hasL5BandSupport);
+        stats.put("primarySystem", primaryPositioningSystem);
+        stats.put("timestamp", snapshot.timestamp);
 
-                // Update system counts
-                systemCounts.put(system, systemCounts.getOrDefault(system, 0) + 1);
+        return stats;
+    }
 
-                if (sat.cn0 > 0) {
-                    satellitesWithSignal++;
-                    totalSignalStrength += sat.cn0;
+    /**
+     * Get detailed satellite information. Without arguments every field of
+     * every satellite is returned; otherwise {"fields": [...]} picks the keys,
+     * {"constellations": ["IRNSS", 5, ...], "usedInFixOnly", "minCn0"} pick the
+     * satellites and {"columnar": true} returns one list per field.
+     */
+    private void getDetailedSatelliteInfo(MethodCall call, MethodChannel.Result result) {
+        Log.d("NavIC", "🔍 Getting detailed satellite information");
 
-                    // Update system signal stats
-                    systemSignalTotals.put(system, systemSignalTotals.getOrDefault(system, 0f) + sat.cn0);
-                    systemSignalCounts.put(system, systemSignalCounts.getOrDefault(system, 0) + 1);
-                }
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            DetailProjection projection = DetailProjection.from(call);
+            result.success(buildDetailedSatelliteInfoReport(snapshot, projection));
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting detailed satellite info", e);
+            result.error("DETAILED_INFO_ERROR", "Failed to get detailed satellite info", null);
+        }
+    }
 
-                if (sat.usedInFix) {
-                    satellitesUsedInFix++;
-                    systemUsedCounts.put(system, systemUsedCounts.getOrDefault(system, 0) + 1);
-                }
-            }
+    private Map<String, Object> buildDetailedSatelliteInfoReport(ReportSnapshot snapshot) {
+        return buildDetailedSatelliteInfoReport(snapshot, DetailProjection.ALL);
+    }
 
-            // Calculate averages
-            float averageSignal = satellitesWithSignal > 0 ? totalSignalStrength / satellitesWithSignal : 0;
+    /**
+     * Materializes only the projected columns of the selected satellites
+     */
+    private Map<String, Object> buildDetailedSatelliteInfoReport(ReportSnapshot snapshot, DetailProjection projection) {
+        DetailField[] fields = projection.fields;
+        List<Map<String, Object>> rows = projection.columnar ? null : new ArrayList<>();
+        List<List<Object>> columns = null;
+        if (projection.columnar) {
+            columns = new ArrayList<>(fields.length);
+            for (int i = 0; i < fields.length; i++) columns.add(new ArrayList<>());
+        }
 
-            // Prepare system statistics
-            Map<String, Object> systemStats = new HashMap<>();
-            for (String system : systemCounts.keySet()) {
-                Map<String, Object> sysStat = new HashMap<>();
-                sysStat.put("count", systemCounts.get(system));
-                sysStat.put("used", systemUsedCounts.getOrDefault(system, 0));
-                sysStat.put("hasSignal", systemSignalCounts.getOrDefault(system, 0));
+        int matched = 0;
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            if (!projection.selects(sat)) continue;
+            matched++;
+            SatellitePayloads.SvLabels labels = projection.needsLabels ? svLabels(sat.constellation, sat.svid) : null;
 
-                if (systemSignalCounts.containsKey(system)) {
-                    sysStat.put("averageSignal", systemSignalTotals.get(system) / systemSignalCounts.get(system));
-                } else {
-                    sysStat.put("averageSignal", 0);
+            if (columns != null) {
+                for (int i = 0; i < fields.length; i++) {
+                    columns.get(i).add(detailValue(fields[i], sat, labels, snapshot.timestamp));
                 }
-
-                systemStats.put(system, sysStat);
+            } else {
+                Map<String, Object> row = projection == DetailProjection.ALL
+                        ? SatellitePayloads.newSatelliteMap() : new HashMap<>(fields.length * 4 / 3 + 1);
+                for (DetailField field : fields) {
+                    row.put(field.key, detailValue(field, sat, labels, snapshot.timestamp));
+                }
+                rows.add(row);
             }
+        }
+
+        List<String> keys = new ArrayList<>(fields.length);
+        for (DetailField field : fields) keys.add(field.key);
 
-            stats.put("totalSatellites", totalSatellites);
-            stats.put("satellitesWithSignal", satellitesWithSignal);
-            stats.put("satellitesUsedInFix", satellitesUsedInFix);
-            stats.put("averageSignal", averageSignal);
-            stats.put("systemStats", systemStats);
-            stats.put("hasL5Band", hasL5BandSupport);
-            stats.put("primarySystem", primaryPositioningSystem);
-            stats.put("timestamp", System.currentTimeMillis());
+        Map<String, Object> response = new HashMap<>();
+        if (columns != null) {
+            Map<String, Object> byKey = new HashMap<>();
+            for (int i = 0; i < fields.length; i++) byKey.put(fields[i].key, columns.get(i));
+            response.put("columns", byKey);
+        } else {
+            response.put("satellites", rows);
+        }
+        response.put("fields", keys);
+        response.put("count", matched);
+        response.put("total", snapshot.satellites.size());
+        response.put("timestamp", snapshot.timestamp);
 
-            result.success(stats);
+        return response;
+    }
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting GNSS range statistics", e);
-            result.error("STATISTICS_ERROR", "Failed to get GNSS range statistics", null);
+    private Object detailValue(DetailField field, EnhancedSatellite sat,
+                               SatellitePayloads.SvLabels labels, long timestamp) {
+        switch (field) {
+            case SVID: return sat.svid;
+            case SYSTEM: return sat.systemName;
+            case CONSTELLATION: return sat.constellation;
+            case COUNTRY_FLAG: return sat.countryFlag;
+            case CN0: return sat.cn0;
+            case USED_IN_FIX: return sat.usedInFix;
+            case ELEVATION: return sat.elevation;
+            case AZIMUTH: return sat.azimuth;
+            case HAS_EPHEMERIS: return sat.hasEphemeris;
+            case HAS_ALMANAC: return sat.hasAlmanac;
+            case FREQUENCY_BAND: return sat.frequencyBand();
+            case CARRIER_FREQUENCY: return sat.carrierFrequency > 0 ? sat.carrierFrequency : null;
+            case DETECTION_TIME: return sat.detectionTime;
+            case DETECTION_COUNT: return sat.detectionCount;
+            case BAND_COUNT: return sat.bandCount();
+            case SIGNALS: return sat.signalsByBand();
+            case SIGNAL_STRENGTH: return sat.getSignalStrengthLevel();
+            case TIMESTAMP: return timestamp;
+            case SATELLITE_NAME: return labels.name;
+            case CONSTELLATION_DESCRIPTION: return labels.constellationDescription;
+            case FREQUENCY_DESCRIPTION: return getFrequencyDescription(sat.frequencyBand());
+            case POSITIONING_ROLE: return getPositioningRole(sat.usedInFix, sat.cn0);
+            case HEALTH_STATUS: return getHealthStatus(sat.cn0, sat.hasEphemeris, sat.hasAlmanac);
+            case DETECTION_AGE: return timestamp - sat.detectionTime;
+            default: throw new IllegalStateException("Unhandled field " + field);
         }
     }
 
     /**
-     * Get detailed satellite information
+     * Columns of getDetailedSatelliteInfo. Label columns never change for an
+     * SV and come from the SvLabels cache; the rest are read from the epoch.
      */
-    private void getDetailedSatelliteInfo(MethodChannel.Result result) {
-        Log.d("NavIC", "🔍 Getting detailed satellite information");
+    private enum DetailField {
+        SVID(SatellitePayloads.KEY_SVID),
+        SYSTEM(SatellitePayloads.KEY_SYSTEM),
+        CONSTELLATION(SatellitePayloads.KEY_CONSTELLATION),
+        COUNTRY_FLAG(SatellitePayloads.KEY_COUNTRY_FLAG),
+        CN0(SatellitePayloads.KEY_CN0),
+        USED_IN_FIX(SatellitePayloads.KEY_USED_IN_FIX),
+        ELEVATION(SatellitePayloads.KEY_ELEVATION),
+        AZIMUTH(SatellitePayloads.KEY_AZIMUTH),
+        HAS_EPHEMERIS(SatellitePayloads.KEY_HAS_EPHEMERIS),
+        HAS_ALMANAC(SatellitePayloads.KEY_HAS_ALMANAC),
+        FREQUENCY_BAND(SatellitePayloads.KEY_FREQUENCY_BAND),
+        CARRIER_FREQUENCY(SatellitePayloads.KEY_CARRIER_FREQUENCY),
+        DETECTION_TIME(SatellitePayloads.KEY_DETECTION_TIME),
+        DETECTION_COUNT(SatellitePayloads.KEY_DETECTION_COUNT),
+        BAND_COUNT(SatellitePayloads.KEY_BAND_COUNT),
+        SIGNALS(SatellitePayloads.KEY_SIGNALS),
+        SIGNAL_STRENGTH(SatellitePayloads.KEY_SIGNAL_STRENGTH),
+        TIMESTAMP(SatellitePayloads.KEY_TIMESTAMP),
+        SATELLITE_NAME(SatellitePayloads.KEY_SATELLITE_NAME),
+        CONSTELLATION_DESCRIPTION(SatellitePayloads.KEY_CONSTELLATION_DESCRIPTION),
+        FREQUENCY_DESCRIPTION("frequencyDescription"),
+        POSITIONING_ROLE("positioningRole"),
+        HEALTH_STATUS("healthStatus"),
+        DETECTION_AGE("detectionAge");
+
+        private static final Map<String, DetailField> BY_KEY = new HashMap<>();
+
+        static {
+            for (DetailField field : values()) BY_KEY.put(field.key, field);
+        }
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        final String key;
+
+        DetailField(String key) {
+            this.key = key;
         }
 
-        try {
-            List<Map<String, Object>> detailedInfo = new ArrayList<>();
+        boolean fromLabels() {
+            return this == SATELLITE_NAME || this == CONSTELLATION_DESCRIPTION;
+        }
+
+        static DetailField of(String key) {
+            DetailField field = BY_KEY.get(key);
+            if (field == null) throw new IllegalArgumentException("Unknown field " + key);
+            return field;
+        }
+    }
 
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                Map<String, Object> info = sat.toEnhancedMap();
+    /** Which columns and satellites getDetailedSatelliteInfo returns */
+    private static final class DetailProjection {
+        static final DetailProjection ALL = new DetailProjection(DetailField.values(), null, false, Float.NEGATIVE_INFINITY, false);
+
+        final DetailField[] fields;
+        final boolean needsLabels;
+        /** Constellation types to keep; null keeps all */
+        final Set<Integer> constellations;
+        final boolean usedInFixOnly;
+        final float minCn0;
+        final boolean columnar;
+
+        DetailProjection(DetailField[] fields, Set<Integer> constellations, boolean usedInFixOnly,
+                         float minCn0, boolean columnar) {
+            this.fields = fields;
+            this.constellations = constellations;
+            this.usedInFixOnly = usedInFixOnly;
+            this.minCn0 = minCn0;
+            this.columnar = columnar;
+            boolean labels = false;
+            for (DetailField field : fields) labels |= field.fromLabels();
+            this.needsLabels = labels;
+        }
 
-                // Add additional detailed information
-                info.put("satelliteName", getSatelliteName(sat.systemName, sat.svid));
-                info.put("constellationDescription", getConstellationDescription(sat.constellation));
-                info.put("frequencyDescription", getFrequencyDescription(sat.frequencyBand));
-                info.put("positioningRole", getPositioningRole(sat.usedInFix, sat.cn0));
-                info.put("healthStatus", getHealthStatus(sat.cn0, sat.hasEphemeris, sat.hasAlmanac));
-                info.put("detectionAge", System.currentTimeMillis() - sat.detectionTime);
+        static DetailProjection from(MethodCall call) {
+            if (call.arguments == null) return ALL;
 
-                detailedInfo.add(info);
+            List<String> fieldKeys = call.argument("fields");
+            DetailField[] fields = DetailField.values();
+            if (fieldKeys != null && !fieldKeys.isEmpty()) {
+                fields = new DetailField[fieldKeys.size()];
+                for (int i = 0; i < fields.length; i++) fields[i] = DetailField.of(fieldKeys.get(i));
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("satellites", detailedInfo);
-            response.put("count", detailedInfo.size());
-            response.put("timestamp", System.currentTimeMillis());
+            List<Object> wanted = call.argument("constellations");
+            Set<Integer> constellations = null;
+            if (wanted != null && !wanted.isEmpty()) {
+                constellations = new HashSet<>();
+                for (Object c : wanted) constellations.add(constellationType(c));
+            }
 
-            result.success(response);
+            Boolean usedInFixOnly = call.argument("usedInFixOnly");
+            Number minCn0 = call.argument("minCn0");
+            Boolean columnar = call.argument("columnar");
+            return new DetailProjection(fields, constellations, Boolean.TRUE.equals(usedInFixOnly),
+                    minCn0 != null ? minCn0.floatValue() : Float.NEGATIVE_INFINITY,
+                    Boolean.TRUE.equals(columnar));
+        }
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting detailed satellite info", e);
-            result.error("DETAILED_INFO_ERROR", "Failed to get detailed satellite info", null);
+        /** GnssStatus constellation type, or a label such as "IRNSS" ("NAVIC" is accepted too) */
+        private static int constellationType(Object value) {
+            if (value instanceof Number) return ((Number) value).intValue();
+            String label = String.valueOf(value).toUpperCase(Locale.ROOT);
+            if (label.equals("NAVIC")) label = GnssIdentifiers.Constellation.IRNSS.label;
+            for (GnssIdentifiers.Constellation c : GnssIdentifiers.Constellation.values()) {
+                if (c.label.equals(label)) return c.type;
+            }
+            throw new IllegalArgumentException("Unknown constellation " + value);
+        }
+
+        boolean selects(EnhancedSatellite sat) {
+            return (constellations == null || constellations.contains(sat.constellation))
+                    && (!usedInFixOnly || sat.usedInFix)
+                    && sat.cn0 >= minCn0;
         }
     }
 
     // =============== ENHANCED PERMISSION METHODS ===============
     private void checkLocationPermissions(MethodChannel.Result result) {
         try {
-            boolean hasFineLocation = ContextCompat.checkSelfPermission(
-                    this, android.Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            boolean hasCoarseLocation = ContextCompat.checkSelfPermission(
-                    this, android.Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            boolean hasBackgroundLocation = true;
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                hasBackgroundLocation = ContextCompat.checkSelfPermission(
-                        this, android.Manifest.permission.ACCESS_BACKGROUND_LOCATION) == PackageManager.PERMISSION_GRANTED;
-            }
+            PermissionState state = currentPermissionState();
 
-            Map<String, Object> permissions = new HashMap<>();
-            permissions.put("hasFineLocation", hasFineLocation);
-            permissions.put("hasCoarseLocation", hasCoarseLocation);
-            permissions.put("hasBackgroundLocation", hasBackgroundLocation);
-            permissions.put("allPermissionsGranted", hasFineLocation && hasCoarseLocation);
+            Map<String, Object> permissions = state.toMap();
             permissions.put("shouldShowRationale", shouldShowPermissionRationale());
 
-            Log.d("NavIC", "Enhanced Permission check - Fine: " + hasFineLocation +
-                    ", Coarse: " + hasCoarseLocation + ", Background: " + hasBackgroundLocation);
+            Log.d("NavIC", "Enhanced Permission check - Fine: " + state.fine +
+                    ", Coarse: " + state.coarse + ", Background: " + state.background);
             result.success(permissions);
         } catch (Exception e) {
             Log.e("NavIC", "Error checking permissions", e);
@@ -469,6 +666,7 @@ public class MainActivity extends FlutterActivity {
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
                                            @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        refreshPermissionState();
 
         if (requestCode == 1001) {
             Map<String, Object> permissionResult = new HashMap<>();
@@ -493,69 +691,110 @@ public class MainActivity extends FlutterActivity {
     }
 
     private boolean hasLocationPermissions() {
-        return ContextCompat.checkSelfPermission(
-                this, android.Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED ||
-                ContextCompat.checkSelfPermission(
-                        this, android.Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+        return currentPermissionState().hasLocation();
+    }
+
+    private PermissionState currentPermissionState() {
+        PermissionState state = permissionState;
+        return state != null ? state : refreshPermissionState();
+    }
+
+    /**
+     * Re-read permissions from the package manager. Called on start, on resume
+     * and after a permission request; revoking a permission in settings kills
+     * the process, so the cache cannot outlive a grant. Pushes
+     * onPermissionStateChanged to Flutter when anything changed.
+     */
+    private PermissionState refreshPermissionState() {
+        boolean fine = ContextCompat.checkSelfPermission(
+                this, android.Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+        boolean coarse = ContextCompat.checkSelfPermission(
+                this, android.Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+        boolean background = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            background = ContextCompat.checkSelfPermission(
+                    this, android.Manifest.permission.ACCESS_BACKGROUND_LOCATION) == PackageManager.PERMISSION_GRANTED;
+        }
+
+        PermissionState previous = permissionState;
+        PermissionState current = new PermissionState(fine, coarse, background);
+        permissionState = current;
+        permissionRefreshCount.incrementAndGet();
+
+        if (previous != null && !previous.equals(current) && methodChannel != null) {
+            Log.d("NavIC", "🔐 Permission state changed - Fine: " + fine + ", Coarse: " + coarse +
+                    ", Background: " + background);
+            Map<String, Object> event = current.toMap();
+            event.put("timestamp", System.currentTimeMillis());
+            handler.post(() -> methodChannel.invokeMethod("onPermissionStateChanged", event));
+        }
+        return current;
+    }
+
+    private static final class PermissionState {
+        final boolean fine;
+        final boolean coarse;
+        final boolean background;
+
+        PermissionState(boolean fine, boolean coarse, boolean background) {
+            this.fine = fine;
+            this.coarse = coarse;
+            this.background = background;
+        }
+
+        boolean hasLocation() {
+            return fine || coarse;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("hasFineLocation", fine);
+            map.put("hasCoarseLocation", coarse);
+            map.put("hasBackgroundLocation", background);
+            map.put("allPermissionsGranted", fine && coarse);
+            return map;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PermissionState)) return false;
+            PermissionState other = (PermissionState) o;
+            return fine == other.fine && coarse == other.coarse && background == other.background;
+        }
+
+        @Override
+        public int hashCode() {
+            return (fine ? 1 : 0) | (coarse ? 2 : 0) | (background ? 4 : 0);
+        }
     }
 
     // =============== ENHANCED HARDWARE DETECTION ===============
-    private void checkNavicHardwareSupport(MethodChannel.Result result) {
+    private void checkNavicHardwareSupport(MethodCall call, MethodChannel.Result result) {
         Log.d("NavIC", "🚀 Starting ENHANCED NavIC hardware detection with L5 verification");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
+        // Optional per-call SPRT bounds, e.g. {"falsePositiveRate": 0.01, "falseNegativeRate": 0.02}
+        final NavicSequentialDetector.Config detectorConfig = call.arguments instanceof Map ?
+                navicDetectorConfig.withArguments((Map<?, ?>) call.arguments) : navicDetectorConfig.copy();
 
+        // Chipset probing only reads Build, system properties and capabilities, so it stays on the worker;
+        // its verdict is published on the main thread with the rest of the detection state
+        EnhancedHardwareDetectionResult hardwareResult = detectEnhancedNavicHardware();
         handler.post(() -> {
-            // Step 1: ENHANCED Chipset detection with detailed analysis
-            EnhancedHardwareDetectionResult hardwareResult = detectEnhancedNavicHardware();
-
-            // Step 2: ADVANCED L5 Band Detection with multiple verification methods
-            EnhancedL5BandResult l5Result = detectEnhancedL5BandSupport();
-
-            // Step 3: Enhanced satellite detection with real-time monitoring
-            detectEnhancedSatellites(hardwareResult, l5Result, (navicDetected, navicCount, totalSatellites,
-                                                                usedInFixCount, signalStrength, satelliteDetails, acquisitionTime,
-                                                                allSatellites, l5Enabled, primarySystem) -> {
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("isSupported", hardwareResult.isSupported);
-                response.put("isActive", navicDetected);
-                response.put("detectionMethod", hardwareResult.detectionMethod);
-                response.put("satelliteCount", navicCount);
-                response.put("totalSatellites", totalSatellites);
-                response.put("usedInFixCount", usedInFixCount);
-                response.put("confidenceLevel", hardwareResult.confidenceLevel);
-                response.put("averageSignalStrength", signalStrength);
-                response.put("satelliteDetails", satelliteDetails);
-                response.put("acquisitionTimeMs", acquisitionTime);
-                response.put("chipsetType", hardwareResult.chipsetType);
-                response.put("chipsetVendor", hardwareResult.chipsetVendor);
-                response.put("chipsetModel", hardwareResult.chipsetModel);
-                response.put("verificationMethods", hardwareResult.verificationMethods);
-                response.put("hasL5Band", l5Enabled);
-                response.put("l5BandInfo", l5Result.toMap());
-                response.put("allSatellites", allSatellites);
-                response.put("primarySystem", primarySystem);
-
-                // Calculate enhanced positioning method
-                String positioningMethod = determineEnhancedPositioningMethod(navicDetected, usedInFixCount, allSatellites, l5Enabled);
-                response.put("positioningMethod", positioningMethod);
-
-                String message = generateEnhancedDetectionMessage(hardwareResult, l5Result, navicDetected,
-                        navicCount, usedInFixCount, signalStrength, acquisitionTime);
-                response.put("message", message);
-
-                Log.d("NavIC", "🎯 ENHANCED detection completed: " + message);
-                result.success(response);
-            });
+            publishChipset(hardwareResult);
+            runDetectionSession(detectorConfig, hardwareResult, result);
         });
     }
 
+    /** Main thread: adopt a chipset verdict and drop reports built with the previous one */
+    private void publishChipset(EnhancedHardwareDetectionResult hardwareResult) {
+        detectedChipset = hardwareResult.chipsetType;
+        chipsetVendor = hardwareResult.chipsetVendor;
+        chipsetConfidence = hardwareResult.confidenceLevel;
+        responseCache.invalidateAll();
+    }
+
     /**
-     * ENHANCED Chipset Detection with detailed analysis
+     * ENHANCED Chipset Detection with detailed analysis; pure probing, safe on a worker
      */
     private EnhancedHardwareDetectionResult detectEnhancedNavicHardware() {
         Log.d("NavIC", "🔧 Starting ENHANCED chipset detection analysis");
@@ -717,10 +956,6 @@ public class MainActivity extends FlutterActivity {
         String methodString = detectionMethods.isEmpty() ? "NO_CHIPSET_EVIDENCE" :
                 String.join("+", detectionMethods);
 
-        detectedChipset = chipsetType;
-        chipsetVendor = chipsetVendor;
-        chipsetConfidence = finalConfidence;
-
         Log.d("NavIC", String.format(
                 "🎯 ENHANCED Chipset Detection Result:\n" +
                         "  Supported: %s\n" +
@@ -1453,10 +1688,13 @@ public class MainActivity extends FlutterActivity {
                 }
             }
 
-            // Set final result
+            // Set final result, letting observed carriers override the heuristics
+            result.detectionMethods = detectionMethods;
+            result.heuristicHasL5Support = result.hasL5Support;
+            applyL5Verdict(result);
             hasL5BandSupport = result.hasL5Support;
             l5Confidence = result.confidence;
-            result.detectionMethods = detectionMethods;
+            responseCache.invalidateAll();
 
             Log.d("NavIC", String.format(
                     "📡 ADVANCED L5 Detection Result:\n" +
@@ -1512,199 +1750,809 @@ public class MainActivity extends FlutterActivity {
         return result.toLowerCase();
     }
 
+    // =============== DETECTION SESSIONS ===============
+
     /**
-     * ENHANCED Satellite Detection with detailed information
+     * Start a detection session, or join the running one when the SPRT
+     * configuration matches. Every session keeps its own satellite state and
+     * all of them share a single GnssStatus callback.
      */
-    private void detectEnhancedSatellites(EnhancedHardwareDetectionResult hardwareResult,
-                                          EnhancedL5BandResult l5Result,
-                                          EnhancedSatelliteDetectionCallback cb) {
-        // Reset detection state
-        detectedSatellites.clear();
-        satellitesBySystem.clear();
-        consecutiveNavicDetections.set(0);
-        navicDetectionCompleted.set(false);
+    private void runDetectionSession(NavicSequentialDetector.Config detectorConfig,
+                                     EnhancedHardwareDetectionResult hardwareResult, MethodChannel.Result result) {
+        for (DetectionSession session : activeDetectionSessions) {
+            if (session.config.toMap().equals(detectorConfig.toMap())) {
+                session.waitingResults.add(result);
+                Log.d("NavIC", "🔗 Joined running detection session #" + session.id +
+                        " (" + session.waitingResults.size() + " waiting)");
+                return;
+            }
+        }
 
-        final long startTime = System.currentTimeMillis();
-        final AtomicInteger detectionAttempts = new AtomicInteger(0);
-        final AtomicInteger totalSatellitesDetected = new AtomicInteger(0);
+        // Step 1: ENHANCED Chipset detection ran on the router's worker
 
-        Log.d("NavIC", "🛰️ Starting ENHANCED satellite detection (Timeout: " +
-                SATELLITE_DETECTION_TIMEOUT_MS/1000 + "s)");
+        // Step 2: ADVANCED L5 Band Detection with multiple verification methods
+        EnhancedL5BandResult l5Result = detectEnhancedL5BandSupport();
 
-        try {
-            final GnssStatus.Callback[] callbackRef = new GnssStatus.Callback[1];
-            callbackRef[0] = new GnssStatus.Callback() {
-                @Override
-                public void onSatelliteStatusChanged(GnssStatus status) {
-                    if (navicDetectionCompleted.get()) return;
-
-                    detectionAttempts.incrementAndGet();
-                    long currentTime = System.currentTimeMillis();
-                    long elapsedTime = currentTime - startTime;
-
-                    // Process ALL satellites with ENHANCED information
-                    EnhancedSatelliteScanResult scanResult = processEnhancedSatellites(status, elapsedTime, l5Result.hasL5Support);
-
-                    // Update global tracking
-                    totalSatellitesDetected.set(scanResult.totalSatellites);
-                    updateSatelliteTracking(scanResult);
-
-                    // Enhanced NavIC detection logic
-                    if (scanResult.navicCount >= MIN_NAVIC_SATELLITES_FOR_DETECTION) {
-                        int currentConsecutive = consecutiveNavicDetections.incrementAndGet();
-
-                        // Strong signal quick detection
-                        if (scanResult.navicCount >= 3 && scanResult.navicSignalStrength > 28.0f) {
-                            Log.d("NavIC", "🎯 STRONG NavIC signal detected - quick success");
-                            completeEnhancedDetection(true, scanResult, elapsedTime, cb, callbackRef[0]);
-                            return;
-                        }
+        // Step 3: Size the window from the predicted sky; no NavIC SV above the mask needs less waiting
+        int expectedNavic = expectedNavicSatellites();
+        long timeoutMs = expectedNavic == 0 ? NAVIC_NOT_EXPECTED_TIMEOUT_MS : SATELLITE_DETECTION_TIMEOUT_MS;
 
-                        // Consecutive detection success
-                        if (currentConsecutive >= REQUIRED_CONSECUTIVE_DETECTIONS) {
-                            Log.d("NavIC", "✅ Consecutive NavIC detections reached");
-                            completeEnhancedDetection(true, scanResult, elapsedTime, cb, callbackRef[0]);
-                            return;
-                        }
-                    } else {
-                        consecutiveNavicDetections.set(0); // Reset counter
-                    }
+        // Step 4: Enhanced satellite detection with real-time monitoring
+        DetectionSession session = new DetectionSession(nextDetectionSessionId++, hardwareResult, l5Result,
+                detectorConfig, expectedNavic, timeoutMs);
+        session.waitingResults.add(result);
+        startDetectionSession(session);
+    }
 
-                    // Log detailed progress
-                    if (detectionAttempts.get() % 3 == 0 || scanResult.navicCount > 0) {
-                        logEnhancedSatelliteStatus(scanResult, elapsedTime, detectionAttempts.get());
-                    }
+    private void startDetectionSession(DetectionSession session) {
+        if (activeDetectionSessions.isEmpty()) {
+            // First session after an idle period starts from a clean registry
+            detectedSatellites.clear();
+            satellitesBySystem.clear();
+            registryAggregates.clear();
+            latestTickAggregates.clear();
+            publishRegistryEpoch();
+        }
+        activeDetectionSessions.add(session);
+
+        Log.d("NavIC", "🛰️ Starting ENHANCED satellite detection session #" + session.id +
+                " (SPRT, Timeout: " + session.timeoutMs/1000 + "s, Expected NavIC: " + session.expectedNavic + ", Active: " +
+                activeDetectionSessions.size() + ")");
+        emitDetectionEvent("SESSION_STARTED", session, StreamRateController.URGENT_CHANGE, () -> {
+            Map<String, Object> event = new HashMap<>();
+            event.put("chipset", session.hardwareResult.chipsetType);
+            event.put("chipsetVendor", session.hardwareResult.chipsetVendor);
+            event.put("hasL5Band", session.l5Result.hasL5Support);
+            event.put("config", session.config.toMap());
+            event.put("expectedNavicSatellites", session.expectedNavic);
+            event.put("detectionWindowMs", session.timeoutMs);
+            return event;
+        });
 
-                    // Timeout condition
-                    if (elapsedTime >= SATELLITE_DETECTION_TIMEOUT_MS) {
-                        EnhancedSatelliteScanResult finalResult = getCurrentEnhancedScanResult(l5Result.hasL5Support);
-                        boolean detected = finalResult.navicCount > 0;
-                        Log.d("NavIC", "⏰ Detection timeout - NavIC detected: " + detected);
-                        completeEnhancedDetection(detected, finalResult, elapsedTime, cb, callbackRef[0]);
+        try {
+            if (detectionSubscription == null) {
+                detectionFanoutStartTime = System.currentTimeMillis();
+                detectionSubscription = gnssMultiplexer.subscribe("detection", 0,
+                        new GnssStatusMultiplexer.Listener() {
+                    @Override
+                    public void onSnapshot(GnssSnapshot snapshot) {
+                        dispatchDetectionTick(snapshot);
                     }
-                }
-
-                @Override
-                public void onStarted() {
-                    Log.d("NavIC", "🛰️ ENHANCED GNSS monitoring started");
-                }
-
-                @Override
-                public void onStopped() {
-                    Log.d("NavIC", "🛰️ ENHANCED GNSS monitoring stopped");
-                }
-            };
 
-            locationManager.registerGnssStatusCallback(callbackRef[0], handler);
+                    @Override
+                    public void onStarted() {
+                        Log.d("NavIC", "🛰️ ENHANCED GNSS monitoring started");
+                    }
 
-            // Early success timer for strong signals
-            handler.postDelayed(() -> {
-                if (!navicDetectionCompleted.get()) {
-                    EnhancedSatelliteScanResult earlyResult = getCurrentEnhancedScanResult(l5Result.hasL5Support);
-                    if (earlyResult.navicCount >= 2 && earlyResult.navicSignalStrength > 25.0f) {
-                        Log.d("NavIC", "⚡ EARLY detection - Strong NavIC signals found");
-                        completeEnhancedDetection(true, earlyResult, EARLY_SUCCESS_DELAY_MS, cb, callbackRef[0]);
+                    @Override
+                    public void onStopped() {
+                        Log.d("NavIC", "🛰️ ENHANCED GNSS monitoring stopped");
                     }
-                }
-            }, EARLY_SUCCESS_DELAY_MS);
-
-            // Final timeout handler
-            handler.postDelayed(() -> {
-                if (!navicDetectionCompleted.get()) {
-                    EnhancedSatelliteScanResult finalResult = getCurrentEnhancedScanResult(l5Result.hasL5Support);
-                    completeEnhancedDetection(finalResult.navicCount > 0, finalResult,
-                            SATELLITE_DETECTION_TIMEOUT_MS, cb, callbackRef[0]);
-                }
-            }, SATELLITE_DETECTION_TIMEOUT_MS);
+                });
+            }
+
+            // Final timeout handler, covers receivers that never deliver a status tick
+            handler.postDelayed(session.timeoutTask, session.timeoutMs);
 
         } catch (SecurityException se) {
             Log.e("NavIC", "🔒 Location permission denied for satellite detection");
-            cb.onResult(false, 0, 0, 0, 0.0, new ArrayList<>(), 0, new ArrayList<>(),
-                    l5Result.hasL5Support, "PERMISSION_ERROR");
+            failDetectionSession(session, "PERMISSION_ERROR");
         } catch (Exception e) {
             Log.e("NavIC", "❌ Failed to register GNSS callback", e);
-            cb.onResult(false, 0, 0, 0, 0.0, new ArrayList<>(), 0, new ArrayList<>(),
-                    l5Result.hasL5Support, "ERROR");
+            failDetectionSession(session, "ERROR");
         }
     }
 
-    private void updateSatelliteTracking(EnhancedSatelliteScanResult scanResult) {
-        // Update detected satellites map
-        for (Map.Entry<String, EnhancedSatellite> entry : scanResult.allSatellites.entrySet()) {
-            String key = entry.getKey();
-            EnhancedSatellite newSat = entry.getValue();
-
-            EnhancedSatellite existingSat = detectedSatellites.get(key);
-            if (existingSat != null) {
-                // Update existing satellite with average values
-                existingSat.detectionCount++;
-                existingSat.cn0 = (existingSat.cn0 + newSat.cn0) / 2; // Average signal strength
-                existingSat.usedInFix = existingSat.usedInFix || newSat.usedInFix;
-                existingSat.elevation = (existingSat.elevation + newSat.elevation) / 2;
-                existingSat.azimuth = (existingSat.azimuth + newSat.azimuth) / 2;
-            } else {
-                detectedSatellites.put(key, newSat);
+    /**
+     * Fan one decoded GNSS tick out to the shared registry and every active session
+     */
+    private void dispatchDetectionTick(GnssSnapshot snapshot) {
+        long registryElapsed = System.currentTimeMillis() - detectionFanoutStartTime;
+        boolean registryL5 = hasL5BandSupport;
+        EnhancedSatelliteScanResult registryScan = processEnhancedSatellites(snapshot, registryElapsed,
+                registryL5, detectedSatellites);
+        updateSatelliteTracking(detectedSatellites, satellitesBySystem, registryScan,
+                registryAggregates, latestTickAggregates, registryElapsed);
+        if (registryScan.l5Satellites > 0) {
+            recordLiveL5Satellites(registryScan);
+        }
+        if (l5Verifier.observe(snapshot)) {
+            applyL5Verdict();
+        }
+        observeVisibility(snapshot);
+        observeObstruction(snapshot);
+        publishRegistryEpoch();
+
+        // Sessions share the registry's scan; the band fallback only differs for one started with another L5 verdict
+        List<DetectionSession> sessions = new ArrayList<>(activeDetectionSessions);
+        List<DetectionSession> shadowed = new ArrayList<>(shadowDetectionSessions);
+        EnhancedSatelliteScanResult otherL5Scan = null;
+        for (List<DetectionSession> group : Arrays.asList(sessions, shadowed)) {
+            for (DetectionSession session : group) {
+                if (otherL5Scan == null && session.l5Result.hasL5Support != registryL5) {
+                    otherL5Scan = processEnhancedSatellites(snapshot, registryElapsed, !registryL5, null);
+                }
             }
         }
-
-        // Update satellites by system
-        satellitesBySystem.clear();
-        satellitesBySystem.putAll(scanResult.satellitesBySystem);
+        for (DetectionSession session : sessions) {
+            session.onSatelliteStatus(session.l5Result.hasL5Support == registryL5 ? registryScan : otherL5Scan);
+        }
+        for (DetectionSession session : shadowed) {
+            session.onShadowTick(session.l5Result.hasL5Support == registryL5 ? registryScan : otherL5Scan);
+        }
     }
 
-    private EnhancedSatelliteScanResult getCurrentEnhancedScanResult(boolean hasL5Support) {
-        int navicCount = 0;
-        int navicUsedInFix = 0;
-        float navicTotalSignal = 0;
-        int navicWithSignal = 0;
-        List<Map<String, Object>> navicDetails = new ArrayList<>();
-        List<Map<String, Object>> allSatellitesList = new ArrayList<>();
-
-        Map<String, List<EnhancedSatellite>> satsBySystem = new HashMap<>();
-
-        // Process all detected satellites
-        for (EnhancedSatellite sat : detectedSatellites.values()) {
-            String systemName = sat.systemName;
+    // =============== VISIBILITY PREDICTION ===============
 
-            if (!satsBySystem.containsKey(systemName)) {
-                satsBySystem.put(systemName, new ArrayList<>());
+    /**
+     * Where the predictor should look from: the streamed fix, else the newest last known fix
+     */
+    private Location observerLocation() {
+        if (lastStreamedLocation != null) return lastStreamedLocation;
+        Location best = null;
+        try {
+            for (String provider : new String[]{LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER}) {
+                Location last = locationManager.getLastKnownLocation(provider);
+                if (last != null && (best == null || last.getTime() > best.getTime())) best = last;
             }
-            satsBySystem.get(systemName).add(sat);
+        } catch (SecurityException se) {
+            Log.w("NavIC", "No last known location for visibility prediction");
+        }
+        return best;
+    }
 
-            // Add to all satellites list
-            allSatellitesList.add(sat.toEnhancedMap());
+    private int expectedNavicSatellites() {
+        Location observer = observerLocation();
+        if (observer == null) return -1;
+        visibilityPredictor.predict(observer.getLatitude(), observer.getLongitude(), observer.getAltitude(),
+                System.currentTimeMillis());
+        return visibilityPredictor.expectedVisible(GnssStatus.CONSTELLATION_IRNSS, VisibilityPredictor.DEFAULT_MASK_DEG);
+    }
 
-            // Count NavIC satellites
-            if ("IRNSS".equals(systemName) && sat.cn0 >= MIN_NAVIC_SIGNAL_STRENGTH) {
-                navicCount++;
-                if (sat.usedInFix) navicUsedInFix++;
-                if (sat.cn0 > 0) {
-                    navicTotalSignal += sat.cn0;
-                    navicWithSignal++;
+    private void observeVisibility(GnssSnapshot snapshot) {
+        Location observer = lastStreamedLocation;
+        if (observer == null) return;
+        double openness = obstructionMap.isKnown(observer.getLatitude(), observer.getLongitude())
+                ? navicSkyOpenness : Double.NaN;
+        visibilityPredictor.observe(snapshot, observer.getLatitude(), observer.getLongitude(), observer.getAltitude(),
+                openness);
+    }
+
+    /**
+     * Predicted geosynchronous sky: {"latitude", "longitude", "altitude", "maskDeg"}, all optional
+     */
+    private void predictSatelliteVisibility(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number lat = call.argument("latitude");
+            Number lon = call.argument("longitude");
+            Number alt = call.argument("altitude");
+            Number mask = call.argument("maskDeg");
+            double maskDeg = mask != null ? mask.doubleValue() : VisibilityPredictor.DEFAULT_MASK_DEG;
+
+            if (lat != null && lon != null) {
+                visibilityPredictor.predict(lat.doubleValue(), lon.doubleValue(),
+                        alt != null ? alt.doubleValue() : 0, System.currentTimeMillis());
+            } else {
+                if (!hasLocationPermissions()) {
+                    result.error("PERMISSION_DENIED", "Location permissions required", null);
+                    return;
+                }
+                Location observer = observerLocation();
+                if (observer == null) {
+                    result.error("NO_POSITION", "No position to predict visibility from", null);
+                    return;
                 }
-                navicDetails.add(sat.toEnhancedMap());
+                visibilityPredictor.predict(observer.getLatitude(), observer.getLongitude(),
+                        observer.getAltitude(), System.currentTimeMillis());
             }
-        }
 
-        float navicAvgSignal = navicWithSignal > 0 ? navicTotalSignal / navicWithSignal : 0.0f;
-        int totalSatellites = detectedSatellites.size();
+            Map<String, Object> response = visibilityPredictor.toMap(maskDeg);
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error predicting satellite visibility", e);
+            result.error("VISIBILITY_ERROR", "Failed to predict satellite visibility", null);
+        }
+    }
 
-        // Determine primary system
-        primaryPositioningSystem = determinePrimarySystemFromSatellites(satsBySystem);
+    // =============== SKY OBSTRUCTION ===============
 
-        return new EnhancedSatelliteScanResult(
-                navicCount, navicUsedInFix, totalSatellites, navicAvgSignal,
-                navicDetails, detectedSatellites, satsBySystem, allSatellitesList
-        );
+    /**
+     * Learn the sky mask at the streamed position and refresh the NavIC openness
+     * the detector weighs a missing IRNSS track with
+     */
+    private void observeObstruction(GnssSnapshot snapshot) {
+        Location observer = lastStreamedLocation;
+        if (observer == null) return;
+        obstructionMap.observe(snapshot, observer.getLatitude(), observer.getLongitude());
+        navicSkyOpenness = (float) navicClearance(observer.getLatitude(), observer.getLongitude(),
+                VisibilityPredictor.DEFAULT_MASK_DEG, null);
     }
 
-    private String determinePrimarySystemFromSatellites(Map<String, List<EnhancedSatellite>> satsBySystem) {
-        String primarySystem = "GPS";
-        int maxUsedInFix = 0;
-
-        for (Map.Entry<String, List<EnhancedSatellite>> entry : satsBySystem.entrySet()) {
-            String system = entry.getKey();
-            List<EnhancedSatellite> satellites = entry.getValue();
+    /**
+     * Mean clearance over the NavIC SVs above the mask in the last propagation,
+     * 1 when none are expected. Usable SV count goes in usable[0] when given.
+     */
+    private double navicClearance(double latitude, double longitude, double maskDeg, int[] usable) {
+        double sum = 0;
+        int expected = 0;
+        int open = 0;
+        for (int k = 0; k < visibilityPredictor.satelliteCount(); k++) {
+            if (visibilityPredictor.constellation(k) != GnssStatus.CONSTELLATION_IRNSS) continue;
+            double el = visibilityPredictor.elevation(k);
+            if (el < maskDeg || !visibilityPredictor.reliable(k)) continue;
+            double clearance = obstructionMap.clearance(latitude, longitude, el, visibilityPredictor.azimuth(k));
+            sum += clearance;
+            expected++;
+            if (clearance >= OBSTRUCTION_USABLE_CLEARANCE) open++;
+        }
+        if (usable != null) usable[0] = open;
+        return expected > 0 ? sum / expected : 1.0;
+    }
+
+    /**
+     * Learned sky mask: {"latitude", "longitude"}, both optional
+     */
+    private void getObstructionMap(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number lat = call.argument("latitude");
+            Number lon = call.argument("longitude");
+            double latitude, longitude;
+            if (lat != null && lon != null) {
+                latitude = lat.doubleValue();
+                longitude = lon.doubleValue();
+            } else {
+                Location observer = hasLocationPermissions() ? observerLocation() : null;
+                if (observer == null) {
+                    result.error("NO_POSITION", "No position to look up obstruction for", null);
+                    return;
+                }
+                latitude = observer.getLatitude();
+                longitude = observer.getLongitude();
+            }
+
+            Map<String, Object> response = obstructionMap.toMap(latitude, longitude);
+            response.put("latitude", latitude);
+            response.put("longitude", longitude);
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error reading obstruction map", e);
+            result.error("OBSTRUCTION_ERROR", "Failed to read obstruction map", null);
+        }
+    }
+
+    /**
+     * Step the orbit predictor through the learned sky mask:
+     * {"latitude", "longitude", "altitude", "horizonMinutes", "stepMinutes", "minSatellites"}, all optional
+     */
+    private void predictNavicOutages(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number lat = call.argument("latitude");
+            Number lon = call.argument("longitude");
+            Number alt = call.argument("altitude");
+            Number horizonArg = call.argument("horizonMinutes");
+            Number stepArg = call.argument("stepMinutes");
+            Number minArg = call.argument("minSatellites");
+            double latitude, longitude, altitude;
+            if (lat != null && lon != null) {
+                latitude = lat.doubleValue();
+                longitude = lon.doubleValue();
+                altitude = alt != null ? alt.doubleValue() : 0;
+            } else {
+                Location observer = hasLocationPermissions() ? observerLocation() : null;
+                if (observer == null) {
+                    result.error("NO_POSITION", "No position to predict outages from", null);
+                    return;
+                }
+                latitude = observer.getLatitude();
+                longitude = observer.getLongitude();
+                altitude = observer.getAltitude();
+            }
+            long horizonMs = Math.min(24 * 60, Math.max(5, horizonArg != null ? horizonArg.longValue() : 12 * 60)) * 60000L;
+            long stepMs = Math.max(1, stepArg != null ? stepArg.longValue() : 5) * 60000L;
+            int minSatellites = minArg != null ? minArg.intValue() : OUTAGE_MIN_NAVIC_SATELLITES;
+
+            long now = System.currentTimeMillis();
+            int[] usable = new int[1];
+            List<Map<String, Object>> samples = new ArrayList<>();
+            List<Map<String, Object>> outages = new ArrayList<>();
+            Map<String, Object> outage = null;
+            for (long t = now; t <= now + horizonMs; t += stepMs) {
+                visibilityPredictor.predict(latitude, longitude, altitude, t);
+                int expected = visibilityPredictor.expectedVisible(GnssStatus.CONSTELLATION_IRNSS,
+                        VisibilityPredictor.DEFAULT_MASK_DEG);
+                double clearance = navicClearance(latitude, longitude, VisibilityPredictor.DEFAULT_MASK_DEG, usable);
+
+                Map<String, Object> sample = new HashMap<>();
+                sample.put("time", t);
+                sample.put("expected", expected);
+                sample.put("usable", usable[0]);
+                sample.put("clearance", clearance);
+                samples.add(sample);
+
+                if (usable[0] < minSatellites) {
+                    if (outage == null) {
+                        outage = new HashMap<>();
+                        outage.put("start", t);
+                        outage.put("minUsable", usable[0]);
+                        outages.add(outage);
+                    }
+                    outage.put("end", t);
+                    outage.put("minUsable", Math.min((Integer) outage.get("minUsable"), usable[0]));
+                } else {
+                    outage = null;
+                }
+            }
+            // Leave the predictor pointing at the present for detection
+            visibilityPredictor.predict(latitude, longitude, altitude, now);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("samples", samples);
+            response.put("outages", outages);
+            response.put("stepMinutes", stepMs / 60000L);
+            response.put("minSatellites", minSatellites);
+            response.put("obstructionKnown", obstructionMap.isKnown(latitude, longitude));
+            response.put("timestamp", now);
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error predicting NavIC outages", e);
+            result.error("OUTAGE_ERROR", "Failed to predict NavIC outages", null);
+        }
+    }
+
+    // =============== COVERAGE MAP ===============
+
+    /**
+     * Aggregated NavIC coverage for a viewport as one binary payload:
+     * {"south", "west", "north", "east"} required, {"zoom", "maxTiles"} optional
+     */
+    private void getCoverageTiles(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number south = call.argument("south");
+            Number west = call.argument("west");
+            Number north = call.argument("north");
+            Number east = call.argument("east");
+            Number zoom = call.argument("zoom");
+            Number maxTiles = call.argument("maxTiles");
+            // west > east is a viewport across the antimeridian; the index reads both sides
+            if (south == null || west == null || north == null || east == null
+                    || south.doubleValue() > north.doubleValue()
+                    || Math.abs(west.doubleValue()) > 180 || Math.abs(east.doubleValue()) > 180) {
+                result.error("INVALID_ARGUMENT",
+                        "Viewport needs south <= north and west, east within [-180, 180]", null);
+                return;
+            }
+
+            result.success(coverageIndex.query(south.doubleValue(), west.doubleValue(),
+                    north.doubleValue(), east.doubleValue(),
+                    zoom != null ? zoom.intValue() : -1,
+                    maxTiles != null ? maxTiles.intValue() : 1024));
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error querying coverage tiles", e);
+            result.error("COVERAGE_ERROR", "Failed to query coverage tiles", null);
+        }
+    }
+
+    // =============== MAP TILE CACHE ===============
+
+    /**
+     * One map tile as raw image bytes: {"source", "z", "x", "y"}
+     */
+    private void getMapTile(MethodCall call, MethodChannel.Result result) {
+        String source = call.argument("source");
+        Number z = call.argument("z");
+        Number x = call.argument("x");
+        Number y = call.argument("y");
+        if (source == null || z == null || x == null || y == null) {
+            result.error("INVALID_ARGUMENT", "Tile needs source, z, x and y", null);
+            return;
+        }
+        tileCache.get(source, z.intValue(), x.intValue(), y.intValue(), (tile, error) -> {
+            if (tile != null) {
+                result.success(tile);
+            } else {
+                result.error("TILE_UNAVAILABLE", error, null);
+            }
+        });
+    }
+
+    /**
+     * Download missing tiles around a point, the current fix by default:
+     * {"latitude", "longitude", "radiusM", "minZoom", "maxZoom", "source"}, all optional
+     */
+    private void prefetchMapTiles(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number lat = call.argument("latitude");
+            Number lon = call.argument("longitude");
+            Number radius = call.argument("radiusM");
+            Number minZoom = call.argument("minZoom");
+            Number maxZoom = call.argument("maxZoom");
+            String source = call.argument("source");
+
+            double latitude, longitude;
+            if (lat != null && lon != null) {
+                latitude = lat.doubleValue();
+                longitude = lon.doubleValue();
+            } else if (positionFilter.isInitialized()) {
+                latitude = positionFilter.latitude();
+                longitude = positionFilter.longitude();
+            } else {
+                Location observer = hasLocationPermissions() ? observerLocation() : null;
+                if (observer == null) {
+                    result.error("NO_POSITION", "No position to prefetch tiles around", null);
+                    return;
+                }
+                latitude = observer.getLatitude();
+                longitude = observer.getLongitude();
+            }
+
+            int queued = tileCache.prefetch(latitude, longitude, radius != null ? radius.doubleValue() : 1500,
+                    minZoom != null ? minZoom.intValue() : -1, maxZoom != null ? maxZoom.intValue() : -1, source);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("queued", queued);
+            response.put("latitude", latitude);
+            response.put("longitude", longitude);
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error prefetching map tiles", e);
+            result.error("TILE_CACHE_ERROR", "Failed to prefetch map tiles", null);
+        }
+    }
+
+    private void configureTileCache(MethodCall call, MethodChannel.Result result) {
+        try {
+            Map<?, ?> args = call.arguments instanceof Map ? (Map<?, ?>) call.arguments : null;
+            tileCache.configure(args);
+
+            Map<String, Object> response = new HashMap<>(tileCache.stats());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error configuring tile cache", e);
+            result.error("TILE_CACHE_ERROR", "Failed to configure tile cache", null);
+        }
+    }
+
+    private void recordLiveL5Satellites(EnhancedSatelliteScanResult scan) {
+        for (Map.Entry<String, EnhancedSatellite> entry : scan.allSatellites.entrySet()) {
+            if (entry.getValue().hasSignalOn(GnssIdentifiers.Band.L5)) {
+                liveL5Satellites.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Observed carriers override the chipset and property heuristics once the
+     * verifier has reached a verdict.
+     */
+    private void applyL5Verdict() {
+        L5CapabilityVerifier.Verdict verdict = l5Verifier.verdict();
+        if (verdict == L5CapabilityVerifier.Verdict.UNVERIFIED) return;
+        boolean confirmed = verdict == L5CapabilityVerifier.Verdict.CONFIRMED;
+        boolean changed = confirmed != hasL5BandSupport;
+        hasL5BandSupport = confirmed;
+        l5Confidence = l5Verifier.l5Confidence();
+        // Invalidate after publishing so a report rebuilt meanwhile cannot cache the old verdict
+        if (changed) responseCache.invalidateAll();
+        Log.d("NavIC", "📡 L5 verdict from observed carriers: " + verdict);
+    }
+
+    private void applyL5Verdict(EnhancedL5BandResult l5Result) {
+        l5Result.liveL5Satellites = liveL5Satellites.size();
+        l5Result.verifierVerdict = l5Verifier.verdict().name();
+        switch (l5Verifier.verdict()) {
+            case CONFIRMED:
+                l5Result.hasL5Support = true;
+                l5Result.confidence = l5Verifier.l5Confidence();
+                if (!l5Result.detectionMethods.contains("LIVE_L5_SIGNAL")) {
+                    l5Result.detectionMethods.add("LIVE_L5_SIGNAL");
+                }
+                break;
+            case NOT_OBSERVED:
+                l5Result.hasL5Support = false;
+                l5Result.confidence = l5Verifier.l5Confidence();
+                if (!l5Result.detectionMethods.contains("L5_CARRIER_NOT_OBSERVED")) {
+                    l5Result.detectionMethods.add("L5_CARRIER_NOT_OBSERVED");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void completeDetectionSession(DetectionSession session, boolean detected,
+                                          EnhancedSatelliteScanResult result, long elapsedTime) {
+        if (session.completed) return;
+        session.completed = true;
+
+        handler.removeCallbacks(session.timeoutTask);
+        activeDetectionSessions.remove(session);
+        if (session.detector.isLegacyDecided() || elapsedTime >= session.timeoutMs) {
+            recordDetectionSession(session);
+        } else {
+            // The answer goes out now; the trace keeps growing until the legacy rules decide as well
+            shadowDetectionSessions.add(session);
+            handler.postDelayed(session.shadowEndTask, Math.max(0, session.timeoutMs - elapsedTime));
+        }
+        releaseDetectionSubscriptionIfIdle();
+        visibilityPredictor.persist();
+        obstructionMap.flush();
+
+        String primarySystem = determinePrimarySystemFromSatellites(session.satellitesBySystem);
+        primaryPositioningSystem = primarySystem;
+        boolean l5Enabled = session.l5Result.hasL5Support;
+
+        Log.d("NavIC", String.format(
+                "🎯 ENHANCED Detection #%d %s\n" +
+                        "  NavIC Satellites: %d (%d in fix)\n" +
+                        "  Total Satellites: %d\n" +
+                        "  Systems Detected: %d\n" +
+                        "  Average Signal: %.1f dB-Hz\n" +
+                        "  Detection Time: %d ms\n" +
+                        "  Primary System: %s\n" +
+                        "  L5 Band: %s\n" +
+                        "  Requests Served: %d",
+                session.id, detected ? "✅ SUCCESS" : "❌ FAILED",
+                result.navicCount, result.navicUsedInFix,
+                result.totalSatellites, result.satellitesBySystem.size(),
+                result.navicSignalStrength, elapsedTime,
+                primarySystem,
+                l5Enabled ? "✅ Available" : "❌ Not Available",
+                session.waitingResults.size()
+        ));
+
+        Map<String, Object> response = buildDetectionResponse(session, detected, result, elapsedTime, primarySystem);
+        for (MethodChannel.Result waiting : session.waitingResults) {
+            waiting.success(response);
+        }
+        emitDetectionEvent("DECISION", session, StreamRateController.URGENT_CHANGE, () -> new HashMap<>(response));
+    }
+
+    private void stopDetectionSessions() {
+        for (DetectionSession session : activeDetectionSessions) {
+            session.completed = true;
+            handler.removeCallbacks(session.timeoutTask);
+        }
+        activeDetectionSessions.clear();
+        for (DetectionSession session : shadowDetectionSessions) {
+            // Recorded as censored; evaluateSessions leaves it out of the legacy mean
+            handler.removeCallbacks(session.shadowEndTask);
+            recordDetectionSession(session);
+        }
+        shadowDetectionSessions.clear();
+        releaseDetectionSubscription();
+    }
+
+    /**
+     * Stop shadowing a decided session and record its trace
+     */
+    private void finishShadowRecording(DetectionSession session, long elapsedTime) {
+        if (!shadowDetectionSessions.remove(session)) return;
+        handler.removeCallbacks(session.shadowEndTask);
+        session.detector.truncate(elapsedTime);
+        recordDetectionSession(session);
+        releaseDetectionSubscriptionIfIdle();
+    }
+
+    private void releaseDetectionSubscriptionIfIdle() {
+        if (activeDetectionSessions.isEmpty() && shadowDetectionSessions.isEmpty()) {
+            releaseDetectionSubscription();
+        }
+    }
+
+    private void releaseDetectionSubscription() {
+        if (detectionSubscription != null) {
+            detectionSubscription.close();
+            detectionSubscription = null;
+        }
+    }
+
+    private void failDetectionSession(DetectionSession session, String reason) {
+        EnhancedSatelliteScanResult empty = new EnhancedSatelliteScanResult(0, 0, 0, 0.0f,
+                new ArrayList<>(), new HashMap<>(), new HashMap<>(), new ArrayList<>());
+        session.completed = true;
+        handler.removeCallbacks(session.timeoutTask);
+        activeDetectionSessions.remove(session);
+        releaseDetectionSubscriptionIfIdle();
+
+        Map<String, Object> response = buildDetectionResponse(session, false, empty, 0, reason);
+        for (MethodChannel.Result waiting : session.waitingResults) {
+            waiting.success(response);
+        }
+        emitDetectionEvent("FAILED", session, StreamRateController.URGENT_CHANGE, () -> new HashMap<>(response));
+    }
+
+    private Map<String, Object> buildDetectionResponse(DetectionSession session, boolean navicDetected,
+                                                       EnhancedSatelliteScanResult result, long acquisitionTime,
+                                                       String primarySystem) {
+        EnhancedHardwareDetectionResult hardwareResult = session.hardwareResult;
+        EnhancedL5BandResult l5Result = session.l5Result;
+        applyL5Verdict(l5Result);
+        boolean l5Enabled = l5Result.hasL5Support;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("isSupported", hardwareResult.isSupported);
+        response.put("isActive", navicDetected);
+        response.put("detectionMethod", hardwareResult.detectionMethod);
+        response.put("satelliteCount", result.navicCount);
+        response.put("totalSatellites", result.totalSatellites);
+        response.put("totalSignals", result.totalSignals);
+        response.put("usedInFixCount", result.navicUsedInFix);
+        response.put("confidenceLevel", hardwareResult.confidenceLevel);
+        response.put("averageSignalStrength", (double) result.navicSignalStrength);
+        response.put("satelliteDetails", result.navicDetails);
+        response.put("acquisitionTimeMs", acquisitionTime);
+        response.put("expectedNavicSatellites", session.expectedNavic);
+        response.put("detectionWindowMs", session.timeoutMs);
+        response.put("startupTiming", startupRecorder.latestSessionMap());
+        response.put("chipsetType", hardwareResult.chipsetType);
+        response.put("chipsetVendor", hardwareResult.chipsetVendor);
+        response.put("chipsetModel", hardwareResult.chipsetModel);
+        response.put("verificationMethods", hardwareResult.verificationMethods);
+        response.put("hasL5Band", l5Enabled);
+        response.put("l5BandInfo", l5Result.toMap());
+        response.put("allSatellites", result.allSatellitesList);
+        response.put("primarySystem", primarySystem);
+        response.put("detectionDecision", session.detector.toMap());
+        response.put("detectionSessionId", session.id);
+        response.put("joinedRequests", session.waitingResults.size());
+
+        // Calculate enhanced positioning method
+        String positioningMethod = determineEnhancedPositioningMethod(navicDetected, result.navicUsedInFix,
+                result.allSatellitesList, l5Enabled);
+        response.put("positioningMethod", positioningMethod);
+
+        String message = generateEnhancedDetectionMessage(hardwareResult, l5Result, navicDetected,
+                result.navicCount, result.navicUsedInFix, result.navicSignalStrength, acquisitionTime);
+        response.put("message", message);
+
+        Log.d("NavIC", "🎯 ENHANCED detection completed: " + message);
+        return response;
+    }
+
+    /**
+     * Reduce one scan to the per-tick evidence consumed by the SPRT
+     */
+    private NavicSequentialDetector.TickEvidence buildNavicTickEvidence(EnhancedSatelliteScanResult scanResult,
+                                                                       long elapsedTime) {
+        int irnssWithEphemeris = 0;
+        int irnssWithAlmanac = 0;
+        int otherSvsWithSignal = 0;
+
+        for (EnhancedSatellite sat : scanResult.allSatellites.values()) {
+            if (sat.cn0 < MIN_NAVIC_SIGNAL_STRENGTH) continue;
+            if ("IRNSS".equals(sat.systemName)) {
+                if (sat.svid < 1 || sat.svid > 14) continue;
+                if (sat.hasEphemeris) irnssWithEphemeris++;
+                if (sat.hasAlmanac) irnssWithAlmanac++;
+            } else {
+                otherSvsWithSignal++;
+            }
+        }
+
+        return new NavicSequentialDetector.TickEvidence(elapsedTime, scanResult.navicCount,
+                scanResult.navicUsedInFix, scanResult.navicSignalStrength,
+                irnssWithEphemeris, irnssWithAlmanac, otherSvsWithSignal, navicSkyOpenness);
+    }
+
+    /**
+     * Merge a scan into tracked state. Aggregates, when given, are updated in
+     * step with the maps they describe.
+     */
+    private void updateSatelliteTracking(Map<String, EnhancedSatellite> trackedSatellites,
+                                         Map<String, List<EnhancedSatellite>> trackedBySystem,
+                                         EnhancedSatelliteScanResult scanResult,
+                                         SatelliteAggregates trackedAggregates,
+                                         SatelliteAggregates tickAggregates,
+                                         long detectionTime) {
+        // Update detected satellites map
+        for (Map.Entry<String, EnhancedSatellite> entry : scanResult.allSatellites.entrySet()) {
+            String key = entry.getKey();
+            EnhancedSatellite newSat = entry.getValue();
+
+            EnhancedSatellite existingSat = trackedSatellites.get(key);
+            if (existingSat != null) {
+                if (trackedAggregates != null) {
+                    trackedAggregates.remove(existingSat.systemName, existingSat.cn0, existingSat.usedInFix);
+                }
+                // Update existing satellite with average values
+                existingSat.detectionCount++;
+                existingSat.mergeSignals(newSat); // Average signal strength per band
+                existingSat.usedInFix = existingSat.usedInFix || newSat.usedInFix;
+                existingSat.elevation = (existingSat.elevation + newSat.elevation) / 2;
+                existingSat.azimuth = (existingSat.azimuth + newSat.azimuth) / 2;
+                if (trackedAggregates != null) {
+                    trackedAggregates.add(existingSat.systemName, existingSat.cn0, existingSat.usedInFix);
+                }
+            } else {
+                // Scan records are shared by the registry and every session, so each tracker keeps its own copy
+                EnhancedSatellite added = EnhancedSatellite.copyInto(newSat, null);
+                added.detectionTime = detectionTime;
+                trackedSatellites.put(key, added);
+                if (trackedAggregates != null) {
+                    trackedAggregates.add(added.systemName, added.cn0, added.usedInFix);
+                }
+            }
+        }
+
+        // Update satellites by system
+        trackedBySystem.clear();
+        trackedBySystem.putAll(scanResult.satellitesBySystem);
+        if (tickAggregates != null) {
+            tickAggregates.clear();
+            for (List<EnhancedSatellite> systemSats : scanResult.satellitesBySystem.values()) {
+                for (EnhancedSatellite sat : systemSats) {
+                    tickAggregates.add(sat.systemName, sat.cn0, sat.usedInFix);
+                }
+            }
+        }
+    }
+
+    private EnhancedSatelliteScanResult getCurrentEnhancedScanResult(Map<String, EnhancedSatellite> trackedSatellites) {
+        int navicCount = 0;
+        int navicUsedInFix = 0;
+        float navicTotalSignal = 0;
+        int navicWithSignal = 0;
+        List<Map<String, Object>> navicDetails = new ArrayList<>();
+        List<Map<String, Object>> allSatellitesList = new ArrayList<>();
+        long frameTimestamp = System.currentTimeMillis();
+
+        Map<String, List<EnhancedSatellite>> satsBySystem = new HashMap<>();
+
+        // Process all detected satellites
+        for (EnhancedSatellite sat : trackedSatellites.values()) {
+            String systemName = sat.systemName;
+
+            if (!satsBySystem.containsKey(systemName)) {
+                satsBySystem.put(systemName, new ArrayList<>());
+            }
+            satsBySystem.get(systemName).add(sat);
+
+            // Add to all satellites list
+            Map<String, Object> satMap = sat.toEnhancedMap(frameTimestamp);
+            allSatellitesList.add(satMap);
+
+            // Count NavIC satellites
+            if ("IRNSS".equals(systemName) && sat.cn0 >= MIN_NAVIC_SIGNAL_STRENGTH) {
+                navicCount++;
+                if (sat.usedInFix) navicUsedInFix++;
+                if (sat.cn0 > 0) {
+                    navicTotalSignal += sat.cn0;
+                    navicWithSignal++;
+                }
+                navicDetails.add(satMap);
+            }
+        }
+
+        float navicAvgSignal = navicWithSignal > 0 ? navicTotalSignal / navicWithSignal : 0.0f;
+        int totalSatellites = trackedSatellites.size();
+
+        // Determine primary system
+        primaryPositioningSystem = determinePrimarySystemFromSatellites(satsBySystem);
+
+        EnhancedSatelliteScanResult result = new EnhancedSatelliteScanResult(
+                navicCount, navicUsedInFix, totalSatellites, navicAvgSignal,
+                navicDetails, trackedSatellites, satsBySystem, allSatellitesList
+        );
+        for (EnhancedSatellite sat : trackedSatellites.values()) {
+            result.totalSignals += sat.bandCount();
+            if (sat.hasSignalOn(GnssIdentifiers.Band.L5)) result.l5Satellites++;
+        }
+        return result;
+    }
+
+    private String determinePrimarySystemFromSatellites(Map<String, List<EnhancedSatellite>> satsBySystem) {
+        String primarySystem = "GPS";
+        int maxUsedInFix = 0;
+
+        for (Map.Entry<String, List<EnhancedSatellite>> entry : satsBySystem.entrySet()) {
+            String system = entry.getKey();
+            List<EnhancedSatellite> satellites = entry.getValue();
 
             int usedInFixCount = 0;
             for (EnhancedSatellite sat : satellites) {
@@ -1736,33 +2584,90 @@ public class MainActivity extends FlutterActivity {
         return primarySystem;
     }
 
-    private void completeEnhancedDetection(boolean detected, EnhancedSatelliteScanResult result,
-                                           long elapsedTime, EnhancedSatelliteDetectionCallback cb,
-                                           GnssStatus.Callback callback) {
-        if (navicDetectionCompleted.compareAndSet(false, true)) {
-            cleanupCallback(callback);
+    private void recordDetectionSession(DetectionSession session) {
+        List<NavicSequentialDetector.TickEvidence> trace = session.detector.getTrace();
+        if (trace.isEmpty()) return;
+        synchronized (recordedDetectionSessions) {
+            recordedDetectionSessions.addLast(
+                    new NavicSequentialDetector.RecordedSession(new ArrayList<>(trace), session.timeoutMs));
+            while (recordedDetectionSessions.size() > MAX_RECORDED_DETECTION_SESSIONS) {
+                recordedDetectionSessions.removeFirst();
+            }
+        }
+    }
 
-            Log.d("NavIC", String.format(
-                    "🎯 ENHANCED Detection %s\n" +
-                            "  NavIC Satellites: %d (%d in fix)\n" +
-                            "  Total Satellites: %d\n" +
-                            "  Systems Detected: %d\n" +
-                            "  Average Signal: %.1f dB-Hz\n" +
-                            "  Detection Time: %d ms\n" +
-                            "  Primary System: %s\n" +
-                            "  L5 Band: %s",
-                    detected ? "✅ SUCCESS" : "❌ FAILED",
-                    result.navicCount, result.navicUsedInFix,
-                    result.totalSatellites, result.satellitesBySystem.size(),
-                    result.navicSignalStrength, elapsedTime,
-                    primaryPositioningSystem,
-                    hasL5BandSupport ? "✅ Available" : "❌ Not Available"
-            ));
+    /**
+     * Compare SPRT and legacy time-to-decision over the sessions recorded on this device
+     */
+    private void getDetectionDecisionStats(MethodChannel.Result result) {
+        try {
+            List<NavicSequentialDetector.RecordedSession> sessions;
+            synchronized (recordedDetectionSessions) {
+                sessions = new ArrayList<>(recordedDetectionSessions);
+            }
+
+            Map<String, Object> report = NavicSequentialDetector.evaluateSessions(navicDetectorConfig, sessions);
+
+            List<List<Map<String, Object>>> traces = new ArrayList<>();
+            List<Long> timeouts = new ArrayList<>();
+            for (NavicSequentialDetector.RecordedSession session : sessions) {
+                List<Map<String, Object>> ticks = new ArrayList<>();
+                for (NavicSequentialDetector.TickEvidence tick : session.ticks) {
+                    ticks.add(tick.toMap());
+                }
+                traces.add(ticks);
+                timeouts.add(session.timeoutMs);
+            }
+            report.put("recordedSessions", traces);
+            report.put("recordedTimeoutsMs", timeouts);
+            report.put("timestamp", System.currentTimeMillis());
+
+            result.success(report);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting detection decision stats", e);
+            result.error("DECISION_STATS_ERROR", "Failed to get detection decision stats", null);
+        }
+    }
+
+    /**
+     * Replay externally recorded sessions: {"sessions": [[tick, ...], ...], "timeoutsMs": [...], "config": {...}}.
+     * timeoutsMs gives each session's window, as exported in recordedTimeoutsMs; missing entries use 30 s.
+     */
+    private void evaluateDetectionSessions(MethodCall call, MethodChannel.Result result) {
+        try {
+            List<?> rawSessions = call.argument("sessions");
+            if (rawSessions == null) {
+                result.error("INVALID_ARGUMENT", "sessions list required", null);
+                return;
+            }
+
+            Object rawConfig = call.argument("config");
+            NavicSequentialDetector.Config config = rawConfig instanceof Map ?
+                    navicDetectorConfig.withArguments((Map<?, ?>) rawConfig) : navicDetectorConfig.copy();
+
+            List<?> rawTimeouts = call.argument("timeoutsMs");
+            List<NavicSequentialDetector.RecordedSession> sessions = new ArrayList<>();
+            for (int s = 0; s < rawSessions.size(); s++) {
+                Object rawSession = rawSessions.get(s);
+                if (!(rawSession instanceof List)) continue;
+                Object rawTimeout = rawTimeouts != null && s < rawTimeouts.size() ? rawTimeouts.get(s) : null;
+                long timeoutMs = rawTimeout instanceof Number && ((Number) rawTimeout).longValue() > 0
+                        ? ((Number) rawTimeout).longValue() : SATELLITE_DETECTION_TIMEOUT_MS;
+                List<NavicSequentialDetector.TickEvidence> ticks = new ArrayList<>();
+                for (Object rawTick : (List<?>) rawSession) {
+                    if (rawTick instanceof Map) {
+                        ticks.add(NavicSequentialDetector.TickEvidence.fromMap((Map<?, ?>) rawTick));
+                    }
+                }
+                sessions.add(new NavicSequentialDetector.RecordedSession(ticks, timeoutMs));
+            }
 
-            cb.onResult(detected, result.navicCount, result.totalSatellites,
-                    result.navicUsedInFix, result.navicSignalStrength,
-                    result.navicDetails, elapsedTime, result.allSatellitesList,
-                    hasL5BandSupport, primaryPositioningSystem);
+            Map<String, Object> report = NavicSequentialDetector.evaluateSessions(config, sessions);
+            report.put("timestamp", System.currentTimeMillis());
+            result.success(report);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error evaluating detection sessions", e);
+            result.error("EVALUATION_ERROR", "Failed to evaluate detection sessions", null);
         }
     }
 
@@ -1800,9 +2705,11 @@ public class MainActivity extends FlutterActivity {
     }
 
     /**
-     * Process satellites with ENHANCED information including carrier frequencies
+     * Process satellites with ENHANCED information including carrier frequencies.
+     * First sightings are logged against knownSatellites; pass null to skip logging.
      */
-    private EnhancedSatelliteScanResult processEnhancedSatellites(GnssStatus status, long elapsedTime, boolean hasL5Support) {
+    private EnhancedSatelliteScanResult processEnhancedSatellites(GnssSnapshot snapshot, long elapsedTime, boolean hasL5Support,
+                                                                  Map<String, EnhancedSatellite> knownSatellites) {
         Map<String, EnhancedSatellite> allSats = new ConcurrentHashMap<>();
         Map<String, List<EnhancedSatellite>> satsBySystem = new ConcurrentHashMap<>();
 
@@ -1811,69 +2718,75 @@ public class MainActivity extends FlutterActivity {
         float navicTotalSignal = 0;
         int navicWithSignal = 0;
 
-        int totalSatellites = status.getSatelliteCount();
+        int totalSatellites = snapshot.satelliteCount;
         List<Map<String, Object>> navicDetails = new ArrayList<>();
         List<Map<String, Object>> allSatellitesList = new ArrayList<>();
 
+        // Group signals by SV: a dual-frequency receiver reports one entry per band
+        List<EnhancedSatellite> tickSatellites = new ArrayList<>();
+        List<String> tickKeys = new ArrayList<>();
         for (int i = 0; i < totalSatellites; i++) {
-            int constellation = status.getConstellationType(i);
-            String systemName = getEnhancedConstellationName(constellation);
-            String countryFlag = GNSS_COUNTRIES.getOrDefault(systemName, "🌐");
-
-            int svid = status.getSvid(i);
-            float cn0 = status.getCn0DbHz(i);
-            boolean used = status.usedInFix(i);
-            float elevation = status.getElevationDegrees(i);
-            float azimuth = status.getAzimuthDegrees(i);
-            boolean hasEphemeris = status.hasEphemerisData(i);
-            boolean hasAlmanac = status.hasAlmanacData(i);
+            int constellation = snapshot.constellation(i);
+            int svid = snapshot.svid(i);
+            SatellitePayloads.SvLabels labels = svLabels(constellation, svid);
+            String systemName = labels.system;
+
+            float cn0 = snapshot.cn0DbHz(i);
+            boolean used = snapshot.usedInFix(i);
+            boolean hasEphemeris = snapshot.hasEphemeris(i);
+            boolean hasAlmanac = snapshot.hasAlmanac(i);
 
             // Determine carrier frequency and band
-            String frequencyBand = "Unknown";
-            double carrierFrequency = 0.0;
+            double carrierFrequency = snapshot.carrierFrequencyHz(i);
+            GnssIdentifiers.Band frequencyBand = resolveFrequencyBand(snapshot, i, hasL5Support);
 
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
-                try {
-                    carrierFrequency = status.getCarrierFrequencyHz(i);
-                    if (carrierFrequency > 0) {
-                        frequencyBand = determineFrequencyBandFromHz(carrierFrequency);
-                    }
-                } catch (Exception e) {
-                    frequencyBand = getDefaultBandForConstellation(constellation, hasL5Support);
-                }
-            } else {
-                frequencyBand = getDefaultBandForConstellation(constellation, hasL5Support);
+            // Use system_svid as key for better tracking
+            String satelliteKey = systemName + "_" + svid;
+            EnhancedSatellite satellite = allSats.get(satelliteKey);
+            if (satellite != null) {
+                satellite.addSignal(frequencyBand, cn0, carrierFrequency, used, hasEphemeris, hasAlmanac);
+                continue;
             }
 
             // Create ENHANCED satellite object
-            EnhancedSatellite satellite = new EnhancedSatellite(
+            satellite = new EnhancedSatellite(
                     svid,
                     systemName,
                     constellation,
-                    countryFlag,
+                    labels.countryFlag,
                     cn0,
                     used,
-                    elevation,
-                    azimuth,
+                    snapshot.elevation(i),
+                    snapshot.azimuth(i),
                     hasEphemeris,
                     hasAlmanac,
                     frequencyBand,
                     carrierFrequency,
                     elapsedTime
             );
-
-            // Use system_svid as key for better tracking
-            String satelliteKey = systemName + "_" + svid;
             allSats.put(satelliteKey, satellite);
+            tickSatellites.add(satellite);
+            tickKeys.add(satelliteKey);
 
             // Group by system
             if (!satsBySystem.containsKey(systemName)) {
                 satsBySystem.put(systemName, new ArrayList<>());
             }
             satsBySystem.get(systemName).add(satellite);
+        }
+
+        int l5Satellites = 0;
+        for (int s = 0; s < tickSatellites.size(); s++) {
+            EnhancedSatellite satellite = tickSatellites.get(s);
+            String satelliteKey = tickKeys.get(s);
+            String systemName = satellite.systemName;
+            int svid = satellite.svid;
+            float cn0 = satellite.cn0;
+            boolean used = satellite.usedInFix;
+            if (satellite.hasSignalOn(GnssIdentifiers.Band.L5)) l5Satellites++;
 
             // Create detailed map for Flutter
-            Map<String, Object> satMap = satellite.toEnhancedMap();
+            Map<String, Object> satMap = satellite.toEnhancedMap(snapshot.timestampMs);
             allSatellitesList.add(satMap);
 
             // NavIC-specific tracking
@@ -1890,7 +2803,7 @@ public class MainActivity extends FlutterActivity {
                     navicDetails.add(satMap);
 
                     // Log new NavIC satellite
-                    if (!detectedSatellites.containsKey(satelliteKey)) {
+                    if (knownSatellites != null && !knownSatellites.containsKey(satelliteKey)) {
                         Log.d("NavIC", String.format(
                                 "✅ IRNSS Satellite:\n" +
                                         "  SVID: %d\n" +
@@ -1899,20 +2812,20 @@ public class MainActivity extends FlutterActivity {
                                         "  Used: %s\n" +
                                         "  Elevation: %.1f°\n" +
                                         "  Azimuth: %.1f°",
-                                svid, cn0, frequencyBand, used, elevation, azimuth
+                                svid, cn0, satellite.bandsLabel(), used, satellite.elevation, satellite.azimuth
                         ));
                     }
                 }
             } else if (cn0 > 10.0f) {
                 // Log other GNSS satellites on first detection
-                if (!detectedSatellites.containsKey(satelliteKey)) {
+                if (knownSatellites != null && !knownSatellites.containsKey(satelliteKey)) {
                     Log.v("NavIC", String.format(
                             "📡 %s %s:\n" +
                                     "  SVID: %d\n" +
                                     "  Signal: %.1f dB-Hz\n" +
                                     "  Band: %s\n" +
                                     "  Used: %s",
-                            countryFlag, systemName, svid, cn0, frequencyBand, used
+                            satellite.countryFlag, systemName, svid, cn0, satellite.bandsLabel(), used
                     ));
                 }
             }
@@ -1920,68 +2833,34 @@ public class MainActivity extends FlutterActivity {
 
         float navicAvgSignal = navicWithSignal > 0 ? navicTotalSignal / navicWithSignal : 0.0f;
 
-        return new EnhancedSatelliteScanResult(
-                navicCount, navicUsedInFix, totalSatellites, navicAvgSignal,
+        EnhancedSatelliteScanResult result = new EnhancedSatelliteScanResult(
+                navicCount, navicUsedInFix, tickSatellites.size(), navicAvgSignal,
                 navicDetails, allSats, satsBySystem, allSatellitesList
         );
+        result.totalSignals = totalSatellites;
+        result.l5Satellites = l5Satellites;
+        return result;
     }
 
-    private String determineFrequencyBandFromHz(double frequencyHz) {
-        double freqMHz = frequencyHz / 1e6;
-
-        // L5/E5a/B2a frequency
-        if (Math.abs(freqMHz - 1176.45) < 2.0) return "L5";
-        // L1/E1/B1 frequency
-        if (Math.abs(freqMHz - 1575.42) < 2.0) return "L1";
-        // L2 frequency
-        if (Math.abs(freqMHz - 1227.60) < 2.0) return "L2";
-        // NavIC S-band
-        if (Math.abs(freqMHz - 2492.028) < 2.0) return "S";
-        // GLONASS G1
-        if (Math.abs(freqMHz - 1602.0) < 2.0) return "G1";
-        // GLONASS G2
-        if (Math.abs(freqMHz - 1246.0) < 2.0) return "G2";
-        // Galileo E5
-        if (Math.abs(freqMHz - 1207.14) < 2.0) return "E5";
-        // BeiDou B2
-        if (Math.abs(freqMHz - 1207.14) < 2.0) return "B2";
-        // BeiDou B3
-        if (Math.abs(freqMHz - 1268.52) < 2.0) return "B3";
-
-        return String.format("%.0f MHz", freqMHz);
-    }
-
-    private String getDefaultBandForConstellation(int constellation, boolean hasL5Support) {
-        switch (constellation) {
-            case GnssStatus.CONSTELLATION_IRNSS:
-                return hasL5Support ? "L5/S" : "L5";
-            case GnssStatus.CONSTELLATION_GPS:
-                return hasL5Support ? "L1/L5" : "L1";
-            case GnssStatus.CONSTELLATION_GALILEO:
-                return hasL5Support ? "E1/E5a" : "E1";
-            case GnssStatus.CONSTELLATION_BEIDOU:
-                return hasL5Support ? "B1/B2a" : "B1";
-            case GnssStatus.CONSTELLATION_GLONASS:
-                return "G1";
-            case GnssStatus.CONSTELLATION_QZSS:
-                return hasL5Support ? "L1/L5" : "L1";
-            default:
-                return "L1";
+    /**
+     * Band from the reported carrier frequency, falling back to the constellation default
+     */
+    private GnssIdentifiers.Band resolveFrequencyBand(GnssSnapshot snapshot, int index, boolean hasL5Support) {
+        if (snapshot.hasCarrierFrequency(index)) {
+            return snapshot.band(index);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return GnssIdentifiers.Band.UNKNOWN;
         }
+        return GnssIdentifiers.Band.defaultFor(snapshot.constellation(index), hasL5Support);
     }
 
     private String getEnhancedConstellationName(int constellation) {
-        switch (constellation) {
-            case GnssStatus.CONSTELLATION_IRNSS: return "IRNSS";
-            case GnssStatus.CONSTELLATION_GPS: return "GPS";
-            case GnssStatus.CONSTELLATION_GLONASS: return "GLONASS";
-            case GnssStatus.CONSTELLATION_GALILEO: return "GALILEO";
-            case GnssStatus.CONSTELLATION_BEIDOU: return "BEIDOU";
-            case GnssStatus.CONSTELLATION_QZSS: return "QZSS";
-            case GnssStatus.CONSTELLATION_SBAS: return "SBAS";
-            case GnssStatus.CONSTELLATION_UNKNOWN: return "UNKNOWN";
-            default: return "UNKNOWN_" + constellation;
+        GnssIdentifiers.Constellation c = GnssIdentifiers.Constellation.of(constellation);
+        if (c == GnssIdentifiers.Constellation.UNKNOWN && constellation != GnssStatus.CONSTELLATION_UNKNOWN) {
+            return "UNKNOWN_" + constellation;
         }
+        return c.label;
     }
 
     private String determineEnhancedPositioningMethod(boolean navicDetected, int navicUsedInFix,
@@ -2071,152 +2950,724 @@ public class MainActivity extends FlutterActivity {
                     hardwareResult.confidenceLevel * 100));
         }
 
-        return message.toString();
+        return message.toString();
+    }
+
+    /**
+     * Get all satellites in view (real-time)
+     */
+    private void getAllSatellites(MethodChannel.Result result) {
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildAllSatellitesReport(snapshot));
+        }
+    }
+
+    // =============== BATCH REPORTS ===============
+
+    /**
+     * Builds one report from a snapshot. The report kinds accepted by
+     * getSatelliteReports are the names of the matching single-report methods.
+     */
+    private interface ReportBuilder {
+        Map<String, Object> build(ReportSnapshot snapshot);
+    }
+
+    private final Map<String, ReportBuilder> reportBuilders = new HashMap<String, ReportBuilder>() {{
+        put("getAllSatellites", MainActivity.this::buildAllSatellitesReport);
+        put("getAllSatellitesInRange", MainActivity.this::buildAllSatellitesInRangeReport);
+        put("getGnssRangeStatistics", MainActivity.this::buildGnssRangeStatisticsReport);
+        put("getDetailedSatelliteInfo", MainActivity.this::buildDetailedSatelliteInfoReport);
+        put("getCompleteSatelliteSummary", MainActivity.this::buildCompleteSatelliteSummaryReport);
+        put("getSatelliteNames", MainActivity.this::buildSatelliteNamesReport);
+        put("getConstellationDetails", MainActivity.this::buildConstellationDetailsReport);
+        put("getSignalStrengthAnalysis", MainActivity.this::buildSignalStrengthAnalysisReport);
+        put("getElevationAzimuthData", MainActivity.this::buildElevationAzimuthDataReport);
+        put("getCarrierFrequencyInfo", MainActivity.this::buildCarrierFrequencyInfoReport);
+        put("getEphemerisAlmanacStatus", MainActivity.this::buildEphemerisAlmanacStatusReport);
+        put("getSatelliteDetectionHistory", MainActivity.this::buildSatelliteDetectionHistoryReport);
+        put("getGnssDiversityReport", MainActivity.this::buildGnssDiversityReport);
+        put("getSatelliteSignalQuality", MainActivity.this::buildSatelliteSignalQualityReport);
+    }};
+
+    /**
+     * One pinned registry epoch. Every report built from the same snapshot sees
+     * the same satellites, aggregates and timestamp. Close it when done.
+     */
+    private static final class ReportSnapshot implements AutoCloseable {
+        final long timestamp;
+        final EpochPublisher.Epoch<EnhancedSatellite, RegistryAggregates> satellites;
+        final SatelliteAggregates.Snapshot registry;
+        final SatelliteAggregates.Snapshot latestTick;
+
+        ReportSnapshot(EpochPublisher.Epoch<EnhancedSatellite, RegistryAggregates> epoch) {
+            this.timestamp = System.currentTimeMillis();
+            this.satellites = epoch;
+            this.registry = epoch.attachment.registry;
+            this.latestTick = epoch.attachment.latestTick;
+        }
+
+        @Override
+        public void close() {
+            satellites.close();
+        }
+    }
+
+    /**
+     * Aggregates published together with the registry records of an epoch
+     */
+    private static final class RegistryAggregates {
+        final SatelliteAggregates.Snapshot registry;
+        final SatelliteAggregates.Snapshot latestTick;
+
+        RegistryAggregates(SatelliteAggregates.Snapshot registry, SatelliteAggregates.Snapshot latestTick) {
+            this.registry = registry;
+            this.latestTick = latestTick;
+        }
+    }
+
+    /**
+     * Lock-free and safe from any thread; the epoch never changes underneath the reader
+     */
+    private ReportSnapshot captureReportSnapshot() {
+        return new ReportSnapshot(registryPublisher.acquire());
+    }
+
+    /**
+     * Writer side, main thread only: freeze the registry into the next epoch
+     */
+    private void publishRegistryEpoch() {
+        registryPublisher.publish(detectedSatellites.values(),
+                new RegistryAggregates(registryAggregates.snapshot(), latestTickAggregates.snapshot()));
+        responseCache.onEpoch(registryPublisher.currentEpoch());
+    }
+
+    /**
+     * Build several reports in one round trip: {"reports": ["getGnssRangeStatistics", ...]}
+     */
+    private void getSatelliteReports(MethodCall call, MethodChannel.Result result) {
+        Log.d("NavIC", "🗂️ Getting batched satellite reports");
+
+        try {
+            List<String> kinds = call.argument("reports");
+            if (kinds == null || kinds.isEmpty()) {
+                kinds = new ArrayList<>(reportBuilders.keySet());
+            }
+
+            Map<String, Object> reports = new HashMap<>();
+            Map<String, Object> errors = new HashMap<>();
+            Map<String, Object> response = new HashMap<>();
+            long generation = responseCache.generation();
+            try (ReportSnapshot snapshot = captureReportSnapshot()) {
+                for (String kind : kinds) {
+                    ReportBuilder builder = reportBuilders.get(kind);
+                    if (builder == null) {
+                        errors.put(kind, "Unknown report kind");
+                        continue;
+                    }
+                    try {
+                        // Shares entries with the single-report routes
+                        long epoch = snapshot.satellites.number;
+                        Object report = responseCache.getForEpoch(kind, epoch);
+                        if (report == null) {
+                            report = builder.build(snapshot);
+                            responseCache.putForEpoch(kind, epoch, generation, report);
+                        }
+                        reports.put(kind, report);
+                    } catch (Exception e) {
+                        Log.e("NavIC", "Error building report " + kind, e);
+                        errors.put(kind, "Failed to build report");
+                    }
+                }
+                response.put("snapshotTimestamp", snapshot.timestamp);
+                response.put("epoch", snapshot.satellites.number);
+            }
+
+            response.put("reports", reports);
+            response.put("errors", errors);
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting satellite reports", e);
+            result.error("REPORTS_ERROR", "Failed to get satellite reports", null);
+        }
+    }
+
+    /**
+     * Registry as one binary frame (see SatellitePayloads.FrameWriter) instead of a map per satellite
+     */
+    private void getSatelliteFrame(MethodChannel.Result result) {
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            SatellitePayloads.FrameWriter writer = SatellitePayloads.FrameWriter.get()
+                    .begin(snapshot.timestamp, snapshot.satellites.number, snapshot.satellites.size());
+            for (EnhancedSatellite sat : snapshot.satellites) {
+                sat.writeTo(writer);
+            }
+            result.success(writer.finish());
+        } catch (Exception e) {
+            Log.e("NavIC", "Error encoding satellite frame", e);
+            result.error("FRAME_ERROR", "Failed to encode satellite frame", null);
+        }
+    }
+
+    private Map<String, Object> buildAllSatellitesReport(ReportSnapshot snapshot) {
+        List<Map<String, Object>> allSatellites = new ArrayList<>();
+        Map<String, Object> systems = new HashMap<>();
+
+        // Convert EnhancedSatellite objects to maps
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            Map<String, Object> satMap = sat.toEnhancedMap(snapshot.timestamp);
+            allSatellites.add(satMap);
+
+            String system = sat.systemName;
+            if (!systems.containsKey(system)) {
+                Map<String, Object> systemInfo = new HashMap<>();
+                systemInfo.put("flag", sat.countryFlag);
+                systemInfo.put("name", system);
+                systemInfo.put("count", 0);
+                systemInfo.put("used", 0);
+                systemInfo.put("averageSignal", 0.0);
+                systems.put(system, systemInfo);
+            }
+
+            Map<String, Object> systemInfo = (Map<String, Object>) systems.get(system);
+            systemInfo.put("count", (Integer) systemInfo.get("count") + 1);
+            if (sat.usedInFix) {
+                systemInfo.put("used", (Integer) systemInfo.get("used") + 1);
+            }
+
+            // Update average signal
+            double currentAvg = (Double) systemInfo.get("averageSignal");
+            int count = (Integer) systemInfo.get("count");
+            systemInfo.put("averageSignal", (currentAvg * (count - 1) + sat.cn0) / count);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("satellites", allSatellites);
+        response.put("systems", new ArrayList<>(systems.values()));
+        response.put("totalSatellites", allSatellites.size());
+        response.put("hasL5Band", hasL5BandSupport);
+        response.put("primarySystem", primaryPositioningSystem);
+        response.put("chipset", detectedChipset);
+        response.put("chipsetVendor", chipsetVendor);
+        response.put("chipsetConfidence", chipsetConfidence);
+        response.put("l5Confidence", l5Confidence);
+        response.put("timestamp", snapshot.timestamp);
+
+        Log.d("NavIC", String.format("📊 Returning %d satellites from %d systems",
+                allSatellites.size(), systems.size()));
+
+        return response;
+    }
+
+    private void getGnssCapabilities(MethodChannel.Result result) {
+        Log.d("NavIC", "Getting enhanced GNSS capabilities");
+        Map<String, Object> caps = new HashMap<>();
+        try {
+            caps.put("androidVersion", Build.VERSION.SDK_INT);
+            caps.put("manufacturer", Build.MANUFACTURER);
+            caps.put("model", Build.MODEL);
+            caps.put("device", Build.DEVICE);
+            caps.put("hardware", Build.HARDWARE);
+            caps.put("board", Build.BOARD);
+            caps.put("product", Build.PRODUCT);
+            caps.put("brand", Build.BRAND);
+
+            boolean hasGnssFeature = getPackageManager().hasSystemFeature(PackageManager.FEATURE_LOCATION_GPS);
+            caps.put("hasGnssFeature", hasGnssFeature);
+
+            Map<String, Object> gnssMap = new HashMap<>();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                try {
+                    Object gnssCaps = locationManager.getGnssCapabilities();
+                    if (gnssCaps != null) {
+                        Class<?> capsClass = gnssCaps.getClass();
+
+                        // Check for various GNSS capabilities
+                        String[] capabilityMethods = {"hasIrnss", "hasL5", "hasL1", "hasL2",
+                                "hasGlonass", "hasGalileo", "hasBeidou",
+                                "hasQzss", "hasSbas"};
+
+                        for (String methodName : capabilityMethods) {
+                            try {
+                                Method method = capsClass.getMethod(methodName);
+                                Object value = method.invoke(gnssCaps);
+                                if (value instanceof Boolean) {
+                                    gnssMap.put(methodName, (Boolean) value);
+                                    Log.d("NavIC", "GnssCapabilities." + methodName + ": " + value);
+                                }
+                            } catch (NoSuchMethodException ignore) {
+                                // Method not available
+                            }
+                        }
+                    }
+                } catch (Throwable t) {
+                    Log.e("NavIC", "Error getting GNSS capabilities", t);
+                }
+            } else {
+                gnssMap.put("hasIrnss", false);
+                gnssMap.put("hasL5", false);
+            }
+
+            caps.put("gnssCapabilities", gnssMap);
+            caps.put("capabilitiesMethod", "ENHANCED_HARDWARE_DETECTION_V2");
+            caps.put("detectionTime", System.currentTimeMillis());
+
+            Log.d("NavIC", "Enhanced GNSS capabilities retrieved successfully");
+            result.success(caps);
+        } catch (Exception e) {
+            Log.e("NavIC", "Failed to get GNSS capabilities", e);
+            result.error("CAPABILITIES_ERROR", "Failed to get GNSS capabilities", null);
+        }
+    }
+
+    /**
+     * Get shared GNSS subscription statistics
+     */
+    private void getGnssSubscriptionStats(MethodChannel.Result result) {
+        try {
+            Map<String, Object> response = new HashMap<>(gnssMultiplexer.getStats());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting GNSS subscription stats", e);
+            result.error("SUBSCRIPTION_STATS_ERROR", "Failed to get GNSS subscription stats", null);
+        }
+    }
+
+    // =============== STREAM RATE CONTROL ===============
+
+    /**
+     * Send a frame on the stream's EventChannel, or through the method channel
+     * when nobody listens there
+     */
+    private void deliverStreamFrame(String stream, Map<String, Object> frame) {
+        try {
+            StreamEventHandler eventHandler = streamEventHandlers.get(stream);
+            if (eventHandler != null && eventHandler.sink != null) {
+                eventHandler.sink.success(frame);
+            } else if (StreamRateController.STREAM_LOCATIONS.equals(stream)) {
+                methodChannel.invokeMethod("onLocationUpdate", frame);
+            } else if (StreamRateController.STREAM_SATELLITES.equals(stream)) {
+                methodChannel.invokeMethod("onSatelliteUpdate", frame);
+            }
+        } catch (Exception e) {
+            Log.e("NavIC", "Error sending " + stream + " update to Flutter", e);
+        }
+    }
+
+    private boolean hasStreamListener(String stream) {
+        StreamEventHandler eventHandler = streamEventHandlers.get(stream);
+        return eventHandler != null && eventHandler.sink != null;
+    }
+
+    /**
+     * Queue a detection event; built only when it is sent, and only if Dart listens.
+     * PROGRESS events are coalesced; lifecycle events (SESSION_STARTED, DECISION,
+     * FAILED) go out immediately so a later frame can never replace them.
+     */
+    private void emitDetectionEvent(String type, DetectionSession session, double change,
+                                    StreamRateController.FrameSource details) {
+        if (!hasStreamListener(StreamRateController.STREAM_DETECTION)) return;
+        StreamRateController.FrameSource source = () -> {
+            Map<String, Object> event = details != null ? details.build() : new HashMap<>();
+            event.put("type", type);
+            event.put("detectionSessionId", session.id);
+            event.put("timestamp", System.currentTimeMillis());
+            return event;
+        };
+        if ("PROGRESS".equals(type)) {
+            streamRateController.offer(StreamRateController.STREAM_DETECTION, change, source);
+        } else {
+            streamRateController.sendNow(StreamRateController.STREAM_DETECTION, source);
+        }
+    }
+
+    /**
+     * EventChannel endpoint of one rate-controlled stream. The listen argument
+     * {"window": n} sets how many unacknowledged frames may be in flight.
+     */
+    private final class StreamEventHandler implements EventChannel.StreamHandler {
+        final String stream;
+        EventChannel.EventSink sink;
+
+        StreamEventHandler(String stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void onListen(Object arguments, EventChannel.EventSink events) {
+            int window = 0;
+            if (arguments instanceof Map) {
+                Object value = ((Map<?, ?>) arguments).get("window");
+                if (value instanceof Number) window = ((Number) value).intValue();
+            }
+            sink = events;
+            streamRateController.openWindow(stream, window);
+            Log.d("NavIC", "📥 Dart listening on " + stream + " events (window: " + window + ")");
+        }
+
+        @Override
+        public void onCancel(Object arguments) {
+            sink = null;
+            streamRateController.closeWindow(stream);
+            Log.d("NavIC", "📤 Dart stopped listening on " + stream + " events");
+        }
+    }
+
+    /**
+     * Tune the stream rate controller, e.g. {"normalIntervalMs": 1500, "maxOutstandingFrames": 3}
+     */
+    private void configureStreamRate(MethodCall call, MethodChannel.Result result) {
+        try {
+            Map<?, ?> args = call.arguments instanceof Map ? (Map<?, ?>) call.arguments : null;
+            streamRateController.configure(args);
+            refreshLocationRequestRate();
+
+            Map<String, Object> response = new HashMap<>(streamRateController.toMap());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error configuring stream rate", e);
+            result.error("STREAM_RATE_ERROR", "Failed to configure stream rate", null);
+        }
+    }
+
+    /**
+     * Tune fix fusion across providers, e.g. {"windowMs": 1000, "blend": false}
+     */
+    private void configureFixFusion(MethodCall call, MethodChannel.Result result) {
+        try {
+            Map<?, ?> args = call.arguments instanceof Map ? (Map<?, ?>) call.arguments : null;
+            fixFuser.configure(args);
+
+            Map<String, Object> response = new HashMap<>(fixFuser.toMap());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error configuring fix fusion", e);
+            result.error("FIX_FUSION_ERROR", "Failed to configure fix fusion", null);
+        }
+    }
+
+    private void configureLocationFilter(MethodCall call, MethodChannel.Result result) {
+        try {
+            Map<?, ?> args = call.arguments instanceof Map ? (Map<?, ?>) call.arguments : null;
+            positionFilter.configure(args);
+            if (args != null && Boolean.TRUE.equals(args.get("reset"))) {
+                positionFilter.reset();
+            }
+
+            Map<String, Object> response = new HashMap<>(positionFilter.toMap());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error configuring location filter", e);
+            result.error("LOCATION_FILTER_ERROR", "Failed to configure location filter", null);
+        }
+    }
+
+    /**
+     * Demand of the visible screen per stream: {"satellites": "HIGH", "locations": "LOW"}
+     */
+    private void setStreamDemand(MethodCall call, MethodChannel.Result result) {
+        try {
+            for (String stream : new String[]{StreamRateController.STREAM_SATELLITES,
+                    StreamRateController.STREAM_LOCATIONS, StreamRateController.STREAM_DETECTION}) {
+                String demand = call.argument(stream);
+                if (demand != null) {
+                    streamRateController.setDemand(stream,
+                            StreamRateController.Demand.valueOf(demand.toUpperCase()));
+                }
+            }
+            refreshLocationRequestRate();
+
+            Map<String, Object> response = new HashMap<>(streamRateController.toMap());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_DEMAND", "Demand must be HIGH, NORMAL, LOW or OFF", null);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error setting stream demand", e);
+            result.error("STREAM_RATE_ERROR", "Failed to set stream demand", null);
+        }
+    }
+
+    private void ackStreamFrame(MethodCall call, MethodChannel.Result result) {
+        String stream = call.argument("stream");
+        Number seq = call.argument("seq");
+        if (stream != null && seq != null) {
+            streamRateController.ack(stream, seq.longValue());
+        }
+        result.success(null);
+    }
+
+    /**
+     * Observed-carrier evidence behind the L5 verdict. {"reset": true} clears it first.
+     */
+    private void getL5Evidence(MethodCall call, MethodChannel.Result result) {
+        try {
+            if (Boolean.TRUE.equals(call.argument("reset"))) {
+                l5Verifier.reset();
+                liveL5Satellites.clear();
+                responseCache.invalidateAll();
+            }
+            Map<String, Object> evidence = l5Verifier.toMap();
+            evidence.put("hasL5Band", hasL5BandSupport);
+            evidence.put("l5Confidence", l5Confidence);
+            evidence.put("liveL5Satellites", liveL5Satellites.size());
+            evidence.put("timestamp", System.currentTimeMillis());
+            result.success(evidence);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting L5 evidence", e);
+            result.error("L5_EVIDENCE_ERROR", "Failed to get L5 evidence", null);
+        }
+    }
+
+    // =============== EMERGENCY TRACKING ===============
+
+    /**
+     * Start (or retune) emergency mode: {"latencyTargetMs": 5000, "batchIntervalMs": 30000, ...}
+     */
+    private void startEmergencyTracking(MethodCall call, MethodChannel.Result result) {
+        try {
+            Map<?, ?> args = call.arguments instanceof Map ? (Map<?, ?>) call.arguments : null;
+            emergencyTracker.start(args);
+
+            Map<String, Object> response = new HashMap<>(emergencyTracker.metrics());
+            response.put("started", true);
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (SecurityException se) {
+            Log.e("NavIC", "Permission error starting emergency tracking", se);
+            result.error("PERMISSION_ERROR", "Location permissions required", null);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error starting emergency tracking", e);
+            result.error("EMERGENCY_ERROR", "Failed to start emergency tracking", null);
+        }
+    }
+
+    private void stopEmergencyTracking(MethodChannel.Result result) {
+        try {
+            emergencyTracker.stop();
+            Map<String, Object> response = new HashMap<>(emergencyTracker.metrics());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error stopping emergency tracking", e);
+            result.error("EMERGENCY_ERROR", "Failed to stop emergency tracking", null);
+        }
     }
 
     /**
-     * Get all satellites in view (real-time)
+     * Answered within the latency target; the fix is marked stale when the
+     * budget ran out before a fresh one arrived
      */
-    private void getAllSatellites(MethodChannel.Result result) {
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
-        List<Map<String, Object>> allSatellites = new ArrayList<>();
-        Map<String, Object> systems = new HashMap<>();
-
-        // Convert EnhancedSatellite objects to maps
-        for (EnhancedSatellite sat : detectedSatellites.values()) {
-            Map<String, Object> satMap = sat.toEnhancedMap();
-            allSatellites.add(satMap);
-
-            String system = sat.systemName;
-            if (!systems.containsKey(system)) {
-                Map<String, Object> systemInfo = new HashMap<>();
-                systemInfo.put("flag", sat.countryFlag);
-                systemInfo.put("name", system);
-                systemInfo.put("count", 0);
-                systemInfo.put("used", 0);
-                systemInfo.put("averageSignal", 0.0);
-                systems.put(system, systemInfo);
+    private void getEmergencyFix(MethodChannel.Result result) {
+        emergencyTracker.requestFix(fix -> {
+            if (fix == null) {
+                result.error("NO_FIX", "No location fix available yet", null);
+                return;
             }
+            fix.put("timestamp", System.currentTimeMillis());
+            result.success(fix);
+        });
+    }
 
-            Map<String, Object> systemInfo = (Map<String, Object>) systems.get(system);
-            systemInfo.put("count", (Integer) systemInfo.get("count") + 1);
-            if (sat.usedInFix) {
-                systemInfo.put("used", (Integer) systemInfo.get("used") + 1);
-            }
+    private void getEmergencyBatch(MethodChannel.Result result) {
+        try {
+            result.success(emergencyTracker.buildBatch());
+        } catch (Exception e) {
+            Log.e("NavIC", "Error building emergency batch", e);
+            result.error("EMERGENCY_ERROR", "Failed to build emergency batch", null);
+        }
+    }
 
-            // Update average signal
-            double currentAvg = (Double) systemInfo.get("averageSignal");
-            int count = (Integer) systemInfo.get("count");
-            systemInfo.put("averageSignal", (currentAvg * (count - 1) + sat.cn0) / count);
+    // =============== BACKGROUND MONITOR ===============
+
+    private final ServiceConnection monitorConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            monitorService = ((LocationService.LocalBinder) service).getService();
+            monitorService.setListener(summary -> {
+                if (methodChannel != null) {
+                    Map<String, Object> data = summary.toMap();
+                    data.put("timestamp", System.currentTimeMillis());
+                    methodChannel.invokeMethod("onMonitorSummary", data);
+                }
+            });
+            Log.d("NavIC", "🔗 Attached to background monitor");
         }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("satellites", allSatellites);
-        response.put("systems", new ArrayList<>(systems.values()));
-        response.put("totalSatellites", allSatellites.size());
-        response.put("hasL5Band", hasL5BandSupport);
-        response.put("primarySystem", primaryPositioningSystem);
-        response.put("chipset", detectedChipset);
-        response.put("chipsetVendor", chipsetVendor);
-        response.put("chipsetConfidence", chipsetConfidence);
-        response.put("l5Confidence", l5Confidence);
-        response.put("timestamp", System.currentTimeMillis());
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            monitorService = null;
+        }
+    };
 
-        Log.d("NavIC", String.format("📊 Returning %d satellites from %d systems",
-                allSatellites.size(), systems.size()));
+    private void attachMonitor() {
+        if (monitorBound) return;
+        monitorBound = bindService(new Intent(this, LocationService.class), monitorConnection, Context.BIND_AUTO_CREATE);
+    }
 
-        result.success(response);
+    /**
+     * Drop the binding only; acquisition carries on in the service
+     */
+    private void detachMonitor() {
+        if (!monitorBound) return;
+        if (monitorService != null) monitorService.setListener(null);
+        unbindService(monitorConnection);
+        monitorBound = false;
+        monitorService = null;
     }
 
-    private void getGnssCapabilities(MethodChannel.Result result) {
-        Log.d("NavIC", "Getting enhanced GNSS capabilities");
-        Map<String, Object> caps = new HashMap<>();
+    /**
+     * Start (or retune) the duty-cycled monitor: {"onMs": 30000, "offMs": 270000}
+     */
+    private void startBackgroundMonitor(MethodCall call, MethodChannel.Result result) {
         try {
-            caps.put("androidVersion", Build.VERSION.SDK_INT);
-            caps.put("manufacturer", Build.MANUFACTURER);
-            caps.put("model", Build.MODEL);
-            caps.put("device", Build.DEVICE);
-            caps.put("hardware", Build.HARDWARE);
-            caps.put("board", Build.BOARD);
-            caps.put("product", Build.PRODUCT);
-            caps.put("brand", Build.BRAND);
-
-            boolean hasGnssFeature = getPackageManager().hasSystemFeature(PackageManager.FEATURE_LOCATION_GPS);
-            caps.put("hasGnssFeature", hasGnssFeature);
+            Number onMs = call.argument("onMs");
+            Number offMs = call.argument("offMs");
+            Intent intent = new Intent(this, LocationService.class).setAction(LocationService.ACTION_START)
+                    .putExtra(LocationService.EXTRA_ON_MS, onMs != null ? onMs.longValue() : LocationService.DEFAULT_ON_MS)
+                    .putExtra(LocationService.EXTRA_OFF_MS, offMs != null ? offMs.longValue() : LocationService.DEFAULT_OFF_MS);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                startForegroundService(intent);
+            } else {
+                startService(intent);
+            }
+            attachMonitor();
 
-            Map<String, Object> gnssMap = new HashMap<>();
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
-                try {
-                    Object gnssCaps = locationManager.getGnssCapabilities();
-                    if (gnssCaps != null) {
-                        Class<?> capsClass = gnssCaps.getClass();
+            Map<String, Object> response = new HashMap<>();
+            response.put("started", true);
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error starting background monitor", e);
+            result.error("MONITOR_ERROR", "Failed to start background monitor", null);
+        }
+    }
 
-                        // Check for various GNSS capabilities
-                        String[] capabilityMethods = {"hasIrnss", "hasL5", "hasL1", "hasL2",
-                                "hasGlonass", "hasGalileo", "hasBeidou",
-                                "hasQzss", "hasSbas"};
+    private void stopBackgroundMonitor(MethodChannel.Result result) {
+        try {
+            detachMonitor();
+            if (LocationService.isRunning()) {
+                startService(new Intent(this, LocationService.class).setAction(LocationService.ACTION_STOP));
+            }
+            result.success(null);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error stopping background monitor", e);
+            result.error("MONITOR_ERROR", "Failed to stop background monitor", null);
+        }
+    }
 
-                        for (String methodName : capabilityMethods) {
-                            try {
-                                Method method = capsClass.getMethod(methodName);
-                                Object value = method.invoke(gnssCaps);
-                                if (value instanceof Boolean) {
-                                    gnssMap.put(methodName, (Boolean) value);
-                                    Log.d("NavIC", "GnssCapabilities." + methodName + ": " + value);
-                                }
-                            } catch (NoSuchMethodException ignore) {
-                                // Method not available
-                            }
-                        }
-                    }
-                } catch (Throwable t) {
-                    Log.e("NavIC", "Error getting GNSS capabilities", t);
-                }
+    private void getBackgroundMonitorStatus(MethodChannel.Result result) {
+        try {
+            Map<String, Object> status;
+            if (monitorService != null) {
+                status = monitorService.getStatus();
             } else {
-                gnssMap.put("hasIrnss", false);
-                gnssMap.put("hasL5", false);
+                status = new HashMap<>();
+                status.put("running", LocationService.isRunning());
+            }
+            status.put("attached", monitorService != null);
+            status.put("timestamp", System.currentTimeMillis());
+            result.success(status);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting background monitor status", e);
+            result.error("MONITOR_ERROR", "Failed to get background monitor status", null);
+        }
+    }
+
+    /**
+     * Stored window summaries, newest first: {"limit": 100}
+     */
+    private void getMonitorSummaries(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number limit = call.argument("limit");
+            MonitorSummaryStore store = MonitorSummaryStore.getInstance(this);
+            List<Map<String, Object>> summaries = new ArrayList<>();
+            for (MonitorSummaryStore.Summary summary : store.readRecent(limit != null ? limit.intValue() : 100)) {
+                summaries.add(summary.toMap());
             }
 
-            caps.put("gnssCapabilities", gnssMap);
-            caps.put("capabilitiesMethod", "ENHANCED_HARDWARE_DETECTION_V2");
-            caps.put("detectionTime", System.currentTimeMillis());
+            Map<String, Object> response = new HashMap<>();
+            response.put("summaries", summaries);
+            response.put("storedCount", store.recordCount());
+            response.put("timestamp", System.currentTimeMillis());
+            result.success(response);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error reading monitor summaries", e);
+            result.error("MONITOR_ERROR", "Failed to read monitor summaries", null);
+        }
+    }
 
-            Log.d("NavIC", "Enhanced GNSS capabilities retrieved successfully");
-            result.success(caps);
+    /**
+     * TTFF milestones of the current engine session plus persisted history: {"limit": 20}
+     */
+    private void getStartupMetrics(MethodCall call, MethodChannel.Result result) {
+        try {
+            Number limit = call.argument("limit");
+            Map<String, Object> metrics = startupRecorder.toMap(limit != null ? limit.intValue() : 20);
+            metrics.put("timestamp", System.currentTimeMillis());
+            result.success(metrics);
         } catch (Exception e) {
-            Log.e("NavIC", "Failed to get GNSS capabilities", e);
-            result.error("CAPABILITIES_ERROR", "Failed to get GNSS capabilities", null);
+            Log.e("NavIC", "Error getting startup metrics", e);
+            result.error("STARTUP_METRICS_ERROR", "Failed to get startup metrics", null);
+        }
+    }
+
+    /**
+     * Get native performance metrics
+     */
+    private void getNativeMetrics(MethodChannel.Result result) {
+        try {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("gnssSubscriptions", gnssMultiplexer.getStats());
+            metrics.put("streamRate", streamRateController.toMap());
+            metrics.put("fixFusion", fixFuser.toMap());
+            metrics.put("locationFilter", positionFilter.toMap());
+            metrics.put("obstruction", obstructionMap.stats());
+            metrics.put("coverage", coverageIndex.stats());
+            metrics.put("tileCache", tileCache.stats());
+            metrics.put("methodRouter", methodRouter.stats());
+            metrics.put("responseCache", responseCache.stats());
+            metrics.put("emergency", emergencyTracker.metrics());
+            metrics.put("locationRequestIntervalMs", locationRequestIntervalMs);
+            metrics.put("permissionRefreshes", permissionRefreshCount.get());
+            metrics.put("registryEpochs", registryPublisher.getStats());
+            metrics.put("cachedSvLabels", SatellitePayloads.cachedLabelCount());
+            metrics.put("timestamp", System.currentTimeMillis());
+            result.success(metrics);
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting native metrics", e);
+            result.error("METRICS_ERROR", "Failed to get native metrics", null);
         }
     }
 
-    private void startRealTimeNavicDetection(MethodChannel.Result result) {
+    private void startRealTimeNavicDetection(MethodCall call, MethodChannel.Result result) {
         Log.d("NavIC", "Starting enhanced real-time NavIC detection");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
+        // Optional per-subscriber rate limit, 0 forwards every tick
+        Number minInterval = call != null ? call.argument("minIntervalMs") : null;
+        long minIntervalMs = minInterval != null ? minInterval.longValue() : 0;
 
         // Stop any existing detection
-        if (realtimeCallback != null) {
-            locationManager.unregisterGnssStatusCallback(realtimeCallback);
+        if (realtimeSubscription != null) {
+            realtimeSubscription.close();
+            realtimeSubscription = null;
         }
 
-        realtimeCallback = new GnssStatus.Callback() {
+        GnssStatusMultiplexer.Listener listener = new GnssStatusMultiplexer.Listener() {
             @Override
-            public void onSatelliteStatusChanged(GnssStatus status) {
-                Map<String, Object> data = processEnhancedSatelliteData(status);
-                try {
-                    handler.post(() -> {
-                        methodChannel.invokeMethod("onSatelliteUpdate", data);
-                    });
-                } catch (Exception e) {
-                    Log.e("NavIC", "Error sending satellite update to Flutter", e);
+            public void onSnapshot(GnssSnapshot snapshot) {
+                if (l5Verifier.observe(snapshot)) {
+                    applyL5Verdict();
                 }
+                double change = StreamRateController.skyChange(lastStreamedSnapshot, snapshot);
+                lastStreamedSnapshot = snapshot;
+                streamRateController.offer(StreamRateController.STREAM_SATELLITES, change,
+                        () -> processEnhancedSatelliteData(snapshot));
             }
 
             @Override
@@ -2231,7 +3682,7 @@ public class MainActivity extends FlutterActivity {
         };
 
         try {
-            locationManager.registerGnssStatusCallback(realtimeCallback, handler);
+            realtimeSubscription = gnssMultiplexer.subscribe("realtime", minIntervalMs, listener);
             Map<String, Object> resp = new HashMap<>();
             resp.put("success", true);
             resp.put("message", "Enhanced real-time NavIC detection started");
@@ -2249,7 +3700,7 @@ public class MainActivity extends FlutterActivity {
         }
     }
 
-    private Map<String, Object> processEnhancedSatelliteData(GnssStatus status) {
+    private Map<String, Object> processEnhancedSatelliteData(GnssSnapshot snapshot) {
         Map<String, Object> constellations = new HashMap<>();
         List<Map<String, Object>> satellites = new ArrayList<>();
         List<Map<String, Object>> navicSatellites = new ArrayList<>();
@@ -2275,38 +3726,12 @@ public class MainActivity extends FlutterActivity {
         int irnssSignalCount = 0;
         int gpsSignalCount = 0;
 
-        for (int i = 0; i < status.getSatelliteCount(); i++) {
-            int constellationType = status.getConstellationType(i);
-            String constellationName = getEnhancedConstellationName(constellationType);
-            String countryFlag = GNSS_COUNTRIES.getOrDefault(constellationName, "🌐");
-
-            int svid = status.getSvid(i);
-            float cn0 = status.getCn0DbHz(i);
-            boolean used = status.usedInFix(i);
-            float elevation = status.getElevationDegrees(i);
-            float azimuth = status.getAzimuthDegrees(i);
-            boolean hasEphemeris = status.hasEphemerisData(i);
-            boolean hasAlmanac = status.hasAlmanacData(i);
-
-            // Determine frequency band
-            String frequencyBand = "Unknown";
-            double carrierFrequency = 0.0;
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
-                try {
-                    carrierFrequency = status.getCarrierFrequencyHz(i);
-                    if (carrierFrequency > 0) {
-                        frequencyBand = determineFrequencyBandFromHz(carrierFrequency);
-                    }
-                } catch (Exception e) {
-                    frequencyBand = getDefaultBandForConstellation(constellationType, hasL5BandSupport);
-                }
-            } else {
-                frequencyBand = getDefaultBandForConstellation(constellationType, hasL5BandSupport);
-            }
-
-            // Update counts and signal totals
-            switch (constellationType) {
+        // Counts are per SV; a dual-frequency receiver reports each SV once per band
+        for (int k = 0; k < snapshot.svCount; k++) {
+            int i = snapshot.svSignal(k);
+            float cn0 = snapshot.cn0DbHz(i);
+            boolean used = snapshot.svUsedInFix(k);
+            switch (snapshot.constellation(i)) {
                 case GnssStatus.CONSTELLATION_IRNSS:
                     irnssCount++;
                     if (used) irnssUsedInFix++;
@@ -2334,6 +3759,25 @@ public class MainActivity extends FlutterActivity {
                 case GnssStatus.CONSTELLATION_SBAS:
                     sbasCount++; break;
             }
+        }
+
+        // One entry per signal, each carrying its own band
+        for (int i = 0; i < snapshot.satelliteCount; i++) {
+            int constellationType = snapshot.constellation(i);
+            int svid = snapshot.svid(i);
+            SatellitePayloads.SvLabels labels = svLabels(constellationType, svid);
+            String constellationName = labels.system;
+            String countryFlag = labels.countryFlag;
+            float cn0 = snapshot.cn0DbHz(i);
+            boolean used = snapshot.usedInFix(i);
+            float elevation = snapshot.elevation(i);
+            float azimuth = snapshot.azimuth(i);
+            boolean hasEphemeris = snapshot.hasEphemeris(i);
+            boolean hasAlmanac = snapshot.hasAlmanac(i);
+
+            // Determine frequency band
+            double carrierFrequency = snapshot.carrierFrequencyHz(i);
+            GnssIdentifiers.Band frequencyBand = resolveFrequencyBand(snapshot, i, hasL5BandSupport);
 
             Map<String, Object> sat = new HashMap<>();
             sat.put("constellation", constellationName);
@@ -2346,17 +3790,11 @@ public class MainActivity extends FlutterActivity {
             sat.put("hasEphemeris", hasEphemeris);
             sat.put("hasAlmanac", hasAlmanac);
             sat.put("usedInFix", used);
-            sat.put("frequencyBand", frequencyBand);
+            sat.put("frequencyBand", frequencyBand.label(carrierFrequency));
             sat.put("carrierFrequencyHz", carrierFrequency);
 
             // Calculate signal strength level
-            String signalStrength = "UNKNOWN";
-            if (cn0 >= 35) signalStrength = "EXCELLENT";
-            else if (cn0 >= 25) signalStrength = "GOOD";
-            else if (cn0 >= 18) signalStrength = "FAIR";
-            else if (cn0 >= 10) signalStrength = "WEAK";
-            else if (cn0 > 0) signalStrength = "POOR";
-            sat.put("signalStrength", signalStrength);
+            sat.put("signalStrength", cn0 > 0 ? GnssIdentifiers.SignalTier.of(cn0).name() : "UNKNOWN");
 
             satellites.add(sat);
 
@@ -2391,7 +3829,8 @@ public class MainActivity extends FlutterActivity {
         Map<String, Object> result = new HashMap<>();
         result.put("type", "ENHANCED_SATELLITE_UPDATE");
         result.put("timestamp", System.currentTimeMillis());
-        result.put("totalSatellites", status.getSatelliteCount());
+        result.put("totalSatellites", snapshot.svCount);
+        result.put("totalSignals", snapshot.satelliteCount);
         result.put("constellations", constellations);
         result.put("systemStats", systemStats);
         result.put("satellites", satellites);
@@ -2410,7 +3849,7 @@ public class MainActivity extends FlutterActivity {
         Log.d("NavIC", String.format(
                 "📡 Enhanced Update - Primary: %s, NavIC: %d(%d), GPS: %d(%d), Total: %d, L5: %s, Chipset: %s",
                 primarySystem, irnssCount, irnssUsedInFix, gpsCount, gpsUsedInFix,
-                status.getSatelliteCount(), hasL5BandSupport ? "Yes" : "No", detectedChipset
+                snapshot.svCount, hasL5BandSupport ? "Yes" : "No", detectedChipset
         ));
 
         return result;
@@ -2452,9 +3891,10 @@ public class MainActivity extends FlutterActivity {
     private void stopRealTimeDetection(MethodChannel.Result result) {
         Log.d("NavIC", "Stopping enhanced real-time detection");
         try {
-            if (realtimeCallback != null) {
-                locationManager.unregisterGnssStatusCallback(realtimeCallback);
-                realtimeCallback = null;
+            if (realtimeSubscription != null) {
+                realtimeSubscription.close();
+                realtimeSubscription = null;
+                lastStreamedSnapshot = null;
                 Log.d("NavIC", "Enhanced real-time detection stopped");
             }
         } catch (Exception e) {
@@ -2476,11 +3916,6 @@ public class MainActivity extends FlutterActivity {
     private void startLocationUpdates(MethodChannel.Result result) {
         Log.d("NavIC", "Starting enhanced location updates");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
         // Stop any existing updates
         if (locationListener != null) {
             locationManager.removeUpdates(locationListener);
@@ -2489,31 +3924,8 @@ public class MainActivity extends FlutterActivity {
         locationListener = new LocationListener() {
             @Override
             public void onLocationChanged(Location location) {
-                try {
-                    Map<String, Object> locationData = new HashMap<>();
-                    locationData.put("latitude", location.getLatitude());
-                    locationData.put("longitude", location.getLongitude());
-                    locationData.put("accuracy", location.getAccuracy());
-                    locationData.put("altitude", location.getAltitude());
-                    locationData.put("speed", location.getSpeed());
-                    locationData.put("bearing", location.getBearing());
-                    locationData.put("time", location.getTime());
-                    locationData.put("provider", location.getProvider());
-                    locationData.put("timestamp", System.currentTimeMillis());
-
-                    // Add satellite info if available
-                    if (!detectedSatellites.isEmpty()) {
-                        locationData.put("satelliteCount", detectedSatellites.size());
-                        locationData.put("hasL5Band", hasL5BandSupport);
-                        locationData.put("primarySystem", primaryPositioningSystem);
-                    }
-
-                    handler.post(() -> {
-                        methodChannel.invokeMethod("onLocationUpdate", locationData);
-                    });
-                } catch (Exception e) {
-                    Log.e("NavIC", "Error sending location update to Flutter", e);
-                }
+                startupRecorder.onLocation(location.getProvider());
+                fixFuser.offer(location);
             }
 
             @Override
@@ -2533,48 +3945,14 @@ public class MainActivity extends FlutterActivity {
         };
 
         try {
-            // Request updates from all available providers
-            if (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER)) {
-                locationManager.requestLocationUpdates(
-                        LocationManager.GPS_PROVIDER,
-                        LOCATION_UPDATE_INTERVAL_MS,
-                        LOCATION_UPDATE_DISTANCE_M,
-                        locationListener,
-                        handler.getLooper()
-                );
-                Log.d("NavIC", "GPS provider updates requested");
-            }
-
-            if (locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
-                locationManager.requestLocationUpdates(
-                        LocationManager.NETWORK_PROVIDER,
-                        LOCATION_UPDATE_INTERVAL_MS * 2, // Less frequent network updates
-                        LOCATION_UPDATE_DISTANCE_M * 2,
-                        locationListener,
-                        handler.getLooper()
-                );
-                Log.d("NavIC", "Network provider updates requested");
-            }
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                if (locationManager.isProviderEnabled(LocationManager.FUSED_PROVIDER)) {
-                    locationManager.requestLocationUpdates(
-                            LocationManager.FUSED_PROVIDER,
-                            LOCATION_UPDATE_INTERVAL_MS,
-                            LOCATION_UPDATE_DISTANCE_M,
-                            locationListener,
-                            handler.getLooper()
-                    );
-                    Log.d("NavIC", "Fused provider updates requested");
-                }
-            }
-
+            requestProviderUpdates();
             isTrackingLocation = true;
 
             Map<String, Object> resp = new HashMap<>();
             resp.put("success", true);
             resp.put("message", "Enhanced location updates started");
             resp.put("providers", getActiveProviders());
+            resp.put("requestIntervalMs", locationRequestIntervalMs);
             Log.d("NavIC", "Enhanced location updates started successfully");
             result.success(resp);
 
@@ -2587,6 +3965,180 @@ public class MainActivity extends FlutterActivity {
         }
     }
 
+    /**
+     * One fused fix per emit interval reaches the location stream
+     */
+    private void onFusedFix(LocationFixFuser.FusedFix fix) {
+        // The sky only says something about fixes the GNSS engine took part in
+        double qualityScale = fix.sources.contains(LocationManager.GPS_PROVIDER)
+                ? currentFixQualityScale(fix.location) : 1.0;
+        // Taken now: the frame may be built after later fixes have moved the filter
+        Map<String, Object> filtered = positionFilter.update(fix.location, qualityScale)
+                ? positionFilter.toFrameMap() : null;
+        coverageIndex.record(fix.location, gnssMultiplexer.getLatestSnapshot());
+        tileCache.onFix(fix.location);
+        double change = StreamRateController.locationChange(lastStreamedLocation, fix.location);
+        lastStreamedLocation = fix.location;
+        streamRateController.offer(StreamRateController.STREAM_LOCATIONS, change,
+                () -> buildLocationFrame(fix, filtered));
+    }
+
+    private Map<String, Object> buildLocationFrame(LocationFixFuser.FusedFix fix, Map<String, Object> filtered) {
+        try {
+            Location location = fix.location;
+            Map<String, Object> locationData = new HashMap<>();
+            locationData.put("latitude", location.getLatitude());
+            locationData.put("longitude", location.getLongitude());
+            locationData.put("accuracy", location.getAccuracy());
+            locationData.put("altitude", location.getAltitude());
+            locationData.put("speed", location.getSpeed());
+            locationData.put("bearing", location.getBearing());
+            locationData.put("time", location.getTime());
+            locationData.put("provider", location.getProvider());
+            locationData.put("timestamp", System.currentTimeMillis());
+            locationData.put("fusedFrom", fix.sources);
+            locationData.put("blended", fix.blended);
+            locationData.put("fixAgeMs", fix.ageMs);
+            if (filtered != null) locationData.put("filtered", filtered);
+
+            // Add satellite info if available
+            if (!detectedSatellites.isEmpty()) {
+                locationData.put("satelliteCount", detectedSatellites.size());
+                locationData.put("hasL5Band", hasL5BandSupport);
+                locationData.put("primarySystem", primaryPositioningSystem);
+                try (ReportSnapshot snapshot = captureReportSnapshot()) {
+                    putConstellationMix(locationData, snapshot.latestTick);
+                }
+            }
+            return locationData;
+        } catch (Exception e) {
+            Log.e("NavIC", "Error building location update for Flutter", e);
+            return null;
+        }
+    }
+
+    /**
+     * Measurement noise scale for the position filter from the latest tick
+     */
+    private double currentFixQualityScale(Location location) {
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            SatelliteAggregates.Snapshot tick = snapshot.latestTick;
+            int navicUsed = 0;
+            for (int i = 0; i < tick.systems.length; i++) {
+                if ("IRNSS".equals(tick.systems[i])) navicUsed = tick.used[i];
+            }
+            return positionFilter.qualityScale(navicUsed, tick.averageSignal(), usedSkyClearance(location));
+        }
+    }
+
+    /**
+     * Mean learned clearance of the sky bins the latest tick's used SVs sit in
+     */
+    private double usedSkyClearance(Location location) {
+        GnssSnapshot latest = gnssMultiplexer.getLatestSnapshot();
+        if (latest == null) return 1.0;
+        double sum = 0;
+        int used = 0;
+        for (int k = 0; k < latest.svCount; k++) {
+            if (!latest.svUsedInFix(k)) continue;
+            int i = latest.svSignal(k);
+            sum += obstructionMap.clearance(location.getLatitude(), location.getLongitude(),
+                    latest.elevation(i), latest.azimuth(i));
+            used++;
+        }
+        return used > 0 ? sum / used : 1.0;
+    }
+
+    /**
+     * Constellations behind the fix, from the latest tick: per-system visible and
+     * used-in-fix counts, plus a label of the systems used, most used first
+     */
+    private void putConstellationMix(Map<String, Object> locationData, SatelliteAggregates.Snapshot tick) {
+        Map<String, Object> mix = new HashMap<>();
+        List<Integer> usedSystems = new ArrayList<>();
+        int navicUsed = 0;
+        for (int i = 0; i < tick.systems.length; i++) {
+            if (tick.counts[i] == 0) continue;
+            Map<String, Object> system = new HashMap<>();
+            system.put("visible", tick.counts[i]);
+            system.put("used", tick.used[i]);
+            mix.put(tick.systems[i], system);
+            if (tick.used[i] > 0) usedSystems.add(i);
+            if ("IRNSS".equals(tick.systems[i])) navicUsed = tick.used[i];
+        }
+        Collections.sort(usedSystems, (a, b) -> Integer.compare(tick.used[b], tick.used[a]));
+
+        StringBuilder label = new StringBuilder();
+        for (int i : usedSystems) {
+            if (label.length() > 0) label.append('+');
+            label.append(tick.systems[i]);
+        }
+
+        locationData.put("constellationMix", mix);
+        locationData.put("constellationMixLabel", label.length() > 0 ? label.toString() : "NONE");
+        locationData.put("satellitesUsedInFix", tick.totalUsed());
+        locationData.put("navicUsedInFix", navicUsed);
+    }
+
+    /**
+     * Request updates from all available providers at the rate the stream currently needs.
+     * Re-requesting with the same listener replaces the previous registration.
+     */
+    private void requestProviderUpdates() {
+        locationRequestIntervalMs = Math.max(LOCATION_UPDATE_INTERVAL_MS,
+                streamRateController.locationRequestIntervalMs());
+
+        if (locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER)) {
+            locationManager.requestLocationUpdates(
+                    LocationManager.GPS_PROVIDER,
+                    locationRequestIntervalMs,
+                    LOCATION_UPDATE_DISTANCE_M,
+                    locationListener,
+                    handler.getLooper()
+            );
+            Log.d("NavIC", "GPS provider updates requested");
+        }
+
+        if (locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
+            locationManager.requestLocationUpdates(
+                    LocationManager.NETWORK_PROVIDER,
+                    locationRequestIntervalMs * 2, // Less frequent network updates
+                    LOCATION_UPDATE_DISTANCE_M * 2,
+                    locationListener,
+                    handler.getLooper()
+            );
+            Log.d("NavIC", "Network provider updates requested");
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            if (locationManager.isProviderEnabled(LocationManager.FUSED_PROVIDER)) {
+                locationManager.requestLocationUpdates(
+                        LocationManager.FUSED_PROVIDER,
+                        locationRequestIntervalMs,
+                        LOCATION_UPDATE_DISTANCE_M,
+                        locationListener,
+                        handler.getLooper()
+                );
+                Log.d("NavIC", "Fused provider updates requested");
+            }
+        }
+    }
+
+    /**
+     * Follow demand changes with the provider request rate while tracking
+     */
+    private void refreshLocationRequestRate() {
+        if (!isTrackingLocation || locationListener == null) return;
+        long wanted = Math.max(LOCATION_UPDATE_INTERVAL_MS, streamRateController.locationRequestIntervalMs());
+        if (wanted == locationRequestIntervalMs) return;
+        try {
+            requestProviderUpdates();
+            Log.d("NavIC", "📶 Location request interval now " + locationRequestIntervalMs + " ms");
+        } catch (SecurityException se) {
+            Log.e("NavIC", "Permission error updating location request rate", se);
+        }
+    }
+
     private List<String> getActiveProviders() {
         List<String> activeProviders = new ArrayList<>();
         String[] providers = {LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER};
@@ -2622,6 +4174,9 @@ public class MainActivity extends FlutterActivity {
             locationManager.removeUpdates(locationListener);
             locationListener = null;
             isTrackingLocation = false;
+            lastStreamedLocation = null;
+            fixFuser.reset();
+            positionFilter.reset();
             Log.d("NavIC", "Enhanced location updates stopped");
         }
     }
@@ -2721,12 +4276,42 @@ public class MainActivity extends FlutterActivity {
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (methodChannel != null) {
+            refreshPermissionState();
+        }
+        if (streamRateController != null) {
+            streamRateController.setForeground(true);
+            refreshLocationRequestRate();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        if (streamRateController != null) {
+            streamRateController.setForeground(false);
+            refreshLocationRequestRate();
+        }
+        super.onPause();
+    }
+
     @Override
     protected void onDestroy() {
         Log.d("NavIC", "Activity destroying, cleaning up resources");
         try {
             stopRealTimeDetection();
             stopLocationUpdates();
+            stopDetectionSessions();
+            if (streamRateController != null) streamRateController.reset();
+            if (emergencyTracker != null) emergencyTracker.stop();
+            if (visibilityPredictor != null) visibilityPredictor.persist();
+            if (obstructionMap != null) obstructionMap.flush();
+            if (coverageIndex != null) coverageIndex.flush();
+            if (tileCache != null) tileCache.close();
+            if (methodRouter != null) methodRouter.shutdown();
+            detachMonitor();
         } catch (Exception e) {
             Log.e("NavIC", "Error in onDestroy", e);
         }
@@ -2756,16 +4341,6 @@ public class MainActivity extends FlutterActivity {
         }
     }
 
-    private void cleanupCallback(GnssStatus.Callback callback) {
-        try {
-            if (callback != null) {
-                locationManager.unregisterGnssStatusCallback(callback);
-            }
-        } catch (Exception e) {
-            // Ignore cleanup errors
-        }
-    }
-
     // =============== HELPER METHODS FOR NEW FEATURES ===============
 
     /**
@@ -2774,41 +4349,37 @@ public class MainActivity extends FlutterActivity {
     private void getCompleteSatelliteSummary(MethodChannel.Result result) {
         Log.d("NavIC", "📊 Getting complete satellite summary");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildCompleteSatelliteSummaryReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting complete satellite summary", e);
+            result.error("SUMMARY_ERROR", "Failed to get satellite summary", null);
         }
+    }
 
-        try {
-            Map<String, Object> summary = new HashMap<>();
-            summary.put("timestamp", System.currentTimeMillis());
-            summary.put("totalSatellites", detectedSatellites.size());
-            summary.put("hasL5Band", hasL5BandSupport);
-            summary.put("primarySystem", primaryPositioningSystem);
-            summary.put("chipset", detectedChipset);
-            summary.put("chipsetVendor", chipsetVendor);
-
-            // Count satellites by system
-            Map<String, Integer> systemCounts = new HashMap<>();
-            Map<String, Integer> systemUsedCounts = new HashMap<>();
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                String system = sat.systemName;
-                systemCounts.put(system, systemCounts.getOrDefault(system, 0) + 1);
-                if (sat.usedInFix) {
-                    systemUsedCounts.put(system, systemUsedCounts.getOrDefault(system, 0) + 1);
-                }
-            }
+    private Map<String, Object> buildCompleteSatelliteSummaryReport(ReportSnapshot snapshot) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("timestamp", snapshot.timestamp);
+        SatelliteAggregates.Snapshot aggregates = snapshot.registry;
+        summary.put("totalSatellites", aggregates.totalCount());
+        summary.put("hasL5Band", hasL5BandSupport);
+        summary.put("primarySystem", primaryPositioningSystem);
+        summary.put("chipset", detectedChipset);
+        summary.put("chipsetVendor", chipsetVendor);
+
+        // Count satellites by system
+        Map<String, Integer> systemCounts = new HashMap<>();
+        Map<String, Integer> systemUsedCounts = new HashMap<>();
 
-            summary.put("systemCounts", systemCounts);
-            summary.put("systemUsedCounts", systemUsedCounts);
+        for (int i = 0; i < aggregates.systems.length; i++) {
+            if (aggregates.counts[i] > 0) systemCounts.put(aggregates.systems[i], aggregates.counts[i]);
+            if (aggregates.used[i] > 0) systemUsedCounts.put(aggregates.systems[i], aggregates.used[i]);
+        }
 
-            result.success(summary);
+        summary.put("systemCounts", systemCounts);
+        summary.put("systemUsedCounts", systemUsedCounts);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting complete satellite summary", e);
-            result.error("SUMMARY_ERROR", "Failed to get satellite summary", null);
-        }
+        return summary;
     }
 
     /**
@@ -2817,33 +4388,31 @@ public class MainActivity extends FlutterActivity {
     private void getSatelliteNames(MethodChannel.Result result) {
         Log.d("NavIC", "📡 Getting satellite names");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildSatelliteNamesReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting satellite names", e);
+            result.error("NAMES_ERROR", "Failed to get satellite names", null);
         }
+    }
 
-        try {
-            List<Map<String, Object>> satelliteNames = new ArrayList<>();
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                Map<String, Object> nameInfo = new HashMap<>();
-                nameInfo.put("svid", sat.svid);
-                nameInfo.put("system", sat.systemName);
-                nameInfo.put("name", getSatelliteName(sat.systemName, sat.svid));
-                nameInfo.put("countryFlag", sat.countryFlag);
-                satelliteNames.add(nameInfo);
-            }
+    private Map<String, Object> buildSatelliteNamesReport(ReportSnapshot snapshot) {
+        List<Map<String, Object>> satelliteNames = new ArrayList<>();
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("satelliteNames", satelliteNames);
-            response.put("timestamp", System.currentTimeMillis());
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            Map<String, Object> nameInfo = new HashMap<>(8);
+            nameInfo.put("svid", sat.svid);
+            nameInfo.put("system", sat.systemName);
+            nameInfo.put("name", svLabels(sat.constellation, sat.svid).name);
+            nameInfo.put("countryFlag", sat.countryFlag);
+            satelliteNames.add(nameInfo);
+        }
 
-            result.success(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("satelliteNames", satelliteNames);
+        response.put("timestamp", snapshot.timestamp);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting satellite names", e);
-            result.error("NAMES_ERROR", "Failed to get satellite names", null);
-        }
+        return response;
     }
 
     /**
@@ -2852,52 +4421,37 @@ public class MainActivity extends FlutterActivity {
     private void getConstellationDetails(MethodChannel.Result result) {
         Log.d("NavIC", "🌌 Getting constellation details");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildConstellationDetailsReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting constellation details", e);
+            result.error("CONSTELLATION_ERROR", "Failed to get constellation details", null);
         }
+    }
 
-        try {
-            Map<String, Object> constellationDetails = new HashMap<>();
-
-            for (Map.Entry<String, List<EnhancedSatellite>> entry : satellitesBySystem.entrySet()) {
-                String system = entry.getKey();
-                List<EnhancedSatellite> satellites = entry.getValue();
-
-                Map<String, Object> systemDetails = new HashMap<>();
-                systemDetails.put("countryFlag", GNSS_COUNTRIES.getOrDefault(system, "🌐"));
-                systemDetails.put("satelliteCount", satellites.size());
-
-                // Calculate statistics
-                int usedCount = 0;
-                float totalSignal = 0;
-                int signalCount = 0;
-
-                for (EnhancedSatellite sat : satellites) {
-                    if (sat.usedInFix) usedCount++;
-                    if (sat.cn0 > 0) {
-                        totalSignal += sat.cn0;
-                        signalCount++;
-                    }
-                }
+    private Map<String, Object> buildConstellationDetailsReport(ReportSnapshot snapshot) {
+        Map<String, Object> constellationDetails = new HashMap<>();
+        SatelliteAggregates.Snapshot aggregates = snapshot.latestTick;
 
-                systemDetails.put("usedCount", usedCount);
-                systemDetails.put("averageSignal", signalCount > 0 ? totalSignal / signalCount : 0);
-                systemDetails.put("frequencies", GNSS_FREQUENCIES.getOrDefault(system, new Double[]{0.0}));
+        for (int i = 0; i < aggregates.systems.length; i++) {
+            if (aggregates.counts[i] == 0) continue;
+            String system = aggregates.systems[i];
 
-                constellationDetails.put(system, systemDetails);
-            }
+            Map<String, Object> systemDetails = new HashMap<>();
+            systemDetails.put("countryFlag", GNSS_COUNTRIES.getOrDefault(system, "🌐"));
+            systemDetails.put("satelliteCount", aggregates.counts[i]);
+            systemDetails.put("usedCount", aggregates.used[i]);
+            systemDetails.put("averageSignal", aggregates.averageSignal(i));
+            systemDetails.put("frequencies", GNSS_FREQUENCIES.getOrDefault(system, new Double[]{0.0}));
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("constellationDetails", constellationDetails);
-            response.put("timestamp", System.currentTimeMillis());
+            constellationDetails.put(system, systemDetails);
+        }
 
-            result.success(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("constellationDetails", constellationDetails);
+        response.put("timestamp", snapshot.timestamp);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting constellation details", e);
-            result.error("CONSTELLATION_ERROR", "Failed to get constellation details", null);
-        }
+        return response;
     }
 
     /**
@@ -2906,46 +4460,30 @@ public class MainActivity extends FlutterActivity {
     private void getSignalStrengthAnalysis(MethodChannel.Result result) {
         Log.d("NavIC", "📶 Getting signal strength analysis");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildSignalStrengthAnalysisReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting signal strength analysis", e);
+            result.error("SIGNAL_ANALYSIS_ERROR", "Failed to get signal strength analysis", null);
         }
+    }
 
-        try {
-            Map<String, Object> analysis = new HashMap<>();
-
-            // Calculate signal strength distribution
-            Map<String, Integer> strengthDistribution = new HashMap<>();
-            strengthDistribution.put("EXCELLENT", 0);
-            strengthDistribution.put("GOOD", 0);
-            strengthDistribution.put("FAIR", 0);
-            strengthDistribution.put("WEAK", 0);
-            strengthDistribution.put("POOR", 0);
-
-            float totalSignal = 0;
-            int signalCount = 0;
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                String strengthLevel = sat.getSignalStrengthLevel();
-                strengthDistribution.put(strengthLevel, strengthDistribution.get(strengthLevel) + 1);
-
-                if (sat.cn0 > 0) {
-                    totalSignal += sat.cn0;
-                    signalCount++;
-                }
-            }
+    private Map<String, Object> buildSignalStrengthAnalysisReport(ReportSnapshot snapshot) {
+        Map<String, Object> analysis = new HashMap<>();
 
-            analysis.put("strengthDistribution", strengthDistribution);
-            analysis.put("averageSignal", signalCount > 0 ? totalSignal / signalCount : 0);
-            analysis.put("signalCount", signalCount);
-            analysis.put("timestamp", System.currentTimeMillis());
+        // Signal strength distribution
+        SatelliteAggregates.Snapshot aggregates = snapshot.registry;
+        Map<String, Integer> strengthDistribution = new HashMap<>();
+        for (int tier = 0; tier < SatelliteAggregates.TIERS.length; tier++) {
+            strengthDistribution.put(SatelliteAggregates.TIERS[tier], aggregates.tierCount(tier));
+        }
 
-            result.success(analysis);
+        analysis.put("strengthDistribution", strengthDistribution);
+        analysis.put("averageSignal", aggregates.averageSignal());
+        analysis.put("signalCount", aggregates.totalWithSignal());
+        analysis.put("timestamp", snapshot.timestamp);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting signal strength analysis", e);
-            result.error("SIGNAL_ANALYSIS_ERROR", "Failed to get signal strength analysis", null);
-        }
+        return analysis;
     }
 
     /**
@@ -2954,111 +4492,105 @@ public class MainActivity extends FlutterActivity {
     private void getElevationAzimuthData(MethodChannel.Result result) {
         Log.d("NavIC", "🎯 Getting elevation and azimuth data");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
-        try {
-            List<Map<String, Object>> positionData = new ArrayList<>();
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                Map<String, Object> data = new HashMap<>();
-                data.put("svid", sat.svid);
-                data.put("system", sat.systemName);
-                data.put("elevation", sat.elevation);
-                data.put("azimuth", sat.azimuth);
-                data.put("signalStrength", sat.cn0);
-                data.put("usedInFix", sat.usedInFix);
-                positionData.add(data);
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("positionData", positionData);
-            response.put("timestamp", System.currentTimeMillis());
-
-            result.success(response);
-
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildElevationAzimuthDataReport(snapshot));
         } catch (Exception e) {
             Log.e("NavIC", "Error getting elevation/azimuth data", e);
             result.error("POSITION_DATA_ERROR", "Failed to get elevation/azimuth data", null);
         }
     }
 
+    private Map<String, Object> buildElevationAzimuthDataReport(ReportSnapshot snapshot) {
+        List<Map<String, Object>> positionData = new ArrayList<>();
+
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("svid", sat.svid);
+            data.put("system", sat.systemName);
+            data.put("elevation", sat.elevation);
+            data.put("azimuth", sat.azimuth);
+            data.put("signalStrength", sat.cn0);
+            data.put("usedInFix", sat.usedInFix);
+            positionData.add(data);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("positionData", positionData);
+        response.put("timestamp", snapshot.timestamp);
+
+        return response;
+    }
+
     /**
      * Get carrier frequency information
      */
     private void getCarrierFrequencyInfo(MethodChannel.Result result) {
         Log.d("NavIC", "📻 Getting carrier frequency information");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
-        try {
-            List<Map<String, Object>> frequencyData = new ArrayList<>();
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                Map<String, Object> data = new HashMap<>();
-                data.put("svid", sat.svid);
-                data.put("system", sat.systemName);
-                data.put("frequencyBand", sat.frequencyBand);
-                data.put("carrierFrequencyHz", sat.carrierFrequency > 0 ? sat.carrierFrequency : null);
-                data.put("signalStrength", sat.cn0);
-                frequencyData.add(data);
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("frequencyData", frequencyData);
-            response.put("hasL5Band", hasL5BandSupport);
-            response.put("timestamp", System.currentTimeMillis());
-
-            result.success(response);
-
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildCarrierFrequencyInfoReport(snapshot));
         } catch (Exception e) {
             Log.e("NavIC", "Error getting carrier frequency info", e);
             result.error("FREQUENCY_ERROR", "Failed to get carrier frequency info", null);
         }
     }
 
+    private Map<String, Object> buildCarrierFrequencyInfoReport(ReportSnapshot snapshot) {
+        List<Map<String, Object>> frequencyData = new ArrayList<>();
+
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("svid", sat.svid);
+            data.put("system", sat.systemName);
+            data.put("frequencyBand", sat.frequencyBand());
+            data.put("carrierFrequencyHz", sat.carrierFrequency > 0 ? sat.carrierFrequency : null);
+            data.put("signalStrength", sat.cn0);
+            frequencyData.add(data);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("frequencyData", frequencyData);
+        response.put("hasL5Band", hasL5BandSupport);
+        response.put("timestamp", snapshot.timestamp);
+
+        return response;
+    }
+
     /**
      * Get ephemeris and almanac status
      */
     private void getEphemerisAlmanacStatus(MethodChannel.Result result) {
         Log.d("NavIC", "📡 Getting ephemeris and almanac status");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildEphemerisAlmanacStatusReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting ephemeris/almanac status", e);
+            result.error("EPHEMERIS_ERROR", "Failed to get ephemeris/almanac status", null);
         }
+    }
 
-        try {
-            Map<String, Object> status = new HashMap<>();
-
-            int hasEphemerisCount = 0;
-            int hasAlmanacCount = 0;
+    private Map<String, Object> buildEphemerisAlmanacStatusReport(ReportSnapshot snapshot) {
+        Map<String, Object> status = new HashMap<>();
 
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                if (sat.hasEphemeris) hasEphemerisCount++;
-                if (sat.hasAlmanac) hasAlmanacCount++;
-            }
+        int hasEphemerisCount = 0;
+        int hasAlmanacCount = 0;
 
-            status.put("totalSatellites", detectedSatellites.size());
-            status.put("hasEphemerisCount", hasEphemerisCount);
-            status.put("hasAlmanacCount", hasAlmanacCount);
-            status.put("ephemerisPercentage", detectedSatellites.size() > 0 ?
-                    (hasEphemerisCount * 100.0 / detectedSatellites.size()) : 0);
-            status.put("almanacPercentage", detectedSatellites.size() > 0 ?
-                    (hasAlmanacCount * 100.0 / detectedSatellites.size()) : 0);
-            status.put("timestamp", System.currentTimeMillis());
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            if (sat.hasEphemeris) hasEphemerisCount++;
+            if (sat.hasAlmanac) hasAlmanacCount++;
+        }
 
-            result.success(status);
+        status.put("totalSatellites", snapshot.satellites.size());
+        status.put("hasEphemerisCount", hasEphemerisCount);
+        status.put("hasAlmanacCount", hasAlmanacCount);
+        status.put("ephemerisPercentage", snapshot.satellites.size() > 0 ?
+                (hasEphemerisCount * 100.0 / snapshot.satellites.size()) : 0);
+        status.put("almanacPercentage", snapshot.satellites.size() > 0 ?
+                (hasAlmanacCount * 100.0 / snapshot.satellites.size()) : 0);
+        status.put("timestamp", snapshot.timestamp);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting ephemeris/almanac status", e);
-            result.error("EPHEMERIS_ERROR", "Failed to get ephemeris/almanac status", null);
-        }
+        return status;
     }
 
     /**
@@ -3067,76 +4599,73 @@ public class MainActivity extends FlutterActivity {
     private void getSatelliteDetectionHistory(MethodChannel.Result result) {
         Log.d("NavIC", "📈 Getting satellite detection history");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
-        try {
-            List<Map<String, Object>> detectionHistory = new ArrayList<>();
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                Map<String, Object> history = new HashMap<>();
-                history.put("svid", sat.svid);
-                history.put("system", sat.systemName);
-                history.put("detectionCount", sat.detectionCount);
-                history.put("firstDetectionTime", sat.detectionTime);
-                history.put("lastDetectionTime", System.currentTimeMillis());
-                history.put("averageSignal", sat.cn0);
-                detectionHistory.add(history);
-            }
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("detectionHistory", detectionHistory);
-            response.put("timestamp", System.currentTimeMillis());
-
-            result.success(response);
-
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildSatelliteDetectionHistoryReport(snapshot));
         } catch (Exception e) {
             Log.e("NavIC", "Error getting detection history", e);
             result.error("HISTORY_ERROR", "Failed to get detection history", null);
         }
     }
 
+    private Map<String, Object> buildSatelliteDetectionHistoryReport(ReportSnapshot snapshot) {
+        List<Map<String, Object>> detectionHistory = new ArrayList<>();
+
+        for (EnhancedSatellite sat : snapshot.satellites) {
+            Map<String, Object> history = new HashMap<>();
+            history.put("svid", sat.svid);
+            history.put("system", sat.systemName);
+            history.put("detectionCount", sat.detectionCount);
+            history.put("firstDetectionTime", sat.detectionTime);
+            history.put("lastDetectionTime", snapshot.timestamp);
+            history.put("averageSignal", sat.cn0);
+            detectionHistory.add(history);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("detectionHistory", detectionHistory);
+        response.put("timestamp", snapshot.timestamp);
+
+        return response;
+    }
+
     /**
      * Get GNSS diversity report
      */
     private void getGnssDiversityReport(MethodChannel.Result result) {
         Log.d("NavIC", "🌐 Getting GNSS diversity report");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildGnssDiversityReport(snapshot));
+        } catch (Exception e) {
+            Log.e("NavIC", "Error getting GNSS diversity report", e);
+            result.error("DIVERSITY_ERROR", "Failed to get GNSS diversity report", null);
         }
+    }
 
-        try {
-            Map<String, Object> diversityReport = new HashMap<>();
-
-            int totalSystems = satellitesBySystem.size();
-            int totalSatellites = detectedSatellites.size();
+    private Map<String, Object> buildGnssDiversityReport(ReportSnapshot snapshot) {
+        Map<String, Object> diversityReport = new HashMap<>();
 
-            diversityReport.put("totalSystems", totalSystems);
-            diversityReport.put("totalSatellites", totalSatellites);
-            diversityReport.put("systemsDetected", new ArrayList<>(satellitesBySystem.keySet()));
+        List<String> systemsDetected = snapshot.latestTick.activeSystems();
+        int totalSystems = systemsDetected.size();
+        int totalSatellites = snapshot.registry.totalCount();
 
-            // Calculate diversity score
-            double diversityScore = 0.0;
-            if (totalSystems > 0 && totalSatellites > 0) {
-                diversityScore = (totalSystems * 100.0) / 7.0; // 7 is max possible systems
-            }
+        diversityReport.put("totalSystems", totalSystems);
+        diversityReport.put("totalSatellites", totalSatellites);
+        diversityReport.put("systemsDetected", systemsDetected);
 
-            diversityReport.put("diversityScore", diversityScore);
-            diversityReport.put("diversityLevel", getDiversityLevel(diversityScore));
-            diversityReport.put("hasL5Band", hasL5BandSupport);
-            diversityReport.put("primarySystem", primaryPositioningSystem);
-            diversityReport.put("timestamp", System.currentTimeMillis());
+        // Calculate diversity score
+        double diversityScore = 0.0;
+        if (totalSystems > 0 && totalSatellites > 0) {
+            diversityScore = (totalSystems * 100.0) / 7.0; // 7 is max possible systems
+        }
 
-            result.success(diversityReport);
+        diversityReport.put("diversityScore", diversityScore);
+        diversityReport.put("diversityLevel", getDiversityLevel(diversityScore));
+        diversityReport.put("hasL5Band", hasL5BandSupport);
+        diversityReport.put("primarySystem", primaryPositioningSystem);
+        diversityReport.put("timestamp", snapshot.timestamp);
 
-        } catch (Exception e) {
-            Log.e("NavIC", "Error getting GNSS diversity report", e);
-            result.error("DIVERSITY_ERROR", "Failed to get GNSS diversity report", null);
-        }
+        return diversityReport;
     }
 
     /**
@@ -3145,15 +4674,10 @@ public class MainActivity extends FlutterActivity {
     private void getRealTimeSatelliteStream(MethodChannel.Result result) {
         Log.d("NavIC", "🔴 Getting real-time satellite stream");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
         try {
             // Start real-time detection if not already started
-            if (realtimeCallback == null) {
-                startRealTimeNavicDetection(result);
+            if (realtimeSubscription == null) {
+                startRealTimeNavicDetection(null, result);
                 return;
             }
 
@@ -3178,61 +4702,55 @@ public class MainActivity extends FlutterActivity {
     private void getSatelliteSignalQuality(MethodChannel.Result result) {
         Log.d("NavIC", "📊 Getting satellite signal quality");
 
-        if (!hasLocationPermissions()) {
-            result.error("PERMISSION_DENIED", "Location permissions required", null);
-            return;
-        }
-
-        try {
-            Map<String, Object> signalQuality = new HashMap<>();
-
-            // Calculate overall quality metrics
-            float totalSignal = 0;
-            int signalCount = 0;
-            int excellentCount = 0;
-            int goodCount = 0;
-            int fairCount = 0;
-            int weakCount = 0;
-            int poorCount = 0;
-
-            for (EnhancedSatellite sat : detectedSatellites.values()) {
-                if (sat.cn0 > 0) {
-                    totalSignal += sat.cn0;
-                    signalCount++;
-
-                    String strength = sat.getSignalStrengthLevel();
-                    switch (strength) {
-                        case "EXCELLENT": excellentCount++; break;
-                        case "GOOD": goodCount++; break;
-                        case "FAIR": fairCount++; break;
-                        case "WEAK": weakCount++; break;
-                        case "POOR": poorCount++; break;
-                    }
-                }
-            }
-
-            signalQuality.put("totalSatellites", detectedSatellites.size());
-            signalQuality.put("satellitesWithSignal", signalCount);
-            signalQuality.put("averageSignal", signalCount > 0 ? totalSignal / signalCount : 0);
-            signalQuality.put("excellentCount", excellentCount);
-            signalQuality.put("goodCount", goodCount);
-            signalQuality.put("fairCount", fairCount);
-            signalQuality.put("weakCount", weakCount);
-            signalQuality.put("poorCount", poorCount);
-            signalQuality.put("qualityScore", calculateQualityScore(excellentCount, goodCount, fairCount,
-                    weakCount, poorCount, signalCount));
-            signalQuality.put("timestamp", System.currentTimeMillis());
-
-            result.success(signalQuality);
-
+        try (ReportSnapshot snapshot = captureReportSnapshot()) {
+            result.success(buildSatelliteSignalQualityReport(snapshot));
         } catch (Exception e) {
             Log.e("NavIC", "Error getting satellite signal quality", e);
             result.error("QUALITY_ERROR", "Failed to get satellite signal quality", null);
         }
     }
 
+    private Map<String, Object> buildSatelliteSignalQualityReport(ReportSnapshot snapshot) {
+        Map<String, Object> signalQuality = new HashMap<>();
+
+        // Overall quality metrics over satellites reporting a signal
+        SatelliteAggregates.Snapshot aggregates = snapshot.registry;
+        int signalCount = aggregates.totalWithSignal();
+        int excellentCount = aggregates.tierCountWithSignal(0);
+        int goodCount = aggregates.tierCountWithSignal(1);
+        int fairCount = aggregates.tierCountWithSignal(2);
+        int weakCount = aggregates.tierCountWithSignal(3);
+        int poorCount = aggregates.tierCountWithSignal(SatelliteAggregates.TIER_POOR);
+
+        signalQuality.put("totalSatellites", aggregates.totalCount());
+        signalQuality.put("satellitesWithSignal", signalCount);
+        signalQuality.put("averageSignal", aggregates.averageSignal());
+        signalQuality.put("excellentCount", excellentCount);
+        signalQuality.put("goodCount", goodCount);
+        signalQuality.put("fairCount", fairCount);
+        signalQuality.put("weakCount", weakCount);
+        signalQuality.put("poorCount", poorCount);
+        signalQuality.put("qualityScore", calculateQualityScore(excellentCount, goodCount, fairCount,
+                weakCount, poorCount, signalCount));
+        signalQuality.put("timestamp", snapshot.timestamp);
+
+        return signalQuality;
+    }
+
     // =============== ADDITIONAL HELPER METHODS ===============
 
+    /**
+     * Per-SV strings, computed on the first sighting of each SV and reused afterwards
+     */
+    private SatellitePayloads.SvLabels svLabels(int constellation, int svid) {
+        return SatellitePayloads.labels(constellation, svid, (c, id) -> {
+            String system = getEnhancedConstellationName(c);
+            GnssIdentifiers.Constellation known = GnssIdentifiers.Constellation.of(c);
+            return new SatellitePayloads.SvLabels(system, known.flag, getSatelliteName(system, id),
+                    known.description);
+        });
+    }
+
     /**
      * Get satellite name based on system and SVID
      */
@@ -3282,22 +4800,6 @@ public class MainActivity extends FlutterActivity {
         return String.format("%s-%02d", system, svid);
     }
 
-    /**
-     * Get constellation description
-     */
-    private String getConstellationDescription(int constellation) {
-        switch (constellation) {
-            case GnssStatus.CONSTELLATION_IRNSS: return "Indian Regional Navigation Satellite System (NavIC)";
-            case GnssStatus.CONSTELLATION_GPS: return "Global Positioning System (USA)";
-            case GnssStatus.CONSTELLATION_GLONASS: return "Global Navigation Satellite System (Russia)";
-            case GnssStatus.CONSTELLATION_GALILEO: return "European Global Navigation Satellite System";
-            case GnssStatus.CONSTELLATION_BEIDOU: return "BeiDou Navigation Satellite System (China)";
-            case GnssStatus.CONSTELLATION_QZSS: return "Quasi-Zenith Satellite System (Japan)";
-            case GnssStatus.CONSTELLATION_SBAS: return "Satellite-Based Augmentation System";
-            default: return "Unknown Navigation System";
-        }
-    }
-
     /**
      * Get frequency description
      */
@@ -3365,7 +4867,14 @@ public class MainActivity extends FlutterActivity {
 
     // =============== INNER CLASSES ===============
 
+    /**
+     * One SV with every band it was tracked on. The SV-level band and carrier
+     * are those of its first band in Band order, so they do not flip between
+     * ticks; cn0 is the strongest band's C/N0.
+     */
     private static class EnhancedSatellite {
+        private static final GnssIdentifiers.Band[] BANDS = GnssIdentifiers.Band.values();
+
         int svid;
         String systemName;
         int constellation;
@@ -3376,14 +4885,17 @@ public class MainActivity extends FlutterActivity {
         float azimuth;
         boolean hasEphemeris;
         boolean hasAlmanac;
-        String frequencyBand;
+        GnssIdentifiers.Band band;
         double carrierFrequency;
         long detectionTime;
         int detectionCount;
+        int bandMask;
+        final float[] bandCn0 = new float[BANDS.length];
+        final double[] bandCarrierHz = new double[BANDS.length];
 
         EnhancedSatellite(int svid, String systemName, int constellation, String countryFlag,
                           float cn0, boolean usedInFix, float elevation, float azimuth,
-                          boolean hasEphemeris, boolean hasAlmanac, String frequencyBand,
+                          boolean hasEphemeris, boolean hasAlmanac, GnssIdentifiers.Band band,
                           double carrierFrequency, long detectionTime) {
             this.svid = svid;
             this.systemName = systemName;
@@ -3395,39 +4907,152 @@ public class MainActivity extends FlutterActivity {
             this.azimuth = azimuth;
             this.hasEphemeris = hasEphemeris;
             this.hasAlmanac = hasAlmanac;
-            this.frequencyBand = frequencyBand;
+            this.band = band;
             this.carrierFrequency = carrierFrequency;
             this.detectionTime = detectionTime;
             this.detectionCount = 1;
+            this.bandMask = 1 << band.ordinal();
+            this.bandCn0[band.ordinal()] = cn0;
+            this.bandCarrierHz[band.ordinal()] = carrierFrequency;
         }
 
-        Map<String, Object> toEnhancedMap() {
-            Map<String, Object> map = new HashMap<>();
-            map.put("svid", svid);
-            map.put("system", systemName);
-            map.put("constellation", constellation);
-            map.put("countryFlag", countryFlag);
-            map.put("cn0DbHz", cn0);
-            map.put("usedInFix", usedInFix);
-            map.put("elevation", elevation);
-            map.put("azimuth", azimuth);
-            map.put("hasEphemeris", hasEphemeris);
-            map.put("hasAlmanac", hasAlmanac);
-            map.put("frequencyBand", frequencyBand);
-            map.put("carrierFrequencyHz", carrierFrequency > 0 ? carrierFrequency : null);
-            map.put("detectionTime", detectionTime);
-            map.put("detectionCount", detectionCount);
-            map.put("signalStrength", getSignalStrengthLevel());
-            map.put("timestamp", System.currentTimeMillis());
+        /** Another band of the same SV in the same tick */
+        void addSignal(GnssIdentifiers.Band signalBand, float signalCn0, double carrierHz,
+                       boolean used, boolean ephemeris, boolean almanac) {
+            int b = signalBand.ordinal();
+            if ((bandMask & (1 << b)) == 0 || signalCn0 > bandCn0[b]) {
+                bandCn0[b] = signalCn0;
+                bandCarrierHz[b] = carrierHz;
+            }
+            bandMask |= 1 << b;
+            usedInFix |= used;
+            hasEphemeris |= ephemeris;
+            hasAlmanac |= almanac;
+            refreshPrimaryBand();
+        }
+
+        /** Fold a newer tick of this SV in, averaging C/N0 per band */
+        void mergeSignals(EnhancedSatellite tick) {
+            for (int b = 0; b < BANDS.length; b++) {
+                if ((tick.bandMask & (1 << b)) == 0) continue;
+                bandCn0[b] = (bandMask & (1 << b)) != 0 ? (bandCn0[b] + tick.bandCn0[b]) / 2 : tick.bandCn0[b];
+                bandCarrierHz[b] = tick.bandCarrierHz[b];
+            }
+            bandMask |= tick.bandMask;
+            refreshPrimaryBand();
+        }
+
+        private void refreshPrimaryBand() {
+            int primary = Integer.numberOfTrailingZeros(bandMask);
+            band = BANDS[primary];
+            carrierFrequency = bandCarrierHz[primary];
+            float strongest = 0;
+            for (int b = primary; b < BANDS.length; b++) {
+                if ((bandMask & (1 << b)) != 0 && bandCn0[b] > strongest) strongest = bandCn0[b];
+            }
+            cn0 = strongest;
+        }
+
+        boolean hasSignalOn(GnssIdentifiers.Band signalBand) {
+            int b = signalBand.ordinal();
+            return (bandMask & (1 << b)) != 0 && bandCn0[b] > 0;
+        }
+
+        int bandCount() {
+            return Integer.bitCount(bandMask);
+        }
+
+        /** Per-band C/N0 keyed by band label */
+        Map<String, Object> signalsByBand() {
+            Map<String, Object> signals = new HashMap<>(4);
+            for (int b = 0; b < BANDS.length; b++) {
+                if ((bandMask & (1 << b)) != 0) signals.put(BANDS[b].label(bandCarrierHz[b]), bandCn0[b]);
+            }
+            return signals;
+        }
+
+        String bandsLabel() {
+            StringBuilder label = new StringBuilder();
+            for (int b = 0; b < BANDS.length; b++) {
+                if ((bandMask & (1 << b)) == 0) continue;
+                if (label.length() > 0) label.append('+');
+                label.append(BANDS[b].label(bandCarrierHz[b]));
+            }
+            return label.toString();
+        }
+
+        /**
+         * Copy into a pooled record from a retired epoch, or a new one when reuse is null
+         */
+        static EnhancedSatellite copyInto(EnhancedSatellite source, EnhancedSatellite reuse) {
+            if (reuse == null) {
+                reuse = new EnhancedSatellite(source.svid, source.systemName, source.constellation,
+                        source.countryFlag, source.cn0, source.usedInFix, source.elevation, source.azimuth,
+                        source.hasEphemeris, source.hasAlmanac, source.band,
+                        source.carrierFrequency, source.detectionTime);
+            } else {
+                reuse.svid = source.svid;
+                reuse.systemName = source.systemName;
+                reuse.constellation = source.constellation;
+                reuse.countryFlag = source.countryFlag;
+                reuse.cn0 = source.cn0;
+                reuse.usedInFix = source.usedInFix;
+                reuse.elevation = source.elevation;
+                reuse.azimuth = source.azimuth;
+                reuse.hasEphemeris = source.hasEphemeris;
+                reuse.hasAlmanac = source.hasAlmanac;
+                reuse.band = source.band;
+                reuse.carrierFrequency = source.carrierFrequency;
+                reuse.detectionTime = source.detectionTime;
+            }
+            reuse.detectionCount = source.detectionCount;
+            reuse.bandMask = source.bandMask;
+            System.arraycopy(source.bandCn0, 0, reuse.bandCn0, 0, BANDS.length);
+            System.arraycopy(source.bandCarrierHz, 0, reuse.bandCarrierHz, 0, BANDS.length);
+            return reuse;
+        }
+
+        /**
+         * Flutter map for this satellite, stamped with the caller's frame timestamp
+         */
+        Map<String, Object> toEnhancedMap(long frameTimestamp) {
+            Map<String, Object> map = SatellitePayloads.newSatelliteMap();
+            map.put(SatellitePayloads.KEY_SVID, svid);
+            map.put(SatellitePayloads.KEY_SYSTEM, systemName);
+            map.put(SatellitePayloads.KEY_CONSTELLATION, constellation);
+            map.put(SatellitePayloads.KEY_COUNTRY_FLAG, countryFlag);
+            map.put(SatellitePayloads.KEY_CN0, cn0);
+            map.put(SatellitePayloads.KEY_USED_IN_FIX, usedInFix);
+            map.put(SatellitePayloads.KEY_ELEVATION, elevation);
+            map.put(SatellitePayloads.KEY_AZIMUTH, azimuth);
+            map.put(SatellitePayloads.KEY_HAS_EPHEMERIS, hasEphemeris);
+            map.put(SatellitePayloads.KEY_HAS_ALMANAC, hasAlmanac);
+            map.put(SatellitePayloads.KEY_FREQUENCY_BAND, frequencyBand());
+            map.put(SatellitePayloads.KEY_CARRIER_FREQUENCY, carrierFrequency > 0 ? carrierFrequency : null);
+            map.put(SatellitePayloads.KEY_DETECTION_TIME, detectionTime);
+            map.put(SatellitePayloads.KEY_DETECTION_COUNT, detectionCount);
+            map.put(SatellitePayloads.KEY_BAND_COUNT, bandCount());
+            map.put(SatellitePayloads.KEY_SIGNALS, signalsByBand());
+            map.put(SatellitePayloads.KEY_SIGNAL_STRENGTH, getSignalStrengthLevel());
+            map.put(SatellitePayloads.KEY_TIMESTAMP, frameTimestamp);
             return map;
         }
 
+        void writeTo(SatellitePayloads.FrameWriter writer) {
+            int status = 0;
+            if (usedInFix) status |= SatellitePayloads.FrameWriter.STATUS_USED_IN_FIX;
+            if (hasEphemeris) status |= SatellitePayloads.FrameWriter.STATUS_HAS_EPHEMERIS;
+            if (hasAlmanac) status |= SatellitePayloads.FrameWriter.STATUS_HAS_ALMANAC;
+            writer.satellite(systemName, countryFlag, frequencyBand(), svid, status, cn0, elevation, azimuth,
+                    carrierFrequency, detectionTime, detectionCount, constellation, bandCount());
+        }
+
+        String frequencyBand() {
+            return band.label(carrierFrequency);
+        }
+
         String getSignalStrengthLevel() {
-            if (cn0 >= 35) return "EXCELLENT";
-            if (cn0 >= 25) return "GOOD";
-            if (cn0 >= 18) return "FAIR";
-            if (cn0 >= 10) return "WEAK";
-            return "POOR";
+            return GnssIdentifiers.SignalTier.of(cn0).name();
         }
     }
 
@@ -3440,6 +5065,9 @@ public class MainActivity extends FlutterActivity {
         Map<String, EnhancedSatellite> allSatellites;
         Map<String, List<EnhancedSatellite>> satellitesBySystem;
         List<Map<String, Object>> allSatellitesList;
+        // Raw GnssStatus entries; exceeds totalSatellites when SVs are tracked on several bands
+        int totalSignals;
+        int l5Satellites;
 
         EnhancedSatelliteScanResult(int navicCount, int navicUsedInFix, int totalSatellites,
                                     float navicSignalStrength, List<Map<String, Object>> navicDetails,
@@ -3461,6 +5089,9 @@ public class MainActivity extends FlutterActivity {
         boolean hasL5Support = false;
         double confidence = 0.0;
         List<String> detectionMethods = new ArrayList<>();
+        int liveL5Satellites = 0;
+        boolean heuristicHasL5Support = false;
+        String verifierVerdict = "UNVERIFIED";
 
         Map<String, Object> toMap() {
             Map<String, Object> map = new HashMap<>();
@@ -3468,6 +5099,9 @@ public class MainActivity extends FlutterActivity {
             map.put("confidence", confidence);
             map.put("detectionMethods", detectionMethods);
             map.put("detectionMethodCount", detectionMethods.size());
+            map.put("liveL5Satellites", liveL5Satellites);
+            map.put("heuristicHasL5Support", heuristicHasL5Support);
+            map.put("verifierVerdict", verifierVerdict);
             return map;
         }
     }
@@ -3564,10 +5198,102 @@ public class MainActivity extends FlutterActivity {
         }
     }
 
-    private interface EnhancedSatelliteDetectionCallback {
-        void onResult(boolean navicDetected, int navicCount, int totalSatellites,
-                      int usedInFixCount, double signalStrength,
-                      List<Map<String, Object>> satelliteDetails, long acquisitionTime,
-                      List<Map<String, Object>> allSatellites, boolean hasL5Band, String primarySystem);
+    /**
+     * Isolated state for one NavIC detection run. Runs on the main handler only.
+     */
+    private final class DetectionSession {
+        final int id;
+        final EnhancedHardwareDetectionResult hardwareResult;
+        final EnhancedL5BandResult l5Result;
+        final NavicSequentialDetector.Config config;
+        final NavicSequentialDetector detector;
+        final long startTime = System.currentTimeMillis();
+        final Map<String, EnhancedSatellite> satellites = new ConcurrentHashMap<>();
+        final Map<String, List<EnhancedSatellite>> satellitesBySystem = new ConcurrentHashMap<>();
+        final List<MethodChannel.Result> waitingResults = new ArrayList<>();
+        final Runnable timeoutTask;
+        final Runnable shadowEndTask;
+        // Predicted NavIC SVs above the mask at start, -1 without a position
+        final int expectedNavic;
+        final long timeoutMs;
+        boolean completed = false;
+        int detectionAttempts = 0;
+
+        DetectionSession(int id, EnhancedHardwareDetectionResult hardwareResult, EnhancedL5BandResult l5Result,
+                         NavicSequentialDetector.Config config, int expectedNavic, long timeoutMs) {
+            this.id = id;
+            this.expectedNavic = expectedNavic;
+            this.timeoutMs = timeoutMs;
+            this.hardwareResult = hardwareResult;
+            this.l5Result = l5Result;
+            this.config = config;
+            this.detector = new NavicSequentialDetector(config);
+            this.timeoutTask = () -> {
+                if (completed) return;
+                EnhancedSatelliteScanResult finalResult = getCurrentEnhancedScanResult(satellites);
+                boolean detected = detector.truncate(timeoutMs) ==
+                        NavicSequentialDetector.Decision.NAVIC_PRESENT;
+                completeDetectionSession(this, detected, finalResult, timeoutMs);
+            };
+            this.shadowEndTask = () -> finishShadowRecording(this, timeoutMs);
+        }
+
+        /**
+         * After the SPRT answered: feed only the legacy shadow until it decides or the window ends
+         */
+        void onShadowTick(EnhancedSatelliteScanResult scanResult) {
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            detector.update(buildNavicTickEvidence(scanResult, elapsedTime));
+            if (detector.isLegacyDecided() || elapsedTime >= timeoutMs) {
+                finishShadowRecording(this, elapsedTime);
+            }
+        }
+
+        /**
+         * One tick, already scanned by the fan-out; the scan's records are shared and read-only here
+         */
+        void onSatelliteStatus(EnhancedSatelliteScanResult scanResult) {
+            if (completed) return;
+
+            detectionAttempts++;
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            updateSatelliteTracking(satellites, satellitesBySystem, scanResult, null, null, elapsedTime);
+
+            // Sequential likelihood-ratio decision, stops as soon as either bound is crossed
+            NavicSequentialDetector.Decision decision =
+                    detector.update(buildNavicTickEvidence(scanResult, elapsedTime));
+            if (decision == NavicSequentialDetector.Decision.NAVIC_PRESENT) {
+                Log.d("NavIC", "🎯 SPRT accepted NavIC presence after " + elapsedTime + " ms");
+                completeDetectionSession(this, true, scanResult, elapsedTime);
+                return;
+            }
+            if (decision == NavicSequentialDetector.Decision.NAVIC_ABSENT) {
+                Log.d("NavIC", "🚫 SPRT rejected NavIC presence after " + elapsedTime + " ms");
+                completeDetectionSession(this, false, getCurrentEnhancedScanResult(satellites), elapsedTime);
+                return;
+            }
+
+            emitDetectionEvent("PROGRESS", this, scanResult.navicCount > 0 ? 1.0 : 0.25, () -> {
+                Map<String, Object> event = detector.toMap();
+                event.put("elapsedMs", elapsedTime);
+                event.put("attempts", detectionAttempts);
+                event.put("navicCount", scanResult.navicCount);
+                event.put("totalSatellites", scanResult.totalSatellites);
+                return event;
+            });
+
+            // Log detailed progress
+            if (detectionAttempts % 3 == 0 || scanResult.navicCount > 0) {
+                logEnhancedSatelliteStatus(scanResult, elapsedTime, detectionAttempts);
+            }
+
+            // Timeout condition
+            if (elapsedTime >= timeoutMs) {
+                EnhancedSatelliteScanResult finalResult = getCurrentEnhancedScanResult(satellites);
+                boolean detected = detector.truncate(elapsedTime) == NavicSequentialDetector.Decision.NAVIC_PRESENT;
+                Log.d("NavIC", "⏰ Detection timeout - NavIC detected: " + detected);
+                completeDetectionSession(this, detected, finalResult, elapsedTime);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,603 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.location.Location;
+import android.os.Handler;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Offline-capable disk cache for the map tiles behind the flutter_map layers.
+ *
+ * Tile bodies are one file each; which tiles exist, their sizes and when they
+ * were last read live in a fixed-slot index file that is memory-mapped, so
+ * touching a tile on a hit is a store into the mapping and the index survives
+ * the process without an explicit write. Once the bodies pass the byte budget
+ * the least recently read tiles are deleted. The lock only covers the index;
+ * tile bodies are read and deleted outside it.
+ *
+ * Lookups are always cache first, so a populated cache works with no network
+ * at all; offline mode additionally never tries the network. Map views go
+ * through a small interactive pool, prefetch around the fused fix through its
+ * own thread so it never delays what is on screen. Prefetch is off by
+ * default: the OpenStreetMap tile usage policy forbids bulk downloading from
+ * its servers, so it has to be enabled explicitly for a source that allows
+ * it. Callbacks arrive on the main thread.
+ */
+final class MapTileCache {
+    private static final int MAX_ENTRIES = 8192;
+    private static final int MAX_TILE_ZOOM = 19;
+    private static final int INDEX_MAGIC = 0x3149544E; // "NTI1"
+    private static final int INDEX_HEADER_BYTES = 16;
+    // key, last read, fetched at, body bytes
+    private static final int SLOT_BYTES = 8 + 8 + 8 + 4 + 4;
+    private static final String USER_AGENT = "com.example.navic";
+
+    /** Source names as used by the Dart tile provider; the position is part of the key */
+    static final String[] SOURCE_NAMES = {"osm", "esri", "local"};
+    private static final int SOURCE_LOCAL = 2;
+
+    interface TileSource {
+        byte[] fetch(int z, int x, int y) throws IOException;
+    }
+
+    interface Callback {
+        void onTile(byte[] tile, String error);
+    }
+
+    static final class Config {
+        long budgetBytes = 64L * 1024 * 1024;
+        /** Serve only what is cached, never touch the network */
+        boolean offline = false;
+        /** Cached tiles older than this are served, then refreshed in the background */
+        long refreshAgeMs = 30L * 24 * 60 * 60 * 1000;
+        boolean autoPrefetch = false;
+        double prefetchRadiusM = 1500;
+        int prefetchMinZoom = 12;
+        int prefetchMaxZoom = 16;
+        int maxPrefetchTiles = 300;
+        String prefetchSource = "osm";
+        int timeoutMs = 10000;
+
+        void applyArguments(Map<?, ?> args) {
+            if (args == null) return;
+            budgetBytes = Math.max(1024 * 1024, longArg(args, "budgetBytes", budgetBytes));
+            if (args.get("offline") instanceof Boolean) offline = (Boolean) args.get("offline");
+            refreshAgeMs = Math.max(0, longArg(args, "refreshAgeMs", refreshAgeMs));
+            if (args.get("autoPrefetch") instanceof Boolean) autoPrefetch = (Boolean) args.get("autoPrefetch");
+            prefetchRadiusM = Math.max(100, Math.min(20000, doubleArg(args, "prefetchRadiusM", prefetchRadiusM)));
+            prefetchMinZoom = (int) Math.max(0, Math.min(MAX_TILE_ZOOM, longArg(args, "prefetchMinZoom", prefetchMinZoom)));
+            prefetchMaxZoom = (int) Math.max(prefetchMinZoom, Math.min(MAX_TILE_ZOOM,
+                    longArg(args, "prefetchMaxZoom", prefetchMaxZoom)));
+            maxPrefetchTiles = (int) Math.max(0, Math.min(MAX_ENTRIES / 2, longArg(args, "maxPrefetchTiles", maxPrefetchTiles)));
+            if (args.get("prefetchSource") instanceof String && sourceIndex((String) args.get("prefetchSource")) >= 0) {
+                prefetchSource = (String) args.get("prefetchSource");
+            }
+            timeoutMs = (int) Math.max(1000, longArg(args, "timeoutMs", timeoutMs));
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("budgetBytes", budgetBytes);
+            map.put("offline", offline);
+            map.put("refreshAgeMs", refreshAgeMs);
+            map.put("autoPrefetch", autoPrefetch);
+            map.put("prefetchRadiusM", prefetchRadiusM);
+            map.put("prefetchMinZoom", prefetchMinZoom);
+            map.put("prefetchMaxZoom", prefetchMaxZoom);
+            map.put("maxPrefetchTiles", maxPrefetchTiles);
+            map.put("prefetchSource", prefetchSource);
+            map.put("timeoutMs", timeoutMs);
+            return map;
+        }
+    }
+
+    private final Config config = new Config();
+    private final Handler handler;
+    private final File tileDir;
+    private final TileSource[] sources = new TileSource[SOURCE_NAMES.length];
+    private final ExecutorService interactive = Executors.newFixedThreadPool(2);
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor();
+
+    // Index, guarded by this
+    private RandomAccessFile indexFile;
+    private MappedByteBuffer index;
+    // In read order, least recently read first, so eviction takes the head
+    private final LinkedHashMap<Long, Integer> slotByKey = new LinkedHashMap<>(MAX_ENTRIES * 2, 0.75f, true);
+    // Stack of empty slots
+    private final int[] freeSlots = new int[MAX_ENTRIES];
+    private int freeCount = 0;
+    private long totalBytes = 0;
+    // Keys queued or in flight on the prefetcher
+    private final Set<Long> pendingFetches = new HashSet<>();
+
+    private Location lastPrefetchCenter;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long fetched = 0;
+    private long fetchFailures = 0;
+    private long offlineMisses = 0;
+    private long evictions = 0;
+    private long prefetchQueued = 0;
+
+    MapTileCache(Context context, Handler handler) {
+        this.handler = handler;
+        File dir = new File(context.getApplicationContext().getFilesDir(), "navic_tiles");
+        this.tileDir = new File(dir, "tiles");
+        if (!tileDir.exists() && !tileDir.mkdirs()) {
+            Log.w("NavIC", "Could not create tile directory " + tileDir);
+        }
+        sources[0] = new UrlTileSource("https://tile.openstreetmap.org/{z}/{x}/{y}.png", config);
+        sources[1] = new UrlTileSource(
+                "https://server.arcgisonline.com/ArcGIS/rest/services/World_Imagery/MapServer/tile/{z}/{y}/{x}", config);
+        sources[SOURCE_LOCAL] = new LocalTileSource();
+        openIndex(new File(dir, "index.bin"));
+    }
+
+    void configure(Map<?, ?> args) {
+        synchronized (config) {
+            config.applyArguments(args);
+        }
+        trimToBudget();
+    }
+
+    static int sourceIndex(String name) {
+        for (int i = 0; i < SOURCE_NAMES.length; i++) {
+            if (SOURCE_NAMES[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    private static long key(int source, int z, int x, int y) {
+        // Bit 62 keeps every key non-zero, zero marks a free slot
+        return (1L << 62) | ((long) source << 56) | ((long) z << 48) | ((long) x << 24) | y;
+    }
+
+    private File tileFile(long key) {
+        return new File(tileDir, Long.toHexString(key) + ".tile");
+    }
+
+    // =============== LOOKUP ===============
+
+    /** Cached tile, else fetched from its source unless offline; the callback runs on the main thread */
+    void get(String source, int z, int x, int y, Callback callback) {
+        int s = sourceIndex(source);
+        int n = 1 << Math.min(z, 30);
+        if (s < 0 || z < 0 || z > MAX_TILE_ZOOM || x < 0 || x >= n || y < 0 || y >= n) {
+            callback.onTile(null, "Unknown tile " + source + "/" + z + "/" + x + "/" + y);
+            return;
+        }
+        interactive.execute(() -> {
+            byte[] tile = null;
+            String error = null;
+            try {
+                tile = load(s, z, x, y);
+                if (tile == null) error = "Tile not cached and offline";
+            } catch (Exception e) {
+                error = "Tile fetch failed: " + e.getMessage();
+            }
+            byte[] result = tile;
+            String message = error;
+            handler.post(() -> callback.onTile(result, message));
+        });
+    }
+
+    private byte[] load(int source, int z, int x, int y) throws IOException {
+        long key = key(source, z, x, y);
+        long[] fetchedAt = new long[1];
+        byte[] cached = readCached(key, fetchedAt);
+        boolean offline, stale;
+        synchronized (config) {
+            offline = config.offline;
+            stale = System.currentTimeMillis() - fetchedAt[0] > config.refreshAgeMs;
+        }
+        if (cached != null) {
+            if (stale && !offline && source != SOURCE_LOCAL) queueFetch(source, z, x, y, true);
+            return cached;
+        }
+        if (offline && source != SOURCE_LOCAL) {
+            synchronized (this) {
+                offlineMisses++;
+            }
+            return null;
+        }
+        return fetchAndStore(source, z, x, y);
+    }
+
+    private byte[] fetchAndStore(int source, int z, int x, int y) throws IOException {
+        byte[] tile;
+        try {
+            tile = sources[source].fetch(z, x, y);
+        } catch (IOException e) {
+            synchronized (this) {
+                fetchFailures++;
+            }
+            throw e;
+        }
+        store(key(source, z, x, y), tile);
+        return tile;
+    }
+
+    private void fetchQuietly(int source, int z, int x, int y) {
+        try {
+            fetchAndStore(source, z, x, y);
+        } catch (IOException e) {
+            Log.d("NavIC", "Tile prefetch failed for " + z + "/" + x + "/" + y + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch a tile on the prefetcher unless it is already queued or in flight
+     *
+     * @param refresh fetch even if the tile is cached by the time it runs
+     * @return whether a fetch was queued
+     */
+    private boolean queueFetch(int source, int z, int x, int y, boolean refresh) {
+        long key = key(source, z, x, y);
+        synchronized (this) {
+            if (!pendingFetches.add(key)) return false;
+        }
+        prefetcher.execute(() -> {
+            try {
+                if (refresh || !contains(key)) fetchQuietly(source, z, x, y);
+            } finally {
+                synchronized (this) {
+                    pendingFetches.remove(key);
+                }
+            }
+        });
+        return true;
+    }
+
+    // =============== PREFETCH ===============
+
+    /** Prefetch around a newly fused fix once it has moved half the radius from the last centre */
+    void onFix(Location location) {
+        double radius;
+        synchronized (config) {
+            if (!config.autoPrefetch || config.offline) return;
+            radius = config.prefetchRadiusM;
+        }
+        if (lastPrefetchCenter != null && lastPrefetchCenter.distanceTo(location) < radius / 2) return;
+        lastPrefetchCenter = new Location(location);
+        prefetch(location.getLatitude(), location.getLongitude(), radius, -1, -1, null);
+    }
+
+    /**
+     * Queue every missing tile within radiusM of a point, coarse zooms first
+     *
+     * @param minZoom zoom range, or negative for the configured one
+     * @param source tile source name, or null for the configured one
+     * @return tiles queued for download
+     */
+    int prefetch(double latitude, double longitude, double radiusM, int minZoom, int maxZoom, String source) {
+        int limit;
+        synchronized (config) {
+            if (config.offline) return 0;
+            if (minZoom < 0) minZoom = config.prefetchMinZoom;
+            if (maxZoom < 0) maxZoom = config.prefetchMaxZoom;
+            if (source == null) source = config.prefetchSource;
+            limit = config.maxPrefetchTiles;
+        }
+        int s = sourceIndex(source);
+        if (s < 0) return 0;
+
+        double dLat = radiusM / 111320.0;
+        double dLon = radiusM / (111320.0 * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        int queued = 0;
+        for (int z = Math.max(0, minZoom); z <= Math.min(MAX_TILE_ZOOM, maxZoom) && queued < limit; z++) {
+            int x0 = CoverageTileIndex.tileX(longitude - dLon, z), x1 = CoverageTileIndex.tileX(longitude + dLon, z);
+            int y0 = CoverageTileIndex.tileY(latitude + dLat, z), y1 = CoverageTileIndex.tileY(latitude - dLat, z);
+            for (int y = y0; y <= y1 && queued < limit; y++) {
+                for (int x = x0; x <= x1 && queued < limit; x++) {
+                    if (contains(key(s, z, x, y))) continue;
+                    if (queueFetch(s, z, x, y, false)) queued++;
+                }
+            }
+        }
+        synchronized (this) {
+            prefetchQueued += queued;
+        }
+        return queued;
+    }
+
+    // =============== INDEX ===============
+
+    private synchronized void openIndex(File file) {
+        try {
+            indexFile = new RandomAccessFile(file, "rw");
+            boolean fresh = indexFile.length() == 0;
+            index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    INDEX_HEADER_BYTES + (long) MAX_ENTRIES * SLOT_BYTES);
+            index.order(ByteOrder.LITTLE_ENDIAN);
+            if (fresh || index.getInt(0) != INDEX_MAGIC) {
+                for (int i = 0; i < INDEX_HEADER_BYTES + MAX_ENTRIES * SLOT_BYTES; i += 8) index.putLong(i, 0);
+                index.putInt(0, INDEX_MAGIC);
+                index.putInt(4, 1);
+            }
+            // Pushed high to low so the lowest slots are used first
+            List<Integer> used = new ArrayList<>();
+            for (int slot = MAX_ENTRIES - 1; slot >= 0; slot--) {
+                if (index.getLong(slotOffset(slot)) == 0) {
+                    freeSlots[freeCount++] = slot;
+                } else {
+                    used.add(slot);
+                }
+            }
+            // Restore the read order once; from here on lookups keep it
+            Collections.sort(used, (a, b) -> Long.compare(
+                    index.getLong(slotOffset(a) + 8), index.getLong(slotOffset(b) + 8)));
+            for (int slot : used) {
+                slotByKey.put(index.getLong(slotOffset(slot)), slot);
+                totalBytes += index.getInt(slotOffset(slot) + 24);
+            }
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to open tile index, caching disabled", e);
+            index = null;
+        }
+    }
+
+    private static int slotOffset(int slot) {
+        return INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private synchronized boolean contains(long key) {
+        return slotByKey.containsKey(key);
+    }
+
+    private byte[] readCached(long key, long[] fetchedAt) {
+        int slot;
+        byte[] tile;
+        synchronized (this) {
+            Integer found = index != null ? slotByKey.get(key) : null;
+            if (found == null) {
+                misses++;
+                return null;
+            }
+            slot = found;
+            tile = new byte[index.getInt(slotOffset(slot) + 24)];
+            index.putLong(slotOffset(slot) + 8, System.currentTimeMillis());
+            fetchedAt[0] = index.getLong(slotOffset(slot) + 16);
+        }
+
+        File file = tileFile(key);
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < tile.length) {
+                int n = in.read(tile, read, tile.length - read);
+                if (n < 0) throw new IOException("Truncated tile " + file.getName());
+                read += n;
+            }
+        } catch (IOException e) {
+            File unreadable = null;
+            synchronized (this) {
+                // The tile may have been evicted or replaced while it was read
+                Integer current = index != null ? slotByKey.get(key) : null;
+                if (current != null && current == slot) {
+                    Log.w("NavIC", "Dropping unreadable tile " + file.getName());
+                    unreadable = free(slot, key);
+                }
+                misses++;
+            }
+            delete(unreadable);
+            return null;
+        }
+        synchronized (this) {
+            hits++;
+        }
+        return tile;
+    }
+
+    private void store(long key, byte[] tile) {
+        File file = tileFile(key);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(tile);
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to write tile " + file.getName(), e);
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            if (temp.exists() && !temp.delete()) Log.w("NavIC", "Could not delete " + temp.getName());
+            return;
+        }
+
+        File evicted = null;
+        synchronized (this) {
+            if (index == null) return;
+            Integer slot = slotByKey.get(key);
+            if (slot == null) {
+                if (freeCount == 0) evicted = evictOldest();
+                slot = freeSlots[--freeCount];
+                slotByKey.put(key, slot);
+            } else {
+                totalBytes -= index.getInt(slotOffset(slot) + 24);
+            }
+            long now = System.currentTimeMillis();
+            int offset = slotOffset(slot);
+            index.putLong(offset, key);
+            index.putLong(offset + 8, now);
+            index.putLong(offset + 16, now);
+            index.putInt(offset + 24, tile.length);
+            totalBytes += tile.length;
+            fetched++;
+        }
+        delete(evicted);
+        trimToBudget();
+    }
+
+    /** Release a slot under the lock; the caller deletes the returned body once it has let go */
+    private File free(int slot, long key) {
+        totalBytes -= index.getInt(slotOffset(slot) + 24);
+        index.putLong(slotOffset(slot), 0);
+        slotByKey.remove(key);
+        freeSlots[freeCount++] = slot;
+        return tileFile(key);
+    }
+
+    private static void delete(File file) {
+        if (file != null && !file.delete()) {
+            Log.w("NavIC", "Could not delete tile " + file.getName());
+        }
+    }
+
+    private File evictOldest() {
+        if (slotByKey.isEmpty()) return null;
+        Map.Entry<Long, Integer> oldest = slotByKey.entrySet().iterator().next();
+        evictions++;
+        return free(oldest.getValue(), oldest.getKey());
+    }
+
+    private void trimToBudget() {
+        long budget;
+        synchronized (config) {
+            budget = config.budgetBytes;
+        }
+        List<File> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (index == null || totalBytes <= budget) return;
+            // Trim below the budget so the next few stores do not each evict
+            while (totalBytes > budget * 9 / 10 && !slotByKey.isEmpty()) evicted.add(evictOldest());
+        }
+        for (File file : evicted) delete(file);
+    }
+
+    // =============== SOURCES ===============
+
+    private static final class UrlTileSource implements TileSource {
+        private final String template;
+        private final Config config;
+
+        UrlTileSource(String template, Config config) {
+            this.template = template;
+            this.config = config;
+        }
+
+        @Override
+        public byte[] fetch(int z, int x, int y) throws IOException {
+            URL url = new URL(template.replace("{z}", Integer.toString(z))
+                    .replace("{x}", Integer.toString(x)).replace("{y}", Integer.toString(y)));
+            int timeoutMs;
+            synchronized (config) {
+                timeoutMs = config.timeoutMs;
+            }
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            try {
+                connection.setConnectTimeout(timeoutMs);
+                connection.setReadTimeout(timeoutMs);
+                connection.setRequestProperty("User-Agent", USER_AGENT);
+                int status = connection.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) throw new IOException("HTTP " + status);
+                try (InputStream in = connection.getInputStream()) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(
+                            Math.max(1024, connection.getContentLength()));
+                    byte[] buffer = new byte[8192];
+                    for (int n; (n = in.read(buffer)) > 0; ) out.write(buffer, 0, n);
+                    return out.toByteArray();
+                }
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Stand-in source drawn on the device: a labelled grid tile per z/x/y.
+     * Lets the map and the cache run with no network, e.g. in tests.
+     */
+    private static final class LocalTileSource implements TileSource {
+        @Override
+        public byte[] fetch(int z, int x, int y) {
+            Bitmap bitmap = Bitmap.createBitmap(256, 256, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawColor(((x + y) & 1) == 0 ? Color.rgb(236, 240, 241) : Color.rgb(220, 226, 230));
+
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(Color.rgb(149, 165, 166));
+            paint.setStyle(Paint.Style.STROKE);
+            canvas.drawRect(0, 0, 255, 255, paint);
+            paint.setStyle(Paint.Style.FILL);
+            paint.setTextSize(22);
+            canvas.drawText(z + "/" + x + "/" + y, 12, 36, paint);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            bitmap.recycle();
+            return out.toByteArray();
+        }
+    }
+
+    // =============== LIFECYCLE & STATS ===============
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (config) {
+            stats.put("config", config.toMap());
+        }
+        stats.put("tiles", slotByKey.size());
+        stats.put("maxTiles", MAX_ENTRIES);
+        stats.put("bytes", totalBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses > 0 ? hits / (double) (hits + misses) : 0.0);
+        stats.put("fetched", fetched);
+        stats.put("fetchFailures", fetchFailures);
+        stats.put("offlineMisses", offlineMisses);
+        stats.put("evictions", evictions);
+        stats.put("prefetchQueued", prefetchQueued);
+        stats.put("pendingFetches", pendingFetches.size());
+        return stats;
+    }
+
+    void close() {
+        interactive.shutdownNow();
+        prefetcher.shutdownNow();
+        synchronized (this) {
+            if (index != null) index.force();
+            try {
+                if (indexFile != null) indexFile.close();
+            } catch (IOException e) {
+                Log.w("NavIC", "Error closing tile index", e);
+            }
+            index = null;
+        }
+    }
+
+    private static long longArg(Map<?, ?> args, String key, long fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+
+    private static double doubleArg(Map<?, ?> args, String key, double fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.navic;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Table-driven dispatcher for the navic_support method channel.
+ *
+ * The channel delivers calls on a serial background TaskQueue, so lookup and
+ * argument decoding never touch the platform thread. Each route declares
+ * whether it needs location permission, whether it may run off the main
+ * thread and whether a successful answer may be reused (see ResponseCache).
+ * Main-thread routes are posted to the main looper in arrival order; the
+ * others run on a small worker pool and their replies are posted back to the
+ * main thread.
+ */
+final class MethodRouter implements MethodChannel.MethodCallHandler {
+    static final int NEEDS_PERMISSION = 1;
+    /** Reads only thread-safe state: registry epochs, synchronized stores, Build */
+    static final int OFF_MAIN = 1 << 1;
+    /** Answer depends only on the registry epoch; reused until the next publish */
+    static final int EPOCH_CACHED = 1 << 2;
+
+    private static final int WORKERS = 2;
+
+    interface CallHandler {
+        void handle(MethodCall call, MethodChannel.Result result);
+    }
+
+    interface PermissionCheck {
+        boolean granted();
+    }
+
+    private static final class Route {
+        final String method;
+        final int flags;
+        final long cacheTtlMs;
+        final CallHandler handler;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong platformNanos = new AtomicLong();
+        final AtomicLong workerNanos = new AtomicLong();
+
+        Route(String method, int flags, long cacheTtlMs, CallHandler handler) {
+            this.method = method;
+            this.flags = flags;
+            this.cacheTtlMs = cacheTtlMs;
+            this.handler = handler;
+        }
+
+        boolean offMain() {
+            return (flags & OFF_MAIN) != 0;
+        }
+
+        boolean epochCached() {
+            return (flags & EPOCH_CACHED) != 0;
+        }
+
+        boolean needsPermission() {
+            return (flags & NEEDS_PERMISSION) != 0;
+        }
+    }
+
+    private final Handler mainHandler;
+    private final PermissionCheck permissions;
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+    // Written while registering, before the channel is attached; read-only afterwards
+    private final Map<String, Route> routes = new HashMap<>();
+    private final ResponseCache cache;
+
+    private final AtomicLong unknownCalls = new AtomicLong();
+
+    MethodRouter(Handler mainHandler, PermissionCheck permissions, ResponseCache cache) {
+        this.mainHandler = mainHandler;
+        this.permissions = permissions;
+        this.cache = cache;
+    }
+
+    void register(String method, int flags, CallHandler handler) {
+        register(method, flags, 0, handler);
+    }
+
+    /**
+     * @param cacheTtlMs reuse a success for calls without arguments for this long, 0 to always run
+     */
+    void register(String method, int flags, long cacheTtlMs, CallHandler handler) {
+        if (routes.put(method, new Route(method, flags, cacheTtlMs, handler)) != null) {
+            throw new IllegalStateException("Duplicate route " + method);
+        }
+    }
+
+    // =============== DISPATCH ===============
+
+    @Override
+    public void onMethodCall(MethodCall call, MethodChannel.Result result) {
+        Route route = routes.get(call.method);
+        if (route == null) {
+            unknownCalls.incrementAndGet();
+            Log.w("NavIC", "Unknown method: " + call.method);
+            mainHandler.post(result::notImplemented);
+            return;
+        }
+        route.calls.incrementAndGet();
+
+        // Calls with arguments are never cached; a denied permission falls through to the error reply
+        boolean cacheable = call.arguments == null && (route.epochCached() || route.cacheTtlMs > 0)
+                && (!route.needsPermission() || permissions.granted());
+        long epoch = ResponseCache.NO_EPOCH;
+        // Before the epoch: an invalidation after this point voids whatever the handler builds
+        long generation = cache.generation();
+        if (cacheable) {
+            Object cached;
+            if (route.epochCached()) {
+                epoch = cache.currentEpoch();
+                cached = cache.getForEpoch(route.method, epoch);
+            } else {
+                cached = cache.getUnexpired(route.method);
+            }
+            if (cached != null) {
+                mainHandler.post(() -> result.success(cached));
+                return;
+            }
+        }
+
+        MethodChannel.Result reply = new MainThreadResult(route, result, cacheable, epoch, generation);
+        if (route.offMain()) {
+            workers.execute(() -> run(route, call, reply));
+        } else {
+            mainHandler.post(() -> run(route, call, reply));
+        }
+    }
+
+    private void run(Route route, MethodCall call, MethodChannel.Result reply) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        try {
+            if (route.needsPermission() && !permissions.granted()) {
+                reply.error("PERMISSION_DENIED", "Location permissions required", null);
+                return;
+            }
+            route.handler.handle(call, reply);
+        } catch (Exception e) {
+            // Handlers report their own failures; this only catches what escaped them
+            route.failures.incrementAndGet();
+            Log.e("NavIC", "Unhandled error in " + route.method, e);
+            reply.error("INTERNAL_ERROR", "Failed to handle " + route.method, null);
+        } finally {
+            long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+            (route.offMain() ? route.workerNanos : route.platformNanos).addAndGet(elapsed);
+        }
+    }
+
+    /** Replies on the main thread and remembers cacheable successes */
+    private final class MainThreadResult implements MethodChannel.Result {
+        private final Route route;
+        private final MethodChannel.Result delegate;
+        private final boolean cacheable;
+        /** Epoch read before the handler ran; its snapshot is at least this new */
+        private final long epoch;
+        /** Cache generation read before the handler ran */
+        private final long generation;
+
+        MainThreadResult(Route route, MethodChannel.Result delegate, boolean cacheable, long epoch, long generation) {
+            this.route = route;
+            this.delegate = delegate;
+            this.cacheable = cacheable;
+            this.epoch = epoch;
+            this.generation = generation;
+        }
+
+        @Override
+        public void success(Object value) {
+            if (cacheable && route.epochCached()) {
+                cache.putForEpoch(route.method, epoch, generation, value);
+            } else if (cacheable) {
+                cache.putWithTtl(route.method, route.cacheTtlMs, generation, value);
+            }
+            post(() -> delegate.success(value));
+        }
+
+        @Override
+        public void error(String code, String message, Object details) {
+            post(() -> delegate.error(code, message, details));
+        }
+
+        @Override
+        public void notImplemented() {
+            post(delegate::notImplemented);
+        }
+
+        private void post(Runnable reply) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                reply.run();
+            } else {
+                mainHandler.post(reply);
+            }
+        }
+    }
+
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // =============== STATS ===============
+
+    Map<String, Object> stats() {
+        long calls = 0, mainCalls = 0, platformNanos = 0, workerNanos = 0;
+        List<Map<String, Object>> perMethod = new ArrayList<>();
+        for (Route route : routes.values()) {
+            long n = route.calls.get();
+            if (n == 0) continue;
+            calls += n;
+            if (!route.offMain()) mainCalls += n;
+            platformNanos += route.platformNanos.get();
+            workerNanos += route.workerNanos.get();
+
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("method", route.method);
+            entry.put("calls", n);
+            entry.put("failures", route.failures.get());
+            entry.put("offMain", route.offMain());
+            entry.put("needsPermission", route.needsPermission());
+            entry.put("epochCached", route.epochCached());
+            entry.put("cacheTtlMs", route.cacheTtlMs);
+            entry.put("platformMicros", route.platformNanos.get() / 1000);
+            entry.put("workerMicros", route.workerNanos.get() / 1000);
+            perMethod.add(entry);
+        }
+        Collections.sort(perMethod, (a, b) -> Long.compare((Long) b.get("calls"), (Long) a.get("calls")));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("routes", routes.size());
+        stats.put("calls", calls);
+        stats.put("mainThreadCalls", mainCalls);
+        stats.put("unknownCalls", unknownCalls.get());
+        stats.put("platformMicrosPerCall", calls > 0 ? platformNanos / 1000.0 / calls : 0.0);
+        stats.put("workerMicros", workerNanos / 1000);
+        stats.put("methods", perMethod);
+        return stats;
+    }
+}
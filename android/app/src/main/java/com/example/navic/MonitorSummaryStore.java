@@ -0,0 +1,173 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only file of fixed-size monitor window summaries.
+ *
+ * One record per duty-cycle window, 48 bytes, little-endian. When the file
+ * passes MAX_RECORDS it is compacted to the newest half, so a full shift of
+ * five-minute windows costs a few kilobytes.
+ */
+final class MonitorSummaryStore {
+    static final int RECORD_BYTES = 48;
+    private static final int MAX_RECORDS = 4096;
+
+    static final int FLAG_HAS_FIX = 1;
+    static final int FLAG_L5_SEEN = 1 << 1;
+    static final int FLAG_MOVING = 1 << 2;
+
+    /** One duty-cycle window */
+    static final class Summary {
+        long startMs;
+        int durationMs;
+        int ticks;
+        int navicMax;
+        float navicAverage;
+        int navicUsedMax;
+        float navicCn0Average;
+        int totalSatellitesMax;
+        int flags;
+        double latitude;
+        double longitude;
+        float accuracyM;
+        int nextOffMs;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("startTime", startMs);
+            map.put("durationMs", durationMs);
+            map.put("ticks", ticks);
+            map.put("navicMax", navicMax);
+            map.put("navicAverage", (double) navicAverage);
+            map.put("navicUsedMax", navicUsedMax);
+            map.put("navicCn0Average", (double) navicCn0Average);
+            map.put("totalSatellitesMax", totalSatellitesMax);
+            map.put("navicAvailable", navicMax > 0);
+            map.put("hasFix", (flags & FLAG_HAS_FIX) != 0);
+            map.put("l5Seen", (flags & FLAG_L5_SEEN) != 0);
+            map.put("moving", (flags & FLAG_MOVING) != 0);
+            if ((flags & FLAG_HAS_FIX) != 0) {
+                map.put("latitude", latitude);
+                map.put("longitude", longitude);
+                map.put("accuracy", (double) accuracyM);
+            }
+            map.put("nextOffMs", nextOffMs);
+            return map;
+        }
+    }
+
+    private static MonitorSummaryStore instance;
+
+    private final File file;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    /** One instance per process, so the service and the Activity share its lock */
+    static synchronized MonitorSummaryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new MonitorSummaryStore(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    private MonitorSummaryStore(File directory) {
+        File dir = new File(directory, "navic_monitor");
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w("NavIC", "Could not create monitor directory " + dir);
+        }
+        this.file = new File(dir, "summaries.bin");
+    }
+
+    synchronized void append(Summary s) {
+        record.clear();
+        record.putLong(s.startMs)
+                .putInt(s.durationMs)
+                .putShort((short) Math.min(s.ticks, Short.MAX_VALUE))
+                .put((byte) s.navicMax)
+                .put((byte) s.navicUsedMax)
+                .putShort((short) Math.round(s.navicAverage * 100))
+                .putShort((short) Math.round(s.navicCn0Average * 10))
+                .put((byte) s.totalSatellitesMax)
+                .put((byte) s.flags)
+                .putInt((int) Math.round(s.latitude * 1e7))
+                .putInt((int) Math.round(s.longitude * 1e7))
+                .putFloat(s.accuracyM)
+                .putInt(s.nextOffMs);
+        // Pad to the fixed record size
+        while (record.position() < RECORD_BYTES) record.put((byte) 0);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - raf.length() % RECORD_BYTES);
+            raf.write(record.array(), 0, RECORD_BYTES);
+            if (raf.length() / RECORD_BYTES > MAX_RECORDS) {
+                compact(raf);
+            }
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to append monitor summary", e);
+        }
+    }
+
+    private void compact(RandomAccessFile raf) throws IOException {
+        long keep = MAX_RECORDS / 2;
+        long count = raf.length() / RECORD_BYTES;
+        byte[] tail = new byte[(int) (keep * RECORD_BYTES)];
+        raf.seek((count - keep) * RECORD_BYTES);
+        raf.readFully(tail);
+        raf.seek(0);
+        raf.write(tail);
+        raf.setLength(tail.length);
+    }
+
+    /** Newest first, at most limit records */
+    synchronized List<Summary> readRecent(int limit) {
+        List<Summary> summaries = new ArrayList<>();
+        if (limit <= 0 || !file.exists()) return summaries;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long count = raf.length() / RECORD_BYTES;
+            long first = Math.max(0, count - limit);
+            int n = (int) (count - first);
+            byte[] bytes = new byte[n * RECORD_BYTES];
+            raf.seek(first * RECORD_BYTES);
+            raf.readFully(bytes);
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = n - 1; i >= 0; i--) {
+                buffer.position(i * RECORD_BYTES);
+                Summary s = new Summary();
+                s.startMs = buffer.getLong();
+                s.durationMs = buffer.getInt();
+                s.ticks = buffer.getShort();
+                s.navicMax = buffer.get() & 0xFF;
+                s.navicUsedMax = buffer.get() & 0xFF;
+                s.navicAverage = buffer.getShort() / 100f;
+                s.navicCn0Average = buffer.getShort() / 10f;
+                s.totalSatellitesMax = buffer.get() & 0xFF;
+                s.flags = buffer.get() & 0xFF;
+                s.latitude = buffer.getInt() / 1e7;
+                s.longitude = buffer.getInt() / 1e7;
+                s.accuracyM = buffer.getFloat();
+                s.nextOffMs = buffer.getInt();
+                summaries.add(s);
+            }
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to read monitor summaries", e);
+        }
+        return summaries;
+    }
+
+    synchronized long recordCount() {
+        return file.exists() ? file.length() / RECORD_BYTES : 0;
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.navic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequential probability ratio test (SPRT) deciding whether NavIC is receivable.
+ *
+ * Every GnssStatus tick is reduced to a {@link TickEvidence} and turned into a
+ * log-likelihood ratio between H1 (NavIC present) and H0 (NavIC absent). The
+ * running sum is compared against Wald's bounds derived from the configured
+ * false-positive (alpha) and false-negative (beta) rates, so the test stops as
+ * soon as the evidence allows in either direction.
+ *
+ * A tick without IRNSS satellites only counts against NavIC once the receiver
+ * is tracking other constellations; during cold start a miss carries almost no
+ * information and the ratio stays near zero.
+ *
+ * The legacy rules (3 consecutive ticks, strong-signal shortcut, 10 s early
+ * check, 30 s timeout) are evaluated in shadow so every session reports both
+ * decision times.
+ */
+final class NavicSequentialDetector {
+
+    enum Decision { CONTINUE, NAVIC_PRESENT, NAVIC_ABSENT }
+
+    // Legacy rule parameters, kept here so the shadow evaluation matches the old behaviour
+    static final int LEGACY_REQUIRED_CONSECUTIVE_DETECTIONS = 3;
+    static final long LEGACY_EARLY_SUCCESS_DELAY_MS = 10000L;
+
+    private final Config config;
+    private final double upperBound;
+    private final double lowerBound;
+    private final List<TickEvidence> trace = new ArrayList<>();
+
+    private double logLikelihoodRatio = 0.0;
+    private int ticks = 0;
+    private Decision decision = Decision.CONTINUE;
+    private long decisionTimeMs = -1;
+    private boolean truncated = false;
+
+    // Shadow state for the legacy rules
+    private int legacyConsecutive = 0;
+    private boolean legacyDecided = false;
+    private boolean legacyDetected = false;
+    private long legacyDecisionTimeMs = -1;
+
+    NavicSequentialDetector(Config config) {
+        this.config = config;
+        this.upperBound = Math.log((1.0 - config.falseNegativeRate) / config.falsePositiveRate);
+        this.lowerBound = Math.log(config.falseNegativeRate / (1.0 - config.falsePositiveRate));
+    }
+
+    /**
+     * Feed one tick of evidence. Returns the current decision; once a terminal
+     * decision is reached further ticks only update the legacy shadow.
+     */
+    Decision update(TickEvidence evidence) {
+        trace.add(evidence);
+        updateLegacy(evidence);
+
+        if (decision != Decision.CONTINUE) {
+            return decision;
+        }
+
+        ticks++;
+        logLikelihoodRatio += tickLogLikelihoodRatio(evidence);
+
+        if (logLikelihoodRatio >= upperBound) {
+            decision = Decision.NAVIC_PRESENT;
+            decisionTimeMs = evidence.elapsedMs;
+        } else if (logLikelihoodRatio <= lowerBound) {
+            decision = Decision.NAVIC_ABSENT;
+            decisionTimeMs = evidence.elapsedMs;
+        }
+        return decision;
+    }
+
+    /**
+     * Force a decision when the detection window runs out. The sign of the
+     * accumulated ratio decides; no evidence at all means absent.
+     */
+    Decision truncate(long elapsedMs) {
+        if (decision == Decision.CONTINUE) {
+            decision = logLikelihoodRatio > 0 ? Decision.NAVIC_PRESENT : Decision.NAVIC_ABSENT;
+            decisionTimeMs = elapsedMs;
+            truncated = true;
+        }
+        if (!legacyDecided) {
+            legacyDecided = true;
+            legacyDetected = legacyMaxNavicCount() > 0;
+            legacyDecisionTimeMs = elapsedMs;
+        }
+        return decision;
+    }
+
+    double tickLogLikelihoodRatio(TickEvidence e) {
+        double llr;
+        if (e.irnssCount > 0) {
+            llr = Math.log(config.maxTrackProbability / config.spuriousTrackProbability);
+
+            // Additional IRNSS satellites beyond the first
+            llr += (e.irnssCount - 1) * config.extraSvLlr;
+
+            // Gaussian C/N0 model: genuine signals centre higher than spurious reports
+            double sigma2 = 2.0 * config.cn0Sigma * config.cn0Sigma;
+            double d0 = e.irnssMeanCn0 - config.absentMeanCn0;
+            double d1 = e.irnssMeanCn0 - config.presentMeanCn0;
+            llr += (d0 * d0 - d1 * d1) / sigma2;
+
+            // A spurious IRNSS report is never used in a fix or carries decoded navigation data
+            if (e.irnssUsedInFix > 0) llr += config.usedInFixLlr;
+            if (e.irnssWithEphemeris > 0) {
+                llr += config.ephemerisLlr;
+            } else if (e.irnssWithAlmanac > 0) {
+                llr += config.almanacLlr;
+            }
+        } else {
+            // An absent IRNSS track says little when the sky towards the NavIC arc is known to be blocked
+            double readiness = Math.min(1.0, e.otherSvsWithSignal / (double) config.warmReceiverSvCount)
+                    * Math.max(0.0, Math.min(1.0, e.navicSkyOpenness));
+            double p1 = config.spuriousTrackProbability +
+                    (config.maxTrackProbability - config.spuriousTrackProbability) * readiness;
+            llr = Math.log((1.0 - p1) / (1.0 - config.spuriousTrackProbability));
+        }
+        return Math.max(-config.maxTickLlr, Math.min(config.maxTickLlr, llr));
+    }
+
+    private void updateLegacy(TickEvidence e) {
+        if (legacyDecided) return;
+
+        if (e.irnssCount >= 1) {
+            legacyConsecutive++;
+            if ((e.irnssCount >= 3 && e.irnssMeanCn0 > 28.0f) ||
+                    legacyConsecutive >= LEGACY_REQUIRED_CONSECUTIVE_DETECTIONS) {
+                legacyDecided = true;
+                legacyDetected = true;
+                legacyDecisionTimeMs = e.elapsedMs;
+                return;
+            }
+        } else {
+            legacyConsecutive = 0;
+        }
+
+        if (e.elapsedMs >= LEGACY_EARLY_SUCCESS_DELAY_MS && e.irnssCount >= 2 && e.irnssMeanCn0 > 25.0f) {
+            legacyDecided = true;
+            legacyDetected = true;
+            legacyDecisionTimeMs = Math.max(e.elapsedMs, LEGACY_EARLY_SUCCESS_DELAY_MS);
+        }
+    }
+
+    private int legacyMaxNavicCount() {
+        int maxCount = 0;
+        for (TickEvidence e : trace) {
+            maxCount = Math.max(maxCount, e.irnssCount);
+        }
+        return maxCount;
+    }
+
+    boolean isLegacyDecided() {
+        return legacyDecided;
+    }
+
+    Decision getDecision() {
+        return decision;
+    }
+
+    List<TickEvidence> getTrace() {
+        return trace;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("method", truncated ? "SPRT_TRUNCATED" : "SPRT");
+        map.put("decision", decision.name());
+        map.put("logLikelihoodRatio", logLikelihoodRatio);
+        map.put("upperBound", upperBound);
+        map.put("lowerBound", lowerBound);
+        map.put("ticks", ticks);
+        map.put("decisionTimeMs", decisionTimeMs);
+        map.put("legacyDecided", legacyDecided);
+        map.put("legacyDetected", legacyDetected);
+        map.put("legacyDecisionTimeMs", legacyDecisionTimeMs);
+        map.put("config", config.toMap());
+        return map;
+    }
+
+    /**
+     * Replay recorded sessions through both the SPRT and the legacy rules and
+     * compare mean time-to-decision. Live sessions keep recording after the SPRT
+     * decides until the legacy rules decide too or the window ends; a trace that
+     * still stops early (detection stopped, older recordings) is marked censored
+     * and left out of the legacy mean. Every session is judged against its own
+     * window, so one sized for a sky without NavIC is not counted as cut short.
+     */
+    static Map<String, Object> evaluateSessions(Config config, List<RecordedSession> sessions) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        long sprtTotalMs = 0;
+        long legacyTotalMs = 0;
+        int legacyDecidedCount = 0;
+        int agreements = 0;
+        int sprtPresent = 0;
+        int legacyPresent = 0;
+
+        for (RecordedSession session : sessions) {
+            long timeoutMs = session.timeoutMs;
+            NavicSequentialDetector detector = new NavicSequentialDetector(config);
+            long lastElapsed = 0;
+            for (TickEvidence tick : session.ticks) {
+                if (tick.elapsedMs >= timeoutMs) break;
+                detector.update(tick);
+                lastElapsed = tick.elapsedMs;
+                if (detector.decision != Decision.CONTINUE && detector.legacyDecided) break;
+            }
+            boolean legacyCensored = !detector.legacyDecided && lastElapsed < timeoutMs - 1000L;
+            detector.truncate(timeoutMs);
+
+            boolean sprtDetected = detector.decision == Decision.NAVIC_PRESENT;
+            sprtTotalMs += detector.decisionTimeMs;
+            if (!legacyCensored) {
+                legacyTotalMs += detector.legacyDecisionTimeMs;
+                legacyDecidedCount++;
+                if (sprtDetected == detector.legacyDetected) agreements++;
+                if (detector.legacyDetected) legacyPresent++;
+            }
+            if (sprtDetected) sprtPresent++;
+
+            Map<String, Object> sessionResult = detector.toMap();
+            sessionResult.put("legacyCensored", legacyCensored);
+            sessionResult.put("timeoutMs", timeoutMs);
+            results.add(sessionResult);
+        }
+
+        int count = sessions.size();
+        Map<String, Object> report = new HashMap<>();
+        report.put("sessionCount", count);
+        report.put("sprtMeanDecisionMs", count > 0 ? sprtTotalMs / (double) count : 0.0);
+        report.put("legacyMeanDecisionMs", legacyDecidedCount > 0 ? legacyTotalMs / (double) legacyDecidedCount : 0.0);
+        report.put("legacyCensoredCount", count - legacyDecidedCount);
+        report.put("agreements", agreements);
+        report.put("sprtPresentCount", sprtPresent);
+        report.put("legacyPresentCount", legacyPresent);
+        report.put("sessions", results);
+        report.put("config", config.toMap());
+        return report;
+    }
+
+    /** Sessions that all ran with the same window */
+    static Map<String, Object> evaluateSessions(Config config, List<List<TickEvidence>> sessions, long timeoutMs) {
+        List<RecordedSession> recorded = new ArrayList<>();
+        for (List<TickEvidence> ticks : sessions) recorded.add(new RecordedSession(ticks, timeoutMs));
+        return evaluateSessions(config, recorded);
+    }
+
+    // =============== EVIDENCE & CONFIG ===============
+
+    /** A session's trace and the detection window it ran with */
+    static final class RecordedSession {
+        final List<TickEvidence> ticks;
+        final long timeoutMs;
+
+        RecordedSession(List<TickEvidence> ticks, long timeoutMs) {
+            this.ticks = ticks;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    static final class TickEvidence {
+        final long elapsedMs;
+        final int irnssCount;
+        final int irnssUsedInFix;
+        final float irnssMeanCn0;
+        final int irnssWithEphemeris;
+        final int irnssWithAlmanac;
+        final int otherSvsWithSignal;
+        /** Learned clearance of the sky where NavIC SVs should be, 1 when open or unknown */
+        final float navicSkyOpenness;
+
+        TickEvidence(long elapsedMs, int irnssCount, int irnssUsedInFix, float irnssMeanCn0,
+                     int irnssWithEphemeris, int irnssWithAlmanac, int otherSvsWithSignal) {
+            this(elapsedMs, irnssCount, irnssUsedInFix, irnssMeanCn0, irnssWithEphemeris, irnssWithAlmanac,
+                    otherSvsWithSignal, 1.0f);
+        }
+
+        TickEvidence(long elapsedMs, int irnssCount, int irnssUsedInFix, float irnssMeanCn0,
+                     int irnssWithEphemeris, int irnssWithAlmanac, int otherSvsWithSignal,
+                     float navicSkyOpenness) {
+            this.elapsedMs = elapsedMs;
+            this.irnssCount = irnssCount;
+            this.irnssUsedInFix = irnssUsedInFix;
+            this.irnssMeanCn0 = irnssMeanCn0;
+            this.irnssWithEphemeris = irnssWithEphemeris;
+            this.irnssWithAlmanac = irnssWithAlmanac;
+            this.otherSvsWithSignal = otherSvsWithSignal;
+            this.navicSkyOpenness = navicSkyOpenness;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("elapsedMs", elapsedMs);
+            map.put("irnssCount", irnssCount);
+            map.put("irnssUsedInFix", irnssUsedInFix);
+            map.put("irnssMeanCn0", irnssMeanCn0);
+            map.put("irnssWithEphemeris", irnssWithEphemeris);
+            map.put("irnssWithAlmanac", irnssWithAlmanac);
+            map.put("otherSvsWithSignal", otherSvsWithSignal);
+            map.put("navicSkyOpenness", navicSkyOpenness);
+            return map;
+        }
+
+        static TickEvidence fromMap(Map<?, ?> map) {
+            return new TickEvidence(
+                    longValue(map.get("elapsedMs"), 0L),
+                    (int) longValue(map.get("irnssCount"), 0L),
+                    (int) longValue(map.get("irnssUsedInFix"), 0L),
+                    (float) doubleValue(map.get("irnssMeanCn0"), 0.0),
+                    (int) longValue(map.get("irnssWithEphemeris"), 0L),
+                    (int) longValue(map.get("irnssWithAlmanac"), 0L),
+                    (int) longValue(map.get("otherSvsWithSignal"), 0L),
+                    (float) doubleValue(map.get("navicSkyOpenness"), 1.0)
+            );
+        }
+    }
+
+    static final class Config {
+        double falsePositiveRate = 0.01;       // alpha: declare NavIC when it is absent
+        double falseNegativeRate = 0.02;       // beta: declare no NavIC when it is present
+        double maxTrackProbability = 0.35;     // P(IRNSS tracked in a tick | present, receiver warm)
+        double spuriousTrackProbability = 0.02; // P(IRNSS reported in a tick | absent)
+        int warmReceiverSvCount = 8;           // other-constellation SVs that mark a warm receiver
+        float presentMeanCn0 = 30.0f;
+        float absentMeanCn0 = 18.0f;
+        float cn0Sigma = 6.0f;
+        double extraSvLlr = 0.5;
+        double usedInFixLlr = 2.0;
+        double ephemerisLlr = 0.5;
+        double almanacLlr = 0.2;
+        double maxTickLlr = 4.0;               // no single tick may decide on its own
+
+        Config copy() {
+            Config c = new Config();
+            c.falsePositiveRate = falsePositiveRate;
+            c.falseNegativeRate = falseNegativeRate;
+            c.maxTrackProbability = maxTrackProbability;
+            c.spuriousTrackProbability = spuriousTrackProbability;
+            c.warmReceiverSvCount = warmReceiverSvCount;
+            c.presentMeanCn0 = presentMeanCn0;
+            c.absentMeanCn0 = absentMeanCn0;
+            c.cn0Sigma = cn0Sigma;
+            c.extraSvLlr = extraSvLlr;
+            c.usedInFixLlr = usedInFixLlr;
+            c.ephemerisLlr = ephemerisLlr;
+            c.almanacLlr = almanacLlr;
+            c.maxTickLlr = maxTickLlr;
+            return c;
+        }
+
+        /**
+         * Copy of this config with any values present in the channel arguments applied.
+         * Probabilities are clamped to (0, 0.5) so the Wald bounds stay finite and ordered.
+         */
+        Config withArguments(Map<?, ?> args) {
+            Config c = copy();
+            if (args == null) return c;
+            c.falsePositiveRate = clampProbability(doubleValue(args.get("falsePositiveRate"), c.falsePositiveRate));
+            c.falseNegativeRate = clampProbability(doubleValue(args.get("falseNegativeRate"), c.falseNegativeRate));
+            c.maxTrackProbability = Math.max(c.spuriousTrackProbability + 0.01,
+                    Math.min(0.99, doubleValue(args.get("maxTrackProbability"), c.maxTrackProbability)));
+            c.warmReceiverSvCount = (int) Math.max(1, longValue(args.get("warmReceiverSvCount"), c.warmReceiverSvCount));
+            c.maxTickLlr = Math.max(0.5, doubleValue(args.get("maxTickLlr"), c.maxTickLlr));
+            return c;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("falsePositiveRate", falsePositiveRate);
+            map.put("falseNegativeRate", falseNegativeRate);
+            map.put("maxTrackProbability", maxTrackProbability);
+            map.put("spuriousTrackProbability", spuriousTrackProbability);
+            map.put("warmReceiverSvCount", warmReceiverSvCount);
+            map.put("maxTickLlr", maxTickLlr);
+            return map;
+        }
+
+        private static double clampProbability(double p) {
+            return Math.max(1e-6, Math.min(0.49, p));
+        }
+    }
+
+    static long longValue(Object value, long fallback) {
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+
+    static double doubleValue(Object value, double fallback) {
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Learned sky obstruction per coarse location cell.
+ *
+ * The sky above each cell is split into elevation/azimuth bins. For every SV
+ * reported in a bin the map tracks how often it was blocked (listed without
+ * signal) and how far its C/N0 fell below the open-sky reference for its
+ * elevation; both are running averages, so an update costs a few float
+ * operations. The reference itself is an upper-quantile tracker per
+ * elevation band shared by all cells.
+ *
+ * Cells in use live in an access-ordered LinkedHashMap capped at
+ * MAX_MEMORY_CELLS; the least recently used one is written back to a
+ * fixed-record file when evicted, and the file keeps the MAX_DISK_CELLS most
+ * recently updated cells. Records are encoded under the lock and written by a
+ * single background thread, so observing on the main thread never waits for
+ * the disk; a cell reloaded before its write lands is decoded from the
+ * pending record instead of the file.
+ */
+final class ObstructionMap {
+    static final int AZ_BINS = 12;
+    static final int EL_BINS = 6;
+    static final int BINS = AZ_BINS * EL_BINS;
+    private static final double CELL_DEG = 0.005;
+    private static final int MAX_MEMORY_CELLS = 32;
+    private static final int MAX_DISK_CELLS = 2048;
+    private static final int MIN_SAMPLES = 5;
+    private static final long OBSERVE_INTERVAL_MS = 5000;
+    private static final double MIN_ALPHA = 0.05;
+    /** Decay of the clearance per dB of C/N0 deficit */
+    private static final double DEFICIT_SCALE_DB = 10.0;
+
+    private static final int MAGIC = 0x314D424F; // "OBM1"
+    private static final int HEADER_BYTES = 4 + 4 + EL_BINS * 4;
+    private static final int RECORD_BYTES = 8 + 8 + BINS * 2 + BINS * 2 + BINS;
+
+    /** Open-sky C/N0 seeds per 15 degree elevation band */
+    private static final float[] INITIAL_REFERENCE = {32f, 38f, 41f, 43f, 44f, 45f};
+
+    private static final class Cell {
+        final long key;
+        final short[] samples = new short[BINS];
+        final float[] deficitDb = new float[BINS];
+        final float[] blockedRate = new float[BINS];
+        long updatedMs;
+        boolean dirty;
+
+        Cell(long key) {
+            this.key = key;
+        }
+    }
+
+    private static ObstructionMap instance;
+
+    private final File file;
+    private final float[] referenceCn0 = INITIAL_REFERENCE.clone();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    // Encoded records queued on the writer, by cell key
+    private final Map<Long, byte[]> pendingWrites = new HashMap<>();
+    private final LinkedHashMap<Long, Cell> cells = new LinkedHashMap<Long, Cell>(MAX_MEMORY_CELLS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Cell> eldest) {
+            if (size() <= MAX_MEMORY_CELLS) return false;
+            if (eldest.getValue().dirty) write(eldest.getValue());
+            evictions++;
+            return true;
+        }
+    };
+    // Disk slots: key and last update of each record, loaded once
+    private final Map<Long, Integer> slotByKey = new HashMap<>();
+    private long[] slotUpdatedMs = new long[0];
+    private boolean indexLoaded = false;
+    private boolean referenceDirty = false;
+    private long lastObserveMs = Long.MIN_VALUE / 2;
+
+    private long observations = 0;
+    private long memoryHits = 0;
+    private long diskLoads = 0;
+    private long evictions = 0;
+
+    static synchronized ObstructionMap getInstance(Context context) {
+        if (instance == null) {
+            instance = new ObstructionMap(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    private ObstructionMap(File directory) {
+        File dir = new File(directory, "navic_obstruction");
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w("NavIC", "Could not create obstruction directory " + dir);
+        }
+        this.file = new File(dir, "cells.bin");
+    }
+
+    // =============== BINS & CELLS ===============
+
+    static long cellKey(double latitude, double longitude) {
+        long lat = (long) Math.floor((latitude + 90) / CELL_DEG);
+        long lon = (long) Math.floor((longitude + 180) / CELL_DEG);
+        return (lat << 32) | lon;
+    }
+
+    static int bin(double elevationDeg, double azimuthDeg) {
+        int el = (int) Math.min(EL_BINS - 1, Math.max(0, elevationDeg / (90.0 / EL_BINS)));
+        double az = ((azimuthDeg % 360) + 360) % 360;
+        int a = (int) Math.min(AZ_BINS - 1, az / (360.0 / AZ_BINS));
+        return el * AZ_BINS + a;
+    }
+
+    private Cell cell(long key, boolean create) {
+        Cell cell = cells.get(key);
+        if (cell != null) {
+            memoryHits++;
+            return cell;
+        }
+        cell = read(key);
+        if (cell != null) {
+            diskLoads++;
+        } else if (create) {
+            cell = new Cell(key);
+        } else {
+            return null;
+        }
+        cells.put(key, cell);
+        return cell;
+    }
+
+    // =============== LEARNING ===============
+
+    /** Fold one tick seen at the given position into its cell; rate limited */
+    synchronized void observe(GnssSnapshot snapshot, double latitude, double longitude) {
+        if (snapshot.timestampMs - lastObserveMs < OBSERVE_INTERVAL_MS) return;
+        lastObserveMs = snapshot.timestampMs;
+
+        Cell cell = cell(cellKey(latitude, longitude), true);
+        for (int k = 0; k < snapshot.svCount; k++) {
+            int i = snapshot.svSignal(k);
+            float el = snapshot.elevation(i);
+            float az = snapshot.azimuth(i);
+            // Receivers report 0/0 for SVs whose position they do not know
+            if (el <= 0 && az == 0) continue;
+            if (el < 0) continue;
+
+            int b = bin(el, az);
+            int band = b / AZ_BINS;
+            float cn0 = snapshot.cn0DbHz(i);
+            if (cn0 > 0) {
+                float ref = referenceCn0[band];
+                referenceCn0[band] += (cn0 > ref ? 0.05f : 0.005f) * (cn0 - ref);
+                referenceDirty = true;
+            }
+
+            int n = Math.min(Short.MAX_VALUE, cell.samples[b] + 1);
+            cell.samples[b] = (short) n;
+            float alpha = (float) Math.max(MIN_ALPHA, 1.0 / n);
+            cell.blockedRate[b] += alpha * ((cn0 > 0 ? 0f : 1f) - cell.blockedRate[b]);
+            if (cn0 > 0) {
+                float deficit = Math.max(0f, referenceCn0[band] - cn0);
+                cell.deficitDb[b] += alpha * (deficit - cell.deficitDb[b]);
+            }
+        }
+        cell.updatedMs = snapshot.timestampMs;
+        cell.dirty = true;
+        observations++;
+    }
+
+    /**
+     * How open a direction is from the given position: 1 for clear sky or an
+     * unknown bin, towards 0 for bins where SVs are blocked or heavily attenuated
+     */
+    synchronized double clearance(double latitude, double longitude, double elevationDeg, double azimuthDeg) {
+        Cell cell = cell(cellKey(latitude, longitude), false);
+        return cell != null ? clearance(cell, bin(elevationDeg, azimuthDeg)) : 1.0;
+    }
+
+    synchronized boolean isKnown(double latitude, double longitude) {
+        return cell(cellKey(latitude, longitude), false) != null;
+    }
+
+    private static double clearance(Cell cell, int b) {
+        if (cell.samples[b] < MIN_SAMPLES) return 1.0;
+        return (1.0 - cell.blockedRate[b]) * Math.exp(-cell.deficitDb[b] / DEFICIT_SCALE_DB);
+    }
+
+    // =============== PERSISTENCE ===============
+
+    private void loadIndex() {
+        if (indexLoaded) return;
+        indexLoaded = true;
+        if (!file.exists()) return;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() < HEADER_BYTES) return;
+            byte[] header = new byte[HEADER_BYTES];
+            raf.readFully(header);
+            ByteBuffer h = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+            if (h.getInt() != MAGIC) {
+                Log.w("NavIC", "Ignoring obstruction file with unknown format");
+                return;
+            }
+            h.getInt();
+            for (int band = 0; band < EL_BINS; band++) referenceCn0[band] = h.getFloat();
+
+            int slots = (int) ((raf.length() - HEADER_BYTES) / RECORD_BYTES);
+            slotUpdatedMs = new long[slots];
+            byte[] keyAndTime = new byte[16];
+            ByteBuffer kt = ByteBuffer.wrap(keyAndTime).order(ByteOrder.LITTLE_ENDIAN);
+            for (int slot = 0; slot < slots; slot++) {
+                raf.seek(HEADER_BYTES + (long) slot * RECORD_BYTES);
+                raf.readFully(keyAndTime);
+                slotByKey.put(kt.getLong(0), slot);
+                slotUpdatedMs[slot] = kt.getLong(8);
+            }
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to load obstruction index", e);
+        }
+    }
+
+    private Cell read(long key) {
+        loadIndex();
+        byte[] pending = pendingWrites.get(key);
+        if (pending != null) return decode(ByteBuffer.wrap(pending).order(ByteOrder.LITTLE_ENDIAN));
+        Integer slot = slotByKey.get(key);
+        if (slot == null) return null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(HEADER_BYTES + (long) slot * RECORD_BYTES);
+            raf.readFully(record.array(), 0, RECORD_BYTES);
+            record.clear();
+            return decode(record);
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to read obstruction cell", e);
+            return null;
+        }
+    }
+
+    private static Cell decode(ByteBuffer buffer) {
+        Cell cell = new Cell(buffer.getLong());
+        cell.updatedMs = buffer.getLong();
+        for (int b = 0; b < BINS; b++) cell.samples[b] = buffer.getShort();
+        for (int b = 0; b < BINS; b++) cell.deficitDb[b] = buffer.getShort() / 10f;
+        for (int b = 0; b < BINS; b++) cell.blockedRate[b] = (buffer.get() & 0xFF) / 255f;
+        return cell;
+    }
+
+    /** Assign the cell a disk slot and queue its record on the writer */
+    private void write(Cell cell) {
+        loadIndex();
+        Integer slot = slotByKey.get(cell.key);
+        if (slot == null) {
+            if (slotUpdatedMs.length < MAX_DISK_CELLS) {
+                slot = slotUpdatedMs.length;
+                slotUpdatedMs = Arrays.copyOf(slotUpdatedMs, slot + 1);
+            } else {
+                // Full: reuse the slot updated longest ago
+                slot = 0;
+                for (int s = 1; s < slotUpdatedMs.length; s++) {
+                    if (slotUpdatedMs[s] < slotUpdatedMs[slot]) slot = s;
+                }
+                slotByKey.values().remove(slot);
+            }
+            slotByKey.put(cell.key, slot);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        out.putLong(cell.key).putLong(cell.updatedMs);
+        for (int b = 0; b < BINS; b++) out.putShort(cell.samples[b]);
+        for (int b = 0; b < BINS; b++) out.putShort((short) Math.min(Short.MAX_VALUE, Math.round(cell.deficitDb[b] * 10)));
+        for (int b = 0; b < BINS; b++) out.put((byte) Math.round(cell.blockedRate[b] * 255));
+        byte[] bytes = out.array();
+        byte[] header = referenceDirty ? header() : null;
+        referenceDirty = false;
+
+        slotUpdatedMs[slot] = cell.updatedMs;
+        cell.dirty = false;
+        pendingWrites.put(cell.key, bytes);
+        long key = cell.key;
+        long offset = HEADER_BYTES + (long) slot * RECORD_BYTES;
+        writer.execute(() -> writeRecord(key, offset, bytes, header));
+    }
+
+    /** Runs on the writer thread; touches only the file and pendingWrites */
+    private void writeRecord(long key, long offset, byte[] bytes, byte[] header) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (header == null && raf.length() < HEADER_BYTES) {
+                synchronized (this) {
+                    header = header();
+                }
+            }
+            if (header != null) {
+                raf.seek(0);
+                raf.write(header);
+            }
+            raf.seek(offset);
+            raf.write(bytes);
+        } catch (IOException e) {
+            Log.e("NavIC", "Failed to write obstruction cell", e);
+        }
+        synchronized (this) {
+            pendingWrites.remove(key, bytes);
+        }
+    }
+
+    private byte[] header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(1);
+        for (float ref : referenceCn0) header.putFloat(ref);
+        return header.array();
+    }
+
+    /** Queue every dirty cell that is still in memory on the writer */
+    synchronized void flush() {
+        for (Cell cell : cells.values()) {
+            if (cell.dirty) write(cell);
+        }
+    }
+
+    // =============== REPORTS ===============
+
+    synchronized Map<String, Object> toMap(double latitude, double longitude) {
+        Map<String, Object> map = new HashMap<>();
+        Cell cell = cell(cellKey(latitude, longitude), false);
+        if (cell != null) {
+            List<Map<String, Object>> bins = new ArrayList<>();
+            for (int b = 0; b < BINS; b++) {
+                if (cell.samples[b] == 0) continue;
+                Map<String, Object> bin = new HashMap<>();
+                bin.put("elevationFrom", (b / AZ_BINS) * (90 / EL_BINS));
+                bin.put("azimuthFrom", (b % AZ_BINS) * (360 / AZ_BINS));
+                bin.put("samples", (int) cell.samples[b]);
+                bin.put("deficitDb", (double) cell.deficitDb[b]);
+                bin.put("blockedRate", (double) cell.blockedRate[b]);
+                bin.put("clearance", clearance(cell, b));
+                bins.add(bin);
+            }
+            map.put("bins", bins);
+            map.put("updatedAt", cell.updatedMs);
+        }
+        List<Double> reference = new ArrayList<>();
+        for (float ref : referenceCn0) reference.add((double) ref);
+
+        map.put("known", cell != null);
+        map.put("referenceCn0", reference);
+        map.put("elevationBinDeg", 90 / EL_BINS);
+        map.put("azimuthBinDeg", 360 / AZ_BINS);
+        map.put("cellSizeDeg", CELL_DEG);
+        map.put("stats", stats());
+        return map;
+    }
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cellsInMemory", cells.size());
+        stats.put("cellsOnDisk", slotByKey.size());
+        stats.put("observations", observations);
+        stats.put("memoryHits", memoryHits);
+        stats.put("diskLoads", diskLoads);
+        stats.put("evictions", evictions);
+        stats.put("pendingWrites", pendingWrites.size());
+        return stats;
+    }
+}
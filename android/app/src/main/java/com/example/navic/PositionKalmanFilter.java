@@ -0,0 +1,304 @@
+package com.example.navic;
+
+import android.location.Location;
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constant-velocity Kalman filter over the fused fix stream.
+ *
+ * State is north/east position and velocity in metres around a local
+ * reference point. With a white-acceleration model and one isotropic
+ * measurement variance the two axes never correlate, so each axis is an
+ * independent 2-state filter and the 4x4 covariance is block diagonal. All
+ * state lives in fixed fields: an update allocates nothing.
+ *
+ * Measurement variance is the reported accuracy squared, scaled by the live
+ * constellation quality: more NavIC satellites in the fix and a stronger
+ * average C/N0 tighten it, a weak or learned-obstructed sky widens it.
+ * Main-thread only.
+ */
+final class PositionKalmanFilter {
+    private static final double EARTH_RADIUS_M = 6371008.8;
+    private static final double REFERENCE_CN0 = 30.0;
+    private static final float UNKNOWN_ACCURACY_M = 100.0f;
+    private static final double INITIAL_VELOCITY_VARIANCE = 25.0;
+    private static final double REBASE_DISTANCE_M = 10000.0;
+
+    static final class Config {
+        /** Acceleration noise spectral density, (m/s²)² per second */
+        double accelerationNoise = 1.0;
+        /** A gap longer than this restarts the filter from the next fix */
+        long maxGapMs = 30000;
+        /** Innovations beyond this many sigmas restart the filter */
+        double resetSigmas = 8.0;
+        /** Scale per NavIC satellite used in the fix */
+        double navicWeightPerSatellite = 0.08;
+        double minQualityScale = 0.6;
+        double maxQualityScale = 2.0;
+
+        void applyArguments(Map<?, ?> args) {
+            if (args == null) return;
+            accelerationNoise = Math.max(0.01, doubleArg(args, "accelerationNoise", accelerationNoise));
+            maxGapMs = Math.max(1000, (long) doubleArg(args, "maxGapMs", maxGapMs));
+            resetSigmas = Math.max(3.0, doubleArg(args, "resetSigmas", resetSigmas));
+            navicWeightPerSatellite = Math.max(0, doubleArg(args, "navicWeightPerSatellite", navicWeightPerSatellite));
+            minQualityScale = Math.max(0.1, doubleArg(args, "minQualityScale", minQualityScale));
+            maxQualityScale = Math.max(minQualityScale, doubleArg(args, "maxQualityScale", maxQualityScale));
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("accelerationNoise", accelerationNoise);
+            map.put("maxGapMs", maxGapMs);
+            map.put("resetSigmas", resetSigmas);
+            map.put("navicWeightPerSatellite", navicWeightPerSatellite);
+            map.put("minQualityScale", minQualityScale);
+            map.put("maxQualityScale", maxQualityScale);
+            return map;
+        }
+    }
+
+    private final Config config = new Config();
+
+    // Local tangent plane origin
+    private double refLatRad;
+    private double refLonRad;
+    private double metresPerRadLon;
+
+    // Per axis: position, velocity and the symmetric covariance [pp, pv; pv, vv]
+    private final double[] x = new double[2];
+    private final double[] v = new double[2];
+    private final double[] pp = new double[2];
+    private final double[] pv = new double[2];
+    private final double[] vv = new double[2];
+
+    private boolean initialized = false;
+    private long lastElapsedMs;
+    private double lastQualityScale = 1.0;
+    private double lastInnovationSigmas = 0.0;
+
+    private long updates = 0;
+    private long resets = 0;
+    private long rejectedOutOfOrder = 0;
+
+    void configure(Map<?, ?> args) {
+        config.applyArguments(args);
+    }
+
+    /**
+     * Scale applied to the reported accuracy for the current sky
+     *
+     * @param navicUsed NavIC satellites used in the fix on the latest tick
+     * @param averageCn0 average C/N0 of satellites with a signal, 0 if unknown
+     * @param skyClearance mean learned clearance of the used SVs' sky bins, 1 for open sky
+     */
+    double qualityScale(int navicUsed, double averageCn0, double skyClearance) {
+        double scale = 1.0 / (1.0 + config.navicWeightPerSatellite * navicUsed);
+        if (averageCn0 > 0) {
+            scale *= REFERENCE_CN0 / averageCn0;
+        }
+        // Fixes through obstructed or multipath-prone directions are less trustworthy
+        scale *= 2.0 - Math.max(0.0, Math.min(1.0, skyClearance));
+        return Math.max(config.minQualityScale, Math.min(config.maxQualityScale, scale));
+    }
+
+    /** Feed one fix; returns false when it was older than the filter state */
+    boolean update(Location location, double qualityScale) {
+        long nanos = location.getElapsedRealtimeNanos();
+        return update(nanos > 0 ? nanos / 1_000_000L : SystemClock.elapsedRealtime(),
+                location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : UNKNOWN_ACCURACY_M,
+                location.hasSpeed() ? location.getSpeed() : 0,
+                location.hasBearing() ? location.getBearing() : 0,
+                qualityScale);
+    }
+
+    boolean update(long elapsedMs, double latitude, double longitude, double accuracyM,
+                   double speedMps, double bearingDeg, double qualityScale) {
+        double accuracy = Math.max(1.0, accuracyM);
+        double sigma = accuracy * qualityScale;
+        double r = sigma * sigma;
+        lastQualityScale = qualityScale;
+
+        if (initialized && elapsedMs < lastElapsedMs) {
+            rejectedOutOfOrder++;
+            return false;
+        }
+        if (!initialized || elapsedMs - lastElapsedMs > config.maxGapMs) {
+            start(latitude, longitude, speedMps, bearingDeg, r, elapsedMs);
+            return true;
+        }
+
+        double north = north(latitude);
+        double east = east(longitude);
+        if (Math.abs(north) > REBASE_DISTANCE_M || Math.abs(east) > REBASE_DISTANCE_M) {
+            // Keep the flat-earth approximation local
+            rebase();
+            north = north(latitude);
+            east = east(longitude);
+        }
+
+        double dt = (elapsedMs - lastElapsedMs) / 1000.0;
+        predict(0, dt);
+        predict(1, dt);
+
+        double innovationN = north - x[0];
+        double innovationE = east - x[1];
+        lastInnovationSigmas = Math.max(Math.abs(innovationN) / Math.sqrt(pp[0] + r),
+                Math.abs(innovationE) / Math.sqrt(pp[1] + r));
+        if (lastInnovationSigmas > config.resetSigmas) {
+            start(latitude, longitude, speedMps, bearingDeg, r, elapsedMs);
+            return true;
+        }
+
+        correct(0, innovationN, r);
+        correct(1, innovationE, r);
+        lastElapsedMs = elapsedMs;
+        updates++;
+        return true;
+    }
+
+    private void predict(int axis, double dt) {
+        double q = config.accelerationNoise;
+        x[axis] += v[axis] * dt;
+        // P = F P F' + Q with F = [1 dt; 0 1]
+        double newPp = pp[axis] + 2 * dt * pv[axis] + dt * dt * vv[axis] + q * dt * dt * dt / 3;
+        double newPv = pv[axis] + dt * vv[axis] + q * dt * dt / 2;
+        vv[axis] += q * dt;
+        pp[axis] = newPp;
+        pv[axis] = newPv;
+    }
+
+    private void correct(int axis, double innovation, double r) {
+        double s = pp[axis] + r;
+        double kp = pp[axis] / s;
+        double kv = pv[axis] / s;
+        x[axis] += kp * innovation;
+        v[axis] += kv * innovation;
+        // P = (I - K H) P
+        double newPp = (1 - kp) * pp[axis];
+        double newPv = (1 - kp) * pv[axis];
+        vv[axis] -= kv * pv[axis];
+        pp[axis] = newPp;
+        pv[axis] = newPv;
+    }
+
+    private void start(double latitude, double longitude, double speed, double bearingDeg, double r, long elapsedMs) {
+        setReference(latitude, longitude);
+        double bearingRad = Math.toRadians(bearingDeg);
+        for (int axis = 0; axis < 2; axis++) {
+            x[axis] = 0;
+            v[axis] = speed * (axis == 0 ? Math.cos(bearingRad) : Math.sin(bearingRad));
+            pp[axis] = r;
+            pv[axis] = 0;
+            vv[axis] = INITIAL_VELOCITY_VARIANCE;
+        }
+        if (initialized) resets++;
+        initialized = true;
+        lastElapsedMs = elapsedMs;
+        lastInnovationSigmas = 0;
+        updates++;
+    }
+
+    private void setReference(double latitude, double longitude) {
+        refLatRad = Math.toRadians(latitude);
+        refLonRad = Math.toRadians(longitude);
+        metresPerRadLon = EARTH_RADIUS_M * Math.cos(refLatRad);
+    }
+
+    /** Move the origin to the current estimate; covariance is unchanged */
+    private void rebase() {
+        setReference(latitude(), longitude());
+        x[0] = 0;
+        x[1] = 0;
+    }
+
+    private double north(double latitude) {
+        return (Math.toRadians(latitude) - refLatRad) * EARTH_RADIUS_M;
+    }
+
+    private double east(double longitude) {
+        double dLon = Math.toRadians(longitude) - refLonRad;
+        if (dLon > Math.PI) dLon -= 2 * Math.PI;
+        if (dLon < -Math.PI) dLon += 2 * Math.PI;
+        return dLon * metresPerRadLon;
+    }
+
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    double latitude() {
+        return Math.toDegrees(refLatRad + x[0] / EARTH_RADIUS_M);
+    }
+
+    double longitude() {
+        double lon = Math.toDegrees(refLonRad + (metresPerRadLon > 0 ? x[1] / metresPerRadLon : 0));
+        return lon > 180 ? lon - 360 : lon < -180 ? lon + 360 : lon;
+    }
+
+    double velocityNorth() { return v[0]; }
+    double velocityEast() { return v[1]; }
+
+    double speed() {
+        return Math.hypot(v[0], v[1]);
+    }
+
+    double bearing() {
+        double deg = Math.toDegrees(Math.atan2(v[1], v[0]));
+        return deg < 0 ? deg + 360 : deg;
+    }
+
+    /** Horizontal 1-sigma position error, comparable to Location accuracy */
+    double positionAccuracy() {
+        return Math.sqrt((pp[0] + pp[1]) / 2);
+    }
+
+    void reset() {
+        initialized = false;
+        lastInnovationSigmas = 0;
+    }
+
+    /** Smoothed state for the location frame; covariance is row-major over [n, e, vn, ve] */
+    Map<String, Object> toFrameMap() {
+        double[] covariance = {
+                pp[0], 0, pv[0], 0,
+                0, pp[1], 0, pv[1],
+                pv[0], 0, vv[0], 0,
+                0, pv[1], 0, vv[1]
+        };
+        Map<String, Object> map = new HashMap<>();
+        map.put("latitude", latitude());
+        map.put("longitude", longitude());
+        map.put("accuracy", positionAccuracy());
+        map.put("velocityNorth", v[0]);
+        map.put("velocityEast", v[1]);
+        map.put("speed", speed());
+        map.put("bearing", bearing());
+        map.put("speedAccuracy", Math.sqrt((vv[0] + vv[1]) / 2));
+        map.put("covariance", covariance);
+        map.put("qualityScale", lastQualityScale);
+        map.put("innovationSigmas", lastInnovationSigmas);
+        return map;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("config", config.toMap());
+        map.put("initialized", initialized);
+        map.put("updates", updates);
+        map.put("resets", resets);
+        map.put("rejectedOutOfOrder", rejectedOutOfOrder);
+        map.put("lastQualityScale", lastQualityScale);
+        if (initialized) map.put("positionAccuracy", positionAccuracy());
+        return map;
+    }
+
+    private static double doubleArg(Map<?, ?> args, String key, double fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.navic;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Short-lived answers for idempotent query methods.
+ *
+ * Snapshot reports are keyed by the registry epoch they were built from and
+ * stay valid until the next publish; the first query after a publish rebuilds
+ * the report and later ones reuse it. Answers that do not depend on the
+ * registry (device and capability info) expire after a fixed TTL instead.
+ * Cached values are handed out as-is, so callers must not mutate them.
+ *
+ * invalidateAll() also advances a generation. Callers read generation()
+ * before building an answer and pass it to the put, which drops the answer
+ * if an invalidation happened in between; otherwise a builder that read the
+ * old state could store it back after the cache was cleared.
+ */
+final class ResponseCache {
+    /** Epoch tag for TTL entries */
+    static final long NO_EPOCH = -1;
+
+    interface EpochSource {
+        long currentEpoch();
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long epoch;
+        final long expiresAt;
+
+        Entry(Object value, long epoch, long expiresAt) {
+            this.value = value;
+            this.epoch = epoch;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+    }
+
+    private final EpochSource epochs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong epochInvalidations = new AtomicLong();
+    private final AtomicLong staleWrites = new AtomicLong();
+    private final AtomicLong fullInvalidations = new AtomicLong();
+
+    ResponseCache(EpochSource epochs) {
+        this.epochs = epochs;
+    }
+
+    long currentEpoch() {
+        return epochs.currentEpoch();
+    }
+
+    /** Read before building an answer; see putForEpoch and putWithTtl */
+    long generation() {
+        return generation.get();
+    }
+
+    // =============== LOOKUP ===============
+
+    /**
+     * Answer built from epoch, or null. Pass the epoch the caller is about to
+     * build from (currentEpoch() or a pinned snapshot's number).
+     */
+    Object getForEpoch(String key, long epoch) {
+        Entry entry = entries.get(key);
+        return count(key, entry != null && entry.epoch == epoch ? entry : null);
+    }
+
+    void putForEpoch(String key, long epoch, long generation, Object value) {
+        // A slow builder may finish after a newer epoch has been cached
+        put(key, new Entry(value, epoch, Long.MAX_VALUE), generation,
+                (old, fresh) -> old.epoch > fresh.epoch ? old : fresh);
+    }
+
+    Object getUnexpired(String key) {
+        Entry entry = entries.get(key);
+        return count(key, entry != null && entry.epoch == NO_EPOCH
+                && entry.expiresAt > SystemClock.elapsedRealtime() ? entry : null);
+    }
+
+    void putWithTtl(String key, long ttlMs, long generation, Object value) {
+        put(key, new Entry(value, NO_EPOCH, SystemClock.elapsedRealtime() + ttlMs), generation,
+                (old, fresh) -> fresh);
+    }
+
+    private void put(String key, Entry entry, long built,
+                     BiFunction<Entry, Entry, Entry> merge) {
+        if (generation.get() != built) {
+            staleWrites.incrementAndGet();
+            return;
+        }
+        entries.merge(key, entry, merge);
+        // invalidateAll() bumps the generation before clearing, so either its
+        // clear removes the entry or this check sees the new generation
+        if (generation.get() != built && entries.remove(key, entry)) {
+            staleWrites.incrementAndGet();
+        }
+    }
+
+    private Object count(String key, Entry hit) {
+        Counters c = counters.computeIfAbsent(key, k -> new Counters());
+        (hit != null ? c.hits : c.misses).incrementAndGet();
+        return hit != null ? hit.value : null;
+    }
+
+    // =============== INVALIDATION ===============
+
+    /**
+     * Registry writer: drop answers built from epochs before this one
+     */
+    void onEpoch(long epoch) {
+        if (entries.values().removeIf(e -> e.epoch != NO_EPOCH && e.epoch < epoch)) {
+            epochInvalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * State outside the registry changed (chipset, L5 verdict); nothing cached is current
+     */
+    void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        fullInvalidations.incrementAndGet();
+    }
+
+    // =============== STATS ===============
+
+    Map<String, Object> stats() {
+        long hits = 0, misses = 0;
+        List<Map<String, Object>> perKey = new ArrayList<>();
+        for (Map.Entry<String, Counters> e : counters.entrySet()) {
+            long h = e.getValue().hits.get();
+            long m = e.getValue().misses.get();
+            hits += h;
+            misses += m;
+
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("method", e.getKey());
+            entry.put("hits", h);
+            entry.put("misses", m);
+            entry.put("hitRate", h + m > 0 ? (double) h / (h + m) : 0.0);
+            perKey.add(entry);
+        }
+        Collections.sort(perKey, (a, b) -> Long.compare((Long) b.get("hits"), (Long) a.get("hits")));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("currentEpoch", currentEpoch());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("epochInvalidations", epochInvalidations.get());
+        stats.put("fullInvalidations", fullInvalidations.get());
+        stats.put("staleWritesDropped", staleWrites.get());
+        stats.put("methods", perKey);
+        return stats;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.navic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-constellation statistics kept up to date as satellites are added,
+ * updated or removed, so statistics queries read O(#constellations) counters
+ * instead of scanning every tracked satellite.
+ *
+ * Callers remove a satellite's old contribution before changing it and add
+ * the new one afterwards.
+ */
+final class SatelliteAggregates {
+    static final String[] TIERS = tierNames();
+    static final int TIER_POOR = GnssIdentifiers.SignalTier.POOR.ordinal();
+
+    private static final int INITIAL_SYSTEMS = 8;
+
+    private final Map<String, Integer> systemIndex = new LinkedHashMap<>();
+    private String[] systems = new String[INITIAL_SYSTEMS];
+    private int[] counts = new int[INITIAL_SYSTEMS];
+    private int[] withSignal = new int[INITIAL_SYSTEMS];
+    private int[] used = new int[INITIAL_SYSTEMS];
+    private double[] signalSums = new double[INITIAL_SYSTEMS];
+    private int[][] tiers = new int[INITIAL_SYSTEMS][TIERS.length];
+    private long version = 0;
+
+    static int tierIndex(float cn0) {
+        return GnssIdentifiers.SignalTier.of(cn0).ordinal();
+    }
+
+    private static String[] tierNames() {
+        GnssIdentifiers.SignalTier[] tiers = GnssIdentifiers.SignalTier.values();
+        String[] names = new String[tiers.length];
+        for (int i = 0; i < tiers.length; i++) names[i] = tiers[i].name();
+        return names;
+    }
+
+    synchronized void add(String system, float cn0, boolean usedInFix) {
+        apply(indexOf(system), cn0, usedInFix, 1);
+    }
+
+    synchronized void remove(String system, float cn0, boolean usedInFix) {
+        Integer index = systemIndex.get(system);
+        if (index == null) return;
+        apply(index, cn0, usedInFix, -1);
+    }
+
+    synchronized void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(withSignal, 0);
+        Arrays.fill(used, 0);
+        Arrays.fill(signalSums, 0);
+        for (int[] row : tiers) Arrays.fill(row, 0);
+        version++;
+    }
+
+    synchronized Snapshot snapshot() {
+        int n = systemIndex.size();
+        int[][] tierCopy = new int[n][];
+        for (int i = 0; i < n; i++) {
+            tierCopy[i] = tiers[i].clone();
+        }
+        return new Snapshot(version, Arrays.copyOf(systems, n), Arrays.copyOf(counts, n),
+                Arrays.copyOf(withSignal, n), Arrays.copyOf(used, n), Arrays.copyOf(signalSums, n), tierCopy);
+    }
+
+    private void apply(int index, float cn0, boolean usedInFix, int delta) {
+        counts[index] += delta;
+        if (cn0 > 0) {
+            withSignal[index] += delta;
+            signalSums[index] += delta * (double) cn0;
+            if (withSignal[index] == 0) signalSums[index] = 0; // drop accumulated rounding
+        }
+        if (usedInFix) used[index] += delta;
+        tiers[index][tierIndex(cn0)] += delta;
+        version++;
+    }
+
+    private int indexOf(String system) {
+        Integer index = systemIndex.get(system);
+        if (index != null) return index;
+
+        int next = systemIndex.size();
+        if (next == systems.length) {
+            int size = systems.length * 2;
+            systems = Arrays.copyOf(systems, size);
+            counts = Arrays.copyOf(counts, size);
+            withSignal = Arrays.copyOf(withSignal, size);
+            used = Arrays.copyOf(used, size);
+            signalSums = Arrays.copyOf(signalSums, size);
+            tiers = Arrays.copyOf(tiers, size);
+            for (int i = next; i < size; i++) tiers[i] = new int[TIERS.length];
+        }
+        systems[next] = system;
+        systemIndex.put(system, next);
+        return next;
+    }
+
+    /**
+     * Immutable copy of the counters. Systems that were seen once but have no
+     * satellites left stay in the arrays with zero counts.
+     */
+    static final class Snapshot {
+        final long version;
+        final String[] systems;
+        final int[] counts;
+        final int[] withSignal;
+        final int[] used;
+        final double[] signalSums;
+        final int[][] tiers;
+
+        private Snapshot(long version, String[] systems, int[] counts, int[] withSignal, int[] used,
+                         double[] signalSums, int[][] tiers) {
+            this.version = version;
+            this.systems = systems;
+            this.counts = counts;
+            this.withSignal = withSignal;
+            this.used = used;
+            this.signalSums = signalSums;
+            this.tiers = tiers;
+        }
+
+        int totalCount() { return sum(counts); }
+        int totalWithSignal() { return sum(withSignal); }
+        int totalUsed() { return sum(used); }
+
+        double totalSignal() {
+            double total = 0;
+            for (double s : signalSums) total += s;
+            return total;
+        }
+
+        float averageSignal() {
+            int n = totalWithSignal();
+            return n > 0 ? (float) (totalSignal() / n) : 0;
+        }
+
+        float averageSignal(int system) {
+            return withSignal[system] > 0 ? (float) (signalSums[system] / withSignal[system]) : 0;
+        }
+
+        int tierCount(int tier) {
+            int total = 0;
+            for (int[] row : tiers) total += row[tier];
+            return total;
+        }
+
+        /** Tier count restricted to satellites reporting a signal */
+        int tierCountWithSignal(int tier) {
+            int count = tierCount(tier);
+            return tier == TIER_POOR ? count - (totalCount() - totalWithSignal()) : count;
+        }
+
+        List<String> activeSystems() {
+            List<String> active = new ArrayList<>();
+            for (int i = 0; i < systems.length; i++) {
+                if (counts[i] > 0) active.add(systems[i]);
+            }
+            return active;
+        }
+
+        private static int sum(int[] values) {
+            int total = 0;
+            for (int v : values) total += v;
+            return total;
+        }
+    }
+}
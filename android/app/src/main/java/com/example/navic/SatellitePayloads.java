@@ -0,0 +1,190 @@
+package com.example.navic;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared pieces for building the per-satellite payloads sent to Flutter.
+ *
+ * Keys are constants so every map uses the same String instances, per-SV
+ * strings are computed once per (constellation, svid) for the life of the
+ * process, and {@link FrameWriter} encodes a whole satellite list into one
+ * byte array without building a map per satellite.
+ */
+final class SatellitePayloads {
+    static final String KEY_SVID = "svid";
+    static final String KEY_SYSTEM = "system";
+    static final String KEY_CONSTELLATION = "constellation";
+    static final String KEY_COUNTRY_FLAG = "countryFlag";
+    static final String KEY_CN0 = "cn0DbHz";
+    static final String KEY_USED_IN_FIX = "usedInFix";
+    static final String KEY_ELEVATION = "elevation";
+    static final String KEY_AZIMUTH = "azimuth";
+    static final String KEY_HAS_EPHEMERIS = "hasEphemeris";
+    static final String KEY_HAS_ALMANAC = "hasAlmanac";
+    static final String KEY_FREQUENCY_BAND = "frequencyBand";
+    static final String KEY_CARRIER_FREQUENCY = "carrierFrequencyHz";
+    static final String KEY_DETECTION_TIME = "detectionTime";
+    static final String KEY_DETECTION_COUNT = "detectionCount";
+    static final String KEY_BAND_COUNT = "bandCount";
+    static final String KEY_SIGNALS = "signals";
+    static final String KEY_SIGNAL_STRENGTH = "signalStrength";
+    static final String KEY_TIMESTAMP = "timestamp";
+    static final String KEY_SATELLITE_NAME = "satelliteName";
+    static final String KEY_CONSTELLATION_DESCRIPTION = "constellationDescription";
+
+    /** Fields in a full satellite map, including the detailed-info extras */
+    private static final int SATELLITE_FIELDS = 24;
+
+    /** Map sized so the satellite fields never trigger a rehash */
+    static Map<String, Object> newSatelliteMap() {
+        return new HashMap<>(SATELLITE_FIELDS * 4 / 3 + 1);
+    }
+
+    // =============== PER-SV LABELS ===============
+
+    /** Strings that never change for a given (constellation, svid) */
+    static final class SvLabels {
+        final String system;
+        final String countryFlag;
+        final String name;
+        final String constellationDescription;
+
+        SvLabels(String system, String countryFlag, String name, String constellationDescription) {
+            this.system = system;
+            this.countryFlag = countryFlag;
+            this.name = name;
+            this.constellationDescription = constellationDescription;
+        }
+    }
+
+    interface LabelFactory {
+        SvLabels create(int constellation, int svid);
+    }
+
+    private static final Map<Integer, SvLabels> labels = new ConcurrentHashMap<>();
+
+    /** Cached labels for one SV; the factory runs only on its first sighting */
+    static SvLabels labels(int constellation, int svid, LabelFactory factory) {
+        Integer key = (constellation << 16) | (svid & 0xFFFF);
+        SvLabels cached = labels.get(key);
+        if (cached != null) return cached;
+        return labels.computeIfAbsent(key, k -> factory.create(constellation, svid));
+    }
+
+    static int cachedLabelCount() {
+        return labels.size();
+    }
+
+    // =============== BINARY FRAMES ===============
+
+    /**
+     * Little-endian satellite frame, decoded by SatelliteFrame on the Dart side.
+     *
+     * Header: magic, version, timestamp, epoch, satellite count, string table offset.
+     * Each satellite: system, flag and band as string table indices, svid,
+     * status bits, C/N0, elevation, azimuth, carrier Hz, detection time and count,
+     * then the GnssStatus constellation type and the number of bands tracked.
+     * The string table (count, then length-prefixed UTF-8) closes the frame.
+     */
+    static final class FrameWriter {
+        static final int MAGIC = 0x3146564E; // "NVF1"
+        static final byte VERSION = 2;
+        static final int SATELLITE_BYTES = 3 + 2 + 1 + 4 * 3 + 8 + 8 + 4 + 1 + 1;
+
+        static final int STATUS_USED_IN_FIX = 1;
+        static final int STATUS_HAS_EPHEMERIS = 1 << 1;
+        static final int STATUS_HAS_ALMANAC = 1 << 2;
+
+        private static final int HEADER_BYTES = 4 + 1 + 8 + 8 + 4 + 4;
+        private static final int COUNT_POSITION = 4 + 1 + 8 + 8;
+
+        private static final ThreadLocal<FrameWriter> writers = ThreadLocal.withInitial(FrameWriter::new);
+
+        private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+        private String[] strings = new String[16];
+        private int stringCount;
+        private int satellites;
+
+        /** Reused per thread; call begin before each frame */
+        static FrameWriter get() {
+            return writers.get();
+        }
+
+        FrameWriter begin(long timestamp, long epoch, int expectedSatellites) {
+            buffer.clear();
+            ensure(HEADER_BYTES + expectedSatellites * SATELLITE_BYTES);
+            Arrays.fill(strings, 0, stringCount, null);
+            stringCount = 0;
+            satellites = 0;
+            buffer.putInt(MAGIC).put(VERSION).putLong(timestamp).putLong(epoch);
+            buffer.putInt(0).putInt(0); // count and table offset, patched in finish
+            return this;
+        }
+
+        void satellite(String system, String countryFlag, String frequencyBand, int svid, int status,
+                       float cn0, float elevation, float azimuth, double carrierHz,
+                       long detectionTime, int detectionCount, int constellation, int bandCount) {
+            ensure(SATELLITE_BYTES);
+            buffer.put(stringIndex(system))
+                    .put(stringIndex(countryFlag))
+                    .put(stringIndex(frequencyBand))
+                    .putShort((short) svid)
+                    .put((byte) status)
+                    .putFloat(cn0)
+                    .putFloat(elevation)
+                    .putFloat(azimuth)
+                    .putDouble(carrierHz)
+                    .putLong(detectionTime)
+                    .putInt(detectionCount)
+                    .put((byte) constellation)
+                    .put((byte) bandCount);
+            satellites++;
+        }
+
+        /** Append the string table and return the frame */
+        byte[] finish() {
+            int tableOffset = buffer.position();
+            ensure(1);
+            buffer.put((byte) stringCount);
+            for (int i = 0; i < stringCount; i++) {
+                byte[] utf8 = strings[i].getBytes(StandardCharsets.UTF_8);
+                ensure(2 + utf8.length);
+                buffer.putShort((short) utf8.length).put(utf8);
+            }
+            buffer.putInt(COUNT_POSITION, satellites);
+            buffer.putInt(COUNT_POSITION + 4, tableOffset);
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        private byte stringIndex(String value) {
+            if (value == null) value = "";
+            for (int i = 0; i < stringCount; i++) {
+                // Labels come from the per-SV cache, so identity usually matches
+                if (strings[i] == value || strings[i].equals(value)) return (byte) i;
+            }
+            if (stringCount == 255) {
+                throw new IllegalStateException("Too many distinct strings in satellite frame");
+            }
+            if (stringCount == strings.length) strings = Arrays.copyOf(strings, stringCount * 2);
+            strings[stringCount] = value;
+            return (byte) stringCount++;
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() >= bytes) return;
+            int size = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+
+    private SatellitePayloads() {}
+}
@@ -0,0 +1,515 @@
+package com.example.navic;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Decides when a streamed frame is actually sent to Flutter.
+ *
+ * Until a client opts in with setStreamDemand or configureStreamRate, every
+ * stream runs at the baseline rate: frames go out as they are produced, only
+ * bursts closer than minIntervalMs are coalesced, and the location request
+ * interval stays at the provider default. Once opted in, the interval of each
+ * stream follows consumer demand (foreground state and the level requested by
+ * the visible screen), the Dart-side ack latency and how much the data changed
+ * since the last frame. Frames offered before the stream is due are coalesced:
+ * only the newest one is kept and it is built when it is finally sent.
+ * Main-thread only.
+ *
+ * A stream whose EventChannel listener asked for a credit window never has
+ * more than that many unacknowledged frames in flight; further frames are
+ * coalesced until Dart returns credit with a cumulative ack.
+ */
+final class StreamRateController {
+    static final String STREAM_SATELLITES = "satellites";
+    static final String STREAM_LOCATIONS = "locations";
+    static final String STREAM_DETECTION = "detection";
+
+    /** Change score for frames that must go out at the minimum interval */
+    static final double URGENT_CHANGE = Double.MAX_VALUE / 4;
+
+    private static final int MAX_RECORDED_DECISIONS = 32;
+    private static final int MAX_TRACKED_OUTSTANDING = 64;
+    private static final double ACK_LATENCY_SMOOTHING = 0.2;
+
+    enum Demand { HIGH, NORMAL, LOW, OFF }
+
+    /** Builds a frame lazily, only once the controller decides to send it */
+    interface FrameSource {
+        Map<String, Object> build();
+    }
+
+    interface FrameSink {
+        void deliver(String stream, Map<String, Object> frame);
+    }
+
+    static final class Config {
+        long minIntervalMs = 250;
+        long highIntervalMs = 1000;
+        long normalIntervalMs = 2000;
+        long lowIntervalMs = 5000;
+        long backgroundIntervalMs = 15000;
+        long maxIntervalMs = 30000;
+        long ackTimeoutMs = 5000;
+        int maxOutstandingFrames = 2;
+        double quietChangeThreshold = 0.5;
+        double significantChangeThreshold = 3.0;
+        double quietStretch = 3.0;
+        double latencyMultiplier = 2.0;
+
+        void applyArguments(Map<?, ?> args) {
+            if (args == null) return;
+            minIntervalMs = Math.max(16, longArg(args, "minIntervalMs", minIntervalMs));
+            maxIntervalMs = Math.max(minIntervalMs, longArg(args, "maxIntervalMs", maxIntervalMs));
+            highIntervalMs = clamp(longArg(args, "highIntervalMs", highIntervalMs));
+            normalIntervalMs = clamp(longArg(args, "normalIntervalMs", normalIntervalMs));
+            lowIntervalMs = clamp(longArg(args, "lowIntervalMs", lowIntervalMs));
+            backgroundIntervalMs = clamp(longArg(args, "backgroundIntervalMs", backgroundIntervalMs));
+            ackTimeoutMs = Math.max(500, longArg(args, "ackTimeoutMs", ackTimeoutMs));
+            maxOutstandingFrames = (int) Math.max(1, longArg(args, "maxOutstandingFrames", maxOutstandingFrames));
+            quietChangeThreshold = Math.max(0, doubleArg(args, "quietChangeThreshold", quietChangeThreshold));
+            significantChangeThreshold = Math.max(quietChangeThreshold,
+                    doubleArg(args, "significantChangeThreshold", significantChangeThreshold));
+            quietStretch = Math.max(1.0, doubleArg(args, "quietStretch", quietStretch));
+            latencyMultiplier = Math.max(1.0, doubleArg(args, "latencyMultiplier", latencyMultiplier));
+        }
+
+        private long clamp(long intervalMs) {
+            return Math.max(minIntervalMs, Math.min(maxIntervalMs, intervalMs));
+        }
+
+        long intervalFor(Demand demand) {
+            switch (demand) {
+                case HIGH: return highIntervalMs;
+                case LOW: return lowIntervalMs;
+                default: return normalIntervalMs;
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("minIntervalMs", minIntervalMs);
+            map.put("highIntervalMs", highIntervalMs);
+            map.put("normalIntervalMs", normalIntervalMs);
+            map.put("lowIntervalMs", lowIntervalMs);
+            map.put("backgroundIntervalMs", backgroundIntervalMs);
+            map.put("maxIntervalMs", maxIntervalMs);
+            map.put("ackTimeoutMs", ackTimeoutMs);
+            map.put("maxOutstandingFrames", maxOutstandingFrames);
+            map.put("quietChangeThreshold", quietChangeThreshold);
+            map.put("significantChangeThreshold", significantChangeThreshold);
+            map.put("quietStretch", quietStretch);
+            map.put("latencyMultiplier", latencyMultiplier);
+            return map;
+        }
+    }
+
+    private final class StreamState {
+        final String name;
+        final Runnable flushTask;
+        final LinkedHashMap<Long, Long> outstanding = new LinkedHashMap<>();
+        Demand demand = Demand.NORMAL;
+        long seq = 0;
+        long lastSentMs = Long.MIN_VALUE / 2;
+        long intervalMs;
+        String reason = "DEMAND";
+        FrameSource pending;
+        long flushAtMs = -1;
+        double changeSinceSent = Double.MAX_VALUE;
+        boolean acksActive = false;
+        boolean windowOpen = false;
+        int windowFrames = 0;
+        double ackLatencyMs = -1;
+        long acksReceived = 0;
+        long ackTimeouts = 0;
+        long sent = 0;
+        long coalesced = 0;
+        long suppressed = 0;
+
+        StreamState(String name) {
+            this.name = name;
+            this.intervalMs = config.normalIntervalMs;
+            this.flushTask = () -> {
+                flushAtMs = -1;
+                evaluate(this);
+            };
+        }
+
+        int windowFrames() {
+            return windowFrames > 0 ? windowFrames : config.maxOutstandingFrames;
+        }
+
+        boolean windowEnforced() {
+            return windowOpen || acksActive;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("demand", demand.name());
+            map.put("intervalMs", intervalMs);
+            map.put("reason", reason);
+            map.put("lastSeq", seq);
+            map.put("sent", sent);
+            map.put("coalesced", coalesced);
+            map.put("suppressed", suppressed);
+            map.put("outstanding", outstanding.size());
+            map.put("acksActive", acksActive);
+            map.put("windowOpen", windowOpen);
+            map.put("windowFrames", windowFrames());
+            map.put("acksReceived", acksReceived);
+            map.put("ackTimeouts", ackTimeouts);
+            map.put("ackLatencyMs", ackLatencyMs);
+            map.put("pendingFrame", pending != null);
+            return map;
+        }
+    }
+
+    private final Handler handler;
+    private final FrameSink sink;
+    private final Config config = new Config();
+    private final Map<String, StreamState> streams = new LinkedHashMap<>();
+    private final LinkedList<Map<String, Object>> decisions = new LinkedList<>();
+    private boolean foreground = true;
+    // Baseline rates until a client sets demand or configures the controller
+    private boolean adaptive = false;
+
+    StreamRateController(Handler handler, FrameSink sink) {
+        this.handler = handler;
+        this.sink = sink;
+        stream(STREAM_SATELLITES);
+        stream(STREAM_LOCATIONS);
+        stream(STREAM_DETECTION);
+    }
+
+    private StreamState stream(String name) {
+        StreamState state = streams.get(name);
+        if (state == null) {
+            state = new StreamState(name);
+            streams.put(name, state);
+        }
+        return state;
+    }
+
+    /**
+     * Offer a new frame. changeScore is how much the data changed since the
+     * previous offer, in satellite (or accuracy-radius) equivalents.
+     */
+    void offer(String streamName, double changeScore, FrameSource source) {
+        StreamState s = stream(streamName);
+        if (s.demand == Demand.OFF) {
+            s.suppressed++;
+            return;
+        }
+        if (s.changeSinceSent != Double.MAX_VALUE) {
+            s.changeSinceSent += changeScore;
+        }
+        if (s.pending != null) {
+            s.coalesced++;
+        }
+        s.pending = source;
+        evaluate(s);
+    }
+
+    /**
+     * Send a frame that must not be coalesced away, ahead of any pending one.
+     * The pending frame is older and is dropped; the interval and credit
+     * window do not apply, only demand OFF suppresses it.
+     */
+    void sendNow(String streamName, FrameSource source) {
+        StreamState s = stream(streamName);
+        if (s.demand == Demand.OFF) {
+            s.suppressed++;
+            return;
+        }
+        if (s.pending != null) {
+            s.coalesced++;
+        }
+        s.pending = source;
+        send(s, SystemClock.elapsedRealtime());
+    }
+
+    /** Cumulative acknowledgement: every frame up to seq has been handled by Dart */
+    void ack(String streamName, long seq) {
+        StreamState s = streams.get(streamName);
+        if (s == null) return;
+
+        long now = SystemClock.elapsedRealtime();
+        s.acksActive = true;
+        Iterator<Map.Entry<Long, Long>> it = s.outstanding.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> entry = it.next();
+            if (entry.getKey() > seq) break;
+            if (entry.getKey() == seq) {
+                double latency = now - entry.getValue();
+                s.ackLatencyMs = s.ackLatencyMs < 0 ? latency
+                        : s.ackLatencyMs + ACK_LATENCY_SMOOTHING * (latency - s.ackLatencyMs);
+            }
+            it.remove();
+        }
+        s.acksReceived++;
+        evaluate(s);
+    }
+
+    /**
+     * Start enforcing a credit window of the given size; 0 or less sends
+     * without credit. Called when an EventChannel listener attaches.
+     */
+    void openWindow(String streamName, int frames) {
+        StreamState s = stream(streamName);
+        s.windowOpen = frames > 0;
+        s.windowFrames = Math.max(0, frames);
+        s.outstanding.clear();
+        evaluate(s);
+    }
+
+    void closeWindow(String streamName) {
+        StreamState s = stream(streamName);
+        s.windowOpen = false;
+        s.windowFrames = 0;
+        s.outstanding.clear();
+        s.pending = null;
+        handler.removeCallbacks(s.flushTask);
+        s.flushAtMs = -1;
+    }
+
+    void setForeground(boolean foreground) {
+        if (this.foreground == foreground) return;
+        this.foreground = foreground;
+        for (StreamState s : streams.values()) {
+            evaluate(s);
+        }
+    }
+
+    void setDemand(String streamName, Demand demand) {
+        adaptive = true;
+        StreamState s = stream(streamName);
+        s.demand = demand;
+        if (demand == Demand.OFF) {
+            s.pending = null;
+            handler.removeCallbacks(s.flushTask);
+            s.flushAtMs = -1;
+        }
+        evaluate(s);
+    }
+
+    /**
+     * Opts in to adaptive rates unless {"adaptive": false} asks for the baseline again
+     */
+    void configure(Map<?, ?> args) {
+        Object requested = args != null ? args.get("adaptive") : null;
+        adaptive = !(requested instanceof Boolean) || (Boolean) requested;
+        config.applyArguments(args);
+        for (StreamState s : streams.values()) {
+            evaluate(s);
+        }
+    }
+
+    /**
+     * Provider request interval matching the current demand of the location
+     * stream, without the change- and latency-driven stretching. 0 (provider
+     * default) while not adaptive.
+     */
+    long locationRequestIntervalMs() {
+        if (!adaptive) return 0;
+        StreamState s = stream(STREAM_LOCATIONS);
+        long base = config.intervalFor(s.demand == Demand.OFF ? Demand.LOW : s.demand);
+        if (!foreground) base = Math.max(base, config.backgroundIntervalMs);
+        return base;
+    }
+
+    void reset() {
+        for (StreamState s : streams.values()) {
+            handler.removeCallbacks(s.flushTask);
+            s.flushAtMs = -1;
+            s.pending = null;
+            s.outstanding.clear();
+            s.changeSinceSent = Double.MAX_VALUE;
+        }
+    }
+
+    private void evaluate(StreamState s) {
+        long now = SystemClock.elapsedRealtime();
+        expireOutstanding(s, now);
+        updateInterval(s);
+        if (s.pending == null) return;
+
+        if (s.windowEnforced() && s.outstanding.size() >= s.windowFrames()) {
+            // UI is behind; keep coalescing until an ack or the ack timeout frees a slot
+            scheduleFlush(s, now, now + config.ackTimeoutMs);
+            return;
+        }
+
+        long dueAt = s.lastSentMs + (s.changeSinceSent >= config.significantChangeThreshold
+                ? config.minIntervalMs : s.intervalMs);
+        if (now >= dueAt) {
+            send(s, now);
+        } else {
+            scheduleFlush(s, now, dueAt);
+        }
+    }
+
+    private void updateInterval(StreamState s) {
+        long interval;
+        String reason;
+        if (!adaptive) {
+            interval = config.minIntervalMs;
+            reason = "BASELINE";
+        } else if (!foreground) {
+            interval = Math.max(config.intervalFor(s.demand), config.backgroundIntervalMs);
+            reason = "BACKGROUND";
+        } else {
+            interval = config.intervalFor(s.demand);
+            reason = "DEMAND_" + s.demand.name();
+        }
+
+        if (s.windowEnforced() && s.ackLatencyMs >= 0) {
+            long latencyInterval = (long) (s.ackLatencyMs * config.latencyMultiplier);
+            if (latencyInterval > interval) {
+                interval = latencyInterval;
+                reason = "ACK_LATENCY";
+            }
+        }
+
+        if (adaptive && s.changeSinceSent < config.quietChangeThreshold) {
+            interval = (long) (interval * config.quietStretch);
+            reason = "LOW_CHANGE";
+        }
+
+        interval = Math.max(config.minIntervalMs, Math.min(config.maxIntervalMs, interval));
+        if (interval != s.intervalMs || !reason.equals(s.reason)) {
+            s.intervalMs = interval;
+            s.reason = reason;
+            recordDecision(s);
+        }
+    }
+
+    private void send(StreamState s, long now) {
+        FrameSource source = s.pending;
+        s.pending = null;
+        handler.removeCallbacks(s.flushTask);
+        s.flushAtMs = -1;
+
+        Map<String, Object> frame = source.build();
+        if (frame == null) return;
+
+        long seq = ++s.seq;
+        frame.put("seq", seq);
+        frame.put("stream", s.name);
+        s.outstanding.put(seq, now);
+        if (s.outstanding.size() > MAX_TRACKED_OUTSTANDING) {
+            Iterator<Long> it = s.outstanding.keySet().iterator();
+            it.next();
+            it.remove();
+        }
+        s.lastSentMs = now;
+        s.changeSinceSent = 0;
+        s.sent++;
+        sink.deliver(s.name, frame);
+    }
+
+    private void scheduleFlush(StreamState s, long now, long atMs) {
+        if (s.flushAtMs >= 0 && s.flushAtMs <= atMs) return;
+        handler.removeCallbacks(s.flushTask);
+        s.flushAtMs = atMs;
+        handler.postDelayed(s.flushTask, Math.max(0, atMs - now));
+    }
+
+    private void expireOutstanding(StreamState s, long now) {
+        Iterator<Map.Entry<Long, Long>> it = s.outstanding.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> entry = it.next();
+            if (now - entry.getValue() < config.ackTimeoutMs) break;
+            it.remove();
+            if (s.windowEnforced()) s.ackTimeouts++;
+        }
+    }
+
+    private void recordDecision(StreamState s) {
+        Map<String, Object> decision = new HashMap<>();
+        decision.put("stream", s.name);
+        decision.put("intervalMs", s.intervalMs);
+        decision.put("reason", s.reason);
+        decision.put("foreground", foreground);
+        decision.put("demand", s.demand.name());
+        decision.put("timestamp", System.currentTimeMillis());
+        decisions.addLast(decision);
+        while (decisions.size() > MAX_RECORDED_DECISIONS) {
+            decisions.removeFirst();
+        }
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> streamMaps = new HashMap<>();
+        for (StreamState s : streams.values()) {
+            streamMaps.put(s.name, s.toMap());
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put("foreground", foreground);
+        map.put("adaptive", adaptive);
+        map.put("config", config.toMap());
+        map.put("streams", streamMaps);
+        map.put("recentDecisions", new ArrayList<>(decisions));
+        return map;
+    }
+
+    // =============== CHANGE SCORES ===============
+
+    /**
+     * Sky change between two ticks: satellites appearing, disappearing or
+     * switching used-in-fix count 1 each, a C/N0 step of 3 dB-Hz counts 0.5.
+     */
+    static double skyChange(GnssSnapshot previous, GnssSnapshot current) {
+        if (previous == null) return URGENT_CHANGE;
+
+        Map<Integer, Integer> previousIndex = new HashMap<>();
+        for (int i = 0; i < previous.satelliteCount; i++) {
+            previousIndex.put(previous.constellation(i) * 1000 + previous.svid(i), i);
+        }
+
+        double score = 0;
+        int matched = 0;
+        for (int i = 0; i < current.satelliteCount; i++) {
+            Integer j = previousIndex.get(current.constellation(i) * 1000 + current.svid(i));
+            if (j == null) {
+                score += 1.0;
+                continue;
+            }
+            matched++;
+            if (current.usedInFix(i) != previous.usedInFix(j)) score += 1.0;
+            if (Math.abs(current.cn0DbHz(i) - previous.cn0DbHz(j)) >= 3.0f) score += 0.5;
+        }
+        score += previous.satelliteCount - matched;
+        return score;
+    }
+
+    /**
+     * Location change in units of the reported accuracy radius
+     */
+    static double locationChange(Location previous, Location current) {
+        if (previous == null) return URGENT_CHANGE;
+        float accuracy = Math.max(5.0f, Math.max(previous.getAccuracy(), current.getAccuracy()));
+        double score = previous.distanceTo(current) / accuracy;
+        if (!String.valueOf(previous.getProvider()).equals(String.valueOf(current.getProvider()))) {
+            score += 0.5;
+        }
+        return score;
+    }
+
+    private static long longArg(Map<?, ?> args, String key, long fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+
+    private static double doubleArg(Map<?, ?> args, String key, double fallback) {
+        Object value = args.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.navic;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.location.GnssStatus;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Predicts which geosynchronous SVs are above the horizon at a position.
+ *
+ * NavIC is entirely geosynchronous (GEO and IGSO), as are the BeiDou and
+ * QZSS GEO satellites, so a circular orbit with the Earth's rotation period
+ * is described by three numbers: the longitude where it crosses the equator
+ * northbound, the inclination and the argument of latitude at an epoch. The
+ * bundled table seeds those; every tick with a position refines them from
+ * the observed elevation and azimuth, and the learned set persists.
+ *
+ * Elements and results are parallel arrays indexed by slot, so one
+ * propagation over all SVs is a single loop with no allocation.
+ */
+final class VisibilityPredictor {
+    private static final String PREFS = "navic_orbits";
+    private static final double EARTH_RATE_RAD_S = 7.2921151467e-5;
+    private static final double EARTH_RADIUS_M = 6371008.8;
+    private static final double ORBIT_RADIUS_M = 42164170.0;
+    /** Below this inclination the orbit is treated as GEO: only the longitude is learned */
+    private static final double GEO_MAX_INCLINATION = Math.toRadians(5.0);
+    private static final double LEARN_RATE = 0.2;
+    private static final long LEARN_INTERVAL_MS = 10000;
+    private static final float MIN_LEARN_ELEVATION = 5.0f;
+    /** Missed good-sky ticks while predicted high before an SV stops counting as expected */
+    private static final int MAX_MISSES_UNSEEN = 120;
+    private static final double HEALTH_CHECK_ELEVATION = 20.0;
+    /** A miss only counts when this many other-constellation SVs are in the fix... */
+    private static final int GOOD_SKY_USED_SVS = 8;
+    /** ...or the learned sky towards NavIC is at least this open */
+    private static final double GOOD_SKY_OPENNESS = 0.8;
+    /** Misses halve this often, so an SV written off once gets another chance */
+    private static final long MISS_HALF_LIFE_MS = 24L * 3600 * 1000;
+    private static final String KEY_MISS_DECAY = "missDecayMs";
+
+    static final double DEFAULT_MASK_DEG = 10.0;
+
+    // Bundled elements: constellation, svid, node longitude (deg E), inclination (deg), argument of latitude (deg)
+    private static final double[][] BUNDLED = {
+            {GnssStatus.CONSTELLATION_IRNSS, 2, 55.0, 29.0, 0.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 3, 83.0, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 4, 111.75, 30.5, 90.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 5, 111.75, 28.1, 270.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 6, 32.5, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 7, 129.5, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 9, 55.0, 29.0, 180.0},
+            {GnssStatus.CONSTELLATION_IRNSS, 10, 129.5, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_BEIDOU, 1, 140.0, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_BEIDOU, 2, 80.0, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_BEIDOU, 3, 110.5, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_BEIDOU, 4, 160.0, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_BEIDOU, 5, 58.75, 0.0, 0.0},
+            {GnssStatus.CONSTELLATION_QZSS, 199, 127.0, 0.0, 0.0},
+    };
+    private static final int MAX_SVS = 32;
+
+    private final SharedPreferences prefs;
+
+    // Elements
+    private final int[] constellation = new int[MAX_SVS];
+    private final int[] svid = new int[MAX_SVS];
+    private final double[] nodeLon = new double[MAX_SVS];
+    private final double[] inclination = new double[MAX_SVS];
+    private final double[] u0 = new double[MAX_SVS];
+    private final long[] epochMs = new long[MAX_SVS];
+    private final boolean[] learned = new boolean[MAX_SVS];
+    private final int[] observations = new int[MAX_SVS];
+    private final int[] seenWhenHigh = new int[MAX_SVS];
+    private final int[] missedWhenHigh = new int[MAX_SVS];
+    private final long[] lastLearnMs = new long[MAX_SVS];
+    private int count = 0;
+
+    // Results of the last propagation
+    private final double[] elevation = new double[MAX_SVS];
+    private final double[] azimuth = new double[MAX_SVS];
+    private long predictedAtMs = -1;
+    private double predictedLat = Double.NaN;
+    private double predictedLon = Double.NaN;
+
+    private long lastMissDecayMs;
+
+    private long propagations = 0;
+    private long learnUpdates = 0;
+    private long missesSkipped = 0;
+    private boolean dirty = false;
+
+    VisibilityPredictor(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        for (double[] row : BUNDLED) {
+            int slot = count++;
+            constellation[slot] = (int) row[0];
+            svid[slot] = (int) row[1];
+            nodeLon[slot] = Math.toRadians(row[2]);
+            inclination[slot] = Math.toRadians(row[3]);
+            u0[slot] = Math.toRadians(row[4]);
+            epochMs[slot] = 0;
+        }
+        restore();
+    }
+
+    // =============== PROPAGATION ===============
+
+    /** Propagate every SV to timeMs and compute its elevation/azimuth from the observer */
+    synchronized void predict(double latitudeDeg, double longitudeDeg, double altitudeM, long timeMs) {
+        double phi = Math.toRadians(latitudeDeg);
+        double lambda = Math.toRadians(longitudeDeg);
+        double sinPhi = Math.sin(phi), cosPhi = Math.cos(phi);
+        double sinLam = Math.sin(lambda), cosLam = Math.cos(lambda);
+        double r = EARTH_RADIUS_M + altitudeM;
+        double ox = r * cosPhi * cosLam, oy = r * cosPhi * sinLam, oz = r * sinPhi;
+
+        for (int k = 0; k < count; k++) {
+            double u = u0[k] + EARTH_RATE_RAD_S * (timeMs - epochMs[k]) / 1000.0;
+            double sinU = Math.sin(u), cosU = Math.cos(u);
+            double sinI = Math.sin(inclination[k]), cosI = Math.cos(inclination[k]);
+            double satLat = Math.asin(sinI * sinU);
+            double satLon = nodeLon[k] + Math.atan2(cosI * sinU, cosU) - u;
+
+            double cosSatLat = Math.cos(satLat);
+            double dx = ORBIT_RADIUS_M * cosSatLat * Math.cos(satLon) - ox;
+            double dy = ORBIT_RADIUS_M * cosSatLat * Math.sin(satLon) - oy;
+            double dz = ORBIT_RADIUS_M * Math.sin(satLat) - oz;
+
+            double east = -sinLam * dx + cosLam * dy;
+            double north = -sinPhi * cosLam * dx - sinPhi * sinLam * dy + cosPhi * dz;
+            double up = cosPhi * cosLam * dx + cosPhi * sinLam * dy + sinPhi * dz;
+
+            elevation[k] = Math.toDegrees(Math.atan2(up, Math.hypot(east, north)));
+            double az = Math.toDegrees(Math.atan2(east, north));
+            azimuth[k] = az < 0 ? az + 360 : az;
+        }
+        predictedAtMs = timeMs;
+        predictedLat = latitudeDeg;
+        predictedLon = longitudeDeg;
+        propagations++;
+    }
+
+    /** SVs of a constellation above the mask in the last propagation, skipping ones that never show up */
+    synchronized int expectedVisible(int constellationType, double maskDeg) {
+        if (predictedAtMs < 0) return -1;
+        int expected = 0;
+        for (int k = 0; k < count; k++) {
+            if (constellation[k] == constellationType && elevation[k] >= maskDeg && isReliable(k)) expected++;
+        }
+        return expected;
+    }
+
+    synchronized boolean hasPrediction() {
+        return predictedAtMs >= 0;
+    }
+
+    private boolean isReliable(int k) {
+        return seenWhenHigh[k] > 0 || missedWhenHigh[k] < MAX_MISSES_UNSEEN;
+    }
+
+    // Per-slot view of the last propagation, indexed 0 until satelliteCount()
+    synchronized int satelliteCount() { return count; }
+    synchronized int constellation(int k) { return constellation[k]; }
+    synchronized int svid(int k) { return svid[k]; }
+    synchronized double elevation(int k) { return elevation[k]; }
+    synchronized double azimuth(int k) { return azimuth[k]; }
+    synchronized boolean reliable(int k) { return isReliable(k); }
+
+    // =============== LEARNING ===============
+
+    /**
+     * Refine elements from one tick seen at the given position. The tick's
+     * time should match the last predict call, which this also re-runs.
+     *
+     * @param skyOpenness learned clearance towards the expected NavIC SVs, NaN when the place is unknown
+     */
+    synchronized void observe(GnssSnapshot snapshot, double latitudeDeg, double longitudeDeg, double altitudeM,
+                              double skyOpenness) {
+        long now = snapshot.timestampMs;
+        predict(latitudeDeg, longitudeDeg, altitudeM, now);
+        decayMisses(now);
+        if (snapshot.svCount < 4) return;
+
+        int seenMask = 0;
+        int otherUsed = 0;
+        for (int k = 0; k < snapshot.svCount; k++) {
+            if (snapshot.svUsedInFix(k)
+                    && snapshot.constellation(snapshot.svSignal(k)) != GnssStatus.CONSTELLATION_IRNSS) {
+                otherUsed++;
+            }
+        }
+        for (int i = 0; i < snapshot.satelliteCount; i++) {
+            int k = slotOf(snapshot.constellation(i), snapshot.svid(i));
+            if (k < 0 || snapshot.cn0DbHz(i) <= 0) continue;
+            seenMask |= 1 << k;
+
+            float el = snapshot.elevation(i);
+            if (el < MIN_LEARN_ELEVATION || now - lastLearnMs[k] < LEARN_INTERVAL_MS) continue;
+            lastLearnMs[k] = now;
+            learn(k, latitudeDeg, longitudeDeg, altitudeM, el, snapshot.azimuth(i), now);
+        }
+
+        // Receivers that carry an SV in the table but never hear it stop counting it as expected.
+        // Indoors nothing is heard, so a miss only counts under a sky that should have shown it
+        boolean goodSky = otherUsed >= GOOD_SKY_USED_SVS || skyOpenness >= GOOD_SKY_OPENNESS;
+        for (int k = 0; k < count; k++) {
+            if (elevation[k] < HEALTH_CHECK_ELEVATION) continue;
+            if ((seenMask & (1 << k)) != 0) {
+                seenWhenHigh[k]++;
+            } else if (goodSky) {
+                missedWhenHigh[k]++;
+            } else {
+                missesSkipped++;
+            }
+        }
+    }
+
+    private void decayMisses(long now) {
+        if (lastMissDecayMs == 0 || now < lastMissDecayMs) {
+            lastMissDecayMs = now;
+            return;
+        }
+        long halvings = (now - lastMissDecayMs) / MISS_HALF_LIFE_MS;
+        if (halvings == 0) return;
+        for (int k = 0; k < count; k++) {
+            missedWhenHigh[k] = halvings >= 31 ? 0 : missedWhenHigh[k] >> halvings;
+        }
+        lastMissDecayMs += halvings * MISS_HALF_LIFE_MS;
+        dirty = true;
+    }
+
+    private void learn(int k, double latDeg, double lonDeg, double altM, float elDeg, float azDeg, long timeMs) {
+        // Line of sight in ECEF, intersected with the geosynchronous sphere
+        double phi = Math.toRadians(latDeg), lambda = Math.toRadians(lonDeg);
+        double el = Math.toRadians(elDeg), az = Math.toRadians(azDeg);
+        double e = Math.cos(el) * Math.sin(az), n = Math.cos(el) * Math.cos(az), up = Math.sin(el);
+        double sinPhi = Math.sin(phi), cosPhi = Math.cos(phi);
+        double sinLam = Math.sin(lambda), cosLam = Math.cos(lambda);
+        double dx = -sinLam * e - sinPhi * cosLam * n + cosPhi * cosLam * up;
+        double dy = cosLam * e - sinPhi * sinLam * n + cosPhi * sinLam * up;
+        double dz = cosPhi * n + sinPhi * up;
+        double r = EARTH_RADIUS_M + altM;
+        double ox = r * cosPhi * cosLam, oy = r * cosPhi * sinLam, oz = r * sinPhi;
+        double b = ox * dx + oy * dy + oz * dz;
+        double t = -b + Math.sqrt(b * b - r * r + ORBIT_RADIUS_M * ORBIT_RADIUS_M);
+        double sx = ox + t * dx, sy = oy + t * dy, sz = oz + t * dz;
+        double satLat = Math.asin(sz / ORBIT_RADIUS_M);
+        double satLon = Math.atan2(sy, sx);
+
+        double uNow = u0[k] + EARTH_RATE_RAD_S * (timeMs - epochMs[k]) / 1000.0;
+        if (inclination[k] < GEO_MAX_INCLINATION) {
+            nodeLon[k] += LEARN_RATE * wrap(satLon - nodeLon[k]);
+        } else {
+            // Two arguments of latitude give this latitude; keep the one nearest the current track
+            double sinI = Math.sin(inclination[k]), cosI = Math.cos(inclination[k]);
+            double sinU = Math.max(-1, Math.min(1, Math.sin(satLat) / sinI));
+            double best = Double.NaN, bestNode = 0, bestError = Double.MAX_VALUE;
+            for (double u : new double[]{Math.asin(sinU), Math.PI - Math.asin(sinU)}) {
+                double node = satLon - Math.atan2(cosI * Math.sin(u), Math.cos(u)) + u;
+                double error = Math.abs(wrap(node - nodeLon[k])) + Math.abs(wrap(u - uNow));
+                if (error < bestError) {
+                    bestError = error;
+                    best = u;
+                    bestNode = node;
+                }
+            }
+            nodeLon[k] += LEARN_RATE * wrap(bestNode - nodeLon[k]);
+            uNow += LEARN_RATE * wrap(best - uNow);
+        }
+        // Re-anchor the epoch at this observation
+        u0[k] = wrap(uNow);
+        epochMs[k] = timeMs;
+        learned[k] = true;
+        observations[k]++;
+        learnUpdates++;
+        dirty = true;
+    }
+
+    private int slotOf(int constellationType, int sv) {
+        for (int k = 0; k < count; k++) {
+            if (constellation[k] == constellationType && svid[k] == sv) return k;
+        }
+        return -1;
+    }
+
+    private static double wrap(double angle) {
+        double a = angle % (2 * Math.PI);
+        if (a > Math.PI) a -= 2 * Math.PI;
+        if (a < -Math.PI) a += 2 * Math.PI;
+        return a;
+    }
+
+    // =============== PERSISTENCE ===============
+
+    private static String key(int constellationType, int sv) {
+        return constellationType + "_" + sv;
+    }
+
+    private void restore() {
+        lastMissDecayMs = prefs.getLong(KEY_MISS_DECAY, 0);
+        for (int k = 0; k < count; k++) {
+            String value = prefs.getString(key(constellation[k], svid[k]), null);
+            if (value == null) continue;
+            String[] parts = value.split(",");
+            if (parts.length != 7) continue;
+            try {
+                nodeLon[k] = Double.parseDouble(parts[0]);
+                inclination[k] = Double.parseDouble(parts[1]);
+                u0[k] = Double.parseDouble(parts[2]);
+                epochMs[k] = Long.parseLong(parts[3]);
+                observations[k] = Integer.parseInt(parts[4]);
+                seenWhenHigh[k] = Integer.parseInt(parts[5]);
+                missedWhenHigh[k] = Integer.parseInt(parts[6]);
+                learned[k] = observations[k] > 0;
+            } catch (NumberFormatException e) {
+                Log.w("NavIC", "Ignoring corrupt orbit elements for " + key(constellation[k], svid[k]));
+            }
+        }
+    }
+
+    /** Write learned elements; cheap no-op when nothing changed */
+    synchronized void persist() {
+        if (!dirty) return;
+        SharedPreferences.Editor editor = prefs.edit();
+        editor.putLong(KEY_MISS_DECAY, lastMissDecayMs);
+        for (int k = 0; k < count; k++) {
+            if (!learned[k] && seenWhenHigh[k] == 0 && missedWhenHigh[k] == 0) continue;
+            editor.putString(key(constellation[k], svid[k]), String.format(Locale.US, "%.8f,%.8f,%.8f,%d,%d,%d,%d",
+                    nodeLon[k], inclination[k], u0[k], epochMs[k],
+                    observations[k], seenWhenHigh[k], missedWhenHigh[k]));
+        }
+        editor.apply();
+        dirty = false;
+    }
+
+    // =============== REPORTS ===============
+
+    synchronized Map<String, Object> toMap(double maskDeg) {
+        List<Map<String, Object>> satellites = new ArrayList<>();
+        for (int k = 0; k < count; k++) {
+            GnssIdentifiers.Constellation c = GnssIdentifiers.Constellation.of(constellation[k]);
+            Map<String, Object> sv = new HashMap<>();
+            sv.put("system", c.label);
+            sv.put("svid", svid[k]);
+            sv.put("orbit", inclination[k] < GEO_MAX_INCLINATION ? "GEO" : "IGSO");
+            sv.put("nodeLongitude", Math.toDegrees(wrap(nodeLon[k])));
+            sv.put("inclination", Math.toDegrees(inclination[k]));
+            sv.put("source", learned[k] ? "LEARNED" : "BUNDLED");
+            sv.put("observations", observations[k]);
+            sv.put("reliable", isReliable(k));
+            if (predictedAtMs >= 0) {
+                sv.put("elevation", elevation[k]);
+                sv.put("azimuth", azimuth[k]);
+                sv.put("expectedVisible", elevation[k] >= maskDeg && isReliable(k));
+            }
+            satellites.add(sv);
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("satellites", satellites);
+        map.put("elevationMaskDeg", maskDeg);
+        map.put("expectedNavicSatellites", expectedVisible(GnssStatus.CONSTELLATION_IRNSS, maskDeg));
+        if (predictedAtMs >= 0) {
+            map.put("predictedAt", predictedAtMs);
+            map.put("latitude", predictedLat);
+            map.put("longitude", predictedLon);
+        }
+        map.put("propagations", propagations);
+        map.put("learnUpdates", learnUpdates);
+        map.put("missesSkipped", missesSkipped);
+        return map;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+public class CoverageTileIndexTest {
+    private static final int GPS = 1;
+    private static final int IRNSS = 7;
+    private static final long T0 = 1_700_000_000_000L;
+
+    // =============== MORTON KEYS ===============
+
+    @Test
+    public void quadkeyInterleavesXAndYBits() {
+        assertEquals(0L, CoverageTileIndex.quadkey(0, 0));
+        assertEquals(1L, CoverageTileIndex.quadkey(1, 0));
+        assertEquals(2L, CoverageTileIndex.quadkey(0, 1));
+        assertEquals(3L, CoverageTileIndex.quadkey(1, 1));
+        assertEquals(4L, CoverageTileIndex.quadkey(2, 0));
+        assertEquals(0b011101L, CoverageTileIndex.quadkey(0b111, 0b010));
+
+        int max = (1 << CoverageTileIndex.MAX_ZOOM) - 1;
+        assertEquals((1L << (2 * CoverageTileIndex.MAX_ZOOM)) - 1, CoverageTileIndex.quadkey(max, max));
+    }
+
+    @Test
+    public void coarserTilesAreKeyPrefixes() {
+        int[][] tiles = {{0, 0}, {93821, 56010}, {131071, 1}, {65536, 65535}};
+        for (int[] tile : tiles) {
+            long key = CoverageTileIndex.quadkey(tile[0], tile[1]);
+            for (int levels = 1; levels <= CoverageTileIndex.MAX_ZOOM; levels++) {
+                long parent = CoverageTileIndex.quadkey(tile[0] >> levels, tile[1] >> levels);
+                assertEquals(parent, key >> (2 * levels));
+                assertTrue(parent << (2 * levels) <= key && key < (parent + 1) << (2 * levels));
+            }
+        }
+    }
+
+    @Test
+    public void tileCoordinatesAreClampedToTheWorld() {
+        assertEquals(0, CoverageTileIndex.tileX(-180, 5));
+        assertEquals(31, CoverageTileIndex.tileX(180, 5));
+        assertEquals(1, CoverageTileIndex.tileX(0, 1));
+        assertEquals(1, CoverageTileIndex.tileY(0, 1));
+        assertEquals(0, CoverageTileIndex.tileY(90, 5));
+        assertEquals(31, CoverageTileIndex.tileY(-90, 5));
+    }
+
+    @Test
+    public void columnsWrapAcrossTheAntimeridian() {
+        assertEquals(1, CoverageTileIndex.columns(10, 10, 4));
+        assertEquals(16, CoverageTileIndex.columns(-180, 180, 4));
+        // 168.75..180 is the last column and -180..-168.75 the first
+        assertEquals(2, CoverageTileIndex.columns(170, -170, 4));
+        assertEquals(2, CoverageTileIndex.columns(170, -170, 1));
+        assertEquals(1, CoverageTileIndex.columns(170, -170, 0));
+    }
+
+    // =============== PAYLOAD ===============
+
+    @Test
+    public void payloadHeaderAndTilesFollowTheLayout() throws IOException {
+        CoverageTileIndex index = new CoverageTileIndex(tempDir());
+        assertTrue(index.record(28.6139, 77.2090, 5f, tick(T0, 40f, 30f), T0));
+        assertTrue(index.record(28.6139, 77.2090, 5f, tick(T0 + 2000, 36f), T0 + 2000));
+        assertTrue(index.record(28.7000, 77.3000, 5f, tick(T0 + 4000), T0 + 4000));
+
+        int z = CoverageTileIndex.MAX_ZOOM;
+        ByteBuffer payload = payload(index.query(28.6, 77.2, 28.62, 77.22, z, 4096));
+        assertEquals(CoverageTileIndex.PAYLOAD_MAGIC, payload.getInt());
+        assertEquals(CoverageTileIndex.PAYLOAD_VERSION, payload.get());
+        assertEquals(z, payload.get());
+        assertEquals(1, payload.getInt());
+        assertTrue(payload.getLong() > 0);
+        assertEquals(CoverageTileIndex.PAYLOAD_HEADER_BYTES, payload.position());
+        assertEquals(CoverageTileIndex.PAYLOAD_HEADER_BYTES + CoverageTileIndex.PAYLOAD_TILE_BYTES, payload.limit());
+
+        assertEquals(CoverageTileIndex.tileX(77.2090, z), payload.getInt());
+        assertEquals(CoverageTileIndex.tileY(28.6139, z), payload.getInt());
+        assertEquals(2, payload.getInt());
+        assertEquals(2, payload.getInt());
+        assertEquals(2, payload.getInt());
+        assertEquals(1.5f, payload.getFloat(), 1e-6f);
+        assertEquals(35.5f, payload.getFloat(), 1e-4f);
+        assertEquals(2, payload.getShort());
+        assertEquals(T0 + 2000, payload.getLong());
+    }
+
+    @Test
+    public void coarserZoomsAggregateTheirChildren() throws IOException {
+        CoverageTileIndex index = new CoverageTileIndex(tempDir());
+        index.record(28.6139, 77.2090, 5f, tick(T0, 40f), T0);
+        index.record(28.7000, 77.3000, 5f, tick(T0 + 2000), T0 + 2000);
+
+        ByteBuffer payload = payload(index.query(28.0, 77.0, 29.0, 78.0, 6, 4096));
+        payload.position(6);
+        assertEquals(1, payload.getInt());
+        payload.position(CoverageTileIndex.PAYLOAD_HEADER_BYTES + 8);
+        assertEquals(2, payload.getInt());
+        assertEquals(1, payload.getInt());
+        payload.position(payload.position() + 4);
+        assertEquals(0.5f, payload.getFloat(), 1e-6f);
+    }
+
+    @Test
+    public void viewportAcrossTheAntimeridianFindsBothSides() throws IOException {
+        CoverageTileIndex index = new CoverageTileIndex(tempDir());
+        index.record(0.005, 179.999, 5f, tick(T0, 40f), T0);
+        index.record(0.005, -179.999, 5f, tick(T0 + 2000, 40f), T0 + 2000);
+
+        int z = CoverageTileIndex.MAX_ZOOM;
+        ByteBuffer payload = payload(index.query(0.0, 179.9, 0.01, -179.9, z, 4096));
+        payload.position(6);
+        assertEquals(2, payload.getInt());
+
+        payload.position(CoverageTileIndex.PAYLOAD_HEADER_BYTES);
+        int first = payload.getInt();
+        payload.position(CoverageTileIndex.PAYLOAD_HEADER_BYTES + CoverageTileIndex.PAYLOAD_TILE_BYTES);
+        int second = payload.getInt();
+        assertEquals((1 << z) - 1, first);
+        assertEquals(0, second);
+    }
+
+    @Test
+    public void inaccurateOrStaleFixesAreRejected() throws IOException {
+        CoverageTileIndex index = new CoverageTileIndex(tempDir());
+        assertTrue(!index.record(28.6, 77.2, 500f, tick(T0, 40f), T0));
+        assertTrue(!index.record(28.6, 77.2, 5f, tick(T0 - 60000, 40f), T0));
+        assertTrue(!index.record(28.6, 77.2, 5f, null, T0));
+        assertEquals(3L, index.stats().get("rejected"));
+        assertEquals(0, index.stats().get("tiles"));
+    }
+
+    // =============== FIXTURES ===============
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("coverage").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    private static ByteBuffer payload(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** One GPS SV used in the fix plus one NavIC SV per C/N0, the first of them used */
+    private static GnssSnapshot tick(long timestampMs, float... navicCn0) {
+        int n = navicCn0.length + 1;
+        int[] constellations = new int[n];
+        int[] svids = new int[n];
+        float[] cn0 = new float[n];
+        int[] flags = new int[n];
+        constellations[0] = GPS;
+        svids[0] = 5;
+        cn0[0] = 40f;
+        flags[0] = GnssSnapshot.FLAG_USED_IN_FIX;
+        for (int i = 1; i < n; i++) {
+            constellations[i] = IRNSS;
+            svids[i] = i;
+            cn0[i] = navicCn0[i - 1];
+        }
+        if (n > 1) flags[1] = GnssSnapshot.FLAG_USED_IN_FIX;
+        return new GnssSnapshot(1, timestampMs, n, constellations, svids, cn0,
+                new float[n], new float[n], new float[n], flags, new byte[n]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class EpochPublisherTest {
+
+    /** Mutable record standing in for EnhancedSatellite */
+    private static final class Record {
+        int value;
+
+        Record(int value) {
+            this.value = value;
+        }
+    }
+
+    private int copies = 0;
+    private int reusedCopies = 0;
+
+    private EpochPublisher<Record, String> publisher() {
+        return new EpochPublisher<>((source, reuse) -> {
+            copies++;
+            if (reuse == null) return new Record(source.value);
+            reusedCopies++;
+            reuse.value = source.value;
+            return reuse;
+        }, "empty");
+    }
+
+    @Test
+    public void readersShareThePublishedEpochWithoutCopying() {
+        EpochPublisher<Record, String> publisher = publisher();
+        publisher.publish(Arrays.asList(new Record(1), new Record(2), new Record(3)), "first");
+        int copiesAfterPublish = copies;
+
+        try (EpochPublisher.Epoch<Record, String> a = publisher.acquire();
+             EpochPublisher.Epoch<Record, String> b = publisher.acquire()) {
+            assertSame(a, b);
+            assertEquals(3, a.size());
+            assertEquals("first", a.attachment);
+        }
+        assertEquals(copiesAfterPublish, copies);
+    }
+
+    @Test
+    public void pinnedEpochKeepsItsRecordsAcrossAPublish() {
+        EpochPublisher<Record, String> publisher = publisher();
+        Record live = new Record(7);
+        publisher.publish(Arrays.asList(live), "first");
+
+        EpochPublisher.Epoch<Record, String> pinned = publisher.acquire();
+        live.value = 8;
+        publisher.publish(Arrays.asList(live), "second");
+
+        assertEquals(7, pinned.get(0).value);
+        try (EpochPublisher.Epoch<Record, String> current = publisher.acquire()) {
+            assertNotSame(pinned, current);
+            assertEquals(8, current.get(0).value);
+            assertEquals(pinned.number + 1, current.number);
+        }
+        pinned.close();
+    }
+
+    @Test
+    public void retiredRecordsAreReusedOnceReadersClose() {
+        EpochPublisher<Record, String> publisher = publisher();
+        Record live = new Record(1);
+        publisher.publish(Arrays.asList(live), "first");
+        publisher.acquire().close();
+        publisher.publish(Arrays.asList(live), "second");
+        publisher.publish(Arrays.asList(live), "third");
+
+        Map<String, Object> stats = publisher.getStats();
+        assertEquals(3L, publisher.currentEpoch());
+        assertEquals(1, reusedCopies);
+        assertEquals(1L, stats.get("arraysReused"));
+    }
+}
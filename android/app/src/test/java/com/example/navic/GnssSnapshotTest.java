@@ -0,0 +1,68 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GnssSnapshotTest {
+    private static final int GPS = 1;
+    private static final int IRNSS = 7;
+
+    @Test
+    public void dualBandSatellitesCountOnce() {
+        // GPS 5 on L1 and L5, NavIC 3 on L5 and S, GPS 9 on L1 only
+        GnssSnapshot snapshot = snapshot(
+                new int[]{GPS, IRNSS, GPS, IRNSS, GPS},
+                new int[]{5, 3, 5, 3, 9},
+                new float[]{38f, 30f, 41f, 26f, 22f},
+                new int[]{GnssSnapshot.FLAG_USED_IN_FIX, 0, 0, GnssSnapshot.FLAG_USED_IN_FIX, 0});
+
+        assertEquals(5, snapshot.satelliteCount);
+        assertEquals(3, snapshot.svCount);
+    }
+
+    @Test
+    public void eachSatelliteIsRepresentedByItsStrongestSignal() {
+        GnssSnapshot snapshot = snapshot(
+                new int[]{GPS, IRNSS, GPS, IRNSS},
+                new int[]{5, 3, 5, 3},
+                new float[]{38f, 30f, 41f, 26f},
+                new int[]{0, 0, 0, 0});
+
+        assertEquals(2, snapshot.svSignal(0));
+        assertEquals(41f, snapshot.cn0DbHz(snapshot.svSignal(0)), 0f);
+        assertEquals(1, snapshot.svSignal(1));
+    }
+
+    @Test
+    public void flagsAreMergedAcrossBands() {
+        GnssSnapshot snapshot = snapshot(
+                new int[]{IRNSS, IRNSS, GPS},
+                new int[]{3, 3, 3},
+                new float[]{30f, 26f, 40f},
+                new int[]{GnssSnapshot.FLAG_HAS_ALMANAC, GnssSnapshot.FLAG_USED_IN_FIX, 0});
+
+        // Same svid in another constellation is a different satellite
+        assertEquals(2, snapshot.svCount);
+        assertTrue(snapshot.svUsedInFix(0));
+        assertTrue(snapshot.svHasAlmanac(0));
+        assertFalse(snapshot.svHasEphemeris(0));
+        assertFalse(snapshot.svUsedInFix(1));
+    }
+
+    @Test
+    public void emptyTickHasNoSatellites() {
+        GnssSnapshot snapshot = snapshot(new int[0], new int[0], new float[0], new int[0]);
+        assertEquals(0, snapshot.svCount);
+    }
+
+    // =============== FIXTURES ===============
+
+    private static GnssSnapshot snapshot(int[] constellations, int[] svids, float[] cn0, int[] flags) {
+        int n = svids.length;
+        return new GnssSnapshot(1, 0, n, constellations, svids, cn0,
+                new float[n], new float[n], new float[n], flags, new byte[n]);
+    }
+}
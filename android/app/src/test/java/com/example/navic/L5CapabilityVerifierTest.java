@@ -0,0 +1,53 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Wilson score bounds behind the NOT_OBSERVED verdict and the L5 confidence.
+ */
+public class L5CapabilityVerifierTest {
+    private static final double Z2 = 1.96 * 1.96;
+
+    @Test
+    public void noTrialsGiveTheWholeInterval() {
+        assertEquals(0.0, L5CapabilityVerifier.wilsonLower(0, 0), 0.0);
+        assertEquals(1.0, L5CapabilityVerifier.wilsonUpper(0, 0), 0.0);
+    }
+
+    @Test
+    public void zeroSuccessesHaveTheClosedFormUpperBound() {
+        for (long n : new long[]{1, 10, 120, 1000}) {
+            assertEquals(0.0, L5CapabilityVerifier.wilsonLower(0, n), 1e-12);
+            assertEquals(Z2 / (n + Z2), L5CapabilityVerifier.wilsonUpper(0, n), 1e-12);
+        }
+    }
+
+    @Test
+    public void absenceNeedsEnoughCarrierTicksToBoundTheL5Rate() {
+        // The upper bound on a 0/n rate first drops under 2% at n = 189
+        assertTrue(L5CapabilityVerifier.wilsonUpper(0, 188) >= 0.02);
+        assertTrue(L5CapabilityVerifier.wilsonUpper(0, 189) < 0.02);
+    }
+
+    @Test
+    public void boundsAreSymmetricAndContainTheRate() {
+        long[][] cases = {{1, 10}, {3, 120}, {10, 20}, {57, 60}};
+        for (long[] c : cases) {
+            double lower = L5CapabilityVerifier.wilsonLower(c[0], c[1]);
+            double upper = L5CapabilityVerifier.wilsonUpper(c[0], c[1]);
+            double rate = (double) c[0] / c[1];
+            assertTrue(lower < rate && rate < upper);
+            assertEquals(1.0 - upper, L5CapabilityVerifier.wilsonLower(c[1] - c[0], c[1]), 1e-12);
+        }
+    }
+
+    @Test
+    public void intervalNarrowsWithMoreTrials() {
+        double wide = L5CapabilityVerifier.wilsonUpper(5, 50) - L5CapabilityVerifier.wilsonLower(5, 50);
+        double narrow = L5CapabilityVerifier.wilsonUpper(50, 500) - L5CapabilityVerifier.wilsonLower(50, 500);
+        assertTrue(narrow < wide);
+    }
+}
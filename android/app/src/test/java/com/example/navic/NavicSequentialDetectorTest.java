@@ -0,0 +1,239 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the session traces under resources/sessions (one TickEvidence map
+ * per CSV row, the format getDetectionDecisionStats exports) through the SPRT
+ * and the legacy shadow rules.
+ */
+public class NavicSequentialDetectorTest {
+    private static final long WINDOW_MS = 30000L;
+    /** Window of sessions started with no NavIC SV predicted above the mask */
+    private static final long SHORT_WINDOW_MS = 10000L;
+
+    private static final String[] ALL_SESSIONS = {
+            "navic_present_open_sky.csv",
+            "navic_present_weak_indoor.csv",
+            "navic_absent_warm_receiver.csv",
+            "navic_absent_cold_start.csv",
+            "navic_absent_spurious_report.csv",
+            "navic_blocked_arc.csv",
+    };
+
+    @Test
+    public void openSkyDecidesPresentBeforeLegacyRules() throws IOException {
+        NavicSequentialDetector detector = replay(session("navic_present_open_sky.csv"));
+
+        assertEquals(NavicSequentialDetector.Decision.NAVIC_PRESENT, detector.getDecision());
+        Map<String, Object> result = detector.toMap();
+        assertEquals("SPRT", result.get("method"));
+        assertTrue((Boolean) result.get("legacyDetected"));
+        assertTrue((Long) result.get("decisionTimeMs") < (Long) result.get("legacyDecisionTimeMs"));
+    }
+
+    @Test
+    public void intermittentWeakTrackDecidesPresentWithoutWaitingForTimeout() throws IOException {
+        NavicSequentialDetector detector = replay(session("navic_present_weak_indoor.csv"));
+
+        assertEquals(NavicSequentialDetector.Decision.NAVIC_PRESENT, detector.getDecision());
+        assertEquals("SPRT", detector.toMap().get("method"));
+        // The legacy rules never see three consecutive ticks and fall back to the timeout
+        assertEquals(WINDOW_MS, ((Long) detector.toMap().get("legacyDecisionTimeMs")).longValue());
+    }
+
+    @Test
+    public void warmReceiverWithoutNavicIsRejectedEarly() throws IOException {
+        NavicSequentialDetector detector = replay(session("navic_absent_warm_receiver.csv"));
+
+        assertEquals(NavicSequentialDetector.Decision.NAVIC_ABSENT, detector.getDecision());
+        assertEquals("SPRT", detector.toMap().get("method"));
+        assertTrue((Long) detector.toMap().get("decisionTimeMs") < WINDOW_MS / 2);
+    }
+
+    @Test
+    public void coldStartIsNotRejectedWhileNothingIsTracked() throws IOException {
+        NavicSequentialDetector detector = new NavicSequentialDetector(new NavicSequentialDetector.Config());
+        for (NavicSequentialDetector.TickEvidence tick : session("navic_absent_cold_start.csv")) {
+            NavicSequentialDetector.Decision decision = detector.update(tick);
+            if (tick.otherSvsWithSignal == 0) {
+                assertEquals("decided at " + tick.elapsedMs + " ms with a cold receiver",
+                        NavicSequentialDetector.Decision.CONTINUE, decision);
+            }
+        }
+        assertEquals(NavicSequentialDetector.Decision.NAVIC_ABSENT, detector.getDecision());
+    }
+
+    @Test
+    public void singleSpuriousReportDoesNotDeclarePresence() throws IOException {
+        NavicSequentialDetector detector = replay(session("navic_absent_spurious_report.csv"));
+
+        assertEquals(NavicSequentialDetector.Decision.NAVIC_ABSENT, detector.getDecision());
+        // The legacy timeout rule counts any IRNSS report as presence
+        assertTrue((Boolean) detector.toMap().get("legacyDetected"));
+    }
+
+    @Test
+    public void blockedNavicArcIsNotRejectedBeforeTheWindowEnds() throws IOException {
+        NavicSequentialDetector detector = new NavicSequentialDetector(new NavicSequentialDetector.Config());
+        for (NavicSequentialDetector.TickEvidence tick : session("navic_blocked_arc.csv")) {
+            assertEquals(NavicSequentialDetector.Decision.CONTINUE, detector.update(tick));
+        }
+        detector.truncate(WINDOW_MS);
+        assertEquals("SPRT_TRUNCATED", detector.toMap().get("method"));
+    }
+
+    @Test
+    public void waldBoundsFollowConfiguredErrorRates() {
+        NavicSequentialDetector.Config config = new NavicSequentialDetector.Config();
+        Map<String, Object> result = new NavicSequentialDetector(config).toMap();
+
+        assertEquals(Math.log((1 - config.falseNegativeRate) / config.falsePositiveRate),
+                (Double) result.get("upperBound"), 1e-12);
+        assertEquals(Math.log(config.falseNegativeRate / (1 - config.falsePositiveRate)),
+                (Double) result.get("lowerBound"), 1e-12);
+    }
+
+    @Test
+    public void noSingleTickCanDecide() {
+        NavicSequentialDetector.Config config = new NavicSequentialDetector.Config();
+        NavicSequentialDetector detector = new NavicSequentialDetector(config);
+        NavicSequentialDetector.TickEvidence strong =
+                new NavicSequentialDetector.TickEvidence(1000, 7, 7, 45f, 7, 7, 20);
+        NavicSequentialDetector.TickEvidence empty =
+                new NavicSequentialDetector.TickEvidence(1000, 0, 0, 0f, 0, 0, 40);
+
+        assertEquals(config.maxTickLlr, detector.tickLogLikelihoodRatio(strong), 1e-12);
+        assertTrue(detector.tickLogLikelihoodRatio(empty) >= -config.maxTickLlr);
+        assertEquals(NavicSequentialDetector.Decision.CONTINUE, detector.update(strong));
+    }
+
+    @Test
+    public void ticksAfterTheDecisionOnlyFeedTheLegacyShadow() throws IOException {
+        NavicSequentialDetector detector = new NavicSequentialDetector(new NavicSequentialDetector.Config());
+        List<NavicSequentialDetector.TickEvidence> ticks = session("navic_present_open_sky.csv");
+        int fed = 0;
+        for (NavicSequentialDetector.TickEvidence tick : ticks) {
+            detector.update(tick);
+            fed++;
+            if (detector.isLegacyDecided()) break;
+        }
+
+        Map<String, Object> result = detector.toMap();
+        assertTrue((Integer) result.get("ticks") < fed);
+        assertEquals(fed, detector.getTrace().size());
+        assertEquals(NavicSequentialDetector.Decision.NAVIC_PRESENT, detector.getDecision());
+    }
+
+    @Test
+    public void fullLengthSessionsAreNotCensored() throws IOException {
+        List<List<NavicSequentialDetector.TickEvidence>> sessions = new ArrayList<>();
+        for (String name : ALL_SESSIONS) sessions.add(session(name));
+
+        Map<String, Object> report = NavicSequentialDetector.evaluateSessions(
+                new NavicSequentialDetector.Config(), sessions, WINDOW_MS);
+
+        assertEquals(ALL_SESSIONS.length, ((Integer) report.get("sessionCount")).intValue());
+        assertEquals(0, ((Integer) report.get("legacyCensoredCount")).intValue());
+        assertTrue((Double) report.get("sprtMeanDecisionMs") < (Double) report.get("legacyMeanDecisionMs"));
+        assertEquals(2, ((Integer) report.get("sprtPresentCount")).intValue());
+    }
+
+    @Test
+    public void traceCutAtTheSprtDecisionIsCensored() throws IOException {
+        List<NavicSequentialDetector.TickEvidence> cut = new ArrayList<>();
+        NavicSequentialDetector live = new NavicSequentialDetector(new NavicSequentialDetector.Config());
+        for (NavicSequentialDetector.TickEvidence tick : session("navic_present_open_sky.csv")) {
+            cut.add(tick);
+            if (live.update(tick) != NavicSequentialDetector.Decision.CONTINUE) break;
+        }
+
+        Map<String, Object> report = NavicSequentialDetector.evaluateSessions(
+                new NavicSequentialDetector.Config(),
+                Arrays.asList(cut, session("navic_absent_warm_receiver.csv")), WINDOW_MS);
+
+        assertEquals(1, ((Integer) report.get("legacyCensoredCount")).intValue());
+        // Only the uncensored absent session counts towards the legacy mean
+        assertEquals((double) WINDOW_MS, (Double) report.get("legacyMeanDecisionMs"), 1e-9);
+    }
+
+    @Test
+    public void shortWindowSessionIsJudgedAgainstItsOwnWindow() throws IOException {
+        List<NavicSequentialDetector.TickEvidence> ticks = session("navic_not_expected_short_window.csv");
+
+        Map<String, Object> report = NavicSequentialDetector.evaluateSessions(new NavicSequentialDetector.Config(),
+                Arrays.asList(new NavicSequentialDetector.RecordedSession(ticks, SHORT_WINDOW_MS)));
+        assertEquals(0, ((Integer) report.get("legacyCensoredCount")).intValue());
+        assertEquals((double) SHORT_WINDOW_MS, (Double) report.get("legacyMeanDecisionMs"), 1e-9);
+        assertEquals((double) SHORT_WINDOW_MS, (Double) report.get("sprtMeanDecisionMs"), 1e-9);
+
+        // Against the full window the same trace looks cut short
+        Map<String, Object> fixed = NavicSequentialDetector.evaluateSessions(
+                new NavicSequentialDetector.Config(), Arrays.asList(ticks), WINDOW_MS);
+        assertEquals(1, ((Integer) fixed.get("legacyCensoredCount")).intValue());
+    }
+
+    @Test
+    public void tickEvidenceSurvivesTheChannelMapFormat() {
+        NavicSequentialDetector.TickEvidence tick =
+                new NavicSequentialDetector.TickEvidence(4200, 3, 1, 31.5f, 2, 3, 11, 0.75f);
+        NavicSequentialDetector.TickEvidence copy = NavicSequentialDetector.TickEvidence.fromMap(tick.toMap());
+
+        assertEquals(tick.toMap(), copy.toMap());
+        assertFalse(copy.navicSkyOpenness == 1.0f);
+    }
+
+    // =============== FIXTURES ===============
+
+    private static NavicSequentialDetector replay(List<NavicSequentialDetector.TickEvidence> ticks) {
+        NavicSequentialDetector detector = new NavicSequentialDetector(new NavicSequentialDetector.Config());
+        for (NavicSequentialDetector.TickEvidence tick : ticks) {
+            detector.update(tick);
+        }
+        detector.truncate(WINDOW_MS);
+        return detector;
+    }
+
+    /** CSV with a header of TickEvidence map keys; '#' lines are comments */
+    private static List<NavicSequentialDetector.TickEvidence> session(String name) throws IOException {
+        InputStream in = NavicSequentialDetectorTest.class.getResourceAsStream("/sessions/" + name);
+        if (in == null) throw new IOException("Missing fixture " + name);
+
+        List<NavicSequentialDetector.TickEvidence> ticks = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] cells = line.split(",");
+                if (header == null) {
+                    header = cells;
+                    continue;
+                }
+                Map<String, Object> tick = new HashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    tick.put(header[i], cells[i].contains(".") ? (Object) Double.parseDouble(cells[i])
+                            : (Object) Long.parseLong(cells[i]));
+                }
+                ticks.add(NavicSequentialDetector.TickEvidence.fromMap(tick));
+            }
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PositionKalmanFilterTest {
+    private static final double LAT = 28.6139;
+    private static final double LON = 77.2090;
+    /** Metres per degree of latitude on the filter's sphere */
+    private static final double M_PER_DEG = 6371008.8 * Math.PI / 180;
+
+    @Test
+    public void firstFixStartsTheFilterAtThatFix() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        assertFalse(filter.isInitialized());
+
+        assertTrue(filter.update(1000, LAT, LON, 5.0, 0, 0, 1.0));
+        assertTrue(filter.isInitialized());
+        assertEquals(LAT, filter.latitude(), 1e-9);
+        assertEquals(LON, filter.longitude(), 1e-9);
+        assertEquals(5.0, filter.positionAccuracy(), 1e-9);
+    }
+
+    @Test
+    public void repeatedFixesShrinkTheUncertainty() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        for (int i = 0; i < 20; i++) {
+            filter.update(1000 + i * 1000L, LAT, LON, 10.0, 0, 0, 1.0);
+        }
+        assertTrue(filter.positionAccuracy() < 10.0);
+        assertEquals(0.0, filter.speed(), 0.05);
+    }
+
+    @Test
+    public void constantVelocityIsLearned() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        // 5 m/s due north
+        for (int i = 0; i < 60; i++) {
+            filter.update(1000 + i * 1000L, LAT + 5.0 * i / M_PER_DEG, LON, 3.0, 0, 0, 1.0);
+        }
+        assertEquals(5.0, filter.velocityNorth(), 0.1);
+        assertEquals(0.0, filter.velocityEast(), 0.1);
+        assertEquals(0.0, filter.bearing() > 180 ? filter.bearing() - 360 : filter.bearing(), 2.0);
+    }
+
+    @Test
+    public void outOfOrderFixesAreRejected() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        filter.update(5000, LAT, LON, 5.0, 0, 0, 1.0);
+
+        assertFalse(filter.update(4000, LAT + 0.001, LON, 5.0, 0, 0, 1.0));
+        assertEquals(LAT, filter.latitude(), 1e-9);
+        assertEquals(1L, filter.toMap().get("rejectedOutOfOrder"));
+    }
+
+    @Test
+    public void longGapsAndOutliersRestartTheFilter() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        filter.update(1000, LAT, LON, 5.0, 0, 0, 1.0);
+        filter.update(2000, LAT, LON, 5.0, 0, 0, 1.0);
+
+        // 1 km jump with 5 m accuracy is far beyond the reset threshold
+        filter.update(3000, LAT + 1000 / M_PER_DEG, LON, 5.0, 0, 0, 1.0);
+        assertEquals(LAT + 1000 / M_PER_DEG, filter.latitude(), 1e-9);
+
+        filter.update(3000 + 60000, LAT, LON, 5.0, 0, 0, 1.0);
+        assertEquals(LAT, filter.latitude(), 1e-9);
+        assertEquals(2L, filter.toMap().get("resets"));
+    }
+
+    @Test
+    public void qualityScaleRewardsNavicAndPenalisesObstruction() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+
+        assertEquals(1.0, filter.qualityScale(0, 30.0, 1.0), 1e-12);
+        assertTrue(filter.qualityScale(4, 30.0, 1.0) < 1.0);
+        assertTrue(filter.qualityScale(0, 30.0, 0.5) > 1.0);
+        // Unknown C/N0 leaves the scale alone
+        assertEquals(1.0, filter.qualityScale(0, 0.0, 1.0), 1e-12);
+    }
+
+    @Test
+    public void qualityScaleIsClamped() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        Map<String, Object> args = new HashMap<>();
+        args.put("minQualityScale", 0.8);
+        args.put("maxQualityScale", 1.5);
+        filter.configure(args);
+
+        assertEquals(0.8, filter.qualityScale(30, 50.0, 1.0), 1e-12);
+        assertEquals(1.5, filter.qualityScale(0, 10.0, 0.0), 1e-12);
+    }
+
+    @Test
+    public void frameMapCovarianceIsBlockDiagonal() {
+        PositionKalmanFilter filter = new PositionKalmanFilter();
+        filter.update(1000, LAT, LON, 5.0, 0, 0, 1.0);
+        filter.update(2000, LAT, LON, 5.0, 0, 0, 1.0);
+
+        double[] p = (double[]) filter.toFrameMap().get("covariance");
+        assertEquals(16, p.length);
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(p[row * 4 + col], p[col * 4 + row], 1e-12);
+                if ((row + col) % 2 == 1) assertEquals(0.0, p[row * 4 + col], 0.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ResponseCacheTest {
+    private static final String REPORT = "getGnssDiversityReport";
+
+    @Test
+    public void answerIsReusedForItsEpoch() {
+        ResponseCache cache = new ResponseCache(() -> 3);
+        Object report = new Object();
+        cache.putForEpoch(REPORT, 3, cache.generation(), report);
+
+        assertSame(report, cache.getForEpoch(REPORT, 3));
+        assertNull(cache.getForEpoch(REPORT, 4));
+    }
+
+    @Test
+    public void slowBuilderDoesNotReplaceANewerEpoch() {
+        ResponseCache cache = new ResponseCache(() -> 5);
+        Object newer = new Object();
+        long generation = cache.generation();
+        cache.putForEpoch(REPORT, 5, generation, newer);
+        cache.putForEpoch(REPORT, 4, generation, new Object());
+
+        assertSame(newer, cache.getForEpoch(REPORT, 5));
+    }
+
+    @Test
+    public void answerBuiltBeforeAnInvalidationIsDropped() {
+        ResponseCache cache = new ResponseCache(() -> 7);
+        // Dispatch reads the generation, the handler reads the old L5 verdict...
+        long generation = cache.generation();
+        Object stale = new Object();
+        // ...the verdict changes on the main thread...
+        cache.invalidateAll();
+        // ...and the handler's reply arrives under the same epoch
+        cache.putForEpoch(REPORT, 7, generation, stale);
+
+        assertNull(cache.getForEpoch(REPORT, 7));
+        assertEquals(1L, cache.stats().get("staleWritesDropped"));
+
+        Object fresh = new Object();
+        cache.putForEpoch(REPORT, 7, cache.generation(), fresh);
+        assertSame(fresh, cache.getForEpoch(REPORT, 7));
+    }
+
+    @Test
+    public void ttlAnswerBuiltBeforeAnInvalidationIsDropped() {
+        ResponseCache cache = new ResponseCache(() -> 0);
+        long generation = cache.generation();
+        cache.invalidateAll();
+        cache.putWithTtl("getDeviceInfo", 5000, generation, new Object());
+
+        assertNull(cache.getUnexpired("getDeviceInfo"));
+    }
+
+    @Test
+    public void invalidationClearsAnswersAlreadyStored() {
+        ResponseCache cache = new ResponseCache(() -> 2);
+        cache.putForEpoch(REPORT, 2, cache.generation(), new Object());
+        cache.invalidateAll();
+
+        assertNull(cache.getForEpoch(REPORT, 2));
+        assertEquals(0L, cache.stats().get("staleWritesDropped"));
+    }
+}
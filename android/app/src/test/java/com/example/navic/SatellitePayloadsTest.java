@@ -0,0 +1,119 @@
+package com.example.navic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes FrameWriter output the way SatelliteFrame.decode does on the Dart side.
+ */
+public class SatellitePayloadsTest {
+
+    @Test
+    public void frameHeaderCarriesCountAndTableOffset() {
+        SatellitePayloads.FrameWriter writer = SatellitePayloads.FrameWriter.get().begin(1234L, 42L, 2);
+        writer.satellite("IRNSS", "IN", "L5", 3, 0, 30f, 45f, 120f, 1176.45e6, 1000L, 5, 7, 2);
+        writer.satellite("GPS", "US", "L1", 12, 0, 40f, 10f, 300f, 1575.42e6, 2000L, 9, 1, 1);
+        byte[] frame = writer.finish();
+        ByteBuffer data = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(SatellitePayloads.FrameWriter.MAGIC, data.getInt(0));
+        assertEquals(SatellitePayloads.FrameWriter.VERSION, data.get(4));
+        assertEquals(1234L, data.getLong(5));
+        assertEquals(42L, data.getLong(13));
+        assertEquals(2, data.getInt(21));
+        assertEquals(29 + 2 * SatellitePayloads.FrameWriter.SATELLITE_BYTES, data.getInt(25));
+    }
+
+    @Test
+    public void satelliteRecordsRoundTrip() {
+        int status = SatellitePayloads.FrameWriter.STATUS_USED_IN_FIX
+                | SatellitePayloads.FrameWriter.STATUS_HAS_ALMANAC;
+        SatellitePayloads.FrameWriter writer = SatellitePayloads.FrameWriter.get().begin(1L, 1L, 2);
+        writer.satellite("IRNSS", "IN", "L5", 260, status, 31.5f, 44.25f, 181.5f, 1176.45e6, 99L, 17, 7, 2);
+        writer.satellite("IRNSS", "IN", "S", 261, 0, 20f, 5f, 6f, 0.0, 100L, 1, 7, 1);
+        byte[] frame = writer.finish();
+        ByteBuffer data = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        List<String> strings = strings(data);
+
+        int p = 29;
+        assertEquals("IRNSS", strings.get(data.get(p)));
+        assertEquals("IN", strings.get(data.get(p + 1)));
+        assertEquals("L5", strings.get(data.get(p + 2)));
+        assertEquals(260, data.getShort(p + 3) & 0xFFFF);
+        assertEquals(status, data.get(p + 5));
+        assertEquals(31.5f, data.getFloat(p + 6), 0f);
+        assertEquals(44.25f, data.getFloat(p + 10), 0f);
+        assertEquals(181.5f, data.getFloat(p + 14), 0f);
+        assertEquals(1176.45e6, data.getDouble(p + 18), 0.0);
+        assertEquals(99L, data.getLong(p + 26));
+        assertEquals(17, data.getInt(p + 34));
+        assertEquals(7, data.get(p + 38));
+        assertEquals(2, data.get(p + 39));
+
+        p += SatellitePayloads.FrameWriter.SATELLITE_BYTES;
+        assertEquals("S", strings.get(data.get(p + 2)));
+        assertEquals(1, data.get(p + 39));
+    }
+
+    @Test
+    public void repeatedLabelsShareOneStringTableEntry() {
+        SatellitePayloads.FrameWriter writer = SatellitePayloads.FrameWriter.get().begin(1L, 1L, 2);
+        writer.satellite("GPS", "US", "L1", 1, 0, 0f, 0f, 0f, 0.0, 0L, 0, 1, 1);
+        writer.satellite("GPS", "US", "L1", 2, 0, 0f, 0f, 0f, 0.0, 0L, 0, 1, 1);
+        byte[] frame = writer.finish();
+        ByteBuffer data = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(3, strings(data).size());
+    }
+
+    @Test
+    public void writerIsReusedPerThreadAndResetByBegin() {
+        SatellitePayloads.FrameWriter writer = SatellitePayloads.FrameWriter.get();
+        assertSame(writer, SatellitePayloads.FrameWriter.get());
+
+        writer.begin(1L, 1L, 1).satellite("QZSS", "JP", "L1", 193, 0, 0f, 0f, 0f, 0.0, 0L, 0, 4, 1);
+        writer.finish();
+        byte[] frame = writer.begin(2L, 2L, 0).finish();
+        ByteBuffer data = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(0, data.getInt(21));
+        assertEquals(0, strings(data).size());
+        assertEquals(29 + 1, frame.length);
+    }
+
+    @Test
+    public void labelFactoryRunsOncePerSatellite() {
+        int[] created = {0};
+        SatellitePayloads.LabelFactory factory = (constellation, svid) -> {
+            created[0]++;
+            return new SatellitePayloads.SvLabels("IRNSS", "IN", "IRNSS-" + svid, "NavIC");
+        };
+
+        SatellitePayloads.SvLabels first = SatellitePayloads.labels(7, 201, factory);
+        assertSame(first, SatellitePayloads.labels(7, 201, factory));
+        assertEquals(1, created[0]);
+    }
+
+    // =============== FIXTURES ===============
+
+    private static List<String> strings(ByteBuffer data) {
+        int offset = data.getInt(25);
+        int count = data.get(offset++) & 0xFF;
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int length = data.getShort(offset) & 0xFFFF;
+            offset += 2;
+            strings.add(new String(data.array(), offset, length, StandardCharsets.UTF_8));
+            offset += length;
+        }
+        return strings;
+    }
+}
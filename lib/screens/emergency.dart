@@ -1,8 +1,8 @@
 import 'package:flutter/material.dart';
 import 'package:url_launcher/url_launcher.dart';
 import 'package:share_plus/share_plus.dart';
-import 'dart:async';
 import '../services/location_service.dart';
+import '../services/hardware_services.dart';
 import 'package:geolocator/geolocator.dart';
 
 class EmergencyPage extends StatefulWidget {
@@ -17,8 +17,8 @@ class _EmergencyPageState extends State<EmergencyPage> {
   bool _isLoading = false;
   String _currentStatus = "Ready";
   bool _isLiveTracking = false;
-  Timer? _locationUpdateTimer;
   EnhancedPosition? _lastPosition;
+  String _emergencyTrail = "";
   String _locationSource = "GPS";
   bool _hasL5Band = false;
   String _chipsetVendor = "Unknown";
@@ -34,6 +34,8 @@ class _EmergencyPageState extends State<EmergencyPage> {
 
   void _initializeLocationService() async {
     await _locationService.startRealTimeMonitoring();
+    // Keep GNSS warm while the screen is open so share and SMS answer from a hot fix
+    await NavicHardwareService.startEmergencyTracking(batchIntervalMs: 30000);
     
     final serviceStats = _locationService.getServiceStats();
     setState(() {
@@ -90,7 +92,14 @@ class _EmergencyPageState extends State<EmergencyPage> {
     });
 
     try {
-      EnhancedPosition? enhancedPos = await _locationService.getCurrentLocation();
+      final fix = await NavicHardwareService.getEmergencyFix();
+      EnhancedPosition? enhancedPos =
+          fix.isNotEmpty && fix['stale'] != true ? _positionFromEmergencyFix(fix, "Emergency fix cache") : null;
+      enhancedPos ??= await _locationService.getCurrentLocation();
+      // A stale cached fix still beats sending nothing
+      if (enhancedPos == null && fix.isNotEmpty) {
+        enhancedPos = _positionFromEmergencyFix(fix, "Emergency fix cache (stale)");
+      }
 
       if (enhancedPos == null) {
         _showError("Unable to fetch current location!");
@@ -193,7 +202,7 @@ class _EmergencyPageState extends State<EmergencyPage> {
 
       await _locationService.startRealTimeMonitoring();
 
-      _startPeriodicLocationUpdates();
+      await _startPeriodicLocationUpdates();
 
       // Update service stats
       final serviceStats = _locationService.getServiceStats();
@@ -223,31 +232,58 @@ class _EmergencyPageState extends State<EmergencyPage> {
     }
   }
 
-  void _startPeriodicLocationUpdates() {
-    _locationUpdateTimer = Timer.periodic(const Duration(seconds: 30), (timer) async {
-      if (!_isLiveTracking) {
-        timer.cancel();
-        return;
-      }
+  /// Native emergency mode keeps GNSS warm and pushes a batch every 30 s,
+  /// so the screen no longer polls for a fresh fix.
+  Future<void> _startPeriodicLocationUpdates() async {
+    NavicHardwareService.setEmergencyBatchCallback(_onEmergencyBatch);
+    await NavicHardwareService.startEmergencyTracking(batchIntervalMs: 30000);
+  }
 
-      try {
-        EnhancedPosition? newPos = await _locationService.getCurrentLocation();
-        if (newPos != null) {
-          setState(() {
-            _lastPosition = newPos;
-            _currentStatus = "Live Tracking - ${DateTime.now().toString().split('.').first}";
-            _hasL5Band = _locationService.hasL5Band;
-            _locationSource = newPos.isNavicEnhanced ? "NAVIC" : newPos.primarySystem;
-          });
-        }
-      } catch (e) {
-        print("Periodic update error: $e");
+  void _onEmergencyBatch(Map<String, dynamic> batch) {
+    if (!_isLiveTracking || !mounted) return;
+    final latest = batch['latest'] != null ? Map<String, dynamic>.from(batch['latest'] as Map) : null;
+
+    setState(() {
+      _emergencyTrail = batch['compact'] as String? ?? "";
+      _currentStatus = "Live Tracking - ${DateTime.now().toString().split('.').first}";
+      if (latest != null) {
+        _lastPosition = _positionFromEmergencyFix(latest, "Emergency tracking");
+        _locationSource = _lastPosition!.locationSource;
       }
     });
   }
 
+  /// Fix map from getEmergencyFix or a batch's 'latest' entry
+  EnhancedPosition _positionFromEmergencyFix(Map<String, dynamic> fix, String reason) {
+    final navicUsed = fix['navicUsedInFix'] as int? ?? 0;
+    return EnhancedPosition(
+      latitude: (fix['latitude'] as num).toDouble(),
+      longitude: (fix['longitude'] as num).toDouble(),
+      accuracy: (fix['accuracy'] as num).toDouble(),
+      altitude: (fix['altitude'] as num?)?.toDouble(),
+      speed: (fix['speed'] as num?)?.toDouble(),
+      heading: (fix['bearing'] as num?)?.toDouble(),
+      timestamp: DateTime.fromMillisecondsSinceEpoch(fix['time'] as int),
+      isNavicEnhanced: navicUsed > 0,
+      confidenceScore: _confidenceLevel,
+      locationSource: navicUsed > 0 ? "NAVIC" : "GPS",
+      detectionReason: reason,
+      navicUsedInFix: navicUsed,
+      totalSatellites: fix['satellitesUsedInFix'] as int?,
+      hasL5Band: _hasL5Band,
+      positioningMethod: fix['provider'] as String? ?? "gps",
+      primarySystem: navicUsed > 0 ? "NAVIC" : "GPS",
+      chipsetType: _chipsetModel,
+      chipsetVendor: _chipsetVendor,
+      chipsetModel: _chipsetModel,
+      chipsetConfidence: 0.0,
+      l5Confidence: _l5Confidence,
+    );
+  }
+
+  /// Stops pushing batches to the screen; GNSS stays warm until the page closes
   void _stopLiveTracking() {
-    _locationUpdateTimer?.cancel();
+    NavicHardwareService.setEmergencyBatchCallback(null);
     _locationService.stopRealTimeMonitoring();
     setState(() {
       _isLiveTracking = false;
@@ -354,7 +390,7 @@ Google Maps: $googleMaps
 OpenStreetMap: $openStreetMap
 
 Timestamp: ${DateTime.now().toString().split('.').first}
-
+${_emergencyTrail.isNotEmpty ? "Track: $_emergencyTrail\n" : ""}
 This is an automated emergency message.""";
   }
 
@@ -680,7 +716,7 @@ This is an automated emergency message.""";
   @override
   void dispose() {
     _stopLiveTracking();
-    _locationUpdateTimer?.cancel();
+    NavicHardwareService.stopEmergencyTracking();
     super.dispose();
   }
 }
\ No newline at end of file
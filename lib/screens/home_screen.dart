@@ -2,6 +2,7 @@ import 'package:flutter/material.dart';
 import 'package:flutter_map/flutter_map.dart';
 import 'package:latlong2/latlong.dart';
 import 'package:navic_ss/services/location_service.dart';
+import 'package:navic_ss/services/map_tile_provider.dart';
 import 'package:navic_ss/screens/emergency.dart';
 import 'package:geolocator/geolocator.dart';
 import 'package:permission_handler/permission_handler.dart';
@@ -42,6 +43,7 @@ class _HomeScreenState extends State<HomeScreen> {
   int _navicSatelliteCount = 0;
   int _totalSatelliteCount = 0;
   int _navicUsedInFix = 0;
+  int _expectedNavicSatellites = -1;
   String _positioningMethod = "GPS";
   String _primarySystem = "GPS";
   Map<String, dynamic> _l5BandInfo = {};
@@ -62,10 +64,12 @@ class _HomeScreenState extends State<HomeScreen> {
     'OpenStreetMap Standard': TileLayer(
       urlTemplate: 'https://tile.openstreetmap.org/{z}/{x}/{y}.png',
       userAgentPackageName: 'com.example.navic',
+      tileProvider: NativeTileProvider(source: 'osm'),
     ),
     'ESRI Satellite View': TileLayer(
       urlTemplate: 'https://server.arcgisonline.com/ArcGIS/rest/services/World_Imagery/MapServer/tile/{z}/{y}/{x}',
       userAgentPackageName: 'com.example.navic',
+      tileProvider: NativeTileProvider(source: 'esri'),
     ),
   };
 
@@ -257,6 +261,7 @@ class _HomeScreenState extends State<HomeScreen> {
         _navicSatelliteCount = serviceStats['navicSatellites'] as int? ?? 0;
         _totalSatelliteCount = serviceStats['totalSatellites'] as int? ?? 0;
         _navicUsedInFix = serviceStats['navicUsedInFix'] as int? ?? 0;
+        _expectedNavicSatellites = serviceStats['expectedNavicSatellites'] as int? ?? -1;
         _positioningMethod = serviceStats['positioningMethod'] as String? ?? "GPS";
         _primarySystem = serviceStats['primarySystem'] as String? ?? "GPS";
         _l5BandInfo = serviceStats['l5BandInfo'] as Map<String, dynamic>? ?? {};
@@ -328,6 +333,7 @@ class _HomeScreenState extends State<HomeScreen> {
         _navicSatelliteCount = serviceStats['navicSatellites'] as int? ?? 0;
         _totalSatelliteCount = serviceStats['totalSatellites'] as int? ?? 0;
         _navicUsedInFix = serviceStats['navicUsedInFix'] as int? ?? 0;
+        _expectedNavicSatellites = serviceStats['expectedNavicSatellites'] as int? ?? -1;
         _hasL5Band = serviceStats['hasL5Band'] as bool? ?? false;
         _l5Confidence = (serviceStats['l5Confidence'] as num?)?.toDouble() ?? 0.0;
         _positioningMethod = serviceStats['positioningMethod'] as String? ?? "GPS";
@@ -648,6 +654,7 @@ class _HomeScreenState extends State<HomeScreen> {
           userAgentPackageName: 'com.example.navic',
           subdomains: const ['a', 'b', 'c'],
           maxNativeZoom: 19,
+          tileProvider: NativeTileProvider(source: 'osm'),
         ),
         ...selectedTileLayers,
         if (_currentPosition != null && _locationAcquired)
@@ -1742,6 +1749,10 @@ class _HomeScreenState extends State<HomeScreen> {
               _buildSatelliteStat("NavIC", "$_navicSatelliteCount", Colors.green),
               const SizedBox(width: 12),
               _buildSatelliteStat("In Fix", "$_navicUsedInFix", Colors.orange),
+              if (_expectedNavicSatellites >= 0) ...[
+                const SizedBox(width: 12),
+                _buildSatelliteStat("Expected", "$_expectedNavicSatellites", Colors.purple),
+              ],
             ],
           ),
         ],
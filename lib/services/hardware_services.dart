@@ -1,5 +1,8 @@
 // lib/services/hardware_services.dart
 import 'dart:async';
+import 'dart:convert';
+import 'dart:math' as math;
+import 'dart:typed_data';
 import 'package:flutter/services.dart';
 
 class NavicDetectionResult {
@@ -19,6 +22,9 @@ class NavicDetectionResult {
   final String primarySystem;
   final Map<String, dynamic> l5BandInfo;
   final List<dynamic> allSatellites;
+  final Map<String, dynamic> detectionDecision;
+  /// NavIC SVs the orbit predictor puts above the mask, -1 without a position
+  final int expectedNavicSatellites;
 
   const NavicDetectionResult({
     required this.isSupported,
@@ -37,6 +43,8 @@ class NavicDetectionResult {
     required this.primarySystem,
     required this.l5BandInfo,
     required this.allSatellites,
+    this.detectionDecision = const {},
+    this.expectedNavicSatellites = -1,
   });
 
   factory NavicDetectionResult.fromMap(Map<String, dynamic> map) {
@@ -57,6 +65,10 @@ class NavicDetectionResult {
       primarySystem: map['primarySystem'] as String? ?? 'GPS',
       l5BandInfo: (map['l5BandInfo'] as Map<String, dynamic>?) ?? {},
       allSatellites: (map['allSatellites'] as List<dynamic>?) ?? [],
+      detectionDecision: map['detectionDecision'] != null
+          ? Map<String, dynamic>.from(map['detectionDecision'] as Map)
+          : {},
+      expectedNavicSatellites: map['expectedNavicSatellites'] as int? ?? -1,
     );
   }
 
@@ -78,6 +90,8 @@ class NavicDetectionResult {
       'primarySystem': primarySystem,
       'l5BandInfo': l5BandInfo,
       'allSatellites': allSatellites,
+      'detectionDecision': detectionDecision,
+      'expectedNavicSatellites': expectedNavicSatellites,
     };
   }
 
@@ -87,6 +101,7 @@ class NavicDetectionResult {
         'isSupported: $isSupported, '
         'isActive: $isActive, '
         'satellites: $satelliteCount/$totalSatellites ($usedInFixCount used), '
+        'expected NavIC SVs: $expectedNavicSatellites, '
         'method: $detectionMethod, '
         'confidence: ${(confidenceLevel * 100).toStringAsFixed(1)}%, '
         'chipset: $chipsetVendor $chipsetModel, '
@@ -121,12 +136,155 @@ class PermissionResult {
   });
 }
 
+/// Decoded binary satellite frame from `getSatelliteFrame`. The layout is
+/// written by SatellitePayloads.FrameWriter on the Android side.
+class SatelliteFrame {
+  static const int _magic = 0x3146564E;
+  static const int _version = 2;
+  static const int _satelliteBytes = 40;
+
+  final int timestamp;
+  final int epoch;
+  final List<Map<String, dynamic>> satellites;
+
+  const SatelliteFrame({
+    required this.timestamp,
+    required this.epoch,
+    required this.satellites,
+  });
+
+  /// Returns null when [bytes] is not a version 2 frame.
+  static SatelliteFrame? decode(Uint8List bytes) {
+    final data = ByteData.sublistView(bytes);
+    if (bytes.length < 29 || data.getUint32(0, Endian.little) != _magic || data.getUint8(4) != _version) {
+      return null;
+    }
+    final timestamp = data.getInt64(5, Endian.little);
+    final epoch = data.getInt64(13, Endian.little);
+    final count = data.getInt32(21, Endian.little);
+    var offset = data.getInt32(25, Endian.little);
+
+    final strings = <String>[];
+    final stringCount = data.getUint8(offset++);
+    for (var i = 0; i < stringCount; i++) {
+      final length = data.getUint16(offset, Endian.little);
+      offset += 2;
+      strings.add(utf8.decode(bytes.sublist(offset, offset + length)));
+      offset += length;
+    }
+
+    final satellites = <Map<String, dynamic>>[];
+    var p = 29;
+    for (var i = 0; i < count; i++, p += _satelliteBytes) {
+      final status = data.getUint8(p + 5);
+      final cn0 = data.getFloat32(p + 6, Endian.little);
+      final carrier = data.getFloat64(p + 18, Endian.little);
+      satellites.add({
+        'system': strings[data.getUint8(p)],
+        'countryFlag': strings[data.getUint8(p + 1)],
+        'frequencyBand': strings[data.getUint8(p + 2)],
+        'constellation': data.getUint8(p + 38),
+        'svid': data.getUint16(p + 3, Endian.little),
+        'usedInFix': status & 1 != 0,
+        'hasEphemeris': status & 2 != 0,
+        'hasAlmanac': status & 4 != 0,
+        'cn0DbHz': cn0,
+        'elevation': data.getFloat32(p + 10, Endian.little),
+        'azimuth': data.getFloat32(p + 14, Endian.little),
+        'carrierFrequencyHz': carrier > 0 ? carrier : null,
+        'detectionTime': data.getInt64(p + 26, Endian.little),
+        'detectionCount': data.getInt32(p + 34, Endian.little),
+        'bandCount': data.getUint8(p + 39),
+        'signalStrength': _signalStrength(cn0),
+        'timestamp': timestamp,
+      });
+    }
+    return SatelliteFrame(timestamp: timestamp, epoch: epoch, satellites: satellites);
+  }
+
+  static String _signalStrength(double cn0) {
+    if (cn0 >= 35) return 'EXCELLENT';
+    if (cn0 >= 25) return 'GOOD';
+    if (cn0 >= 18) return 'FAIR';
+    if (cn0 >= 10) return 'WEAK';
+    return 'POOR';
+  }
+}
+
+/// Decoded NavIC coverage tiles from `getCoverageTiles`. The layout is
+/// written by CoverageTileIndex.query on the Android side.
+class CoverageTiles {
+  static const int _magic = 0x3143564E;
+  // CoverageTileIndex.PAYLOAD_VERSION
+  static const int _version = 1;
+  static const int _headerBytes = 18;
+  static const int _tileBytes = 38;
+
+  final int zoom;
+  final int timestamp;
+  final List<Map<String, dynamic>> tiles;
+
+  const CoverageTiles({
+    required this.zoom,
+    required this.timestamp,
+    required this.tiles,
+  });
+
+  /// Returns null when [bytes] is not a version 1 payload.
+  static CoverageTiles? decode(Uint8List bytes) {
+    final data = ByteData.sublistView(bytes);
+    if (bytes.length < _headerBytes || data.getUint32(0, Endian.little) != _magic || data.getUint8(4) != _version) {
+      return null;
+    }
+    final zoom = data.getUint8(5);
+    final count = data.getInt32(6, Endian.little);
+    final timestamp = data.getInt64(10, Endian.little);
+
+    final tiles = <Map<String, dynamic>>[];
+    var p = _headerBytes;
+    for (var i = 0; i < count; i++, p += _tileBytes) {
+      final x = data.getInt32(p, Endian.little);
+      final y = data.getInt32(p + 4, Endian.little);
+      final samples = data.getInt32(p + 8, Endian.little);
+      final navicSamples = data.getInt32(p + 12, Endian.little);
+      tiles.add({
+        'x': x,
+        'y': y,
+        'north': _tileLatitude(y, zoom),
+        'south': _tileLatitude(y + 1, zoom),
+        'west': x / (1 << zoom) * 360.0 - 180.0,
+        'east': (x + 1) / (1 << zoom) * 360.0 - 180.0,
+        'samples': samples,
+        'navicSamples': navicSamples,
+        'usedInFixSamples': data.getInt32(p + 16, Endian.little),
+        'navicAvailability': samples > 0 ? navicSamples / samples : 0.0,
+        'meanNavicSatellites': data.getFloat32(p + 20, Endian.little),
+        'meanNavicCn0': data.getFloat32(p + 24, Endian.little),
+        'maxNavicSatellites': data.getUint16(p + 28, Endian.little),
+        'lastSample': data.getInt64(p + 30, Endian.little),
+      });
+    }
+    return CoverageTiles(zoom: zoom, timestamp: timestamp, tiles: tiles);
+  }
+
+  static double _tileLatitude(int y, int zoom) {
+    final n = math.pi - 2.0 * math.pi * y / (1 << zoom);
+    return 180.0 / math.pi * math.atan(0.5 * (math.exp(n) - math.exp(-n)));
+  }
+}
+
 class NavicHardwareService {
   static const MethodChannel _channel = MethodChannel('navic_support');
+  static const EventChannel _satelliteEvents = EventChannel('navic_support/satellites');
+  static const EventChannel _locationEvents = EventChannel('navic_support/locations');
+  static const EventChannel _detectionEvents = EventChannel('navic_support/detection');
   
   static Function(Map<String, dynamic>)? _permissionResultCallback;
+  static Function(Map<String, dynamic>)? _permissionStateCallback;
   static Function(Map<String, dynamic>)? _satelliteUpdateCallback;
   static Function(Map<String, dynamic>)? _locationUpdateCallback;
+  static Function(Map<String, dynamic>)? _monitorSummaryCallback;
+  static Function(Map<String, dynamic>)? _emergencyBatchCallback;
 
   static void initialize() {
     _channel.setMethodCallHandler(_handleMethodCall);
@@ -138,6 +296,10 @@ class NavicHardwareService {
         final result = call.arguments as Map<String, dynamic>;
         _permissionResultCallback?.call(result);
         break;
+      case 'onPermissionStateChanged':
+        final state = Map<String, dynamic>.from(call.arguments as Map);
+        _permissionStateCallback?.call(state);
+        break;
       case 'onSatelliteUpdate':
         final data = call.arguments as Map<String, dynamic>;
         _satelliteUpdateCallback?.call(data);
@@ -146,15 +308,68 @@ class NavicHardwareService {
         final data = call.arguments as Map<String, dynamic>;
         _locationUpdateCallback?.call(data);
         break;
+      case 'onMonitorSummary':
+        final summary = Map<String, dynamic>.from(call.arguments as Map);
+        _monitorSummaryCallback?.call(summary);
+        break;
+      case 'onEmergencyBatch':
+        final batch = Map<String, dynamic>.from(call.arguments as Map);
+        _emergencyBatchCallback?.call(batch);
+        break;
       default:
         print('Unknown method call: ${call.method}');
     }
     return null;
   }
 
-  static Future<NavicDetectionResult> checkNavicHardware() async {
+  /// Cumulatively acknowledges every streamed frame up to this one, so the
+  /// native rate controller can measure how far behind the UI is.
+  static void _ackStreamFrame(Map<String, dynamic> data) {
+    final seq = data['seq'];
+    final stream = data['stream'];
+    if (seq == null || stream == null) return;
+    _channel.invokeMethod('ackStreamFrame', {'stream': stream, 'seq': seq}).catchError((e) {
+      print('Error acknowledging $stream frame: $e');
+    });
+  }
+
+  /// Satellite frames over the EventChannel. With a [window] above 0 the
+  /// native side keeps at most that many unacknowledged frames in flight and
+  /// coalesces the rest, so a busy isolate never builds up a backlog; the
+  /// default sends every frame without acks.
+  static Stream<Map<String, dynamic>> satelliteStream({int window = 0}) =>
+      _ackedStream(_satelliteEvents, window);
+
+  static Stream<Map<String, dynamic>> locationStream({int window = 0}) =>
+      _ackedStream(_locationEvents, window);
+
+  /// Detection session events: SESSION_STARTED, PROGRESS, DECISION and FAILED.
+  static Stream<Map<String, dynamic>> detectionStream({int window = 0}) =>
+      _ackedStream(_detectionEvents, window);
+
+  static Stream<Map<String, dynamic>> _ackedStream(EventChannel channel, int window) {
+    var received = 0;
+    return channel.receiveBroadcastStream({'window': window}).map((event) {
+      final data = Map<String, dynamic>.from(event as Map);
+      // Acks are cumulative: one per window of frames returns all of its credit
+      if (window > 0 && ++received % window == 0) {
+        _ackStreamFrame(data);
+      }
+      return data;
+    });
+  }
+
+  /// Runs NavIC detection. [falsePositiveRate] and [falseNegativeRate] set the
+  /// bounds of the native sequential test; omitted values use the defaults.
+  static Future<NavicDetectionResult> checkNavicHardware({
+    double? falsePositiveRate,
+    double? falseNegativeRate,
+  }) async {
     try {
-      final result = await _channel.invokeMethod('checkNavicHardware');
+      final result = await _channel.invokeMethod('checkNavicHardware', {
+        if (falsePositiveRate != null) 'falsePositiveRate': falsePositiveRate,
+        if (falseNegativeRate != null) 'falseNegativeRate': falseNegativeRate,
+      });
       return NavicDetectionResult.fromMap(Map<String, dynamic>.from(result as Map));
     } on PlatformException catch (e) {
       print('Error checking NavIC hardware: ${e.message}');
@@ -189,9 +404,11 @@ class NavicHardwareService {
     }
   }
 
-  static Future<RealTimeDetectionResult> startRealTimeDetection() async {
+  static Future<RealTimeDetectionResult> startRealTimeDetection({int? minIntervalMs}) async {
     try {
-      final result = await _channel.invokeMethod('startRealTimeDetection');
+      final result = await _channel.invokeMethod('startRealTimeDetection', {
+        if (minIntervalMs != null) 'minIntervalMs': minIntervalMs,
+      });
       final Map<String, dynamic> data = Map<String, dynamic>.from(result as Map);
       return RealTimeDetectionResult(
         success: data['success'] as bool? ?? false,
@@ -273,6 +490,326 @@ class NavicHardwareService {
     }
   }
 
+  /// Tells the native side how much data the visible screen needs.
+  /// Levels are 'HIGH', 'NORMAL', 'LOW' or 'OFF'. The first call switches the
+  /// native streams from their baseline rates to demand-driven rates.
+  static Future<Map<String, dynamic>> setStreamDemand({String? satellites, String? locations}) async {
+    try {
+      final result = await _channel.invokeMethod('setStreamDemand', {
+        if (satellites != null) 'satellites': satellites,
+        if (locations != null) 'locations': locations,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error setting stream demand: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> configureStreamRate(Map<String, dynamic> config) async {
+    try {
+      final result = await _channel.invokeMethod('configureStreamRate', config);
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error configuring stream rate: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Tune the native GPS/NETWORK/FUSED fix fusion: windowMs, maxAgeMs,
+  /// emitIntervalMs, ageInflationMps, blendScoreRatio, blend.
+  static Future<Map<String, dynamic>> configureFixFusion(Map<String, dynamic> config) async {
+    try {
+      final result = await _channel.invokeMethod('configureFixFusion', config);
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error configuring fix fusion: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Tune the native position/velocity Kalman filter; pass 'reset': true to
+  /// restart it from the next fix. Location frames carry its output under 'filtered'.
+  static Future<Map<String, dynamic>> configureLocationFilter(Map<String, dynamic> config) async {
+    try {
+      final result = await _channel.invokeMethod('configureLocationFilter', config);
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error configuring location filter: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Predicted geosynchronous sky (NavIC, BeiDou GEO, QZSS GEO) at the given
+  /// position, or at the last known one when omitted.
+  static Future<Map<String, dynamic>> predictSatelliteVisibility({
+    double? latitude,
+    double? longitude,
+    double? altitude,
+    double? maskDeg,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('predictSatelliteVisibility', {
+        if (latitude != null) 'latitude': latitude,
+        if (longitude != null) 'longitude': longitude,
+        if (altitude != null) 'altitude': altitude,
+        if (maskDeg != null) 'maskDeg': maskDeg,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error predicting satellite visibility: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> getObstructionMap({
+    double? latitude,
+    double? longitude,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('getObstructionMap', {
+        if (latitude != null) 'latitude': latitude,
+        if (longitude != null) 'longitude': longitude,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting obstruction map: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> predictNavicOutages({
+    double? latitude,
+    double? longitude,
+    double? altitude,
+    int? horizonMinutes,
+    int? stepMinutes,
+    int? minSatellites,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('predictNavicOutages', {
+        if (latitude != null) 'latitude': latitude,
+        if (longitude != null) 'longitude': longitude,
+        if (altitude != null) 'altitude': altitude,
+        if (horizonMinutes != null) 'horizonMinutes': horizonMinutes,
+        if (stepMinutes != null) 'stepMinutes': stepMinutes,
+        if (minSatellites != null) 'minSatellites': minSatellites,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error predicting NavIC outages: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Aggregated NavIC coverage inside a map viewport; [zoom] defaults to the
+  /// most detailed level that fits in [maxTiles] tiles. Longitudes are in
+  /// [-180, 180]; a [west] greater than [east] is a viewport that crosses the
+  /// antimeridian, and tiles from both sides are returned.
+  static Future<CoverageTiles?> getCoverageTiles({
+    required double south,
+    required double west,
+    required double north,
+    required double east,
+    int? zoom,
+    int maxTiles = 1024,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('getCoverageTiles', {
+        'south': south,
+        'west': west,
+        'north': north,
+        'east': east,
+        if (zoom != null) 'zoom': zoom,
+        'maxTiles': maxTiles,
+      });
+      return result is Uint8List ? CoverageTiles.decode(result) : null;
+    } on PlatformException catch (e) {
+      print('Error getting coverage tiles: ${e.message}');
+      return null;
+    }
+  }
+
+  /// Raw bytes of one map tile from the native disk cache, fetched from the
+  /// source on a miss unless the cache is offline.
+  static Future<Uint8List?> getMapTile(String source, int z, int x, int y) async {
+    try {
+      return await _channel.invokeMethod<Uint8List>('getMapTile', {
+        'source': source,
+        'z': z,
+        'x': x,
+        'y': y,
+      });
+    } on PlatformException catch (e) {
+      print('Error getting map tile $source/$z/$x/$y: ${e.message}');
+      return null;
+    }
+  }
+
+  static Future<Map<String, dynamic>> prefetchMapTiles({
+    double? latitude,
+    double? longitude,
+    double? radiusM,
+    int? minZoom,
+    int? maxZoom,
+    String? source,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('prefetchMapTiles', {
+        if (latitude != null) 'latitude': latitude,
+        if (longitude != null) 'longitude': longitude,
+        if (radiusM != null) 'radiusM': radiusM,
+        if (minZoom != null) 'minZoom': minZoom,
+        if (maxZoom != null) 'maxZoom': maxZoom,
+        if (source != null) 'source': source,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error prefetching map tiles: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> configureTileCache(Map<String, dynamic> config) async {
+    try {
+      final result = await _channel.invokeMethod('configureTileCache', config);
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error configuring tile cache: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Time-to-first-fix milestones of the current GNSS session, recent sessions
+  /// and TTFF histograms per start type (COLD / WARM / HOT).
+  static Future<Map<String, dynamic>> getStartupMetrics({int limit = 20}) async {
+    try {
+      final result = await _channel.invokeMethod('getStartupMetrics', {'limit': limit});
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting startup metrics: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> getNativeMetrics() async {
+    try {
+      final result = await _channel.invokeMethod('getNativeMetrics');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting native metrics: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Observed-carrier evidence behind the L5 verdict: per-band tick counts
+  /// with 95% intervals, the verdict and its evidence trail.
+  static Future<Map<String, dynamic>> getL5Evidence({bool reset = false}) async {
+    try {
+      final result = await _channel.invokeMethod('getL5Evidence', {'reset': reset});
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting L5 evidence: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> getGnssSubscriptionStats() async {
+    try {
+      final result = await _channel.invokeMethod('getGnssSubscriptionStats');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting GNSS subscription stats: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Fetches several satellite reports from one native snapshot. [reports] uses
+  /// the single-report method names, e.g. 'getGnssRangeStatistics'; an empty
+  /// list returns every report. The result holds 'reports' and 'errors' maps.
+  static Future<Map<String, dynamic>> getSatelliteReports(List<String> reports) async {
+    try {
+      final result = await _channel.invokeMethod('getSatelliteReports', {'reports': reports});
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting satellite reports: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Detailed satellite info limited to the [fields] (map keys such as
+  /// 'svid', 'cn0DbHz', 'satelliteName', 'healthStatus') and the satellites
+  /// matching [constellations] ('IRNSS', 'GPS', ...), [usedInFixOnly] and
+  /// [minCn0]. With [columnar] the result holds one list per field under
+  /// 'columns' instead of a 'satellites' list. Calling without arguments
+  /// returns every field and may be served from the native epoch cache.
+  static Future<Map<String, dynamic>> getDetailedSatelliteInfo({
+    List<String>? fields,
+    List<String>? constellations,
+    bool usedInFixOnly = false,
+    double? minCn0,
+    bool columnar = false,
+  }) async {
+    final args = <String, dynamic>{
+      if (fields != null) 'fields': fields,
+      if (constellations != null) 'constellations': constellations,
+      if (usedInFixOnly) 'usedInFixOnly': true,
+      if (minCn0 != null) 'minCn0': minCn0,
+      if (columnar) 'columnar': true,
+    };
+    try {
+      final result = await _channel.invokeMethod(
+          'getDetailedSatelliteInfo', args.isEmpty ? null : args);
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting detailed satellite info: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Registry snapshot as one compact binary frame; satellite maps carry the
+  /// same keys as getAllSatellites except the per-band `signals` list.
+  static Future<SatelliteFrame?> getSatelliteFrame() async {
+    try {
+      final result = await _channel.invokeMethod('getSatelliteFrame');
+      return result is Uint8List ? SatelliteFrame.decode(result) : null;
+    } on PlatformException catch (e) {
+      print('Error getting satellite frame: ${e.message}');
+      return null;
+    }
+  }
+
+  static Future<Map<String, dynamic>> getDetectionDecisionStats() async {
+    try {
+      final result = await _channel.invokeMethod('getDetectionDecisionStats');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting detection decision stats: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Replays [sessions] through the detector. [timeoutsMs] holds each
+  /// session's detection window, as exported in `recordedTimeoutsMs`; sessions
+  /// without one are judged against the 30 s window.
+  static Future<Map<String, dynamic>> evaluateDetectionSessions(
+    List<List<Map<String, dynamic>>> sessions, {
+    List<int>? timeoutsMs,
+    Map<String, dynamic>? config,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('evaluateDetectionSessions', {
+        'sessions': sessions,
+        if (timeoutsMs != null) 'timeoutsMs': timeoutsMs,
+        if (config != null) 'config': config,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error evaluating detection sessions: ${e.message}');
+      return {};
+    }
+  }
+
   static Future<Map<String, dynamic>> getDeviceInfo() async {
     try {
       final result = await _channel.invokeMethod('getDeviceInfo');
@@ -283,6 +820,12 @@ class NavicHardwareService {
     }
   }
 
+  /// Called whenever the native permission cache sees a change, e.g. after
+  /// the user returns from the settings screen.
+  static void setPermissionStateCallback(Function(Map<String, dynamic>) callback) {
+    _permissionStateCallback = callback;
+  }
+
   static void setPermissionResultCallback(Function(Map<String, dynamic>) callback) {
     _permissionResultCallback = callback;
   }
@@ -307,6 +850,113 @@ class NavicHardwareService {
     _locationUpdateCallback = null;
   }
 
+  /// Called with each finished background monitor window while attached.
+  static void setMonitorSummaryCallback(Function(Map<String, dynamic>)? callback) {
+    _monitorSummaryCallback = callback;
+  }
+
+  /// Called with each emergency batch (recent fixes, compact SMS text, metrics).
+  static void setEmergencyBatchCallback(Function(Map<String, dynamic>)? callback) {
+    _emergencyBatchCallback = callback;
+  }
+
+  /// Pre-warms GNSS and keeps a hot fix cache until stopped. Batches arrive
+  /// every batchIntervalMs through the emergency batch callback.
+  static Future<Map<String, dynamic>> startEmergencyTracking({
+    int? latencyTargetMs,
+    int? batchIntervalMs,
+  }) async {
+    try {
+      final result = await _channel.invokeMethod('startEmergencyTracking', {
+        if (latencyTargetMs != null) 'latencyTargetMs': latencyTargetMs,
+        if (batchIntervalMs != null) 'batchIntervalMs': batchIntervalMs,
+      });
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error starting emergency tracking: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> stopEmergencyTracking() async {
+    try {
+      final result = await _channel.invokeMethod('stopEmergencyTracking');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error stopping emergency tracking: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Newest fix within the latency target; 'stale' is true when the budget
+  /// ran out before a fresh fix arrived. Empty when no fix exists at all.
+  static Future<Map<String, dynamic>> getEmergencyFix() async {
+    try {
+      final result = await _channel.invokeMethod('getEmergencyFix');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting emergency fix: ${e.message}');
+      return {};
+    }
+  }
+
+  static Future<Map<String, dynamic>> getEmergencyBatch() async {
+    try {
+      final result = await _channel.invokeMethod('getEmergencyBatch');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting emergency batch: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Starts the duty-cycled foreground monitor, or retunes it when running.
+  /// It keeps sampling after the app leaves the screen.
+  static Future<bool> startBackgroundMonitor({int? onMs, int? offMs}) async {
+    try {
+      final result = await _channel.invokeMethod('startBackgroundMonitor', {
+        if (onMs != null) 'onMs': onMs,
+        if (offMs != null) 'offMs': offMs,
+      });
+      return Map<String, dynamic>.from(result as Map)['started'] == true;
+    } on PlatformException catch (e) {
+      print('Error starting background monitor: ${e.message}');
+      return false;
+    }
+  }
+
+  static Future<void> stopBackgroundMonitor() async {
+    try {
+      await _channel.invokeMethod('stopBackgroundMonitor');
+    } on PlatformException catch (e) {
+      print('Error stopping background monitor: ${e.message}');
+    }
+  }
+
+  static Future<Map<String, dynamic>> getBackgroundMonitorStatus() async {
+    try {
+      final result = await _channel.invokeMethod('getBackgroundMonitorStatus');
+      return Map<String, dynamic>.from(result as Map);
+    } on PlatformException catch (e) {
+      print('Error getting background monitor status: ${e.message}');
+      return {};
+    }
+  }
+
+  /// Stored window summaries, newest first.
+  static Future<List<Map<String, dynamic>>> getMonitorSummaries({int limit = 100}) async {
+    try {
+      final result = await _channel.invokeMethod('getMonitorSummaries', {'limit': limit});
+      final data = Map<String, dynamic>.from(result as Map);
+      return (data['summaries'] as List<dynamic>? ?? [])
+          .map((s) => Map<String, dynamic>.from(s as Map))
+          .toList();
+    } on PlatformException catch (e) {
+      print('Error getting monitor summaries: ${e.message}');
+      return [];
+    }
+  }
+
   static Future<bool> startLocationUpdates() async {
     try {
       final result = await _channel.invokeMethod('startLocationUpdates');
@@ -155,6 +155,7 @@ class EnhancedLocationService {
   int _navicSatelliteCount = 0;
   int _totalSatelliteCount = 0;
   int _navicUsedInFix = 0;
+  int _expectedNavicSatellites = -1;
   String _detectionMethod = "UNKNOWN";
   String _primarySystem = "GPS";
   bool _isRealTimeMonitoring = false;
@@ -332,6 +333,7 @@ class EnhancedLocationService {
       _navicSatelliteCount = hardwareResult.satelliteCount;
       _totalSatelliteCount = hardwareResult.totalSatellites;
       _navicUsedInFix = hardwareResult.usedInFixCount;
+      _expectedNavicSatellites = hardwareResult.expectedNavicSatellites;
       _detectionMethod = hardwareResult.detectionMethod;
       _confidenceLevel = hardwareResult.confidenceLevel;
       _chipsetType = hardwareResult.chipsetType;
@@ -438,6 +440,7 @@ class EnhancedLocationService {
     _navicSatelliteCount = 0;
     _totalSatelliteCount = 0;
     _navicUsedInFix = 0;
+    _expectedNavicSatellites = -1;
     _detectionMethod = "ERROR";
     _confidenceLevel = 0.0;
     _chipsetType = "UNKNOWN";
@@ -775,6 +778,7 @@ class EnhancedLocationService {
       'navicActive': _isNavicActive,
       'navicSatellites': _navicSatelliteCount,
       'navicUsedInFix': _navicUsedInFix,
+      'expectedNavicSatellites': _expectedNavicSatellites,
       'totalSatellites': _totalSatelliteCount,
       'primarySystem': _primarySystem,
       'chipsetType': _chipsetType,
@@ -0,0 +1,68 @@
+// lib/services/map_tile_provider.dart
+import 'dart:ui' as ui;
+
+import 'package:flutter/foundation.dart';
+import 'package:flutter/painting.dart';
+import 'package:flutter_map/flutter_map.dart';
+
+import 'hardware_services.dart';
+
+/// Tile provider backed by the native tile cache (MapTileCache on Android),
+/// so panning reuses tiles on disk and the map keeps working offline.
+/// [source] is one of the cache's source names: 'osm', 'esri' or 'local'.
+/// Other platforms load the layer's URL directly.
+class NativeTileProvider extends TileProvider {
+  final String source;
+
+  NativeTileProvider({required this.source});
+
+  @override
+  ImageProvider getImage(TileCoordinates coordinates, TileLayer options) {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return NetworkImage(getTileUrl(coordinates, options));
+    }
+    return NativeTileImage(source, coordinates.z.round(), coordinates.x.round(), coordinates.y.round());
+  }
+}
+
+/// One cached tile; equal keys share an entry in Flutter's image cache.
+class NativeTileImage extends ImageProvider<NativeTileImage> {
+  final String source;
+  final int z;
+  final int x;
+  final int y;
+
+  const NativeTileImage(this.source, this.z, this.x, this.y);
+
+  @override
+  Future<NativeTileImage> obtainKey(ImageConfiguration configuration) {
+    return SynchronousFuture<NativeTileImage>(this);
+  }
+
+  @override
+  ImageStreamCompleter loadBuffer(NativeTileImage key, DecoderBufferCallback decode) {
+    return MultiFrameImageStreamCompleter(
+      codec: _load(key, decode),
+      scale: 1.0,
+      debugLabel: '$source/$z/$x/$y',
+    );
+  }
+
+  Future<ui.Codec> _load(NativeTileImage key, DecoderBufferCallback decode) async {
+    final bytes = await NavicHardwareService.getMapTile(source, z, x, y);
+    if (bytes == null || bytes.isEmpty) {
+      // Let a later pan retry once the tile is reachable
+      PaintingBinding.instance.imageCache.evict(key);
+      throw StateError('Tile $source/$z/$x/$y unavailable');
+    }
+    return decode(await ui.ImmutableBuffer.fromUint8List(bytes));
+  }
+
+  @override
+  bool operator ==(Object other) {
+    return other is NativeTileImage && other.source == source && other.z == z && other.x == x && other.y == y;
+  }
+
+  @override
+  int get hashCode => Object.hash(source, z, x, y);
+}